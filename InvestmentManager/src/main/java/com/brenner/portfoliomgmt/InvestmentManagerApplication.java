@@ -6,6 +6,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot Base Class
@@ -14,6 +15,7 @@ import org.springframework.boot.web.servlet.support.SpringBootServletInitializer
  *
  */
 @SpringBootApplication
+@EnableScheduling
 @MapperScan(basePackages = { "com.brenner.portfoliomgmt.data.mapping" }, annotationClass = Mapper.class)
 public class InvestmentManagerApplication extends SpringBootServletInitializer {
 	
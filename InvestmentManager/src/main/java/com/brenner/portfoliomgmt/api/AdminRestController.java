@@ -0,0 +1,63 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.api;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brenner.portfoliomgmt.exception.InvestmentManagerServiceException;
+import com.brenner.portfoliomgmt.reporting.BucketBackfillReport;
+import com.brenner.portfoliomgmt.reporting.BucketSnapshotJob;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
+import com.brenner.portfoliomgmt.reporting.RollupRebuildReport;
+
+/**
+ * API access to maintenance operations.
+ * 
+ * @author dbrenner
+ * 
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Secured("ROLE_ADMIN")
+public class AdminRestController {
+    
+    @Autowired PortfolioRollupEngine portfolioRollupEngine;
+    
+    @Autowired BucketSnapshotJob bucketSnapshotJob;
+	
+	/**
+	 * Recomputes the whole portfolio value series read by the portfolio charts.
+	 * 
+	 * @return {@link RollupRebuildReport} with the rows written and the time taken
+	 */
+	@PostMapping(path="/rollup/rebuild")
+	public RollupRebuildReport rebuildRollup() {
+		
+		return this.portfolioRollupEngine.rebuild();
+	}
+	
+	/**
+	 * Reconstructs the bucket snapshots of every quoted date in a range.
+	 * 
+	 * @param from - first date, yyyy-MM-dd
+	 * @param to - last date, yyyy-MM-dd
+	 * @return {@link BucketBackfillReport} with the snapshots written and the time taken
+	 * @throws InvestmentManagerServiceException - when part of the range could not be written
+	 */
+	@PostMapping(path="/buckets/backfill")
+	public BucketBackfillReport backfillBuckets(@RequestParam @DateTimeFormat(iso=ISO.DATE) Date from, 
+			@RequestParam @DateTimeFormat(iso=ISO.DATE) Date to) throws InvestmentManagerServiceException {
+		
+		return this.bucketSnapshotJob.backfill(from, to);
+	}
+}
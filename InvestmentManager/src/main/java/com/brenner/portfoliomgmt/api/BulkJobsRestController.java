@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.api;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.brenner.portfoliomgmt.batch.BulkJobStatus;
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.holdings.HoldingsUploadBatchConfig;
+import com.brenner.portfoliomgmt.batch.investments.InvestmentsUploadBatchConfig;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadBatchConfig;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.exception.NotFoundException;
+
+/**
+ * API access to the progress of bulk upload jobs and to restarting the ones that failed.
+ *
+ * @author dbrenner
+ *
+ */
+@RestController
+@RequestMapping("/api/bulk")
+public class BulkJobsRestController {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkJobsRestController.class);
+
+	@Autowired
+	JobExplorer jobExplorer;
+
+	@Autowired
+	HoldingsUploadBatchConfig holdingsUploadBatchConfig;
+
+	@Autowired
+	InvestmentsUploadBatchConfig investmentsUploadBatchConfig;
+
+	@Autowired
+	QuotesUploadBatchConfig quotesUploadBatchConfig;
+
+	/**
+	 * GET access to the progress of an upload job, polled while the job runs.
+	 *
+	 * @param jobExecutionId - the execution returned when the upload was submitted
+	 * @return {@link BulkJobStatus} with the counts and throughput stored so far
+	 */
+	@GetMapping(path="/jobs/{jobExecutionId}", produces={"application/JSON"})
+	public BulkJobStatus getJobStatus(@PathVariable Long jobExecutionId) {
+		log.info("Entered getJobStatus()");
+		log.debug("Param: jobExecutionId: {}", jobExecutionId);
+
+		BulkJobStatus jobStatus = BulkJobStatus.from(this.findJobExecution(jobExecutionId));
+
+		log.debug("Returning job status: {} read {}", jobStatus.getStatus(), jobStatus.getReadCount());
+		log.info("Exiting getJobStatus()");
+
+		return jobStatus;
+	}
+
+	/**
+	 * POST to restart an upload job that did not complete. The job instance resumes from the last chunk its steps
+	 * committed, the rows before it are not imported again.
+	 *
+	 * @param jobExecutionId - an execution of the job to restart
+	 * @return {@link BulkJobStatus} of the new execution
+	 */
+	@PostMapping(path="/jobs/{jobExecutionId}/restart", produces={"application/JSON"})
+	public BulkJobStatus restartJob(@PathVariable Long jobExecutionId) {
+		log.info("Entered restartJob()");
+		log.debug("Param: jobExecutionId: {}", jobExecutionId);
+
+		JobExecution jobExecution = this.findJobExecution(jobExecutionId);
+		if (jobExecution.getStatus() != BatchStatus.FAILED && jobExecution.getStatus() != BatchStatus.STOPPED) {
+			throw new InvalidRequestException("Job execution " + jobExecutionId + " is " + jobExecution.getStatus()
+					+ ", only failed or stopped jobs are restarted.");
+		}
+
+		String uploadName = jobExecution.getJobParameters().getString(BulkUploadJobLauncher.UPLOAD_NAME);
+		String uploadFile = jobExecution.getJobParameters().getString(BulkUploadJobLauncher.UPLOAD_FILE);
+		if (uploadFile == null || ! Files.exists(Path.of(uploadFile))) {
+			throw new InvalidRequestException("The upload of job execution " + jobExecutionId + " is no longer available.");
+		}
+
+		Path file = Path.of(uploadFile);
+		String jobName = jobExecution.getJobInstance().getJobName();
+		JobExecution restarted;
+		switch (jobName) {
+			case "importTransactionsJob":
+				restarted = this.holdingsUploadBatchConfig.runJob(file, uploadName);
+				break;
+			case "importInvestmentsJob":
+				restarted = this.investmentsUploadBatchConfig.runJob(file, uploadName);
+				break;
+			case "importQuotesJob":
+				restarted = this.quotesUploadBatchConfig.runJob(file, uploadName);
+				break;
+			case "importQuotesPartitionedJob":
+				restarted = this.quotesUploadBatchConfig.runPartitionedJob(file, uploadName);
+				break;
+			default:
+				throw new InvalidRequestException("Job " + jobName + " is not a bulk upload.");
+		}
+
+		BulkJobStatus jobStatus = BulkJobStatus.from(restarted);
+
+		log.debug("Restarted {} as job execution {}", jobName, jobStatus.getJobExecutionId());
+		log.info("Exiting restartJob()");
+
+		return jobStatus;
+	}
+
+	private JobExecution findJobExecution(Long jobExecutionId) {
+
+		JobExecution jobExecution = this.jobExplorer.getJobExecution(jobExecutionId);
+		if (jobExecution == null) {
+			throw new NotFoundException("Job execution with id " + jobExecutionId + " does not exist.");
+		}
+		return jobExecution;
+	}
+}
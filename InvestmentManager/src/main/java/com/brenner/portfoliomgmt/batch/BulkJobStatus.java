@@ -0,0 +1,168 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.util.Date;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import com.fasterxml.jackson.annotation.JsonRootName;
+
+/**
+ * Progress of a bulk upload job as stored in the job repository. The counts are the sums over the job's top level
+ * steps, partitions are already summed into their manager step. Throughput is rows read per second since the job
+ * started, up to now while it is still running.
+ *
+ * @author dbrenner
+ *
+ */
+@JsonRootName(value="bulkJobStatus")
+public class BulkJobStatus {
+
+	private Long jobExecutionId;
+
+	private String jobName;
+
+	private String status;
+
+	private String exitCode;
+
+	private Date startTime;
+
+	private Date endTime;
+
+	private long readCount;
+
+	private long writeCount;
+
+	private long skipCount;
+
+	private long filterCount;
+
+	private long rowsPerSecond;
+
+	public BulkJobStatus() {}
+
+	/**
+	 * @param jobExecution - execution read from the job repository, with its step executions
+	 * @return the progress of the execution
+	 */
+	public static BulkJobStatus from(JobExecution jobExecution) {
+
+		BulkJobStatus jobStatus = new BulkJobStatus();
+		jobStatus.jobExecutionId = jobExecution.getId();
+		jobStatus.jobName = jobExecution.getJobInstance() != null ? jobExecution.getJobInstance().getJobName() : null;
+		jobStatus.status = jobExecution.getStatus().name();
+		jobStatus.exitCode = jobExecution.getExitStatus().getExitCode();
+		jobStatus.startTime = jobExecution.getStartTime();
+		jobStatus.endTime = jobExecution.getEndTime();
+
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			if (stepExecution.getStepName().contains(":")) {
+				continue;
+			}
+			jobStatus.readCount += stepExecution.getReadCount();
+			jobStatus.writeCount += stepExecution.getWriteCount();
+			jobStatus.skipCount += stepExecution.getSkipCount();
+			jobStatus.filterCount += stepExecution.getFilterCount();
+		}
+
+		if (jobStatus.startTime != null) {
+			long end = jobStatus.endTime != null ? jobStatus.endTime.getTime() : System.currentTimeMillis();
+			long millis = Math.max(end - jobStatus.startTime.getTime(), 1);
+			jobStatus.rowsPerSecond = jobStatus.readCount * 1000L / millis;
+		}
+
+		return jobStatus;
+	}
+
+	public Long getJobExecutionId() {
+		return jobExecutionId;
+	}
+
+	public void setJobExecutionId(Long jobExecutionId) {
+		this.jobExecutionId = jobExecutionId;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getExitCode() {
+		return exitCode;
+	}
+
+	public void setExitCode(String exitCode) {
+		this.exitCode = exitCode;
+	}
+
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	public void setStartTime(Date startTime) {
+		this.startTime = startTime;
+	}
+
+	public Date getEndTime() {
+		return endTime;
+	}
+
+	public void setEndTime(Date endTime) {
+		this.endTime = endTime;
+	}
+
+	public long getReadCount() {
+		return readCount;
+	}
+
+	public void setReadCount(long readCount) {
+		this.readCount = readCount;
+	}
+
+	public long getWriteCount() {
+		return writeCount;
+	}
+
+	public void setWriteCount(long writeCount) {
+		this.writeCount = writeCount;
+	}
+
+	public long getSkipCount() {
+		return skipCount;
+	}
+
+	public void setSkipCount(long skipCount) {
+		this.skipCount = skipCount;
+	}
+
+	public long getFilterCount() {
+		return filterCount;
+	}
+
+	public void setFilterCount(long filterCount) {
+		this.filterCount = filterCount;
+	}
+
+	public long getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	public void setRowsPerSecond(long rowsPerSecond) {
+		this.rowsPerSecond = rowsPerSecond;
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.exception.BatchProcessingException;
+
+/**
+ * Launches bulk upload jobs off the request thread. The job is started on a small pool of its own and the launch
+ * returns the new {@link JobExecution} right away, its progress is then read back from the job repository by id.
+ *
+ * Launching an upload that failed again with the same parameters restarts its job instance from the last committed
+ * chunk.
+ *
+ * The launcher is kept out of the context so the synchronous JobLauncher of @EnableBatchProcessing stays the only
+ * one.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class BulkUploadJobLauncher {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkUploadJobLauncher.class);
+
+	/**
+	 * Job parameter holding the name of the upload
+	 */
+	public static final String UPLOAD_NAME = "upload";
+
+	/**
+	 * Job parameter holding the spooled upload, together with the name it identifies the job instance
+	 */
+	public static final String UPLOAD_FILE = "file";
+
+	@Autowired
+	JobRepository jobRepository;
+
+	/**
+	 * Upload jobs run at the same time, later uploads queue
+	 */
+	@Value("${batch.upload.concurrent-jobs:2}")
+	int concurrentJobs = 2;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private SimpleJobLauncher launcher;
+
+	@PostConstruct
+	void init() throws Exception {
+
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(this.concurrentJobs);
+		this.executor.setMaxPoolSize(this.concurrentJobs);
+		this.executor.setThreadNamePrefix("bulk-upload-");
+		this.executor.initialize();
+
+		this.launcher = new SimpleJobLauncher();
+		this.launcher.setJobRepository(this.jobRepository);
+		this.launcher.setTaskExecutor(this.executor);
+		this.launcher.afterPropertiesSet();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * @param job - the upload job
+	 * @param jobParameters - parameters identifying the upload
+	 * @return the execution of the job, started or queued; a restart when the job instance failed before
+	 * @throws BatchProcessingException - when the job could not be launched
+	 */
+	public JobExecution launch(Job job, JobParameters jobParameters) {
+		log.info("Entered launch()");
+
+		JobExecution jobExecution;
+		try {
+			jobExecution = this.launcher.run(job, jobParameters);
+		}
+		catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
+				| JobParametersInvalidException e) {
+			log.error("Unable to launch {}", job.getName(), e);
+			throw new BatchProcessingException("Unable to launch " + job.getName() + ": " + e.getMessage());
+		}
+
+		log.debug("Launched {} as job execution {}", job.getName(), jobExecution.getId());
+		log.info("Exiting launch()");
+		return jobExecution;
+	}
+}
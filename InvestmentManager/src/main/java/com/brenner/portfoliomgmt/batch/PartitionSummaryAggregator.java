@@ -0,0 +1,52 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Aggregates the partitions of a partitioned step into the manager step: on top of the read, write, filter, skip and
+ * commit counts summed by {@link DefaultStepExecutionAggregator}, the counts kept in the partitions' execution
+ * contexts under the supplied keys are summed into the manager step's execution context. The manager step then holds
+ * the summary of the whole import.
+ *
+ * @author dbrenner
+ *
+ */
+public class PartitionSummaryAggregator extends DefaultStepExecutionAggregator {
+
+	private final List<String> countKeys;
+
+	/**
+	 * @param countKeys - execution context keys holding long counts
+	 */
+	public PartitionSummaryAggregator(String... countKeys) {
+		this.countKeys = Arrays.asList(countKeys);
+	}
+
+	@Override
+	public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+
+		super.aggregate(result, executions);
+
+		if (executions == null) {
+			return;
+		}
+
+		ExecutionContext summary = result.getExecutionContext();
+		for (String key : this.countKeys) {
+			long total = 0;
+			for (StepExecution execution : executions) {
+				total += execution.getExecutionContext().getLong(key, 0L);
+			}
+			summary.putLong(key, total);
+		}
+	}
+}
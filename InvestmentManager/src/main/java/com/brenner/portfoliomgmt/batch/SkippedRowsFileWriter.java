@@ -0,0 +1,153 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.file.FlatFileParseException;
+
+/**
+ * Writes the rows skipped by an upload step to a file, one line per row with the phase it was skipped in, its line
+ * number when it was read from the upload, the reason and the row. Each step execution writes to
+ * &lt;directory&gt;/&lt;job&gt;-&lt;job instance&gt;-&lt;step&gt;.csv, opened on its first skip and appended to by
+ * restarts of the same upload. The file is recorded in the step execution context under SKIPPED_ROWS_FILE.
+ *
+ * One instance serves all steps, including the concurrently running partitions of a partitioned step.
+ *
+ * @author dbrenner
+ *
+ */
+public class SkippedRowsFileWriter implements SkipListener<Object, Object>, StepExecutionListener {
+
+	private static final Logger log = LoggerFactory.getLogger(SkippedRowsFileWriter.class);
+
+	public static final String SKIPPED_ROWS_FILE = "skipped.rows.file";
+
+	static final String HEADER = "Phase,Line,Reason,Row";
+
+	private final Path directory;
+
+	private final Map<Long, BufferedWriter> writers = new ConcurrentHashMap<>();
+
+	/**
+	 * @param directory - directory receiving the skipped row files
+	 */
+	public SkippedRowsFileWriter(Path directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public void onSkipInRead(Throwable t) {
+
+		if (t instanceof FlatFileParseException) {
+			FlatFileParseException e = (FlatFileParseException) t;
+			// the cause carries what was wrong with the row, the exception itself only repeats the row
+			this.write("read", String.valueOf(e.getLineNumber()), reason(e.getCause() != null ? e.getCause() : e), e.getInput());
+		}
+		else {
+			this.write("read", "", reason(t), "");
+		}
+	}
+
+	@Override
+	public void onSkipInProcess(Object item, Throwable t) {
+		this.write("process", "", reason(t), String.valueOf(item));
+	}
+
+	@Override
+	public void onSkipInWrite(Object item, Throwable t) {
+		this.write("write", "", reason(t), String.valueOf(item));
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		// the file is only created once a row is skipped
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+
+		BufferedWriter writer = this.writers.remove(stepExecution.getId());
+		if (writer != null) {
+			try {
+				writer.close();
+			}
+			catch (IOException e) {
+				log.warn("Unable to close the skipped rows of {}", stepExecution.getStepName(), e);
+			}
+			log.info("Step {} skipped {} rows, written to {}", stepExecution.getStepName(), stepExecution.getSkipCount(),
+					stepExecution.getExecutionContext().getString(SKIPPED_ROWS_FILE));
+		}
+		return null;
+	}
+
+	private void write(String phase, String line, String reason, String row) {
+
+		StepContext context = StepSynchronizationManager.getContext();
+		if (context == null) {
+			log.warn("Skipped {} row outside a step: {} {}", phase, reason, row);
+			return;
+		}
+
+		StepExecution stepExecution = context.getStepExecution();
+		BufferedWriter writer = this.writers.computeIfAbsent(stepExecution.getId(), id -> open(stepExecution));
+		synchronized (writer) {
+			try {
+				writer.write(phase + "," + line + "," + quote(reason) + "," + quote(row));
+				writer.newLine();
+				writer.flush();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Unable to write a skipped row of " + stepExecution.getStepName(), e);
+			}
+		}
+	}
+
+	private BufferedWriter open(StepExecution stepExecution) {
+
+		String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+		Path file = this.directory.resolve(jobName + "-" + stepExecution.getJobExecution().getJobId() + "-"
+				+ stepExecution.getStepName().replace(':', '-') + ".csv");
+
+		try {
+			Files.createDirectories(this.directory);
+			boolean created = Files.notExists(file);
+			BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+			if (created) {
+				writer.write(HEADER);
+				writer.newLine();
+			}
+			stepExecution.getExecutionContext().putString(SKIPPED_ROWS_FILE, file.toString());
+			return writer;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to open " + file, e);
+		}
+	}
+
+	private static String reason(Throwable t) {
+		return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+	}
+
+	private static String quote(String value) {
+		return "\"" + (value != null ? value.replace("\"", "\"\"").replace('\n', ' ').replace('\r', ' ') : "") + "\"";
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+/**
+ * Removes the spooled upload and any work files of an upload job once the job completed. The files of a job that did
+ * not complete are kept for its restart.
+ *
+ * @author dbrenner
+ *
+ */
+public class UploadCleanupListener extends JobExecutionListenerSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(UploadCleanupListener.class);
+
+	private final List<Path> paths;
+
+	/**
+	 * @param paths - files or directories to remove
+	 */
+	public UploadCleanupListener(Path... paths) {
+		this.paths = Arrays.asList(paths);
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+
+		if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+			log.debug("Keeping {} of job execution {} ({})", this.paths, jobExecution.getId(), jobExecution.getStatus());
+			return;
+		}
+
+		for (Path path : this.paths) {
+			delete(path);
+		}
+	}
+
+	private static void delete(Path root) {
+
+		if (root == null || ! Files.exists(root)) {
+			return;
+		}
+
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+				try {
+					Files.deleteIfExists(path);
+				}
+				catch (IOException e) {
+					log.warn("Unable to delete {}", path, e);
+				}
+			});
+		}
+		catch (IOException e) {
+			log.warn("Unable to delete {}", root, e);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.nio.file.Path;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Skip and retry policy shared by the upload steps. Rows that cannot be parsed, that reference an unknown account or
+ * that the database rejects are skipped, up to batch.upload.skip-limit per step, and written to the skipped rows
+ * file. Chunks failing with a transient database error (lock timeouts, deadlocks, lost connections) are retried
+ * with a growing back off up to batch.upload.retry-limit times before the step fails.
+ *
+ * A failed step keeps its reader position at the last committed chunk, launching the upload again with the same
+ * parameters restarts it from there.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class UploadFaultTolerance {
+
+	/**
+	 * Rows skipped per step before the step fails
+	 */
+	@Value("${batch.upload.skip-limit:1000}")
+	int skipLimit = 1000;
+
+	/**
+	 * Attempts of a chunk failing with a transient database error
+	 */
+	@Value("${batch.upload.retry-limit:3}")
+	int retryLimit = 3;
+
+	/**
+	 * Directory receiving the skipped rows of the upload steps
+	 */
+	@Value("${batch.upload.skipped-rows-directory:${java.io.tmpdir}/bulk-upload-skipped}")
+	String skippedRowsDirectory;
+
+	private SkippedRowsFileWriter skippedRowsWriter;
+
+	@PostConstruct
+	void init() {
+		this.skippedRowsWriter = new SkippedRowsFileWriter(Path.of(this.skippedRowsDirectory));
+	}
+
+	/**
+	 * @param step - the chunk step of an upload
+	 * @return the step made fault tolerant with the upload skip and retry policy
+	 */
+	public <I, O> FaultTolerantStepBuilder<I, O> apply(SimpleStepBuilder<I, O> step) {
+
+		ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+		backOffPolicy.setInitialInterval(200);
+		backOffPolicy.setMaxInterval(5000);
+
+		FaultTolerantStepBuilder<I, O> faultTolerant = step.faultTolerant()
+				.skip(FlatFileParseException.class)
+				.skip(InvalidRequestException.class)
+				.skip(DataIntegrityViolationException.class)
+				.skipLimit(this.skipLimit)
+				.retry(TransientDataAccessException.class)
+				.retryLimit(this.retryLimit)
+				.backOffPolicy(backOffPolicy)
+				.listener((SkipListener<Object, Object>) this.skippedRowsWriter);
+		faultTolerant.listener((StepExecutionListener) this.skippedRowsWriter);
+		return faultTolerant;
+	}
+}
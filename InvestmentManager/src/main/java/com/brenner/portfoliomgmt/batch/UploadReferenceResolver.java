@@ -0,0 +1,196 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.service.AccountsService;
+import com.brenner.portfoliomgmt.service.InvestmentsService;
+
+/**
+ * Resolves the symbols and account names of uploaded rows to their ids for the lifetime of one step execution. Names
+ * are looked up lazily, the names of a chunk that are not cached yet with one query, and the results, including names
+ * that are not stored, are kept for the later chunks of the step. The step scope, rather than the job scope, makes
+ * the resolver usable on the threads of a partitioned step, which only register their step context; each partition
+ * gets its own resolver, the quote partitions hold disjoint symbols. Investments that are missing can be created in one
+ * batch. Names resolved in a chunk transaction that rolls back are dropped again, as the investments created in it
+ * no longer exist.
+ *
+ * Names served from the cache count as hits and names that had to be looked up as misses. The counts are kept in the
+ * execution context of the current step under the *_HITS and *_MISSES keys.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+@StepScope
+public class UploadReferenceResolver {
+
+	private static final Logger log = LoggerFactory.getLogger(UploadReferenceResolver.class);
+
+	public static final String INVESTMENT_HITS = "resolver.investment.hits";
+	public static final String INVESTMENT_MISSES = "resolver.investment.misses";
+	public static final String ACCOUNT_HITS = "resolver.account.hits";
+	public static final String ACCOUNT_MISSES = "resolver.account.misses";
+
+	/**
+	 * Stands in for names that are not stored, ConcurrentHashMap does not hold null values
+	 */
+	private static final Long NOT_STORED = Long.valueOf(-1L);
+
+	@Autowired
+	InvestmentsService investmentsService;
+
+	@Autowired
+	AccountsService accountsService;
+
+	private final Map<String, Long> investmentIds = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> accountIds = new ConcurrentHashMap<>();
+
+	/**
+	 * @param investments - investments to resolve, each must carry a symbol
+	 * @param createMissing - true to insert the investments that are not stored
+	 * @return the investment ids keyed by symbol, symbols that are not stored (and were not created) are absent
+	 */
+	public Map<String, Long> resolveInvestmentIds(Collection<Investment> investments, boolean createMissing) {
+
+		if (investments == null) {
+			throw new InvalidRequestException("investments must be non-null");
+		}
+
+		Map<String, Investment> bySymbol = new LinkedHashMap<>();
+		for (Investment investment : investments) {
+			if (investment == null || investment.getSymbol() == null) {
+				throw new InvalidRequestException("investment.symbol must be non-null");
+			}
+			bySymbol.putIfAbsent(investment.getSymbol(), investment);
+		}
+
+		Set<String> uncached = new LinkedHashSet<>();
+		for (String symbol : bySymbol.keySet()) {
+			Long investmentId = this.investmentIds.get(symbol);
+			if (investmentId == null || (createMissing && NOT_STORED.equals(investmentId))) {
+				uncached.add(symbol);
+			}
+		}
+		count(INVESTMENT_HITS, bySymbol.size() - uncached.size());
+		count(INVESTMENT_MISSES, uncached.size());
+
+		if (! uncached.isEmpty()) {
+			Map<String, Long> found;
+			if (createMissing) {
+				Map<String, Investment> missing = new LinkedHashMap<>(bySymbol);
+				missing.keySet().retainAll(uncached);
+				found = this.investmentsService.saveMissingInvestments(missing.values());
+			}
+			else {
+				found = this.investmentsService.findInvestmentIdsBySymbol(uncached);
+			}
+
+			for (String symbol : uncached) {
+				this.investmentIds.put(symbol, found.getOrDefault(symbol, NOT_STORED));
+			}
+			forgetOnRollback(this.investmentIds, uncached);
+			log.debug("Resolved {} of {} uncached symbols", found.size(), uncached.size());
+		}
+
+		return stored(bySymbol.keySet(), this.investmentIds);
+	}
+
+	/**
+	 * @param accountNames - account names to resolve
+	 * @return the account ids keyed by account name, names that are null or not stored are absent
+	 */
+	public Map<String, Long> resolveAccountIds(Collection<String> accountNames) {
+
+		if (accountNames == null) {
+			throw new InvalidRequestException("accountNames must be non-null");
+		}
+
+		Set<String> names = new LinkedHashSet<>(accountNames);
+		names.remove(null);
+		Set<String> uncached = new LinkedHashSet<>();
+		for (String name : names) {
+			if (! this.accountIds.containsKey(name)) {
+				uncached.add(name);
+			}
+		}
+		count(ACCOUNT_HITS, names.size() - uncached.size());
+		count(ACCOUNT_MISSES, uncached.size());
+
+		if (! uncached.isEmpty()) {
+			Map<String, Long> found = this.accountsService.findAccountIdsByAccountName(uncached);
+			for (String name : uncached) {
+				this.accountIds.put(name, found.getOrDefault(name, NOT_STORED));
+			}
+			forgetOnRollback(this.accountIds, uncached);
+		}
+
+		return stored(names, this.accountIds);
+	}
+
+	private static void forgetOnRollback(Map<String, Long> cache, Set<String> names) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status != STATUS_COMMITTED) {
+						cache.keySet().removeAll(names);
+					}
+				}
+			});
+		}
+	}
+
+	private static Map<String, Long> stored(Collection<String> names, Map<String, Long> cache) {
+
+		Map<String, Long> ids = new HashMap<>();
+		for (String name : names) {
+			Long id = cache.get(name);
+			if (id != null && ! NOT_STORED.equals(id)) {
+				ids.put(name, id);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Adds to a count in the execution context of the current step, a no-op outside a step.
+	 */
+	private static void count(String key, long delta) {
+
+		StepContext context = StepSynchronizationManager.getContext();
+		if (context == null || delta == 0) {
+			return;
+		}
+
+		StepExecution stepExecution = context.getStepExecution();
+		ExecutionContext executionContext = stepExecution.getExecutionContext();
+		synchronized (executionContext) {
+			executionContext.putLong(key, executionContext.getLong(key, 0L) + delta);
+		}
+	}
+}
@@ -1,27 +1,25 @@
 package com.brenner.portfoliomgmt.batch.holdings;
 
-import java.util.List;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.listener.JobExecutionListenerSupport;
-import org.springframework.batch.item.support.ListItemWriter;
 
 public class HoldingsJobCompletionNotificationListener extends JobExecutionListenerSupport {
-    
-    ListItemWriter<NewHoldingsUploadRowInstance> writer;
-    
-    HoldingsJobCompletionNotificationListener(ListItemWriter<NewHoldingsUploadRowInstance> writer) {
-        this.writer = writer;
-    }
+	
+	private static final Logger log = LoggerFactory.getLogger(HoldingsJobCompletionNotificationListener.class);
     
     @Override
     public void afterJob(JobExecution jobExecution) {
         if(jobExecution.getStatus() == BatchStatus.COMPLETED) {
             
-            @SuppressWarnings("unchecked") 
-			List<NewHoldingsUploadRowInstance> rowDataList = (List<NewHoldingsUploadRowInstance>) writer.getWrittenItems();
-            rowDataList.forEach(System.out::println);
+        	// the rows are not kept once written, report the step counts instead
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            	log.info("Holdings upload step {} read {} and wrote {} rows", stepExecution.getStepName(),
+            			stepExecution.getReadCount(), stepExecution.getWriteCount());
+            }
         } 
     }
 }
@@ -3,30 +3,31 @@
  */
 package com.brenner.portfoliomgmt.batch.holdings;
 
-import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.batch.item.support.ListItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.UploadCleanupListener;
+import com.brenner.portfoliomgmt.batch.UploadFaultTolerance;
+import com.brenner.portfoliomgmt.domain.Holding;
 
 /**
  *
@@ -44,12 +45,22 @@ public class HoldingsUploadBatchConfig {
     public StepBuilderFactory stepBuilderFactory;
     
     @Autowired
-    JobLauncher launcher;
+    BulkUploadJobLauncher launcher;
     
     protected static final String[] COLUMN_NAMES = new String[]{"Account Name", "Investment", "Date of Data", "Acquired", "Term", 
     		"$ Total Gain/Loss", "% Total Gain/Loss", "Current Value", "Quantity", "Cost Basis Per Share", "Cost Basis"};
     
-    ListItemWriter<NewHoldingsUploadRowInstance> writer = new ListItemWriter<>();
+    @Autowired
+    HoldingsUploadItemWriter writer;
+    
+    @Autowired
+    UploadFaultTolerance faultTolerance;
+    
+    /**
+     * Rows read, processed and written per chunk transaction
+     */
+    @Value("${batch.upload.chunk-size:1000}")
+    int chunkSize = 1000;
     
     @Bean
     HoldingsUploadRowProcessor processor() {
@@ -58,51 +69,47 @@ public class HoldingsUploadBatchConfig {
     
     @Bean
     JobExecutionListener listener() {
-    	return new HoldingsJobCompletionNotificationListener(writer);
+    	return new HoldingsJobCompletionNotificationListener();
     }
 	
 	public HoldingsUploadBatchConfig() {}
 	
-	public void runJob(InputStream inStream, String jobName) {
-		init(inStream, jobName);
+	/**
+	 * Launches the import of a spooled upload in the background.
+	 * 
+	 * @param file - the upload, removed once the job completed
+	 * @param jobName - name of the upload
+	 * @return the execution of the import, its progress is read back by id
+	 */
+	public JobExecution runJob(Path file, String jobName) {
+		return init(file, jobName);
 	}
 	
-	private void init(InputStream inStream, String jobName) {
+	private JobExecution init(Path file, String jobName) {
 		
-		Step step1 = stepBuilderFactory.get("step1")
-                .<NewHoldingsUploadRowInstance, NewHoldingsUploadRowInstance>chunk(2)
-                .reader(reader(inStream))
+		Step step1 = faultTolerance.apply(stepBuilderFactory.get("step1")
+                .<NewHoldingsUploadRowInstance, Holding>chunk(this.chunkSize)
+                .reader(reader(new FileSystemResource(file)))
                 .processor(processor())
-                .writer(writer)
+                .writer(writer))
                 .build();
     	
     	Job job = jobBuilderFactory.get("importTransactionsJob")
-                .incrementer(new RunIdIncrementer())
                 .listener(listener())
+                .listener(new UploadCleanupListener(file))
                 .flow(step1)
                 .end()
                 .build();
     	
-    	JobParameters jobParams = new JobParametersBuilder().addString("transactionsBatch", jobName).toJobParameters();
+    	JobParameters jobParams = new JobParametersBuilder()
+    			.addString(BulkUploadJobLauncher.UPLOAD_NAME, jobName)
+    			.addString(BulkUploadJobLauncher.UPLOAD_FILE, file.toString())
+    			.toJobParameters();
     	
-    	try {
-			this.launcher.run(job, jobParams);
-		} catch (JobExecutionAlreadyRunningException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobRestartException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobInstanceAlreadyCompleteException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobParametersInvalidException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+    	return this.launcher.launch(job, jobParams);
 	}
     
-    FlatFileItemReader<NewHoldingsUploadRowInstance> reader(InputStream inStream) {
+    FlatFileItemReader<NewHoldingsUploadRowInstance> reader(Resource resource) {
     	
     	FlatFileItemReader<NewHoldingsUploadRowInstance> reader = new FlatFileItemReader<>();
     	DefaultLineMapper<NewHoldingsUploadRowInstance> lineMapper = new DefaultLineMapper<>();
@@ -110,7 +117,7 @@ public class HoldingsUploadBatchConfig {
         lineMapper.setLineTokenizer(tokenizer);
         tokenizer.setNames(COLUMN_NAMES);
         lineMapper.setFieldSetMapper(new HoldingsUploadFieldSetMapper());
-        reader.setResource(new InputStreamResource(inStream));
+        reader.setResource(resource);
         reader.setLineMapper(lineMapper);
         reader.setLinesToSkip(1);
         reader.setName("TransactionsCsvReader");
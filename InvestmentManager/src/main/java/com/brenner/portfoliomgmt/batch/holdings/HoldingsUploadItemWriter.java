@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.batch.holdings;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.domain.Holding;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.service.HoldingsService;
+
+/**
+ * Writes a chunk of uploaded holdings: the account names and symbols of the chunk are resolved through the step's
+ * {@link UploadReferenceResolver}, which inserts the investments that are not yet stored in one batch, and the
+ * holdings and their transactions are inserted in JDBC batches through {@link HoldingsService#addHoldings(List)}. A
+ * row naming an unknown account fails the chunk.
+ *
+ * @author dbrenner
+ * 
+ */
+@Component
+public class HoldingsUploadItemWriter implements ItemWriter<Holding> {
+	
+	@Autowired UploadReferenceResolver referenceResolver;
+	@Autowired HoldingsService holdingsService;
+
+	@Override
+	public void write(List<? extends Holding> items) throws Exception {
+		
+		Set<String> accountNames = new HashSet<>();
+		List<Investment> investments = new ArrayList<>(items.size());
+		for (Holding holding : items) {
+			accountNames.add(holding.getAccount().getAccountName());
+			investments.add(holding.getInvestment());
+		}
+		
+		Map<String, Long> accountIds = this.referenceResolver.resolveAccountIds(accountNames);
+		for (Holding holding : items) {
+			Long accountId = accountIds.get(holding.getAccount().getAccountName());
+			if (accountId == null) {
+				throw new InvalidRequestException("Unable to locate account with name: " + holding.getAccount().getAccountName());
+			}
+			holding.getAccount().setAccountId(accountId);
+		}
+		
+		Map<String, Long> investmentIds = this.referenceResolver.resolveInvestmentIds(investments, true);
+		for (Holding holding : items) {
+			holding.getInvestment().setInvestmentId(investmentIds.get(holding.getInvestment().getSymbol()));
+		}
+		
+		this.holdingsService.addHoldings(new ArrayList<>(items));
+	}
+
+}
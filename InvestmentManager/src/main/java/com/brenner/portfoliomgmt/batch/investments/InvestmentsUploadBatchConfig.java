@@ -3,30 +3,31 @@
  */
 package com.brenner.portfoliomgmt.batch.investments;
 
-import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.batch.item.support.ListItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.UploadCleanupListener;
+import com.brenner.portfoliomgmt.batch.UploadFaultTolerance;
+import com.brenner.portfoliomgmt.domain.Quote;
 
 /**
  *
@@ -44,13 +45,23 @@ public class InvestmentsUploadBatchConfig {
     public StepBuilderFactory stepBuilderFactory;
     
     @Autowired
-    JobLauncher launcher;
+    BulkUploadJobLauncher launcher;
     
     protected static final String[] COLUMN_NAMES = new String[]{"Account Number", "Account Name", "Symbol", "Description", 
     		"Quantity", "Last Price", "Last Price Change", "Current Value", "Today's Gain/Loss Dollar", "Today's Gain/Loss Percent", 
     		"Total Gain/Loss Dollar", "Total Gain/Loss Percent", "Percent Of Account", "Cost Basis", "Cost Basis Per Share", "Type"};
     
-    ListItemWriter<InvestmentsUploadRowInstance> writer = new ListItemWriter<>();
+    @Autowired
+    InvestmentsUploadItemWriter writer;
+    
+    @Autowired
+    UploadFaultTolerance faultTolerance;
+    
+    /**
+     * Rows read, processed and written per chunk transaction
+     */
+    @Value("${batch.upload.chunk-size:1000}")
+    int chunkSize = 1000;
     
     @Bean
     InvestmentsUploadRowProcessor rowProcessor() {
@@ -63,46 +74,42 @@ public class InvestmentsUploadBatchConfig {
     
     public InvestmentsUploadBatchConfig() {}
     
-    public void runJob(InputStream inStream, String jobName) {
-		init(inStream, jobName);
+    /**
+	 * Launches the import of a spooled upload in the background.
+	 * 
+	 * @param file - the upload, removed once the job completed
+	 * @param jobName - name of the upload
+	 * @return the execution of the import, its progress is read back by id
+	 */
+	public JobExecution runJob(Path file, String jobName) {
+		return init(file, jobName);
 	}
 	
-	private void init(InputStream inStream, String jobName) {
+	private JobExecution init(Path file, String jobName) {
 		
-		Step step1 = stepBuilderFactory.get("step1")
-                .<InvestmentsUploadRowInstance, InvestmentsUploadRowInstance>chunk(2)
-                .reader(reader(inStream))
+		Step step1 = faultTolerance.apply(stepBuilderFactory.get("step1")
+                .<InvestmentsUploadRowInstance, Quote>chunk(this.chunkSize)
+                .reader(reader(new FileSystemResource(file)))
                 .processor(rowProcessor())
-                .writer(writer)
+                .writer(writer))
                 .build();
     	
     	Job job = jobBuilderFactory.get("importInvestmentsJob")
-                .incrementer(new RunIdIncrementer())
                 .listener(listener())
+                .listener(new UploadCleanupListener(file))
                 .flow(step1)
                 .end()
                 .build();
     	
-    	JobParameters jobParams = new JobParametersBuilder().addString("importInvestmentsJob", jobName).toJobParameters();
+    	JobParameters jobParams = new JobParametersBuilder()
+    			.addString(BulkUploadJobLauncher.UPLOAD_NAME, jobName)
+    			.addString(BulkUploadJobLauncher.UPLOAD_FILE, file.toString())
+    			.toJobParameters();
     	
-    	try {
-			this.launcher.run(job, jobParams);
-		} catch (JobExecutionAlreadyRunningException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobRestartException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobInstanceAlreadyCompleteException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobParametersInvalidException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+    	return this.launcher.launch(job, jobParams);
 	}
     
-    FlatFileItemReader<InvestmentsUploadRowInstance> reader(InputStream inStream) {
+    FlatFileItemReader<InvestmentsUploadRowInstance> reader(Resource resource) {
     	
     	FlatFileItemReader<InvestmentsUploadRowInstance> reader = new FlatFileItemReader<>();
     	DefaultLineMapper<InvestmentsUploadRowInstance> lineMapper = new DefaultLineMapper<>();
@@ -110,7 +117,7 @@ public class InvestmentsUploadBatchConfig {
         lineMapper.setLineTokenizer(tokenizer);
         tokenizer.setNames(COLUMN_NAMES);
         lineMapper.setFieldSetMapper(new InvestmentsUploadFieldSetMapper());
-        reader.setResource(new InputStreamResource(inStream));
+        reader.setResource(resource);
         reader.setLineMapper(lineMapper);
         reader.setLinesToSkip(1);
         reader.setName("InvestmentsCsvReader");
@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.batch.investments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.service.QuotesService;
+
+/**
+ * Writes a chunk of uploaded positions: the symbols of the chunk are resolved through the step's
+ * {@link UploadReferenceResolver}, which inserts the investments that are not yet stored in one batch, and the last
+ * price quotes are upserted in JDBC batches through {@link QuotesService#addQuotes(List)}.
+ *
+ * @author dbrenner
+ * 
+ */
+@Component
+public class InvestmentsUploadItemWriter implements ItemWriter<Quote> {
+	
+	@Autowired UploadReferenceResolver referenceResolver;
+	@Autowired QuotesService quotesService;
+
+	@Override
+	public void write(List<? extends Quote> items) throws Exception {
+		
+		List<Investment> investments = new ArrayList<>(items.size());
+		for (Quote quote : items) {
+			investments.add(quote.getInvestment());
+		}
+		Map<String, Long> investmentIds = this.referenceResolver.resolveInvestmentIds(investments, true);
+		
+		for (Quote quote : items) {
+			quote.getInvestment().setInvestmentId(investmentIds.get(quote.getInvestment().getSymbol()));
+		}
+		
+		this.quotesService.addQuotes(new ArrayList<>(items));
+	}
+
+}
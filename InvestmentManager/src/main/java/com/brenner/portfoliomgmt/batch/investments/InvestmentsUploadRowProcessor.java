@@ -3,51 +3,33 @@
  */
 package com.brenner.portfoliomgmt.batch.investments;
 
-import java.util.Optional;
-
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
 
 import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.domain.Quote;
-import com.brenner.portfoliomgmt.service.InvestmentsService;
-import com.brenner.portfoliomgmt.service.QuotesService;
 
 /**
+ * Maps an uploaded position row to the {@link Quote} of its last price. The quote's investment carries the row's symbol
+ * and description, the {@link InvestmentsUploadItemWriter} creates the investments that are not yet stored.
  *
  * @author dbrenner
  * 
  */
-@Service
-public class InvestmentsUploadRowProcessor implements ItemProcessor<InvestmentsUploadRowInstance, InvestmentsUploadRowInstance> {
-	
-
-	@Autowired InvestmentsService investmentsService;
-	@Autowired QuotesService quotesService;
+public class InvestmentsUploadRowProcessor implements ItemProcessor<InvestmentsUploadRowInstance, Quote> {
 	
 	@Override
-	public InvestmentsUploadRowInstance process(final InvestmentsUploadRowInstance item) throws Exception {
+	public Quote process(final InvestmentsUploadRowInstance item) throws Exception {
 		
 		Investment investment = new Investment();
 		investment.setSymbol(item.getSymbol());
 		investment.setCompanyName(item.getName());
 		
-		Optional<Investment> optInv = this.investmentsService.findInvestmentBySymbol(item.getSymbol());
-		if (optInv.isEmpty()) {
-			investment = this.investmentsService.saveInvestment(investment);
-		}
-		else {
-			investment = optInv.get();
-		}
-		
 		Quote quote = new Quote();
 		quote.setDate(item.getDate());
 		quote.setClose(item.getLastPrice());
 		quote.setInvestment(investment);
-		this.quotesService.saveQuote(quote);
 		
-		return item;
+		return quote;
 	}
 
 }
@@ -0,0 +1,90 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch.quotes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.service.QuotesService;
+
+/**
+ * Refreshes what is derived from the quotes - the latest quotes, the portfolio value series and the reports - once per
+ * quote import rather than once per chunk. The chunks of the import, on every partition thread, report the quotes they
+ * wrote through {@link #imported(Collection)}; the dates written are merged per investment and handed to
+ * {@link QuotesService#quotesImported(Collection)} when the job ends. A failed job refreshes what its committed chunks
+ * wrote, a restart refreshes what it writes itself.
+ *
+ * Dates written by a chunk that later rolls back are still refreshed, recomputing them leaves the values unchanged.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class QuotesImportRefreshListener extends JobExecutionListenerSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(QuotesImportRefreshListener.class);
+
+	@Autowired
+	QuotesService quotesService;
+
+	/**
+	 * Dates written per investment, keyed by job execution id
+	 */
+	private final Map<Long, Map<Long, DailyValueSlice>> importedByJob = new ConcurrentHashMap<>();
+
+	/**
+	 * Records the dates written by a chunk of the current job. Outside a step the derived data is refreshed at once.
+	 *
+	 * @param quotes - the quotes written, each with its investment id
+	 */
+	public void imported(Collection<Quote> quotes) {
+
+		StepContext context = StepSynchronizationManager.getContext();
+		Map<Long, DailyValueSlice> imported = context != null ?
+				this.importedByJob.computeIfAbsent(context.getStepExecution().getJobExecutionId(), id -> new ConcurrentHashMap<>()) :
+					new ConcurrentHashMap<>();
+
+		for (Quote quote : quotes) {
+			Long investmentId = quote.getInvestment().getInvestmentId();
+			imported.merge(investmentId, DailyValueSlice.dates(investmentId, quote.getDate(), quote.getDate()), DailyValueSlice::merge);
+		}
+
+		if (context == null) {
+			this.quotesService.quotesImported(imported.values());
+		}
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+
+		Map<Long, DailyValueSlice> imported = this.importedByJob.remove(jobExecution.getId());
+		if (imported == null) {
+			return;
+		}
+
+		try {
+			this.quotesService.quotesImported(new ArrayList<>(imported.values()));
+			log.debug("Refreshed the latest quotes and daily values of {} imported investments", imported.size());
+		}
+		// the quotes are committed, a failure leaves stale derived data until the next change or rebuild
+		catch (DataAccessException | TransactionException e) {
+			log.error("Unable to refresh the data derived from the quotes imported by job {}", jobExecution.getId(), e);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch.quotes;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+/**
+ * Splits a quote history CSV into one file per partition in a single sequential pass. Rows are assigned by the hash
+ * of their symbol, so every quote of an investment is written by the same partition and partitions never update the
+ * same investment's latest quote concurrently. Each partition file repeats the header line and is read by its own
+ * reader.
+ *
+ * Once the split completed the work directory is marked as split. A restarted job reuses the partition files found
+ * there, the partitions that did not complete resume from the positions their readers stored.
+ *
+ * @author dbrenner
+ *
+ */
+public class QuotesSymbolPartitioner implements Partitioner {
+
+	private static final Logger log = LoggerFactory.getLogger(QuotesSymbolPartitioner.class);
+
+	public static final String PARTITION_FILE = "file";
+
+	public static final String PARTITION_INDEX = "partition";
+
+	static final String PARTITION_NAME_PREFIX = "partition";
+
+	static final String SPLIT_MARKER = ".split";
+
+	private final Path input;
+
+	private final Path workDirectory;
+
+	private final DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",");
+
+	/**
+	 * @param input - the uploaded CSV, its first line is a header
+	 * @param workDirectory - directory receiving the partition files
+	 */
+	public QuotesSymbolPartitioner(Path input, Path workDirectory) {
+		this.input = input;
+		this.workDirectory = workDirectory;
+		this.tokenizer.setStrict(false);
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		log.info("Entered partition()");
+
+		int partitions = Math.max(gridSize, 1);
+		Path[] files = Files.exists(this.workDirectory.resolve(SPLIT_MARKER)) ? this.existingPartitions(partitions) : this.split(partitions);
+
+		Map<String, ExecutionContext> contexts = new HashMap<>();
+		for (int i=0; i<partitions; i++) {
+			// partitions without rows are not run
+			if (files[i] != null) {
+				ExecutionContext context = new ExecutionContext();
+				context.putString(PARTITION_FILE, files[i].toString());
+				context.putInt(PARTITION_INDEX, i);
+				contexts.put(PARTITION_NAME_PREFIX + i, context);
+			}
+		}
+
+		log.debug("{} partitioned into {}", this.input, contexts.size());
+		log.info("Exiting partition()");
+		return contexts;
+	}
+
+	/**
+	 * Writes the rows of the input to the partition files, files of partitions without rows are not created.
+	 */
+	private Path[] split(int partitions) {
+
+		BufferedWriter[] writers = new BufferedWriter[partitions];
+		Path[] files = new Path[partitions];
+
+		try (BufferedReader reader = Files.newBufferedReader(this.input, StandardCharsets.UTF_8)) {
+			Files.createDirectories(this.workDirectory);
+
+			String header = reader.readLine();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+
+				int partition = Math.floorMod(this.symbol(line).hashCode(), partitions);
+				if (writers[partition] == null) {
+					files[partition] = this.partitionFile(partition);
+					writers[partition] = Files.newBufferedWriter(files[partition], StandardCharsets.UTF_8);
+					writers[partition].write(header != null ? header : "");
+					writers[partition].newLine();
+				}
+				writers[partition].write(line);
+				writers[partition].newLine();
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to partition " + this.input, e);
+		}
+		finally {
+			close(writers);
+		}
+
+		try {
+			Files.createFile(this.workDirectory.resolve(SPLIT_MARKER));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Unable to mark " + this.workDirectory + " as split", e);
+		}
+		return files;
+	}
+
+	private Path[] existingPartitions(int partitions) {
+
+		log.debug("Reusing the partitions in {}", this.workDirectory);
+		Path[] files = new Path[partitions];
+		for (int i=0; i<partitions; i++) {
+			Path file = this.partitionFile(i);
+			files[i] = Files.exists(file) ? file : null;
+		}
+		return files;
+	}
+
+	private Path partitionFile(int partition) {
+		return this.workDirectory.resolve(PARTITION_NAME_PREFIX + partition + ".csv");
+	}
+
+	/**
+	 * @return the first field of the line, the symbol column of the quote upload
+	 */
+	String symbol(String line) {
+
+		// quoted fields are left to the tokenizer, plain ones are cut at the first delimiter
+		if (line.indexOf('"') < 0) {
+			int delimiter = line.indexOf(',');
+			return (delimiter < 0 ? line : line.substring(0, delimiter)).trim();
+		}
+		return this.tokenizer.tokenize(line).readString(0).trim();
+	}
+
+	private static void close(BufferedWriter[] writers) {
+
+		for (BufferedWriter writer : writers) {
+			if (writer != null) {
+				try {
+					writer.close();
+				}
+				catch (IOException e) {
+					log.warn("Unable to close partition file", e);
+				}
+			}
+		}
+	}
+}
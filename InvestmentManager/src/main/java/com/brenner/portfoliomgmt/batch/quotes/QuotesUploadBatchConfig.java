@@ -3,30 +3,35 @@
  */
 package com.brenner.portfoliomgmt.batch.quotes;
 
-import java.io.InputStream;
+import java.nio.file.Path;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
-import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.batch.item.support.ListItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.PartitionSummaryAggregator;
+import com.brenner.portfoliomgmt.batch.UploadCleanupListener;
+import com.brenner.portfoliomgmt.batch.UploadFaultTolerance;
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.domain.Quote;
 
 /**
  *
@@ -44,12 +49,31 @@ public class QuotesUploadBatchConfig {
     public StepBuilderFactory stepBuilderFactory;
     
     @Autowired
-    JobLauncher launcher;
+    BulkUploadJobLauncher launcher;
     
     protected static final String[] COLUMN_NAMES = new String[]{"Symbol", "Last Price", "Change", "Chg %", "Currency", "Market Time", 
     		"Volume", "Shares", "Avg Vol (3m)", "Day Range", "52-Wk Range", "Day Chart", "Market Cap", "Quote Date"};
     
-    ListItemWriter<QuotesUploadRowInstance> writer = new ListItemWriter<>();
+    @Autowired
+    QuotesUploadItemWriter writer;
+    
+    @Autowired
+    QuotesImportRefreshListener importRefreshListener;
+    
+    @Autowired
+    UploadFaultTolerance faultTolerance;
+    
+    /**
+     * Rows read, processed and written per chunk transaction
+     */
+    @Value("${batch.upload.chunk-size:1000}")
+    int chunkSize = 1000;
+    
+    /**
+     * Partitions of a partitioned quote history import, 0 for one per available processor
+     */
+    @Value("${batch.upload.partitions:0}")
+    int partitions = 0;
     
     @Bean
     QuotesUploadRowProcessor quotesRowProcessor() {
@@ -60,48 +84,128 @@ public class QuotesUploadBatchConfig {
     	return new QuotesUploadJobCompletionListener();
     }
     
+    @Bean
+    ThreadPoolTaskExecutor quotesImportTaskExecutor() {
+    	
+    	ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    	executor.setCorePoolSize(this.gridSize());
+    	executor.setMaxPoolSize(this.gridSize());
+    	executor.setThreadNamePrefix("quotes-import-");
+    	executor.setDaemon(true);
+    	return executor;
+    }
+    
+    /**
+     * Reads the partition file named in the step execution context, one instance per partition.
+     */
+    @Bean
+    @StepScope
+    FlatFileItemReader<QuotesUploadRowInstance> quotesPartitionReader(
+    		@Value("#{stepExecutionContext['" + QuotesSymbolPartitioner.PARTITION_FILE + "']}") String file) {
+    	
+    	FlatFileItemReader<QuotesUploadRowInstance> reader = reader(new FileSystemResource(file));
+    	reader.setName("QuotesPartitionCsvReader");
+    	return reader;
+    }
+    
     public QuotesUploadBatchConfig() {}
     
-    public void runJob(InputStream inStream, String jobName) {
-		init(inStream, jobName);
+    /**
+     * Launches the import of a spooled quote upload in the background, in a single step.
+     * 
+     * @param file - the upload, removed once the job completed
+     * @param jobName - name of the upload
+     * @return the execution of the import, its progress is read back by id
+     */
+    public JobExecution runJob(Path file, String jobName) {
+		return init(file, jobName);
 	}
 	
-	private void init(InputStream inStream, String jobName) {
+	private JobExecution init(Path file, String jobName) {
 		
-		Step step1 = stepBuilderFactory.get("step1")
-                .<QuotesUploadRowInstance, QuotesUploadRowInstance>chunk(2)
-                .reader(reader(inStream))
+		Step step1 = faultTolerance.apply(stepBuilderFactory.get("step1")
+                .<QuotesUploadRowInstance, Quote>chunk(this.chunkSize)
+                .reader(reader(new FileSystemResource(file)))
                 .processor(quotesRowProcessor())
-                .writer(writer)
+                .writer(writer))
                 .build();
     	
-    	Job job = jobBuilderFactory.get("importInvestmentsJob")
-                .incrementer(new RunIdIncrementer())
+    	Job job = jobBuilderFactory.get("importQuotesJob")
                 .listener(listener())
+                .listener(importRefreshListener)
+                .listener(new UploadCleanupListener(file))
                 .flow(step1)
                 .end()
                 .build();
     	
-    	JobParameters jobParams = new JobParametersBuilder().addString("importQuotesJob", jobName).toJobParameters();
+    	JobParameters jobParams = new JobParametersBuilder()
+    			.addString(BulkUploadJobLauncher.UPLOAD_NAME, jobName)
+    			.addString(BulkUploadJobLauncher.UPLOAD_FILE, file.toString())
+    			.toJobParameters();
     	
-    	try {
-			this.launcher.run(job, jobParams);
-		} catch (JobExecutionAlreadyRunningException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobRestartException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobInstanceAlreadyCompleteException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JobParametersInvalidException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+    	return this.launcher.launch(job, jobParams);
 	}
     
-    FlatFileItemReader<QuotesUploadRowInstance> reader(InputStream inStream) {
+    /**
+     * Imports a quote history file with a partitioned step. The file is split by symbol into batch.upload.partitions
+     * partitions which are read, transformed and written in parallel on the quotesImportTaskExecutor. The manager step
+     * sums the counts of the partitions into the summary of the import. The partitions only write quotes, the latest
+     * quotes, portfolio value series and reports are refreshed once when the job ends. The job is launched in the
+     * background, launching it again after a failure restarts the partitions that did not complete from their last
+     * committed chunk.
+     * 
+     * @param file - the uploaded CSV, removed with the partition files once the job completed
+     * @param jobName - name of the upload
+     * @return the execution of the import, its progress is read back by id
+     */
+    public JobExecution runPartitionedJob(Path file, String jobName) {
+    	
+    	JobParameters jobParams = new JobParametersBuilder()
+    			.addString(BulkUploadJobLauncher.UPLOAD_NAME, jobName)
+    			.addString(BulkUploadJobLauncher.UPLOAD_FILE, file.toString())
+    			.toJobParameters();
+    	
+    	return this.launcher.launch(partitionedJob(file), jobParams);
+    }
+    
+    /**
+     * @param file - the uploaded CSV
+     * @return the partitioned import of the file
+     */
+    Job partitionedJob(Path file) {
+    	
+    	// derived from the upload so a restart finds the partitions of the failed run
+    	Path workDirectory = file.resolveSibling(file.getFileName() + ".partitions");
+    	
+    	Step workerStep = faultTolerance.apply(stepBuilderFactory.get("quotesPartitionStep")
+    			.<QuotesUploadRowInstance, Quote>chunk(this.chunkSize)
+    			.reader(quotesPartitionReader(null))
+    			.processor(quotesRowProcessor())
+    			.writer(writer))
+    			.build();
+    	
+    	Step managerStep = stepBuilderFactory.get("quotesPartitionedStep")
+    			.partitioner(workerStep.getName(), new QuotesSymbolPartitioner(file, workDirectory))
+    			.step(workerStep)
+    			.gridSize(this.gridSize())
+    			.taskExecutor(quotesImportTaskExecutor())
+    			.aggregator(new PartitionSummaryAggregator(UploadReferenceResolver.INVESTMENT_HITS, UploadReferenceResolver.INVESTMENT_MISSES))
+    			.build();
+    	
+    	return jobBuilderFactory.get("importQuotesPartitionedJob")
+    			.listener(listener())
+    			.listener(importRefreshListener)
+    			.listener(new UploadCleanupListener(file, workDirectory))
+    			.flow(managerStep)
+    			.end()
+    			.build();
+    }
+    
+    int gridSize() {
+    	return this.partitions > 0 ? this.partitions : Runtime.getRuntime().availableProcessors();
+    }
+    
+    public static FlatFileItemReader<QuotesUploadRowInstance> reader(Resource resource) {
     	
     	FlatFileItemReader<QuotesUploadRowInstance> reader = new FlatFileItemReader<>();
     	DefaultLineMapper<QuotesUploadRowInstance> lineMapper = new DefaultLineMapper<>();
@@ -109,7 +213,7 @@ public class QuotesUploadBatchConfig {
         lineMapper.setLineTokenizer(tokenizer);
         tokenizer.setNames(COLUMN_NAMES);
         lineMapper.setFieldSetMapper(new QuotesUploadFieldSetMapper());
-        reader.setResource(new InputStreamResource(inStream));
+        reader.setResource(resource);
         reader.setLineMapper(lineMapper);
         reader.setLinesToSkip(1);
         reader.setName("QuotesCsvReader");
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.batch.quotes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.service.QuotesService;
+
+/**
+ * Writes a chunk of uploaded quotes: the symbols of the chunk are resolved through the step's
+ * {@link UploadReferenceResolver} and the quotes are upserted in JDBC batches through
+ * {@link QuotesService#importQuotes(List)}. Quotes for symbols that are not stored are logged and not written. The
+ * chunk only writes quotes, the data derived from them is refreshed once the job ends by the
+ * {@link QuotesImportRefreshListener} the written quotes are reported to.
+ *
+ * @author dbrenner
+ * 
+ */
+@Component
+public class QuotesUploadItemWriter implements ItemWriter<Quote> {
+	
+	private static final Logger log = LoggerFactory.getLogger(QuotesUploadItemWriter.class);
+	
+	@Autowired UploadReferenceResolver referenceResolver;
+	@Autowired QuotesService quotesService;
+	@Autowired QuotesImportRefreshListener importRefreshListener;
+
+	@Override
+	public void write(List<? extends Quote> items) throws Exception {
+		
+		List<Investment> investments = new ArrayList<>(items.size());
+		for (Quote quote : items) {
+			investments.add(quote.getInvestment());
+		}
+		Map<String, Long> investmentIds = this.referenceResolver.resolveInvestmentIds(investments, false);
+		
+		List<Quote> quotes = new ArrayList<>(items.size());
+		Set<String> unknownSymbols = new TreeSet<>();
+		for (Quote quote : items) {
+			Long investmentId = investmentIds.get(quote.getInvestment().getSymbol());
+			if (investmentId == null) {
+				unknownSymbols.add(String.valueOf(quote.getInvestment().getSymbol()));
+			}
+			else {
+				quote.getInvestment().setInvestmentId(investmentId);
+				quotes.add(quote);
+			}
+		}
+		
+		if (! unknownSymbols.isEmpty()) {
+			log.warn("Skipped {} quotes for unknown symbols {}", items.size() - quotes.size(), unknownSymbols);
+		}
+		
+		if (! quotes.isEmpty()) {
+			this.quotesService.importQuotes(quotes);
+			this.importRefreshListener.imported(quotes);
+		}
+	}
+
+}
@@ -1,23 +1,53 @@
 /**
- * 
+ *
  */
 package com.brenner.portfoliomgmt.batch.quotes;
 
-import org.springframework.batch.core.BatchStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
 
 /**
+ * Logs the summary of a quote import.
  *
  * @author dbrenner
- * 
+ *
  */
 public class QuotesUploadJobCompletionListener extends JobExecutionListenerSupport {
 
+	private static final Logger log = LoggerFactory.getLogger(QuotesUploadJobCompletionListener.class);
+
 	@Override
-    public void afterJob(JobExecution jobExecution) {
-        if(jobExecution.getStatus() == BatchStatus.COMPLETED) {
-        } 
-    }
+	public void afterJob(JobExecution jobExecution) {
+
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			// partition executions are summed into their manager step, only top level steps are reported
+			if (stepExecution.getStepName().contains(":")) {
+				continue;
+			}
+
+			ExecutionContext context = stepExecution.getExecutionContext();
+			log.info("Quote import {} step {}: read {}, written {}, filtered {}, skipped {}, symbol cache hits {} misses {}, {} rows/s",
+					jobExecution.getJobInstance().getJobName(), stepExecution.getStepName(), stepExecution.getReadCount(),
+					stepExecution.getWriteCount(), stepExecution.getFilterCount(), stepExecution.getSkipCount(),
+					context.getLong(UploadReferenceResolver.INVESTMENT_HITS, 0L),
+					context.getLong(UploadReferenceResolver.INVESTMENT_MISSES, 0L), rowsPerSecond(stepExecution));
+		}
+	}
+
+	static long rowsPerSecond(StepExecution stepExecution) {
+
+		if (stepExecution.getStartTime() == null || stepExecution.getEndTime() == null) {
+			return 0;
+		}
+
+		long millis = Math.max(stepExecution.getEndTime().getTime() - stepExecution.getStartTime().getTime(), 1);
+		return stepExecution.getReadCount() * 1000L / millis;
+	}
 
 }
@@ -3,55 +3,32 @@
  */
 package com.brenner.portfoliomgmt.batch.quotes;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.beans.factory.annotation.Autowired;
 
 import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.domain.Quote;
-import com.brenner.portfoliomgmt.service.InvestmentsService;
-import com.brenner.portfoliomgmt.service.QuotesService;
 
 /**
+ * Maps an uploaded quote row to a {@link Quote} whose investment carries only the row's symbol. The symbol is resolved
+ * by the {@link QuotesUploadItemWriter} for the whole chunk.
  *
  * @author dbrenner
  * 
  */
-public class QuotesUploadRowProcessor implements ItemProcessor<QuotesUploadRowInstance, QuotesUploadRowInstance> {
-	
-	private List<QuotesUploadRowInstance> failedRows = new ArrayList<>();
-	
-
-	@Autowired InvestmentsService investmentsService;
-	@Autowired QuotesService quotesService;
+public class QuotesUploadRowProcessor implements ItemProcessor<QuotesUploadRowInstance, Quote> {
 	
 	@Override
-	public QuotesUploadRowInstance process(QuotesUploadRowInstance item) throws Exception {
+	public Quote process(QuotesUploadRowInstance item) throws Exception {
 		
+		Investment investment = new Investment();
+		investment.setSymbol(item.getSymbol());
 		
-		String symbol = item.getSymbol();
-		Optional<Investment> optInv = this.investmentsService.findInvestmentBySymbol(symbol);
+		Quote quote = new Quote();
+		quote.setDate(item.getQuoteDate());
+		quote.setClose(item.getClose());
+		quote.setInvestment(investment);
 		
-		if (optInv.isPresent()) {
-			Quote quote = new Quote();
-			quote.setDate(item.getQuoteDate());
-			quote.setClose(item.getClose());
-			quote.setInvestment(optInv.get());
-			
-			this.quotesService.saveQuote(quote);
-		}
-		else {
-			failedRows.add(item);
-		}
-		
-		return item;
-	}
-
-	public List<QuotesUploadRowInstance> getFailedRows() {
-		return this.failedRows;
+		return quote;
 	}
 
 }
@@ -0,0 +1,88 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Reconstructs bucket_summation_snapshots for past dates. A snapshot is written for every date with quotes in the
+ * range, valuing each holding at that date's close and at the quantity its transactions had reached by then. Only
+ * transactions that move shares count toward the quantity, sells reduce it; cash and dividend amounts do not. The
+ * whole range is computed by one INSERT ... SELECT over quotes, holdings and transactions rather than one bucket
+ * aggregation per date.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class BucketSnapshotWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(BucketSnapshotWriter.class);
+
+	static final String DELETE_DATES_SQL = "DELETE FROM bucket_summation_snapshots WHERE snap_shot_date BETWEEN ? AND ?";
+
+	static final String INSERT_DATES_SQL =
+			"INSERT INTO bucket_summation_snapshots "
+			+ "(snap_shot_date, bucket_1_total, bucket_2_total, bucket_3_total, excluded_bucket_total) "
+			+ "SELECT v.quote_date, "
+			+ "COALESCE(SUM(v.market_value) FILTER (WHERE v.bucket_enum = 0), 0), "
+			+ "COALESCE(SUM(v.market_value) FILTER (WHERE v.bucket_enum = 1), 0), "
+			+ "COALESCE(SUM(v.market_value) FILTER (WHERE v.bucket_enum = 2), 0), "
+			+ "COALESCE(SUM(v.market_value) FILTER (WHERE v.bucket_enum = 3 OR v.bucket_enum IS NULL), 0) "
+			+ "FROM ("
+			+ "SELECT q.quote_date, h.bucket_enum, q.price_at_close * "
+			+ "SUM(CASE WHEN t.transaction_type = 'Sell' THEN -t.trade_quantity ELSE t.trade_quantity END) AS market_value "
+			+ "FROM holdings h "
+			+ "JOIN transactions t ON t.holding_holding_id = h.holding_id "
+			+ "JOIN quotes q ON q.investment_id = h.investment_investment_id AND t.transaction_date <= q.quote_date "
+			+ "WHERE q.quote_date BETWEEN ? AND ? "
+			+ "AND t.transaction_type IN ('Buy', 'Revinvest_Dividend', 'Split', 'Transfer', 'Sell') "
+			+ "GROUP BY q.quote_date, h.holding_id, h.bucket_enum, q.price_at_close"
+			+ ") v "
+			+ "GROUP BY v.quote_date";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	/**
+	 * Replaces the snapshots of the dates from fromDate to toDate.
+	 *
+	 * @param fromDate - first date to snapshot, inclusive
+	 * @param toDate - last date to snapshot, inclusive
+	 * @return the number of snapshots written
+	 */
+	public int backfill(Date fromDate, Date toDate) {
+		log.info("Entered backfill()");
+
+		if (fromDate == null || toDate == null) {
+			throw new InvalidRequestException("fromDate and toDate must be non-null");
+		}
+
+		Timestamp from = new Timestamp(fromDate.getTime());
+		Timestamp to = new Timestamp(toDate.getTime());
+
+		Integer rows = new TransactionTemplate(this.transactionManager).execute(status -> {
+			this.jdbcTemplate.update(DELETE_DATES_SQL, from, to);
+			return this.jdbcTemplate.update(INSERT_DATES_SQL, from, to);
+		});
+
+		log.debug("Wrote {} bucket snapshots from {} to {}", rows, fromDate, toDate);
+		log.info("Exiting backfill()");
+		return rows != null ? rows : 0;
+	}
+}
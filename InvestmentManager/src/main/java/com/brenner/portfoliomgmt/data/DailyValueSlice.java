@@ -0,0 +1,115 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.util.Date;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The dates of an investment's portfolio_daily_value rows that have to be recomputed. A slice without dates covers
+ * every date of the investment.
+ *
+ * @author dbrenner
+ *
+ */
+public class DailyValueSlice {
+
+	private final Long investmentId;
+
+	private final Date fromDate;
+
+	private final Date toDate;
+
+	private DailyValueSlice(Long investmentId, Date fromDate, Date toDate) {
+		this.investmentId = investmentId;
+		this.fromDate = fromDate;
+		this.toDate = toDate;
+	}
+
+	/**
+	 * @param investmentId - unique investment identifier
+	 * @return slice covering every date of the investment
+	 */
+	public static DailyValueSlice allDates(Long investmentId) {
+		return new DailyValueSlice(investmentId, null, null);
+	}
+
+	/**
+	 * @param investmentId - unique investment identifier
+	 * @param fromDate - first date to recompute, inclusive
+	 * @param toDate - last date to recompute, inclusive
+	 * @return slice covering the dates from fromDate to toDate
+	 */
+	public static DailyValueSlice dates(Long investmentId, Date fromDate, Date toDate) {
+
+		if (fromDate == null || toDate == null) {
+			return allDates(investmentId);
+		}
+
+		return fromDate.after(toDate) ?
+				new DailyValueSlice(investmentId, toDate, fromDate) :
+					new DailyValueSlice(investmentId, fromDate, toDate);
+	}
+
+	/**
+	 * @param other - slice of the same investment
+	 * @return the smallest slice covering both slices
+	 */
+	public DailyValueSlice merge(DailyValueSlice other) {
+
+		if (this.isAllDates() || other.isAllDates()) {
+			return allDates(this.investmentId);
+		}
+
+		return new DailyValueSlice(this.investmentId,
+				this.fromDate.before(other.fromDate) ? this.fromDate : other.fromDate,
+				this.toDate.after(other.toDate) ? this.toDate : other.toDate);
+	}
+
+	public boolean isAllDates() {
+		return this.fromDate == null;
+	}
+
+	public Long getInvestmentId() {
+		return investmentId;
+	}
+
+	public Date getFromDate() {
+		return fromDate;
+	}
+
+	public Date getToDate() {
+		return toDate;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(investmentId, fromDate, toDate);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		DailyValueSlice other = (DailyValueSlice) obj;
+		return Objects.equals(investmentId, other.investmentId) && Objects.equals(fromDate, other.fromDate)
+				&& Objects.equals(toDate, other.toDate);
+	}
+
+	@Override
+	public String toString() {
+
+		ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
+		builder.append("investmentId", investmentId)
+			.append("fromDate", fromDate)
+			.append("toDate", toDate);
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.domain.Holding;
+import com.brenner.portfoliomgmt.domain.Transaction;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Inserts new holdings together with their transactions using JDBC batches. The identity values of the holdings and
+ * transactions are drawn from their sequences up front, one query per table, so the transaction rows and the
+ * holdings_transactions join rows behind HoldingDTO.transactions can be written in batches as well.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class HoldingsBulkWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(HoldingsBulkWriter.class);
+
+	static final String NEXT_HOLDING_IDS_SQL =
+			"SELECT nextval(pg_get_serial_sequence('holdings', 'holding_id')) FROM generate_series(1, ?)";
+
+	static final String NEXT_TRANSACTION_IDS_SQL =
+			"SELECT nextval(pg_get_serial_sequence('transactions', 'transaction_id')) FROM generate_series(1, ?)";
+
+	static final String INSERT_HOLDING_SQL =
+			"INSERT INTO holdings (holding_id, account_account_id, investment_investment_id, quantity, purchase_price, "
+			+ "purchase_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+	static final String INSERT_TRANSACTION_SQL =
+			"INSERT INTO transactions (transaction_id, transaction_date, trade_price, trade_quantity, transaction_type, "
+			+ "holding_holding_id, account_account_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	static final String INSERT_HOLDING_TRANSACTION_SQL =
+			"INSERT INTO holdings_transactions (holdingdto_holding_id, transactions_transaction_id) VALUES (?, ?)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${batch.upload.jdbc-batch-size:500}")
+	int batchSize = 500;
+
+	/**
+	 * Inserts the holdings and their transactions. The generated ids are set on the supplied holdings and
+	 * transactions, each transaction is recorded against its holding and the holding's account.
+	 *
+	 * @param holdings - new holdings, each must carry its account id and investment id
+	 * @return the number of holdings written
+	 */
+	public int insertHoldings(List<Holding> holdings) {
+		log.info("Entered insertHoldings()");
+
+		if (holdings == null) {
+			throw new InvalidRequestException("holdings must be non-null");
+		}
+
+		List<Transaction> transactions = new ArrayList<>();
+		for (Holding holding : holdings) {
+			validate(holding);
+			if (holding.getTransactions() != null) {
+				transactions.addAll(holding.getTransactions());
+			}
+		}
+
+		if (holdings.isEmpty()) {
+			return 0;
+		}
+
+		Iterator<Long> holdingIds = this.nextIds(NEXT_HOLDING_IDS_SQL, holdings.size());
+		for (Holding holding : holdings) {
+			holding.setHoldingId(holdingIds.next());
+		}
+
+		Iterator<Long> transactionIds = this.nextIds(NEXT_TRANSACTION_IDS_SQL, transactions.size());
+		List<Object[]> joinArgs = new ArrayList<>(transactions.size());
+		for (Holding holding : holdings) {
+			if (holding.getTransactions() != null) {
+				for (Transaction transaction : holding.getTransactions()) {
+					transaction.setTransactionId(transactionIds.next());
+					transaction.setHolding(holding);
+					transaction.setAccount(holding.getAccount());
+					joinArgs.add(new Object[] {holding.getHoldingId(), transaction.getTransactionId()});
+				}
+			}
+		}
+
+		this.jdbcTemplate.batchUpdate(INSERT_HOLDING_SQL, holdings, this.batchSize, HoldingsBulkWriter::setHoldingValues);
+		if (! transactions.isEmpty()) {
+			this.jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, transactions, this.batchSize, HoldingsBulkWriter::setTransactionValues);
+			this.jdbcTemplate.batchUpdate(INSERT_HOLDING_TRANSACTION_SQL, joinArgs);
+		}
+
+		log.debug("Wrote {} holdings with {} transactions", holdings.size(), transactions.size());
+		log.info("Exiting insertHoldings()");
+
+		return holdings.size();
+	}
+
+	private Iterator<Long> nextIds(String sql, int count) {
+
+		if (count == 0) {
+			return new ArrayList<Long>().iterator();
+		}
+
+		List<Long> ids = this.jdbcTemplate.queryForList(sql, Long.class, count);
+		if (ids.size() != count) {
+			throw new IllegalStateException("Expected " + count + " ids but the sequence returned " + ids.size());
+		}
+		return ids.iterator();
+	}
+
+	private static void validate(Holding holding) {
+
+		if (holding == null) {
+			throw new InvalidRequestException("holding must be non-null");
+		}
+
+		if (holding.getAccount() == null || holding.getAccount().getAccountId() == null) {
+			throw new InvalidRequestException("holding.account.accountId must be non-null");
+		}
+
+		if (holding.getInvestment() == null || holding.getInvestment().getInvestmentId() == null) {
+			throw new InvalidRequestException("holding.investment.investmentId must be non-null");
+		}
+	}
+
+	private static void setHoldingValues(PreparedStatement ps, Holding holding) throws SQLException {
+
+		ps.setLong(1, holding.getHoldingId());
+		ps.setLong(2, holding.getAccount().getAccountId());
+		ps.setLong(3, holding.getInvestment().getInvestmentId());
+		setDecimal(ps, 4, holding.getQuantity());
+		setDecimal(ps, 5, holding.getPurchasePrice());
+		setTimestamp(ps, 6, holding.getPurchaseDate());
+	}
+
+	private static void setTransactionValues(PreparedStatement ps, Transaction transaction) throws SQLException {
+
+		ps.setLong(1, transaction.getTransactionId());
+		setTimestamp(ps, 2, transaction.getTransactionDate());
+		setDecimal(ps, 3, transaction.getTradePrice());
+		setDecimal(ps, 4, transaction.getTradeQuantity());
+		ps.setString(5, transaction.getTransactionType() != null ? transaction.getTransactionType().name() : null);
+		ps.setLong(6, transaction.getHolding().getHoldingId());
+		ps.setLong(7, transaction.getAccount().getAccountId());
+	}
+
+	private static void setTimestamp(PreparedStatement ps, int index, Date value) throws SQLException {
+
+		if (value == null) {
+			ps.setNull(index, Types.TIMESTAMP);
+		}
+		else {
+			ps.setTimestamp(index, new Timestamp(value.getTime()));
+		}
+	}
+
+	private static void setDecimal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+
+		if (value == null) {
+			ps.setNull(index, Types.NUMERIC);
+		}
+		else {
+			ps.setBigDecimal(index, value);
+		}
+	}
+}
@@ -1,28 +1,55 @@
 package com.brenner.portfoliomgmt.data;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.time.DateUtils;
+import org.postgresql.PGStatement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
 import com.brenner.portfoliomgmt.data.entities.reporting.HoldingBucketSummation;
 import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
 import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
 import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.reporting.BucketAggregationEngine;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
 import com.brenner.portfoliomgmt.reporting.HoldingsReport;
+import com.brenner.portfoliomgmt.reporting.RollupSummary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Class to handle reporting on holdings
  * 
+ * The holdings reports run as prepared statements chosen from a fixed set of (data set, sort order) variants, a sort
+ * order outside the whitelist is rejected rather than spliced into the SQL. With the driver's prepareThreshold set the
+ * statements are prepared on the server and kept in the driver's per-connection statement cache, executions of a
+ * variant are counted in reporting.statement.cache as a hit when the cached server-side statement, and the plan
+ * Postgres keeps with it, is reused and as a miss when the statement is parsed and planned again.
+ * 
  * @author dbrenner
  *
  */
@@ -37,44 +64,157 @@ public class HoldingsReportingDataService {
 	@Autowired
 	HoldingBucketSummationMapper bucketSummationMapper;
 	
-	private static final String HOLDINGS_BY_TYPE_SECTOR_SQL = 
-			"SELECT SUM(h.purchase_price * h.quantity) as value_at_purchase, i.investment_type, i.sector "
-			+ "FROM holdings h, investments i "
-			+ "WHERE h.quantity > 0 and h.investment_id = i.investment_id "
-			+ "GROUP BY i.investment_type, i.sector "
-			+ "ORDER BY i.investment_type;";
-	
-	private static final String HOLDINGS_BY_MARKET_VALUE_SQL = 
-			"SELECT SUM(h.purchase_price * h.quantity) as value_at_purchase, i.symbol, i.investment_id, "
-			+ "i.company_name, q.price_at_close, SUM(h.quantity * q.price_at_close) as market_value, "
-			+ "SUM((h.quantity * q.price_at_close) - (h.purchase_price * h.quantity)) as change_in_value "
+	@Autowired
+	BucketAggregationEngine bucketAggregationEngine;
+	
+	@Autowired
+	HoldingsReportCache holdingsReportCache;
+	
+	/*
+	 * One row per open holding with the dividends it paid. latest_quotes holds one row per investment, the greatest
+	 * of its dates is the current pricing date
+	 */
+	private static final String HOLDINGS_REPORT_SQL = 
+			"SELECT h.holding_id, h.purchase_price * h.quantity as value_at_purchase, i.symbol, i.investment_id, "
+			+ "i.company_name, i.investment_type, i.sector, q.price_at_close, h.quantity * q.price_at_close as market_value, "
+			+ "(h.quantity * q.price_at_close) - (h.purchase_price * h.quantity) as change_in_value, "
+			+ "COALESCE(d.dividend, 0) as total_dividends, "
+			+ "COALESCE(h.quantity * q.price_at_close, 0) + COALESCE(d.dividend, 0) as total_value "
 			+ "FROM holdings h "
 			+ "LEFT JOIN investments i on i.investment_id = h.investment_investment_id "
-			+ "LEFT OUTER JOIN quotes q on q.investment_id = i.investment_id and q.quote_date = "
-			+ "(SELECT MAX(quote_date) FROM quotes) "
-			+ "WHERE h.quantity > 0 "
-			+ "GROUP BY h.purchase_price, h.quantity, i.symbol, i.company_name, q.price_at_close, i.investment_id "
-			+ "ORDER BY market_value ?;";
-	
-	private static final String HOLDINGS_BY_CHANGE_IN_VALUE_SQL = 
-			"SELECT SUM(h.purchase_price * h.quantity) as value_at_purchase, i.symbol, i.investment_id, "
-			+ "i.company_name, q.price_at_close, SUM(h.quantity * q.price_at_close) as market_value, "
-			+ "SUM((h.quantity * q.price_at_close) - (h.purchase_price * h.quantity)) as change_in_value "
-			+ "FROM holdings h "
-			+ "LEFT JOIN investments i on i.investment_id = h.investment_id "
-			+ "LEFT OUTER JOIN quotes q on q.investment_id = i.investment_id and q.quote_date = "
-			+ "(SELECT MAX(quote_date) FROM quotes) "
-			+ "WHERE h.quantity > 0 "
-			+ "GROUP BY h.purchase_price, h.quantity, i.symbol, i.company_name, q.price_at_close, i.investment_id "
-			+ "ORDER BY change_in_value ?;";
+			+ "LEFT OUTER JOIN latest_quotes q on q.investment_id = i.investment_id and q.quote_date = "
+			+ "(SELECT MAX(quote_date) FROM latest_quotes) "
+			+ "LEFT OUTER JOIN (SELECT holding_holding_id, SUM(trade_price * trade_quantity) as dividend "
+			+ "FROM transactions WHERE transaction_type = 'Dividend' GROUP BY holding_holding_id) d "
+			+ "on d.holding_holding_id = h.holding_id "
+			+ "WHERE h.quantity > 0 ";
+	
+	static final String MARKET_VALUE = "marketValue";
+	
+	static final String CHANGE_IN_VALUE = "changeInValue";
+	
+	static final String[] SORT_ORDERS = {"ASC", "DESC"};
+	
+	static final String STATEMENT_CACHE_METRIC = "reporting.statement.cache";
+	
+	/*
+	 * Every statement the holdings reports may run, keyed by variant name (data set.sort order)
+	 */
+	static final Map<String, String> HOLDINGS_REPORT_VARIANTS = holdingsReportVariants();
+	
+	private final Map<String, Counter> statementCacheHits = new LinkedHashMap<>();
+	
+	private final Map<String, Counter> statementCacheMisses = new LinkedHashMap<>();
+	
+	/**
+	 * Registers the statement cache counters and hit ratios of every variant.
+	 * 
+	 * @param meterRegistry - the application's registry, published through the metrics and prometheus endpoints
+	 */
+	@Autowired
+	public HoldingsReportingDataService(MeterRegistry meterRegistry) {
+		
+		for (String variant : HOLDINGS_REPORT_VARIANTS.keySet()) {
+			Counter hits = meterRegistry.counter(STATEMENT_CACHE_METRIC, "variant", variant, "result", "hit");
+			Counter misses = meterRegistry.counter(STATEMENT_CACHE_METRIC, "variant", variant, "result", "miss");
+			this.statementCacheHits.put(variant, hits);
+			this.statementCacheMisses.put(variant, misses);
+			
+			Gauge.builder(STATEMENT_CACHE_METRIC + ".hit.ratio", () -> hitRatio(hits, misses))
+				.tag("variant", variant)
+				.register(meterRegistry);
+		}
+	}
+	
+	private static Map<String, String> holdingsReportVariants() {
+		
+		Map<String, String> variants = new LinkedHashMap<>();
+		for (String sortOrder : SORT_ORDERS) {
+			variants.put(MARKET_VALUE + "." + sortOrder, HOLDINGS_REPORT_SQL + "ORDER BY market_value " + sortOrder);
+			variants.put(CHANGE_IN_VALUE + "." + sortOrder, HOLDINGS_REPORT_SQL + "ORDER BY change_in_value " + sortOrder);
+		}
+		
+		return Collections.unmodifiableMap(variants);
+	}
+	
+	/**
+	 * Resolves the whitelisted variant of a holdings report.
+	 * 
+	 * @param dataSet - changeInValue to order by change in value, otherwise holdings are ordered by market value
+	 * @param sortOrder - ASC or DESC in any case, defaults to DESC
+	 * @return the variant name, a key of HOLDINGS_REPORT_VARIANTS
+	 * @throws InvalidRequestException - when sortOrder is neither ASC nor DESC
+	 */
+	static String holdingsReportVariant(String dataSet, String sortOrder) {
+		
+		String order = sortOrder == null || sortOrder.isBlank() ? "DESC" : sortOrder.trim().toUpperCase(Locale.ROOT);
+		String variant = (CHANGE_IN_VALUE.equals(dataSet) ? CHANGE_IN_VALUE : MARKET_VALUE) + "." + order;
+		
+		if (! HOLDINGS_REPORT_VARIANTS.containsKey(variant)) {
+			throw new InvalidRequestException("sortOrder must be ASC or DESC");
+		}
+		
+		return variant;
+	}
+	
+	private static double hitRatio(Counter hits, Counter misses) {
+		
+		double executions = hits.count() + misses.count();
+		return executions == 0 ? 0 : hits.count() / executions;
+	}
+	
+	/*
+	 * Prepares the variant's statement and counts whether the driver handed back a statement already prepared on the
+	 * server. Statements of other drivers count as misses.
+	 */
+	private PreparedStatementCreator holdingsReportStatement(String variant) {
+		
+		String SQL = HOLDINGS_REPORT_VARIANTS.get(variant);
+		log.debug("SQL: {}", SQL);
+		
+		return con -> {
+			PreparedStatement ps = con.prepareStatement(SQL);
+			if (ps.isWrapperFor(PGStatement.class) && ps.unwrap(PGStatement.class).isUseServerPrepare()) {
+				this.statementCacheHits.get(variant).increment();
+			}
+			else {
+				this.statementCacheMisses.get(variant).increment();
+			}
+			return ps;
+		};
+	}
+	
+	private static final RowMapper<HoldingsReport> HOLDINGS_REPORT_ROW_MAPPER = new RowMapper<HoldingsReport>() {
+		
+		@Override
+		public HoldingsReport mapRow(ResultSet rs, int rowNum) throws SQLException {
+			HoldingsReport report = new HoldingsReport();
+			report.setHoldingId(rs.getLong("holding_id"));
+			report.setChangeInValue(rs.getBigDecimal("change_in_value"));
+			report.setCompanyName(rs.getString("company_name"));
+			report.setMarketValue(rs.getBigDecimal("market_value"));
+			report.setPriceAtClose(rs.getBigDecimal("price_at_close"));
+			report.setValueAtPurchase(rs.getBigDecimal("value_at_purchase"));
+			report.setSymbol(rs.getString("symbol"));
+			report.setInvestmentId(rs.getLong("investment_id"));
+			int investmentType = rs.getInt("investment_type");
+			if (! rs.wasNull()) {
+				report.setInvestmentType(InvestmentTypeEnum.valueOf(investmentType));
+			}
+			report.setSector(rs.getString("sector"));
+			report.setTotalDividends(rs.getBigDecimal("total_dividends"));
+			report.setTotalValue(rs.getBigDecimal("total_value"));
+			return report;
+		}
+	};
 	
 	public List<HoldingBucket> getHoldingsByBucket() {
 		
 		log.info("Entered getHoldingsByBucket()");
 		
-		List<HoldingBucket> holdings = this.bucketSummationMapper.holdingsByBucket();
+		List<HoldingBucket> holdings = new ArrayList<>(this.bucketAggregationEngine.aggregate().values());
 		
-		log.debug("Retrieved {} objects", holdings != null ? holdings.size() : 0);
+		log.debug("Retrieved {} objects", holdings.size());
 		
 		log.debug("Exiting getHoldingsByBucket()");
 		
@@ -86,27 +226,20 @@ public class HoldingsReportingDataService {
 		List<HoldingBucket> holdings = this.getHoldingsByBucket();
 		
 		Map<String, HoldingBucket> holdingsMap = holdings.stream().collect(
-				Collectors.toMap(h -> h.getBucket() != null ? h.getBucket().getDescription() : "", h -> h));
+				Collectors.toMap(h -> h.getBucket().getDescription(), h -> h, (h1, h2) -> h1, LinkedHashMap::new));
 		
 		return holdingsMap;
 	}
 	
 	public Map<BucketEnum, HoldingBucket> getHoldingsListAsMapByBucket() {
 		
-		List<HoldingBucket> holdings = this.getHoldingsByBucket();
-		
-		Map<BucketEnum, HoldingBucket> holdingsMap = holdings.stream().collect(
-				Collectors.toMap(h -> h.getBucket(), h -> h));
-		
-		log.debug("Exiting getHoldingsByBucket()");
-		
-		return holdingsMap;
-		
+		return this.bucketAggregationEngine.aggregate();
 	}
 	
 	public void saveBucketSummarySnapShot() {
 		
-		Date summaryReportDate = new Date();
+		// one snapshot per day, a later snapshot on the same day replaces the earlier one
+		Date summaryReportDate = DateUtils.truncate(new Date(), Calendar.DAY_OF_MONTH);
 		
 		Map<BucketEnum, HoldingBucket> summaryReport = getHoldingsListAsMapByBucket();
 		
@@ -121,7 +254,7 @@ public class HoldingsReportingDataService {
 		Date snapShotDate = this.bucketSummationMapper.findbucketSummaryReport(summaryReportDate);
 		
 		HoldingBucketSummation summation = new HoldingBucketSummation();
-		summation.setSummationDate(snapShotDate);
+		summation.setSummationDate(summaryReportDate);
 		summation.setBucket1Total(bucket1.getAmount());
 		summation.setBucket2Total(bucket2.getAmount());
 		summation.setBucket3Total(bucket3.getAmount());
@@ -151,16 +284,44 @@ public class HoldingsReportingDataService {
 	public List<HoldingsReport> getHoldingsByInvestmentTypeAndSector() {
 		log.info("Entered getHoldingsByInvestmentTypeAndSector()");
 		
-		final String SQL = HOLDINGS_BY_TYPE_SECTOR_SQL;
-		log.debug("SQL: {}", SQL);
-		
-		List<HoldingsReport> report = null;//this.jdbcTemplate.query(SQL, new HoldingsByInvestmentTypeAndSectorRowMapper());
-		log.debug("Retrieved {} objects", report != null ? report.size() : 0);
+		List<HoldingsReport> report = this.holdingsReportCache.getHoldingsByTypeAndSector(this::loadHoldingsReports);
+		log.debug("Retrieved {} objects", report.size());
 		
 		log.info("Exiting getHoldingsByInvestmentTypeAndSector()");
 		return report;
 	}
 	
+	/*
+	 * Reads the per holding rows cached by the HoldingsReportCache
+	 */
+	private List<HoldingsReport> loadHoldingsReports() {
+		
+		String variant = holdingsReportVariant(MARKET_VALUE, "DESC");
+		return this.jdbcTemplate.query(this.holdingsReportStatement(variant), HOLDINGS_REPORT_ROW_MAPPER);
+	}
+	
+	/**
+	 * Reads the holdings of the rollup report and totals them while the rows are streamed from the query.
+	 * 
+	 * @param dataSet - changeInValue to order by change in value, otherwise holdings are ordered by market value
+	 * @param sortOrder - ASC or DESC, defaults to DESC
+	 * @return {@link RollupSummary} of the holdings in report order
+	 * @throws InvalidRequestException - when sortOrder is neither ASC nor DESC
+	 */
+	public RollupSummary findRollupSummary(String dataSet, String sortOrder) {
+		log.info("Entered findRollupSummary()");
+		log.debug("Params: dataSet: {}; sortOrder: {}", dataSet, sortOrder);
+		
+		String variant = holdingsReportVariant(dataSet, sortOrder);
+		
+		RollupSummary summary = new RollupSummary();
+		this.jdbcTemplate.query(this.holdingsReportStatement(variant), (RowCallbackHandler) rs -> summary.add(HOLDINGS_REPORT_ROW_MAPPER.mapRow(rs, rs.getRow())));
+		log.debug("Summarized: {}", summary);
+		
+		log.info("Exiting findRollupSummary()");
+		return summary;
+	}
+	
 	/**
 	 * Retrieves all holdings ordered by most recent market value
 	 * 
@@ -170,31 +331,9 @@ public class HoldingsReportingDataService {
 		log.info("Entered findHoldingsByMarketValueOrderedDesc()");
 		log.debug("Param: sortOrder: {}", sortOrder);
 		
-		String SQL = HOLDINGS_BY_MARKET_VALUE_SQL;
+		String variant = holdingsReportVariant(MARKET_VALUE, sortOrder);
 		
-		if (sortOrder == null) {
-			sortOrder = "DESC";
-		}
-		
-		SQL = SQL.replace("?", sortOrder);
-		log.debug("SQL: {}", SQL);
-		
-		List<HoldingsReport> holdings = this.jdbcTemplate.query(SQL, new RowMapper<HoldingsReport>() {
-			
-			@Override
-			public HoldingsReport mapRow(ResultSet rs, int rowNum) throws SQLException {
-				HoldingsReport report = new HoldingsReport();
-				report.setChangeInValue(rs.getFloat("change_in_value"));
-				report.setCompanyName(rs.getString("company_name"));
-				report.setMarketValue(rs.getFloat("market_value"));
-				report.setPriceAtClose(rs.getFloat("price_at_close"));
-				report.setValueAtPurchase(rs.getFloat("value_at_purchase"));
-				report.setSymbol(rs.getString("symbol"));
-				report.setInvestmentId(rs.getLong("investment_id"));
-				return report;
-			}
-			
-		});
+		List<HoldingsReport> holdings = this.jdbcTemplate.query(this.holdingsReportStatement(variant), HOLDINGS_REPORT_ROW_MAPPER);
 		log.debug("Retrieved {} holdings", holdings != null ? holdings.size() : 0);
 		
 		log.info("Exiting findHoldingsByMarketValueOrderedDesc()");
@@ -202,23 +341,28 @@ public class HoldingsReportingDataService {
 	}
 	
 	/**
-	 * Retrieves holding ordered by their change in value
+	 * Retrieves holding ordered by their change in value. Holdings are sorted from the rows cached by the
+	 * HoldingsReportCache, holdings without a change in value sort as the greatest value like they do in the data store.
 	 * 
+	 * @param sortOrder - ASC or DESC, defaults to DESC
 	 * @return A list of HoldingsReport objects
+	 * @throws InvalidRequestException - when sortOrder is neither ASC nor DESC
 	 */
 	public List<HoldingsReport> findHoldingByChangeInValueOrderedDesc(String sortOrder) {
 		log.info("Entered findHoldingByChangeInValueOrderedDesc()");
+		log.debug("Param: sortOrder: {}", sortOrder);
 		
-		String SQL = HOLDINGS_BY_CHANGE_IN_VALUE_SQL;
-		if (sortOrder == null) {
-			sortOrder = "DESC";
-		}
-		
+		String variant = holdingsReportVariant(CHANGE_IN_VALUE, sortOrder);
 		
-		log.debug("SQL: {}", SQL);
+		Comparator<HoldingsReport> order = Comparator.comparing(HoldingsReport::getChangeInValue,
+				Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()));
+		if (variant.endsWith(".DESC")) {
+			order = order.reversed();
+		}
 		
-		List<HoldingsReport> holdings = null;//this.jdbcTemplate.query(SQL, new HoldingsReportRowMapper());
-		log.debug("Retrieved {} holdings", holdings != null ? holdings.size() : 0);
+		List<HoldingsReport> holdings = new ArrayList<>(this.holdingsReportCache.getHoldings(this::loadHoldingsReports));
+		holdings.sort(order);
+		log.debug("Retrieved {} holdings", holdings.size());
 		
 		log.info("Exiting findHoldingByChangeInValueOrderedDesc()");
 		return holdings;
@@ -0,0 +1,90 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Inserts investments that are not yet stored with JDBC batches of INSERT ... ON CONFLICT (symbol) DO NOTHING
+ * statements, so the bulk uploads can create the investments of a whole chunk at once. Relies on the unique constraint
+ * on investments.symbol declared on InvestmentDTO. Stored investments are left unchanged.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class InvestmentsBulkWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(InvestmentsBulkWriter.class);
+
+	static final String INSERT_MISSING_INVESTMENT_SQL =
+			"INSERT INTO investments (symbol, company_name) VALUES (?, ?) ON CONFLICT (symbol) DO NOTHING";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${batch.upload.jdbc-batch-size:500}")
+	int batchSize = 500;
+
+	/**
+	 * Inserts the investments whose symbol is not stored. When a symbol appears more than once the first investment
+	 * supplies the company name.
+	 *
+	 * @param investments - investments to insert, each must carry a symbol
+	 * @return the number of investments inserted
+	 */
+	public int insertMissingInvestments(Collection<Investment> investments) {
+		log.info("Entered insertMissingInvestments()");
+
+		if (investments == null) {
+			throw new InvalidRequestException("investments must be non-null");
+		}
+
+		Map<String, Investment> bySymbol = new LinkedHashMap<>();
+		for (Investment investment : investments) {
+			if (investment == null || investment.getSymbol() == null) {
+				throw new InvalidRequestException("investment.symbol must be non-null");
+			}
+			bySymbol.putIfAbsent(investment.getSymbol(), investment);
+		}
+
+		if (bySymbol.isEmpty()) {
+			return 0;
+		}
+
+		int[][] counts = this.jdbcTemplate.batchUpdate(INSERT_MISSING_INVESTMENT_SQL, bySymbol.values(), this.batchSize,
+				(ps, investment) -> {
+					ps.setString(1, investment.getSymbol());
+					ps.setString(2, investment.getCompanyName());
+				});
+
+		int inserted = 0;
+		if (counts != null) {
+			for (int[] batch : counts) {
+				for (int count : batch) {
+					// SUCCESS_NO_INFO does not say whether the row conflicted, count it as inserted
+					inserted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+				}
+			}
+		}
+
+		log.debug("Inserted {} of {} symbols", inserted, bySymbol.size());
+		log.info("Exiting insertMissingInvestments()");
+
+		return inserted;
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Writes the latest_quotes table, one row per investment pointing at its most recent quote. The reporting queries
+ * read the current pricing date as the greatest quote date in this table and join it in place of the quotes table,
+ * so their cost follows the number of investments rather than the length of the quote history.
+ *
+ * Rows are refreshed by the quote write paths in QuotesService within the caller's transaction, the table is
+ * rebuilt from the quotes table when the application starts with it empty.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class LatestQuotesWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(LatestQuotesWriter.class);
+
+	static final String LATEST_SELECT_SQL =
+			"SELECT DISTINCT ON (q.investment_id) q.investment_id, q.quote_id, q.quote_date, q.price_at_close "
+			+ "FROM quotes q ";
+
+	static final String LATEST_ORDER_BY_SQL = "ORDER BY q.investment_id, q.quote_date DESC, q.quote_id DESC";
+
+	static final String INSERT_SQL = "INSERT INTO latest_quotes (investment_id, quote_id, quote_date, price_at_close) ";
+
+	static final String UPSERT_INVESTMENT_SQL =
+			INSERT_SQL + LATEST_SELECT_SQL + "WHERE q.investment_id = ? " + LATEST_ORDER_BY_SQL + " "
+			+ "ON CONFLICT (investment_id) DO UPDATE SET quote_id = EXCLUDED.quote_id, "
+			+ "quote_date = EXCLUDED.quote_date, price_at_close = EXCLUDED.price_at_close";
+
+	static final String DELETE_UNQUOTED_SQL = "DELETE FROM latest_quotes l WHERE l.investment_id = ? "
+			+ "AND NOT EXISTS (SELECT 1 FROM quotes q WHERE q.investment_id = l.investment_id)";
+
+	static final String DELETE_ALL_SQL = "DELETE FROM latest_quotes";
+
+	static final String INSERT_ALL_SQL = INSERT_SQL + LATEST_SELECT_SQL + LATEST_ORDER_BY_SQL;
+
+	static final String EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM latest_quotes)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	/**
+	 * Builds the table when it is empty, e.g. on first start against an existing quotes table.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void populateIfEmpty() {
+
+		if (! this.isPopulated()) {
+			log.info("latest_quotes is empty, rebuilding from quotes");
+			this.rebuild();
+		}
+	}
+
+	/**
+	 * @return true when the table holds at least one row
+	 */
+	public boolean isPopulated() {
+
+		return Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class));
+	}
+
+	/**
+	 * Replaces every row of the table with the most recent quote of each quoted investment.
+	 *
+	 * @return the number of rows written
+	 */
+	public int rebuild() {
+		log.info("Entered rebuild()");
+
+		Integer rows = new TransactionTemplate(this.transactionManager).execute(status -> {
+			this.jdbcTemplate.update(DELETE_ALL_SQL);
+			return this.jdbcTemplate.update(INSERT_ALL_SQL);
+		});
+
+		log.info("Exiting rebuild()");
+		return rows != null ? rows : 0;
+	}
+
+	/**
+	 * Re-points the rows of the supplied investments at their most recent quote and removes the rows of investments
+	 * left without quotes. Runs in the caller's transaction so the pointers commit with the quote changes; quote
+	 * changes made through JPA must be flushed first.
+	 *
+	 * @param investmentIds - investments whose quotes were added, changed or deleted
+	 * @return the number of rows written
+	 */
+	public int refresh(Collection<Long> investmentIds) {
+		log.info("Entered refresh()");
+
+		if (investmentIds == null) {
+			throw new InvalidRequestException("investmentIds must be non-null");
+		}
+
+		Set<Long> distinctIds = new LinkedHashSet<>(investmentIds);
+		distinctIds.remove(null);
+		if (distinctIds.isEmpty()) {
+			log.info("Exiting refresh()");
+			return 0;
+		}
+
+		List<Object[]> args = new ArrayList<>(distinctIds.size());
+		for (Long investmentId : distinctIds) {
+			args.add(new Object[] {investmentId});
+		}
+
+		int rows = sum(this.jdbcTemplate.batchUpdate(UPSERT_INVESTMENT_SQL, args));
+		this.jdbcTemplate.batchUpdate(DELETE_UNQUOTED_SQL, args);
+
+		log.debug("Refreshed {} latest quotes for {} investments", rows, distinctIds.size());
+		log.info("Exiting refresh()");
+		return rows;
+	}
+
+	private static int sum(int[] counts) {
+
+		int total = 0;
+		if (counts != null) {
+			for (int count : counts) {
+				total += Math.max(count, 0);
+			}
+		}
+		return total;
+	}
+}
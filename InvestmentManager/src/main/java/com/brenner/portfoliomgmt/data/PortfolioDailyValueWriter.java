@@ -0,0 +1,163 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Writes the portfolio_daily_value table read by PortfolioRollupRepository. A row holds the quantity held and the
+ * market value (quantity * close) of an account's holdings in an investment on each date the investment was quoted,
+ * following the valuation the rollup queries previously computed on every read.
+ *
+ * Rows are recomputed with set-based INSERT ... SELECT statements, either for slices of the series handed over by
+ * PortfolioRollupEngine or for the whole table. Each call runs in its own transaction.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class PortfolioDailyValueWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(PortfolioDailyValueWriter.class);
+
+	static final String VALUE_SELECT_SQL =
+			"SELECT h.account_account_id, h.investment_investment_id, q.quote_date, "
+			+ "sum(t.trade_quantity), sum(t.trade_quantity * q.price_at_close) "
+			+ "FROM holdings h "
+			+ "JOIN transactions t ON t.holding_holding_id = h.holding_id "
+			+ "JOIN quotes q ON q.investment_id = h.investment_investment_id ";
+
+	static final String VALUE_GROUP_BY_SQL = "GROUP BY h.account_account_id, h.investment_investment_id, q.quote_date";
+
+	static final String INSERT_SQL =
+			"INSERT INTO portfolio_daily_value (account_id, investment_id, value_date, quantity, market_value) ";
+
+	static final String DELETE_INVESTMENT_SQL = "DELETE FROM portfolio_daily_value WHERE investment_id = ?";
+
+	static final String INSERT_INVESTMENT_SQL =
+			INSERT_SQL + VALUE_SELECT_SQL + "WHERE h.investment_investment_id = ? " + VALUE_GROUP_BY_SQL;
+
+	static final String DELETE_INVESTMENT_DATES_SQL = DELETE_INVESTMENT_SQL + " AND value_date BETWEEN ? AND ?";
+
+	static final String INSERT_INVESTMENT_DATES_SQL =
+			INSERT_SQL + VALUE_SELECT_SQL + "WHERE h.investment_investment_id = ? AND q.quote_date BETWEEN ? AND ? "
+			+ VALUE_GROUP_BY_SQL;
+
+	static final String DELETE_ALL_SQL = "DELETE FROM portfolio_daily_value";
+
+	static final String INSERT_ALL_SQL = INSERT_SQL + VALUE_SELECT_SQL + VALUE_GROUP_BY_SQL;
+
+	static final String EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM portfolio_daily_value)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	/**
+	 * @return true when the table holds at least one row
+	 */
+	public boolean isPopulated() {
+
+		return Boolean.TRUE.equals(this.jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class));
+	}
+
+	/**
+	 * Recomputes every row of the table.
+	 *
+	 * @return the number of rows written
+	 */
+	public int rebuild() {
+		log.info("Entered rebuild()");
+
+		Integer rows = this.newTransaction().execute(status -> {
+			this.jdbcTemplate.update(DELETE_ALL_SQL);
+			return this.jdbcTemplate.update(INSERT_ALL_SQL);
+		});
+
+		log.info("Exiting rebuild()");
+		return rows != null ? rows : 0;
+	}
+
+	/**
+	 * Recomputes the rows of the supplied slices.
+	 *
+	 * @param slices - slices of the series whose quotes, holdings or transactions changed
+	 * @return the number of rows written
+	 */
+	public int recompute(Collection<DailyValueSlice> slices) {
+		log.info("Entered recompute()");
+
+		if (slices == null) {
+			throw new InvalidRequestException("slices must be non-null");
+		}
+
+		List<Object[]> investmentArgs = new ArrayList<>();
+		List<Object[]> dateArgs = new ArrayList<>();
+		for (DailyValueSlice slice : slices) {
+			if (slice.isAllDates()) {
+				investmentArgs.add(new Object[] {slice.getInvestmentId()});
+			}
+			else {
+				dateArgs.add(new Object[] {slice.getInvestmentId(),
+						new Timestamp(slice.getFromDate().getTime()), new Timestamp(slice.getToDate().getTime())});
+			}
+		}
+
+		if (investmentArgs.isEmpty() && dateArgs.isEmpty()) {
+			log.info("Exiting recompute()");
+			return 0;
+		}
+
+		Integer rows = this.newTransaction().execute(status -> {
+			int written = 0;
+			if (! investmentArgs.isEmpty()) {
+				this.jdbcTemplate.batchUpdate(DELETE_INVESTMENT_SQL, investmentArgs);
+				written += sum(this.jdbcTemplate.batchUpdate(INSERT_INVESTMENT_SQL, investmentArgs));
+			}
+			if (! dateArgs.isEmpty()) {
+				this.jdbcTemplate.batchUpdate(DELETE_INVESTMENT_DATES_SQL, dateArgs);
+				written += sum(this.jdbcTemplate.batchUpdate(INSERT_INVESTMENT_DATES_SQL, dateArgs));
+			}
+			return written;
+		});
+
+		log.debug("Recomputed {} daily values for {} slices", rows, slices.size());
+		log.info("Exiting recompute()");
+		return rows != null ? rows : 0;
+	}
+
+	private static int sum(int[] counts) {
+
+		int total = 0;
+		if (counts != null) {
+			for (int count : counts) {
+				total += Math.max(count, 0);
+			}
+		}
+		return total;
+	}
+
+	private TransactionTemplate newTransaction() {
+
+		TransactionTemplate template = new TransactionTemplate(this.transactionManager);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return template;
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Writes quotes with JDBC batches of INSERT ... ON CONFLICT (investment_id, quote_date) DO UPDATE statements so an
+ * investment holds at most one quote per date. Relies on the quotes_investment_date_uk unique index, declared on
+ * QuoteDTO and put in place on existing databases by QuotesUniqueIndexMigration. Every quote ingestion path in
+ * QuotesService writes through this class.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class QuotesBulkWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(QuotesBulkWriter.class);
+
+	static final String UPSERT_QUOTE_SQL =
+			"INSERT INTO quotes (quote_date, price_at_open, price_at_close, high, low, volume, price_change, "
+			+ "week52high, week52low, investment_id) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+			+ "ON CONFLICT (investment_id, quote_date) DO UPDATE SET "
+			+ "price_at_open = EXCLUDED.price_at_open, price_at_close = EXCLUDED.price_at_close, "
+			+ "high = EXCLUDED.high, low = EXCLUDED.low, volume = EXCLUDED.volume, "
+			+ "price_change = EXCLUDED.price_change, week52high = EXCLUDED.week52high, "
+			+ "week52low = EXCLUDED.week52low";
+
+	static final String UPSERT_QUOTE_RETURNING_ID_SQL = UPSERT_QUOTE_SQL + " RETURNING quote_id";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${quotes.bulk-writer.batch-size:500}")
+	int batchSize = 500;
+
+	/**
+	 * Inserts or updates a list of quotes in JDBC batches of quotes.bulk-writer.batch-size rows. Generated quote ids
+	 * are not read back. When the list holds several quotes for an investment and date only the last one is written:
+	 * the driver rewrites each batch into one multi-row statement, which Postgres rejects when it would update the
+	 * same row twice.
+	 *
+	 * @param quotes - quotes to write, each must carry its investment id
+	 * @return the number of quotes written
+	 */
+	public int upsertQuotes(List<Quote> quotes) {
+		log.info("Entered upsertQuotes()");
+
+		if (quotes == null) {
+			throw new InvalidRequestException("quotes must be non-null");
+		}
+
+		if (quotes.isEmpty()) {
+			return 0;
+		}
+
+		for (Quote quote : quotes) {
+			validate(quote);
+		}
+
+		List<Quote> distinctQuotes = lastPerInvestmentAndDate(quotes);
+
+		int[][] counts = this.jdbcTemplate.batchUpdate(UPSERT_QUOTE_SQL, distinctQuotes, this.batchSize,
+				QuotesBulkWriter::setValues);
+
+		int written = 0;
+		if (counts != null) {
+			for (int[] batch : counts) {
+				// drivers may report SUCCESS_NO_INFO rather than a row count, the statement still wrote the row
+				written += batch.length;
+			}
+		}
+
+		log.debug("Wrote {} quotes in batches of {}", written, this.batchSize);
+		log.info("Exiting upsertQuotes()");
+
+		return written;
+	}
+
+	/**
+	 * Inserts or updates a single quote.
+	 *
+	 * @param quote - quote to write, must carry its investment id
+	 * @return the id of the inserted or updated quote
+	 */
+	public Long upsertQuote(Quote quote) {
+		log.info("Entered upsertQuote()");
+
+		validate(quote);
+
+		Long quoteId = this.jdbcTemplate.query(UPSERT_QUOTE_RETURNING_ID_SQL, ps -> setValues(ps, quote),
+				rs -> rs.next() ? rs.getLong(1) : null);
+
+		log.debug("Wrote quote {}", quoteId);
+		log.info("Exiting upsertQuote()");
+
+		return quoteId;
+	}
+
+	private static List<Quote> lastPerInvestmentAndDate(List<Quote> quotes) {
+
+		Map<List<Long>, Quote> byKey = new LinkedHashMap<>(quotes.size() * 2);
+		for (Quote quote : quotes) {
+			// keyed like the ON CONFLICT target, a later quote replaces an earlier one in its original position
+			byKey.put(List.of(quote.getInvestment().getInvestmentId(), quote.getDate().getTime()), quote);
+		}
+
+		return byKey.size() == quotes.size() ? quotes : new ArrayList<>(byKey.values());
+	}
+
+	private static void validate(Quote quote) {
+
+		if (quote == null) {
+			throw new InvalidRequestException("quote must be non-null");
+		}
+
+		if (quote.getInvestment() == null || quote.getInvestment().getInvestmentId() == null) {
+			throw new InvalidRequestException("quote.investment.investmentId must be non-null");
+		}
+
+		if (quote.getDate() == null) {
+			throw new InvalidRequestException("quote.date must be non-null");
+		}
+	}
+
+	private static void setValues(PreparedStatement ps, Quote quote) throws SQLException {
+
+		ps.setTimestamp(1, new Timestamp(quote.getDate().getTime()));
+		setDecimal(ps, 2, quote.getOpen());
+		setDecimal(ps, 3, quote.getClose());
+		setDecimal(ps, 4, quote.getHigh());
+		setDecimal(ps, 5, quote.getLow());
+		ps.setObject(6, quote.getVolume(), Types.INTEGER);
+		setDecimal(ps, 7, quote.getPriceChange());
+		setDecimal(ps, 8, quote.getWeek52High());
+		setDecimal(ps, 9, quote.getWeek52Low());
+		ps.setLong(10, quote.getInvestment().getInvestmentId());
+	}
+
+	private static void setDecimal(PreparedStatement ps, int index, BigDecimal value) throws SQLException {
+
+		if (value == null) {
+			ps.setNull(index, Types.NUMERIC);
+		}
+		else {
+			ps.setBigDecimal(index, value);
+		}
+	}
+}
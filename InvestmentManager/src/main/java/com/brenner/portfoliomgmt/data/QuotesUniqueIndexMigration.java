@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Puts the unique (investment_id, quote_date) index behind QuotesBulkWriter's ON CONFLICT clause in place on
+ * databases created before the quotes_investment_date_uk constraint was declared. Those databases can hold several
+ * quotes for an investment and date, which keeps ddl-auto from adding the constraint, so the duplicates are deleted
+ * first, keeping the greatest quote id of each investment and date, the row latest_quotes already points at.
+ *
+ * Runs once the schema has been updated and before the application serves requests or starts its scheduled jobs.
+ * Both statements are no-ops on a database that already has the index.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class QuotesUniqueIndexMigration {
+
+	private static final Logger log = LoggerFactory.getLogger(QuotesUniqueIndexMigration.class);
+
+	static final String DELETE_DUPLICATES_SQL = "DELETE FROM quotes q WHERE EXISTS (SELECT 1 FROM quotes d "
+			+ "WHERE d.investment_id = q.investment_id AND d.quote_date = q.quote_date AND d.quote_id > q.quote_id)";
+
+	static final String CREATE_INDEX_SQL =
+			"CREATE UNIQUE INDEX IF NOT EXISTS quotes_investment_date_uk ON quotes (investment_id, quote_date)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@PostConstruct
+	public void migrateOnStartup() {
+
+		this.migrate();
+	}
+
+	/**
+	 * Deletes duplicate quotes and creates the unique index in one transaction.
+	 *
+	 * @return the number of duplicate quotes deleted
+	 */
+	public int migrate() {
+		log.info("Entered migrate()");
+
+		Integer deleted = new TransactionTemplate(this.transactionManager).execute(status -> {
+			int rows = this.jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+			this.jdbcTemplate.execute(CREATE_INDEX_SQL);
+			return rows;
+		});
+
+		if (deleted != null && deleted > 0) {
+			log.warn("Deleted {} duplicate quotes before creating quotes_investment_date_uk", deleted);
+		}
+
+		log.info("Exiting migrate()");
+		return deleted != null ? deleted : 0;
+	}
+}
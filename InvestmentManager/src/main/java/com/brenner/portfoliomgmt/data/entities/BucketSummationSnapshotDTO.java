@@ -0,0 +1,98 @@
+package com.brenner.portfoliomgmt.data.entities;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Market value of the holdings in each bucket on a date. Rows are read and written through
+ * HoldingBucketSummationMapper and BucketSnapshotWriter, one per date. The entity exists so the table and its key
+ * are created with the rest of the schema.
+ *
+ * @author dbrenner
+ *
+ */
+@Entity
+@Table(name="bucket_summation_snapshots")
+public class BucketSummationSnapshotDTO {
+
+	@Id
+	@Temporal(TemporalType.DATE)
+	@Column(name="snap_shot_date")
+	private Date snapShotDate;
+
+	@Column(name="bucket_1_total")
+	private Double bucket1Total;
+
+	@Column(name="bucket_2_total")
+	private Double bucket2Total;
+
+	@Column(name="bucket_3_total")
+	private Double bucket3Total;
+
+	@Column(name="excluded_bucket_total")
+	private Double excludedBucketTotal;
+
+	public BucketSummationSnapshotDTO() {}
+
+	public Date getSnapShotDate() {
+		return snapShotDate;
+	}
+
+	public void setSnapShotDate(Date snapShotDate) {
+		this.snapShotDate = snapShotDate;
+	}
+
+	public Double getBucket1Total() {
+		return bucket1Total;
+	}
+
+	public void setBucket1Total(Double bucket1Total) {
+		this.bucket1Total = bucket1Total;
+	}
+
+	public Double getBucket2Total() {
+		return bucket2Total;
+	}
+
+	public void setBucket2Total(Double bucket2Total) {
+		this.bucket2Total = bucket2Total;
+	}
+
+	public Double getBucket3Total() {
+		return bucket3Total;
+	}
+
+	public void setBucket3Total(Double bucket3Total) {
+		this.bucket3Total = bucket3Total;
+	}
+
+	public Double getExcludedBucketTotal() {
+		return excludedBucketTotal;
+	}
+
+	public void setExcludedBucketTotal(Double excludedBucketTotal) {
+		this.excludedBucketTotal = excludedBucketTotal;
+	}
+
+	@Override
+	public String toString() {
+
+		ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
+		builder.append("snapShotDate", snapShotDate)
+			.append("bucket1Total", bucket1Total)
+			.append("bucket2Total", bucket2Total)
+			.append("bucket3Total", bucket3Total)
+			.append("excludedBucketTotal", excludedBucketTotal);
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,88 @@
+package com.brenner.portfoliomgmt.data.entities;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Pointer to the most recent quote of an investment. The table holds one row per quoted investment, so the current
+ * pricing date (the greatest quote date of any investment) and the latest close of each investment are read without
+ * scanning the quote history. Rows are maintained by LatestQuotesWriter, they are never edited directly. The entity
+ * exists so the table and its indexes are created with the rest of the schema.
+ *
+ * @author dbrenner
+ *
+ */
+@Entity
+@Table(name="latest_quotes", indexes = {
+		@Index(name="latest_quotes_date_idx", columnList = "quote_date")
+})
+public class LatestQuoteDTO {
+
+	@Id
+	@Column(name="investment_id")
+	private Long investmentId;
+
+	@Column(name="quote_id", nullable = false)
+	private Long quoteId;
+
+	@Column(name="quote_date", nullable = false)
+	private Date quoteDate;
+
+	@Column(name="price_at_close", nullable = false)
+	private BigDecimal close;
+
+	public LatestQuoteDTO() {}
+
+	public Long getInvestmentId() {
+		return investmentId;
+	}
+
+	public void setInvestmentId(Long investmentId) {
+		this.investmentId = investmentId;
+	}
+
+	public Long getQuoteId() {
+		return quoteId;
+	}
+
+	public void setQuoteId(Long quoteId) {
+		this.quoteId = quoteId;
+	}
+
+	public Date getQuoteDate() {
+		return quoteDate;
+	}
+
+	public void setQuoteDate(Date quoteDate) {
+		this.quoteDate = quoteDate;
+	}
+
+	public BigDecimal getClose() {
+		return close;
+	}
+
+	public void setClose(BigDecimal close) {
+		this.close = close;
+	}
+
+	@Override
+	public String toString() {
+
+		ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
+		builder.append("investmentId", investmentId)
+			.append("quoteId", quoteId)
+			.append("quoteDate", quoteDate)
+			.append("close", close);
+
+		return builder.toString();
+	}
+}
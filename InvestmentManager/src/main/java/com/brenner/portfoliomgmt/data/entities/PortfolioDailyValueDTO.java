@@ -0,0 +1,118 @@
+package com.brenner.portfoliomgmt.data.entities;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Materialized market value of the holdings in an investment for an account on a quote date. Rows are derived from
+ * holdings, transactions and quotes and maintained by PortfolioDailyValueWriter, they are never edited directly. The
+ * entity exists so the table and its indexes are created with the rest of the schema.
+ *
+ * @author dbrenner
+ *
+ */
+@Entity
+@Table(name="portfolio_daily_value", uniqueConstraints = {
+		@UniqueConstraint(name="portfolio_daily_value_uk", columnNames = {"account_id", "investment_id", "value_date"})
+}, indexes = {
+		@Index(name="portfolio_daily_value_date_idx", columnList = "value_date"),
+		@Index(name="portfolio_daily_value_investment_date_idx", columnList = "investment_id, value_date")
+})
+public class PortfolioDailyValueDTO {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="portfolio_daily_value_id")
+	private Long portfolioDailyValueId;
+
+	@Column(name="account_id")
+	private Long accountId;
+
+	@Column(name="investment_id", nullable = false)
+	private Long investmentId;
+
+	@Column(name="value_date", nullable = false)
+	private Date valueDate;
+
+	@Column(name="quantity")
+	private BigDecimal quantity;
+
+	@Column(name="market_value")
+	private BigDecimal marketValue;
+
+	public PortfolioDailyValueDTO() {}
+
+	public Long getPortfolioDailyValueId() {
+		return portfolioDailyValueId;
+	}
+
+	public void setPortfolioDailyValueId(Long portfolioDailyValueId) {
+		this.portfolioDailyValueId = portfolioDailyValueId;
+	}
+
+	public Long getAccountId() {
+		return accountId;
+	}
+
+	public void setAccountId(Long accountId) {
+		this.accountId = accountId;
+	}
+
+	public Long getInvestmentId() {
+		return investmentId;
+	}
+
+	public void setInvestmentId(Long investmentId) {
+		this.investmentId = investmentId;
+	}
+
+	public Date getValueDate() {
+		return valueDate;
+	}
+
+	public void setValueDate(Date valueDate) {
+		this.valueDate = valueDate;
+	}
+
+	public BigDecimal getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(BigDecimal quantity) {
+		this.quantity = quantity;
+	}
+
+	public BigDecimal getMarketValue() {
+		return marketValue;
+	}
+
+	public void setMarketValue(BigDecimal marketValue) {
+		this.marketValue = marketValue;
+	}
+
+	@Override
+	public String toString() {
+
+		ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
+		builder.append("portfolioDailyValueId", portfolioDailyValueId)
+			.append("accountId", accountId)
+			.append("investmentId", investmentId)
+			.append("valueDate", valueDate)
+			.append("quantity", quantity)
+			.append("marketValue", marketValue);
+
+		return builder.toString();
+	}
+}
@@ -15,6 +15,7 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -24,7 +25,9 @@ import com.brenner.portfoliomgmt.util.CommonUtils;
 
 
 @Entity(name="quotes")
-@Table(name="quotes")
+@Table(name="quotes", uniqueConstraints = {
+		@UniqueConstraint(name="quotes_investment_date_uk", columnNames = {"investment_id", "quote_date"})
+})
 public class QuoteDTO implements Comparable<QuoteDTO> {
 	
     @Id
@@ -54,8 +57,10 @@ public class QuoteDTO implements Comparable<QuoteDTO> {
 	@Column(name="price_change")
     private BigDecimal priceChange; 
 	
+	@Column(name="week52high")
 	private BigDecimal week52High;
 	
+	@Column(name="week52low")
 	private BigDecimal week52Low;
 	
 	@OneToOne(fetch=FetchType.LAZY, cascade = CascadeType.REFRESH)
@@ -11,7 +11,7 @@ import org.apache.ibatis.annotations.Result;
 
 import com.brenner.portfoliomgmt.data.entities.reporting.HoldingBucketSummation;
 import com.brenner.portfoliomgmt.domain.BucketEnum;
-import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
 
 /**
  *
@@ -23,8 +23,11 @@ public interface HoldingBucketSummationMapper {
 
 	List<HoldingBucketSummation> historicalBucketSummation();
 	
+	/**
+	 * @return the open holdings, valued by BucketAggregationEngine
+	 */
 	@Result(property = "bucket", column = "bucket", typeHandler=BucketEnumTypeHander.class, javaType = BucketEnum.class)
-	List<HoldingBucket> holdingsByBucket();
+	List<HoldingLot> holdingLots();
 	
 	Date findbucketSummaryReport(Date summaryReportDate);
 	
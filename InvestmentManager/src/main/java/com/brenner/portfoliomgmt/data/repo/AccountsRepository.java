@@ -3,9 +3,12 @@
  */
 package com.brenner.portfoliomgmt.data.repo;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 
@@ -19,4 +22,11 @@ public interface AccountsRepository extends JpaRepository<AccountDTO, Long> {
 	Optional<AccountDTO> findAccountByAccountNumber(String accountNumber);
 	
 	Optional<AccountDTO> findAccountByAccountName(String accountName);
+	
+	/**
+	 * @param accountNames - account names to look up
+	 * @return an (accountName, accountId) pair for each account found
+	 */
+	@Query("SELECT a.accountName, a.accountId FROM AccountDTO a WHERE a.accountName IN ?1")
+	List<Object[]> findAccountIdsByAccountNameIn(Collection<String> accountNames);
 }
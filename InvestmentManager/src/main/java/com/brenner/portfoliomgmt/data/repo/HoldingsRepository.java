@@ -27,8 +27,8 @@ public interface HoldingsRepository extends JpaRepository<HoldingDTO, Long> {
 			+ "                SUM((h.quantity * q.price_at_close) - (h.purchase_price * h.quantity)) as change_in_value\n"
 			+ "            FROM holdings h\n"
 			+ "            LEFT JOIN investments i on i.investment_id = h.investment_investment_id\n"
-			+ "            LEFT OUTER JOIN quotes q on q.investment_id = i.investment_id and q.quote_date = "
-			+ "					(SELECT MAX(quote_date) FROM quotes)\n"
+			+ "            LEFT OUTER JOIN latest_quotes q on q.investment_id = i.investment_id and q.quote_date = "
+			+ "					(SELECT MAX(quote_date) FROM latest_quotes)\n"
 			+ "            WHERE h.quantity > 0\n"
 			+ "            GROUP BY h.purchase_price, h.quantity, i.symbol, i.company_name, q.price_at_close, i.investment_id \n"
 			+ "            ORDER BY market_value ?;")
@@ -39,8 +39,8 @@ public interface HoldingsRepository extends JpaRepository<HoldingDTO, Long> {
 			+ " SUM((h.quantity * q.price_at_close) - (h.purchase_price * h.quantity)) as change_in_value \n"
 			+ " FROM holdings h \n"
 			+ " LEFT JOIN investments i on i.investment_id = h.investment_investment_id \n"
-			+ " LEFT OUTER JOIN quotes q on q.investment_id = i.investment_id and q.quote_date = "
-			+ "(SELECT MAX(quote_date) FROM quotes)\n"
+			+ " LEFT OUTER JOIN latest_quotes q on q.investment_id = i.investment_id and q.quote_date = "
+			+ "(SELECT MAX(quote_date) FROM latest_quotes)\n"
 			+ " WHERE h.quantity > 0 \n"
 			+ " GROUP BY h.purchase_price, h.quantity, i.symbol, i.company_name, q.price_at_close, i.investment_id \n"
 			+ " ORDER BY change_in_value DESC;")
@@ -52,13 +52,13 @@ public interface HoldingsRepository extends JpaRepository<HoldingDTO, Long> {
 	List<HoldingDTO> findByAccountAccountId(Long accountId);
 	
 	@Query(nativeQuery = true, value = "SELECT h.*, a.*, t.*, i.*, q.* "
-			+ " FROM holdings h, accounts a, transactions t, investments i, quotes q "
+			+ " FROM holdings h, accounts a, transactions t, investments i, latest_quotes q "
 			+ " WHERE "
 			+ "  h.account_account_id = a.account_id "
 			+ "  AND t.holding_holding_id = h.holding_id "
 			+ "  AND i.investment_id = h.investment_investment_id "
 			+ "  AND q.investment_id = i.investment_id "
-			+ "  AND q.quote_date = (SELECT MAX(quote_date) FROM quotes) "
+			+ "  AND q.quote_date = (SELECT MAX(quote_date) FROM latest_quotes) "
 			+ "  AND t.transaction_type in ('Buy','Transfer') "
 			+ "  AND h.account_account_id = ? "
 			+ "  AND h.quantity > 0;")
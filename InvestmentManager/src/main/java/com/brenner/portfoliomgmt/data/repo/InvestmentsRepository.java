@@ -3,6 +3,7 @@
  */
 package com.brenner.portfoliomgmt.data.repo;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,9 +23,16 @@ public interface InvestmentsRepository extends JpaRepository<InvestmentDTO, Long
 	
 	public Optional<InvestmentDTO> findBySymbol(String symbol);
 	
+	/**
+	 * @param symbols - symbols to look up
+	 * @return a (symbol, investmentId) pair for each symbol found
+	 */
+	@Query("SELECT i.symbol, i.investmentId FROM InvestmentDTO i WHERE i.symbol IN ?1")
+	List<Object[]> findInvestmentIdsBySymbolIn(Collection<String> symbols);
+	
 	@Query(nativeQuery = true, value = "SELECT DISTINCT(i.symbol), i.investment_id, i.company_name, i.exchange, i.sector, i.investment_type, MAX(q.quote_date) as quote_date\n"
 			+ "			FROM investments i RIGHT JOIN holdings h ON i.investment_id = h.investment_investment_id \n"
-			+ "			LEFT JOIN quotes q on q.investment_id = i.investment_id WHERE h.quantity > 0\n"
+			+ "			LEFT JOIN latest_quotes q on q.investment_id = i.investment_id WHERE h.quantity > 0\n"
 			+ "			GROUP BY i.symbol, i.investment_id, i.company_name, i.exchange, i.sector, i.investment_type\n"
 			+ "			ORDER by i.symbol")
 	List<InvestmentDTO> findInvestmentsForHoldingsOrderedBySymbol();
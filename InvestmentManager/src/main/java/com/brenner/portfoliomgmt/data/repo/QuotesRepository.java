@@ -3,12 +3,14 @@
  */
 package com.brenner.portfoliomgmt.data.repo;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
 
@@ -25,13 +27,55 @@ public interface QuotesRepository extends JpaRepository<QuoteDTO, Long> {
 			+ " WHERE quotes.investment_id = investments.investment_id and investments.symbol=?;")
 	public Optional<String> getMaxQuoteDateForInvestmentSymbol(String symbol);
 	
-	@Query(nativeQuery = true, value = "SELECT MAX(quote_date) as quote_date FROM quotes;")
+	/**
+	 * Retrieves the current pricing date from the per-investment latest quote pointers.
+	 * 
+	 * @return the most recent quote date of any investment
+	 */
+	@Query(nativeQuery = true, value = "SELECT MAX(quote_date) as quote_date FROM latest_quotes;")
 	public String getMaxQuoteDate();
 	
-	public List<QuoteDTO> findAllByInvestmentSymbol(String symbol);
+	/**
+	 * Retrieves the quote history of an investment in chart order.
+	 * 
+	 * @param symbol - investment identifier
+	 * @return {@link List}<QuoteDTO> ordered by quote date, oldest first
+	 */
+	public List<QuoteDTO> findAllByInvestmentSymbolOrderByDateAsc(String symbol);
+	
+	/**
+	 * Retrieves the dates of the stored quotes for an investment on or after the start of a window.
+	 * 
+	 * @param symbol - investment identifier
+	 * @param windowStart - earliest quote date to return
+	 * @return {@link List}<Date>
+	 */
+	@Query(nativeQuery = true, value = "SELECT q.quote_date FROM quotes q JOIN investments i ON q.investment_id = i.investment_id "
+			+ " WHERE i.symbol = :symbol AND q.quote_date >= :windowStart")
+	public List<Date> findQuoteDatesForInvestmentSymbolSince(@Param("symbol") String symbol, @Param("windowStart") Date windowStart);
 	
 	public List<QuoteDTO> findAllByInvestmentInvestmentId(Long investmentId);
 
 	@Query(nativeQuery = true, value = "select * from quotes q where investment_id = ? and q.quote_date = (select max(quote_date) from quotes where investment_id = ?);")
 	public List<QuoteDTO> findMostRecentQuotesForInvestmentId(Long investmentId, Long investmentId2);
+	
+	/**
+	 * Retrieves the most recent quote for each of the supplied investments in a single round trip.
+	 * Investments without any quotes are simply absent from the result.
+	 * 
+	 * @param investmentIds - unique investment identifiers
+	 * @return {@link List}<QuoteDTO> with at most one quote per investment
+	 */
+	@Query(nativeQuery = true, value = "SELECT DISTINCT ON (q.investment_id) q.* FROM quotes q "
+			+ " WHERE q.investment_id IN (:investmentIds) ORDER BY q.investment_id, q.quote_date DESC, q.quote_id DESC")
+	public List<QuoteDTO> findMostRecentQuotesForInvestmentIds(@Param("investmentIds") Collection<Long> investmentIds);
+	
+	/**
+	 * Retrieves the most recent quote for every investment that has quotes.
+	 * 
+	 * @return {@link List}<QuoteDTO> with one quote per investment
+	 */
+	@Query(nativeQuery = true, value = "SELECT DISTINCT ON (q.investment_id) q.* FROM quotes q "
+			+ " ORDER BY q.investment_id, q.quote_date DESC, q.quote_id DESC")
+	public List<QuoteDTO> findMostRecentQuotes();
 }
@@ -10,6 +10,9 @@ public class BatchQuotes {
 
 	private Map<String, Quote> quotes;
 	
+	// symbol to the error that prevented its quote from being retrieved, populated when a batch is split into chunks
+	private Map<String, String> failedSymbols;
+	
 	public BatchQuotes() {}
 	
 	public BatchQuotes(Map<String, Quote> quotes) {
@@ -23,5 +26,20 @@ public class BatchQuotes {
 	public void setQuotes(Map<String, Quote> quotes) {
 		this.quotes = quotes;
 	}
+
+	public Map<String, String> getFailedSymbols() {
+		return failedSymbols;
+	}
+
+	public void setFailedSymbols(Map<String, String> failedSymbols) {
+		this.failedSymbols = failedSymbols;
+	}
+	
+	/**
+	 * @return true when the quotes for some of the requested symbols could not be retrieved
+	 */
+	public boolean isPartial() {
+		return this.failedSymbols != null && ! this.failedSymbols.isEmpty();
+	}
 	
 }
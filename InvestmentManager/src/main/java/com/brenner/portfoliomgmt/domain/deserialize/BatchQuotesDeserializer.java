@@ -2,7 +2,6 @@ package com.brenner.portfoliomgmt.domain.deserialize;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -11,9 +10,8 @@ import org.slf4j.LoggerFactory;
 import com.brenner.portfoliomgmt.domain.BatchQuotes;
 import com.brenner.portfoliomgmt.domain.Quote;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 /**
@@ -49,7 +47,8 @@ public class BatchQuotesDeserializer extends StdDeserializer<BatchQuotes> {
 	}
 
 	/**
-	 * Converts the JSON data to a BatchQuotes object
+	 * Converts the JSON data to a BatchQuotes object. The response is keyed by symbol, each symbol holding the
+	 * requested types; only the quote is read, token by token, and the other types are skipped.
 	 * 
 	 * @param jp - the JSON parser with the JOSN data
 	 * @param ctxt - the deserialization context
@@ -59,20 +58,34 @@ public class BatchQuotesDeserializer extends StdDeserializer<BatchQuotes> {
 	public BatchQuotes deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
 		log.info("Entering deserialize()");
 		
-		JsonNode quoteNodes = jp.getCodec().readTree(jp);
-		List<JsonNode> quotesList = quoteNodes.findValues("quote");
-		log.debug("Count of quoteNodes: {}", quotesList != null ? quotesList.size() : 0);
-		
-		int numQuotes = quotesList.size();
+		if (jp.currentToken() != JsonToken.START_OBJECT) {
+			throw ctxt.wrongTokenException(jp, BatchQuotes.class, JsonToken.START_OBJECT, "batch is keyed by symbol");
+		}
 		
 		Map<String, Quote> quotes = new HashMap<>();
 		
-		for (int i=0; i<numQuotes; i++) {
-			ObjectMapper objectMapper = new ObjectMapper();
-			Quote q = objectMapper.readValue(quotesList.get(i).toString(), Quote.class);
-			log.debug("Deserialized quote: {}", q);
-			quotes.put(q.getInvestment().getSymbol(), q);
+		for (String symbol = jp.nextFieldName(); symbol != null; symbol = jp.nextFieldName()) {
+			
+			if (jp.nextToken() != JsonToken.START_OBJECT) {
+				jp.skipChildren();
+				continue;
+			}
+			
+			for (String type = jp.nextFieldName(); type != null; type = jp.nextFieldName()) {
+				if (jp.nextToken() != JsonToken.START_OBJECT || ! "quote".equals(type)) {
+					jp.skipChildren();
+					continue;
+				}
+				
+				Quote q = QuoteTokenReader.readIexQuote(jp);
+				if (q.getInvestment().getSymbol() == null) {
+					q.getInvestment().setSymbol(symbol);
+				}
+				log.debug("Deserialized quote: {}", q);
+				quotes.put(q.getInvestment().getSymbol(), q);
+			}
 		}
+		log.debug("Count of quoteNodes: {}", quotes.size());
 		
 		log.info("Exiting deserialize()");
 		return new BatchQuotes(quotes);
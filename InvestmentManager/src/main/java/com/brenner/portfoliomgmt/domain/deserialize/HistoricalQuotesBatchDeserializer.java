@@ -3,7 +3,6 @@ package com.brenner.portfoliomgmt.domain.deserialize;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -15,9 +14,8 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 /**
@@ -41,7 +39,8 @@ public class HistoricalQuotesBatchDeserializer extends StdDeserializer<BatchHist
     }
 
     /**
-     * Converts JSON text to BatchHistoricalQuotes object
+     * Converts JSON text to BatchHistoricalQuotes object. The response is keyed by symbol, each symbol holding the
+     * requested types; only the chart is read, token by token, and the other types are skipped.
      * 
      * @param jp - the JSON parser with JSON
      * @param ctxt - the deserialization context
@@ -51,38 +50,38 @@ public class HistoricalQuotesBatchDeserializer extends StdDeserializer<BatchHist
     public BatchHistoricalQuotes deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
     	log.info("Entering deserialize()");
         
-        JsonNode symbolNodes = jp.getCodec().readTree(jp);
-        log.debug("Count of symbol nodes: {}", symbolNodes.size());
-        
-        Iterator<String> fieldNamesIter = symbolNodes.fieldNames();
+        if (jp.currentToken() != JsonToken.START_OBJECT) {
+        	throw ctxt.wrongTokenException(jp, BatchHistoricalQuotes.class, JsonToken.START_OBJECT, "batch is keyed by symbol");
+        }
         
         Map<String, List<Quote>> quotesMap = new HashMap<>();
         
-        while (fieldNamesIter.hasNext()) {
-            String symbol = fieldNamesIter.next();
+        for (String symbol = jp.nextFieldName(); symbol != null; symbol = jp.nextFieldName()) {
             log.debug("Extracting details for symbol: {}", symbol);
             
-            JsonNode chartNode = symbolNodes.get(symbol);
-            Iterator<JsonNode> chartNodeIter = chartNode.elements();
+            if (jp.nextToken() != JsonToken.START_OBJECT) {
+            	jp.skipChildren();
+            	continue;
+            }
             
-            while (chartNodeIter.hasNext()) {
-                JsonNode quoteNodes = chartNodeIter.next();
-                Iterator<JsonNode> quoteNodeIter = quoteNodes.elements();
-                List<Quote> quotesList = new ArrayList<>();
-                
-                while (quoteNodeIter.hasNext()) {
-                    JsonNode quoteNode = quoteNodeIter.next();
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    Quote quote = objectMapper.readValue(quoteNode.toString(), Quote.class);
-                    log.debug("Built quote: {}", quote);
-                    Investment investment = new Investment();
-                    investment.setSymbol(symbol);
-                    quote.setInvestment(investment);
-                    quotesList.add(quote);
-                }
-                quotesMap.put(symbol, quotesList);
+            for (String type = jp.nextFieldName(); type != null; type = jp.nextFieldName()) {
+            	if (jp.nextToken() != JsonToken.START_ARRAY || ! "chart".equals(type)) {
+            		jp.skipChildren();
+            		continue;
+            	}
+            	
+            	List<Quote> quotesList = new ArrayList<>();
+            	while (jp.nextToken() != JsonToken.END_ARRAY) {
+            		Quote quote = QuoteTokenReader.readIexChartQuote(jp);
+            		Investment investment = new Investment();
+            		investment.setSymbol(symbol);
+            		quote.setInvestment(investment);
+            		quotesList.add(quote);
+            	}
+            	quotesMap.put(symbol, quotesList);
             }
         }
+        log.debug("Count of symbol nodes: {}", quotesMap.size());
         
         BatchHistoricalQuotes histQuotes = new BatchHistoricalQuotes();
         histQuotes.setQuotesMap(quotesMap);
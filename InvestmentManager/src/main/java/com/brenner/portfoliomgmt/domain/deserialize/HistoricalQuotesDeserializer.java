@@ -1,11 +1,8 @@
 package com.brenner.portfoliomgmt.domain.deserialize;
 
 import java.io.IOException;
-import java.text.ParseException;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -13,11 +10,10 @@ import org.slf4j.LoggerFactory;
 
 import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
-import com.brenner.portfoliomgmt.util.CommonUtils;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 /**
@@ -42,7 +38,8 @@ public class HistoricalQuotesDeserializer extends StdDeserializer<HistoricalQuot
     }
 
     /**
-     * Converts JSON text to HistoricalQuotes object
+     * Converts JSON text to HistoricalQuotes object. The chart array is read token by token, each row is built into
+     * a quote directly from the parser.
      * 
      * @param jp - the JSON parser with JSON
      * @param ctxt - the deserialization context
@@ -52,34 +49,21 @@ public class HistoricalQuotesDeserializer extends StdDeserializer<HistoricalQuot
     public HistoricalQuotes deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
     	log.info("Entering deserialize()");
         
-        JsonNode quoteNodes = jp.getCodec().readTree(jp);
-        List<String> nodes = quoteNodes.findValuesAsText("date");
-        log.debug("Quote nodes: {}", nodes != null ? nodes.size() : 0);
-        
-        int numQuotes = nodes.size();
-        Iterator<JsonNode> iterator = quoteNodes.elements();
+        if (jp.currentToken() != JsonToken.START_ARRAY) {
+        	throw ctxt.wrongTokenException(jp, HistoricalQuotes.class, JsonToken.START_ARRAY, "IEX chart is an array of quotes");
+        }
 
-        Map<Date, Quote> quotes = new HashMap<>(numQuotes);
-        int i = 0;
+        Map<Date, Quote> quotes = new HashMap<>();
         
-        while (iterator.hasNext()) {
-            JsonNode node = iterator.next();
-            String dateStr = node.get("date").asText();
-            log.debug("Node date value: {}", dateStr);
-            
-            Date date;
-            try {
-                date = CommonUtils.convertDatePickerDateFormatStringToDate(dateStr);
-            } catch (ParseException e) {
-                throw new IOException(e);
+        while (jp.nextToken() != JsonToken.END_ARRAY) {
+            Quote q = QuoteTokenReader.readIexChartQuote(jp);
+            if (q.getDate() == null) {
+            	throw JsonMappingException.from(jp, "Historical quote without a date");
             }
-            ObjectMapper objectMapper = new ObjectMapper();
-            Quote q = objectMapper.readValue(quoteNodes.get(i).toString(), Quote.class);
-            log.debug("Extracted quote: {}", q);
             
-            quotes.put(date, q);
-            i++;
+            quotes.put(q.getDate(), q);
         }
+        log.debug("Quote nodes: {}", quotes.size());
         
         log.info("Exiting deserialize()");
         return new HistoricalQuotes(quotes);
@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.domain.deserialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Date;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.util.CommonUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * Builds quotes from quote provider payloads one token at a time. Each reader expects the parser to be positioned on
+ * the START_OBJECT of a quote and leaves it on the matching END_OBJECT. Fields that are not mapped are skipped without
+ * being materialized so unknown provider fields never fail a read.
+ *
+ * @author dbrenner
+ *
+ */
+public final class QuoteTokenReader {
+
+	private QuoteTokenReader() {}
+
+	/**
+	 * Reads a row of an IEX chart (historical quotes) response.
+	 *
+	 * @param jp - parser positioned on the START_OBJECT of the row
+	 * @return {@link Quote} without an investment
+	 * @throws IOException - when the row is not an object or its date cannot be parsed
+	 */
+	public static Quote readIexChartQuote(JsonParser jp) throws IOException {
+
+		expectStartObject(jp);
+
+		Quote q = new Quote();
+
+		for (String field = jp.nextFieldName(); field != null; field = jp.nextFieldName()) {
+			jp.nextToken();
+			switch (field) {
+				case "date": q.setDate(dateValue(jp)); break;
+				case "open": q.setOpen(decimalValue(jp)); break;
+				case "close": q.setClose(decimalValue(jp)); break;
+				case "high": q.setHigh(decimalValue(jp)); break;
+				case "low": q.setLow(decimalValue(jp)); break;
+				case "volume": q.setVolume(intValue(jp)); break;
+				case "change": q.setPriceChange(decimalValue(jp)); break;
+				default: jp.skipChildren();
+			}
+		}
+
+		return q;
+	}
+
+	/**
+	 * Reads an IEX quote object. The mapping matches {@link QuoteJsonDeserializer}.
+	 *
+	 * @param jp - parser positioned on the START_OBJECT of the quote
+	 * @return {@link Quote} with an investment carrying the symbol, company name, sector and exchange
+	 * @throws IOException - when the quote is not an object or its date cannot be parsed
+	 */
+	public static Quote readIexQuote(JsonParser jp) throws IOException {
+
+		expectStartObject(jp);
+
+		Quote q = new Quote();
+		Investment i = new Investment();
+
+		for (String field = jp.nextFieldName(); field != null; field = jp.nextFieldName()) {
+			jp.nextToken();
+			switch (field) {
+				case "iexClose": q.setClose(decimalValue(jp)); break;
+				case "iexOpen": q.setOpen(decimalValue(jp)); break;
+				case "high": q.setHigh(decimalValue(jp)); break;
+				case "low": q.setLow(decimalValue(jp)); break;
+				case "avgTotalVolume": q.setVolume(intValue(jp)); break;
+				case "change": q.setPriceChange(decimalValue(jp)); break;
+				case "date": q.setDate(dateValue(jp)); break;
+				case "week52High": q.setWeek52High(decimalValue(jp)); break;
+				case "week52Low": q.setWeek52Low(decimalValue(jp)); break;
+				case "symbol": i.setSymbol(textValue(jp)); break;
+				case "companyName": i.setCompanyName(textValue(jp)); break;
+				case "sector": i.setSector(textValue(jp)); break;
+				case "primaryExchange": i.setExchange(textValue(jp)); break;
+				default: jp.skipChildren();
+			}
+		}
+
+		q.setInvestment(i);
+		return q;
+	}
+
+	/**
+	 * @param jp - parser positioned on a value
+	 * @return the numeric value or null when the value is not a number
+	 * @throws IOException - parser errors
+	 */
+	public static BigDecimal decimalValue(JsonParser jp) throws IOException {
+
+		if (jp.currentToken() == JsonToken.VALUE_NUMBER_INT || jp.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+			return jp.getDecimalValue();
+		}
+
+		jp.skipChildren();
+		return null;
+	}
+
+	/**
+	 * @param jp - parser positioned on a value
+	 * @return the value when it is an integer that fits an int, otherwise null
+	 * @throws IOException - parser errors
+	 */
+	public static Integer intValue(JsonParser jp) throws IOException {
+
+		if (jp.currentToken() == JsonToken.VALUE_NUMBER_INT && jp.getNumberType() == JsonParser.NumberType.INT) {
+			return jp.getIntValue();
+		}
+
+		jp.skipChildren();
+		return null;
+	}
+
+	/**
+	 * @param jp - parser positioned on a value
+	 * @return the scalar value as text or null for null, objects and arrays
+	 * @throws IOException - parser errors
+	 */
+	public static String textValue(JsonParser jp) throws IOException {
+
+		if (jp.currentToken().isScalarValue() && jp.currentToken() != JsonToken.VALUE_NULL) {
+			return jp.getText();
+		}
+
+		jp.skipChildren();
+		return null;
+	}
+
+	/**
+	 * @param jp - parser positioned on a value
+	 * @return the yyyy-MM-dd date value or null when the value is not text
+	 * @throws IOException - when the text is not a date
+	 */
+	public static Date dateValue(JsonParser jp) throws IOException {
+
+		String dateStr = textValue(jp);
+		if (dateStr == null) {
+			return null;
+		}
+
+		try {
+			return CommonUtils.convertDatePickerDateFormatStringToDate(dateStr);
+		} catch (ParseException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * @param jp - parser expected on a START_OBJECT
+	 * @throws JsonMappingException - when it is not
+	 */
+	public static void expectStartObject(JsonParser jp) throws JsonMappingException {
+
+		if (jp.currentToken() != JsonToken.START_OBJECT) {
+			throw JsonMappingException.from(jp, "Expected a quote object but found " + jp.currentToken());
+		}
+	}
+}
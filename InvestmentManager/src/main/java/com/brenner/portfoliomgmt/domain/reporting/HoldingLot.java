@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.domain.reporting;
+
+import java.math.BigDecimal;
+
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+
+/**
+ * The part of an open holding needed to value it: what was bought, how much of it, at what price and the bucket it
+ * is assigned to.
+ *
+ * @author dbrenner
+ * 
+ */
+public class HoldingLot {
+	
+	private Long investmentId;
+	
+	private BigDecimal quantity;
+	
+	private BigDecimal purchasePrice;
+	
+	private BucketEnum bucket;
+	
+	public HoldingLot() {}
+
+	public HoldingLot(Long investmentId, BigDecimal quantity, BigDecimal purchasePrice, BucketEnum bucket) {
+		this.investmentId = investmentId;
+		this.quantity = quantity;
+		this.purchasePrice = purchasePrice;
+		this.bucket = bucket;
+	}
+
+	public Long getInvestmentId() {
+		return this.investmentId;
+	}
+
+	public void setInvestmentId(Long investmentId) {
+		this.investmentId = investmentId;
+	}
+
+	public BigDecimal getQuantity() {
+		return this.quantity;
+	}
+
+	public void setQuantity(BigDecimal quantity) {
+		this.quantity = quantity;
+	}
+
+	public BigDecimal getPurchasePrice() {
+		return this.purchasePrice;
+	}
+
+	public void setPurchasePrice(BigDecimal purchasePrice) {
+		this.purchasePrice = purchasePrice;
+	}
+
+	public BucketEnum getBucket() {
+		return this.bucket;
+	}
+
+	public void setBucket(BucketEnum bucket) {
+		this.bucket = bucket;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("HoldingLot [investmentId=").append(this.investmentId).append(", quantity=").append(this.quantity)
+				.append(", purchasePrice=").append(this.purchasePrice).append(", bucket=").append(this.bucket).append("]");
+		return builder.toString();
+	}
+
+}
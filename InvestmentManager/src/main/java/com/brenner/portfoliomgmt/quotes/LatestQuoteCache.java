@@ -0,0 +1,284 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
+import com.brenner.portfoliomgmt.data.repo.QuotesRepository;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+
+/**
+ * In-memory cache of the most recent quote for each investment, keyed by investment id. Warmed from the quotes
+ * table once the application is ready and kept current by the quote write paths in QuotesService. Changes made
+ * within a transaction are applied once it commits, a rolled back write leaves the cache as it was.
+ *
+ * Cached quotes only carry the investment id on their investment; callers needing the full investment should
+ * look it up separately. Quotes handed out are copies so callers cannot alter the cached state.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class LatestQuoteCache {
+
+	private static final Logger log = LoggerFactory.getLogger(LatestQuoteCache.class);
+
+	@Autowired
+	QuotesRepository quotesRepo;
+
+	private final Map<Long, Quote> latestQuotes = new ConcurrentHashMap<>();
+
+	/**
+	 * Loads the most recent quote for every investment with a single query.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void warm() {
+		log.info("Entered warm()");
+
+		List<QuoteDTO> quotesData = this.quotesRepo.findMostRecentQuotes();
+
+		this.latestQuotes.clear();
+		for (QuoteDTO quoteData : quotesData) {
+			Quote quote = toCachedQuote(quoteData);
+			if (quote != null) {
+				this.latestQuotes.put(quote.getInvestment().getInvestmentId(), quote);
+			}
+		}
+
+		log.debug("Cached most recent quotes for {} investments", this.latestQuotes.size());
+		log.info("Exiting warm()");
+	}
+
+	/**
+	 * Re-reads the most recent quote for an investment from the data store. Used when the cached quote may no longer
+	 * be the latest, e.g. after it was deleted or its date was changed.
+	 *
+	 * @param investmentId - unique investment identifier
+	 */
+	@Transactional(readOnly = true)
+	public void refresh(Long investmentId) {
+
+		if (investmentId == null) {
+			return;
+		}
+
+		List<QuoteDTO> quotesData = this.quotesRepo.findMostRecentQuotesForInvestmentIds(Collections.singletonList(investmentId));
+		Quote quote = quotesData == null || quotesData.isEmpty() ? null : toCachedQuote(quotesData.get(0));
+
+		this.apply(() -> {
+			if (quote == null) {
+				this.latestQuotes.remove(investmentId);
+			}
+			else {
+				this.latestQuotes.put(investmentId, quote);
+			}
+		});
+	}
+
+	/**
+	 * Re-reads the most recent quote for several investments with a single query. Used after bulk writes where the
+	 * generated quote ids are not known.
+	 *
+	 * @param investmentIds - unique investment identifiers
+	 */
+	@Transactional(readOnly = true)
+	public void refreshAll(Collection<Long> investmentIds) {
+
+		if (investmentIds == null || investmentIds.isEmpty()) {
+			return;
+		}
+
+		List<QuoteDTO> quotesData = this.quotesRepo.findMostRecentQuotesForInvestmentIds(investmentIds);
+
+		List<Quote> quotes = new ArrayList<>();
+		Set<Long> removed = new HashSet<>(investmentIds);
+		removed.remove(null);
+		if (quotesData != null) {
+			for (QuoteDTO quoteData : quotesData) {
+				Quote quote = toCachedQuote(quoteData);
+				if (quote != null) {
+					quotes.add(quote);
+					removed.remove(quote.getInvestment().getInvestmentId());
+				}
+			}
+		}
+
+		this.apply(() -> {
+			for (Quote quote : quotes) {
+				this.latestQuotes.put(quote.getInvestment().getInvestmentId(), quote);
+			}
+			for (Long investmentId : removed) {
+				this.latestQuotes.remove(investmentId);
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the most recent quote for the investment.
+	 *
+	 * @param investmentId - unique investment identifier
+	 * @return a copy of the cached {@link Quote} or null when the investment has no quotes
+	 */
+	public Quote getLatestQuote(Long investmentId) {
+
+		if (investmentId == null) {
+			return null;
+		}
+
+		Quote quote = this.latestQuotes.get(investmentId);
+
+		return quote == null ? null : copy(quote, investmentId);
+	}
+
+	/**
+	 * Retrieves the close of the most recent quote without copying the quote, for callers pricing many holdings.
+	 *
+	 * @param investmentId - unique investment identifier
+	 * @return the latest close or null when the investment has no quotes
+	 */
+	public BigDecimal getLatestClose(Long investmentId) {
+
+		if (investmentId == null) {
+			return null;
+		}
+
+		Quote quote = this.latestQuotes.get(investmentId);
+
+		return quote == null ? null : quote.getClose();
+	}
+
+	/**
+	 * Retrieves the price change of the most recent quote without copying the quote.
+	 *
+	 * @param investmentId - unique investment identifier
+	 * @return the latest price change or null when the investment has no quotes
+	 */
+	public BigDecimal getLatestPriceChange(Long investmentId) {
+
+		if (investmentId == null) {
+			return null;
+		}
+
+		Quote quote = this.latestQuotes.get(investmentId);
+
+		return quote == null ? null : quote.getPriceChange();
+	}
+
+	/**
+	 * Records a persisted quote. The cached entry is only replaced when the quote is at least as recent as the one
+	 * already held for the investment.
+	 *
+	 * @param quote - a quote that has been persisted
+	 */
+	public void update(Quote quote) {
+
+		if (quote == null || quote.getDate() == null || quote.getInvestment() == null || quote.getInvestment().getInvestmentId() == null) {
+			return;
+		}
+
+		Long investmentId = quote.getInvestment().getInvestmentId();
+		Quote candidate = copy(quote, investmentId);
+
+		this.apply(() -> this.latestQuotes.merge(investmentId, candidate,
+				(cached, incoming) -> incoming.getDate().before(cached.getDate()) ? cached : incoming));
+	}
+
+	/**
+	 * Records a list of persisted quotes.
+	 *
+	 * @param quotes - quotes that have been persisted
+	 */
+	public void updateAll(List<Quote> quotes) {
+
+		if (quotes != null) {
+			for (Quote quote : quotes) {
+				this.update(quote);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of investments with a cached quote
+	 */
+	public int size() {
+		return this.latestQuotes.size();
+	}
+
+	/*
+	 * Runs the change once the current transaction commits, or right away outside of a transaction
+	 */
+	private void apply(Runnable change) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+			if (pending == null) {
+				pending = new PendingChanges();
+				TransactionSynchronizationManager.bindResource(this, pending);
+				TransactionSynchronizationManager.registerSynchronization(pending);
+			}
+			pending.changes.add(change);
+		}
+		else {
+			change.run();
+		}
+	}
+
+	private static Quote toCachedQuote(QuoteDTO quoteData) {
+
+		if (quoteData == null || quoteData.getInvestment() == null) {
+			return null;
+		}
+
+		// only the id is read from the investment so a lazy proxy is not initialized
+		return new Quote(quoteData.getQuoteId(), quoteData.getDate(), quoteData.getOpen(), quoteData.getClose(),
+				quoteData.getHigh(), quoteData.getLow(), quoteData.getVolume(), quoteData.getPriceChange(),
+				quoteData.getWeek52High(), quoteData.getWeek52Low(), new Investment(quoteData.getInvestment().getInvestmentId()));
+	}
+
+	private static Quote copy(Quote quote, Long investmentId) {
+
+		return new Quote(quote.getQuoteId(), quote.getDate(), quote.getOpen(), quote.getClose(), quote.getHigh(),
+				quote.getLow(), quote.getVolume(), quote.getPriceChange(), quote.getWeek52High(), quote.getWeek52Low(),
+				new Investment(investmentId));
+	}
+
+	/**
+	 * Changes made during a transaction, in the order they were made.
+	 */
+	private class PendingChanges implements TransactionSynchronization {
+
+		private final List<Runnable> changes = new ArrayList<>();
+
+		@Override
+		public void afterCommit() {
+			this.changes.forEach(Runnable::run);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(LatestQuoteCache.this);
+		}
+	}
+}
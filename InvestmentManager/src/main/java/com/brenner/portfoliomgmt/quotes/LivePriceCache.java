@@ -0,0 +1,173 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
+import com.brenner.portfoliomgmt.data.repo.InvestmentsRepository;
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteBatchDispatcher;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.IEXQuoteRetrievalService;
+
+/**
+ * Short lived cache of live quotes for the investments currently held, keyed by investment id. Reads never wait on
+ * the quote provider: quotes older than quotes.live.ttl-seconds start a refresh in the background and are still
+ * served while it runs, so totals do not fall back to the stored prices between two refreshes. Only quotes older than
+ * quotes.live.max-age-seconds, e.g. while the provider keeps failing, are no longer served. At most one refresh runs
+ * at a time, so a burst of reads costs a single batch request.
+ *
+ * Live quotes are not persisted, reports overlay them on the prices held by the {@link LatestQuoteCache}.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class LivePriceCache {
+
+	private static final Logger log = LoggerFactory.getLogger(LivePriceCache.class);
+
+	@Value("${quotes.live.ttl-seconds:60}")
+	long ttlSeconds;
+
+	@Value("${quotes.live.max-age-seconds:900}")
+	long maxAgeSeconds;
+
+	@Autowired
+	InvestmentsRepository investmentsRepo;
+
+	@Autowired
+	QuoteBatchDispatcher quoteBatchDispatcher;
+
+	@Autowired
+	IEXQuoteRetrievalService quoteService;
+
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "live-price-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile LiveQuotes liveQuotes;
+
+	/**
+	 * @return the live quotes fetched within the max age keyed by investment id, empty while the first refresh runs
+	 */
+	public Map<Long, Quote> getFreshQuotes() {
+
+		LiveQuotes current = this.liveQuotes;
+		if (isYoungerThan(current, this.ttlSeconds)) {
+			return current.quotes;
+		}
+
+		this.refreshAsync();
+		return isYoungerThan(current, this.maxAgeSeconds) ? current.quotes : Collections.emptyMap();
+	}
+
+	/**
+	 * Starts a background refresh unless one is already running.
+	 */
+	public void refreshAsync() {
+
+		if (! this.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			this.executor.execute(() -> {
+				try {
+					this.refresh();
+				}
+				finally {
+					this.refreshing.set(false);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			this.refreshing.set(false);
+			log.warn("Live price refresh rejected", e);
+		}
+	}
+
+	/**
+	 * Fetches the live quotes of the investments held with one batch request.
+	 */
+	void refresh() {
+		log.info("Entered refresh()");
+
+		try {
+			List<InvestmentDTO> investments = this.investmentsRepo.findInvestmentsForHoldingsOrderedBySymbol();
+
+			Map<String, Long> investmentIds = new HashMap<>();
+			for (InvestmentDTO investment : investments) {
+				if (investment.getSymbol() != null && investment.getInvestmentId() != null) {
+					investmentIds.put(investment.getSymbol(), investment.getInvestmentId());
+				}
+			}
+
+			BatchQuotes batchQuotes = this.quoteBatchDispatcher.getBatchQuotes(new ArrayList<>(investmentIds.keySet()), this.quoteService);
+			if (batchQuotes.isPartial()) {
+				log.warn("Live quotes unavailable for {}", batchQuotes.getFailedSymbols().keySet());
+			}
+
+			Map<Long, Quote> quotes = new HashMap<>();
+			for (Map.Entry<String, Quote> entry : batchQuotes.getQuotes().entrySet()) {
+				Long investmentId = investmentIds.get(entry.getKey());
+				if (investmentId != null && entry.getValue() != null && entry.getValue().getClose() != null) {
+					quotes.put(investmentId, entry.getValue());
+				}
+			}
+
+			this.liveQuotes = new LiveQuotes(Collections.unmodifiableMap(quotes), System.nanoTime());
+			log.debug("Cached live quotes for {} investments", quotes.size());
+		}
+		// the previous quotes are served up to their max age, the next stale read retries
+		catch (Exception e) {
+			log.error("Unable to refresh live quotes", e);
+		}
+
+		log.info("Exiting refresh()");
+	}
+
+	@PreDestroy
+	void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	private static boolean isYoungerThan(LiveQuotes quotes, long seconds) {
+		return quotes != null && System.nanoTime() - quotes.fetchedAt < TimeUnit.SECONDS.toNanos(seconds);
+	}
+
+	private static class LiveQuotes {
+
+		private final Map<Long, Quote> quotes;
+
+		private final long fetchedAt;
+
+		LiveQuotes(Map<Long, Quote> quotes, long fetchedAt) {
+			this.quotes = quotes;
+			this.fetchedAt = fetchedAt;
+		}
+	}
+}
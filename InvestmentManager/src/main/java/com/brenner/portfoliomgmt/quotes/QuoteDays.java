@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Compact set of the days an investment already has quotes for, limited to a window starting at a given day. Days are
+ * held as a bitmap of epoch days offset from the window start so membership is a single bit test. Days are taken in
+ * the system time zone, the zone quote dates are parsed and stored in.
+ * 
+ * @author dbrenner
+ *
+ */
+public final class QuoteDays {
+	
+	private final long windowStartDay;
+	
+	private final BitSet days = new BitSet();
+	
+	private QuoteDays(long windowStartDay) {
+		this.windowStartDay = windowStartDay;
+	}
+	
+	/**
+	 * Builds the set from stored quote dates. Dates before the window start are ignored.
+	 * 
+	 * @param windowStart - first day of the window
+	 * @param quoteDates - dates of the stored quotes, nulls are ignored
+	 * @return {@link QuoteDays}
+	 */
+	public static QuoteDays of(Date windowStart, Collection<? extends Date> quoteDates) {
+		
+		QuoteDays quoteDays = new QuoteDays(toEpochDay(windowStart));
+		
+		if (quoteDates != null) {
+			for (Date date : quoteDates) {
+				if (date != null) {
+					quoteDays.add(toEpochDay(date));
+				}
+			}
+		}
+		
+		return quoteDays;
+	}
+	
+	/**
+	 * @param date - a quote date, may be null
+	 * @return true when a quote is stored for the day the date falls on
+	 */
+	public boolean contains(Date date) {
+		
+		if (date == null) {
+			return false;
+		}
+		
+		long offset = toEpochDay(date) - this.windowStartDay;
+		
+		return offset >= 0 && offset <= Integer.MAX_VALUE && this.days.get((int) offset);
+	}
+	
+	/**
+	 * @return the number of days in the set
+	 */
+	public int size() {
+		return this.days.cardinality();
+	}
+	
+	/**
+	 * @param date - the date to convert
+	 * @return days since 1970-01-01 for the day the date falls on in the system time zone
+	 */
+	public static long toEpochDay(Date date) {
+		// java.sql.Date does not support toInstant() so go through the millis
+		return LocalDate.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault()).toEpochDay();
+	}
+	
+	private void add(long epochDay) {
+		
+		long offset = epochDay - this.windowStartDay;
+		if (offset >= 0 && offset <= Integer.MAX_VALUE) {
+			this.days.set((int) offset);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.List;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * The per investment work done by the {@link QuoteRefreshEngine}. Split into a fetch and a store step so each can be
+ * timed and reported separately.
+ * 
+ * @author dbrenner
+ *
+ */
+public interface InvestmentQuotesRefresh {
+	
+	/**
+	 * Retrieves the quotes the data store does not yet hold for the investment.
+	 * 
+	 * @param investment - the investment to refresh
+	 * @param retrievalService - rate limited access to the quote provider
+	 * @return the new quotes, empty when there is nothing to add
+	 * @throws Exception - any failure, recorded against the investment's symbol
+	 */
+	public List<Quote> fetch(Investment investment, QuoteRetrievalService retrievalService) throws Exception;
+	
+	/**
+	 * Persists the fetched quotes.
+	 * 
+	 * @param investment - the investment being refreshed
+	 * @param quotes - the quotes returned by fetch
+	 * @return the number of quotes stored
+	 * @throws Exception - any failure, recorded against the investment's symbol
+	 */
+	public int store(Investment investment, List<Quote> quotes) throws Exception;
+}
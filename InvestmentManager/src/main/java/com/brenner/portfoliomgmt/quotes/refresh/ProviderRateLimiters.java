@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * The {@link RateLimiter} of each quote provider, shared by every caller of the provider. Calls are limited to
+ * quotes.refresh.rate-limit.&lt;provider&gt; requests per second (quotes.refresh.rate-limit.default when the provider
+ * has no setting of its own).
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class ProviderRateLimiters {
+
+	static final String RATE_LIMIT_PROPERTY_PREFIX = "quotes.refresh.rate-limit.";
+
+	@Value("${quotes.refresh.rate-limit.default:5}")
+	double defaultRequestsPerSecond;
+
+	@Autowired
+	Environment env;
+
+	/**
+	 * Limiters live as long as the application so back to back requests share a provider's budget
+	 */
+	private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+	/**
+	 * @param providerName - simple class name of the quote provider
+	 * @return the provider's limiter, created on first use
+	 */
+	public RateLimiter getRateLimiter(String providerName) {
+
+		return this.rateLimiters.computeIfAbsent(providerName, name -> new RateLimiter(
+				this.env.getProperty(RATE_LIMIT_PROPERTY_PREFIX + name, Double.class, this.defaultRequestsPerSecond)));
+	}
+
+	/**
+	 * @param provider - the quote provider to retrieve from
+	 * @return the provider wrapped so each request waits on the provider's limiter
+	 */
+	public QuoteRetrievalService rateLimited(QuoteRetrievalService provider) {
+
+		return new RateLimitedQuoteRetrievalService(provider, this.getRateLimiter(providerName(provider)));
+	}
+
+	static String providerName(QuoteRetrievalService provider) {
+		return ClassUtils.getUserClass(provider).getSimpleName();
+	}
+}
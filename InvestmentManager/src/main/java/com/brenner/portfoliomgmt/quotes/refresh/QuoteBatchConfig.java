@@ -0,0 +1,34 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Threads the {@link QuoteBatchDispatcher} requests chunks on. The pool is shared by every batch request so at most
+ * quotes.batch.parallelism chunks are in flight across concurrent requests.
+ *
+ * @author dbrenner
+ *
+ */
+@Configuration
+public class QuoteBatchConfig {
+
+	@Value("${quotes.batch.parallelism:4}")
+	int parallelism;
+
+	@Bean
+	public ThreadPoolTaskExecutor quoteBatchExecutor() {
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(Math.max(1, this.parallelism));
+		executor.setMaxPoolSize(Math.max(1, this.parallelism));
+		executor.setThreadNamePrefix("quote-batch-");
+		executor.setDaemon(true);
+		return executor;
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * Splits a batch quote request into provider sized chunks and requests the chunks in parallel. Symbols are
+ * de-duplicated before chunking, chunks hold at most quotes.batch.chunk-size.&lt;provider&gt; symbols
+ * (quotes.batch.chunk-size.default when the provider has no setting of its own) and chunks are requested on the
+ * shared quoteBatchExecutor, at most quotes.batch.parallelism at once. Chunk requests share the provider's rate limiter
+ * with the {@link QuoteRefreshEngine}.
+ *
+ * A failed chunk does not fail the batch, its symbols are reported in {@link BatchQuotes#getFailedSymbols()}. The
+ * request only fails when every chunk fails.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class QuoteBatchDispatcher {
+
+	private static final Logger log = LoggerFactory.getLogger(QuoteBatchDispatcher.class);
+
+	static final String CHUNK_SIZE_PROPERTY_PREFIX = "quotes.batch.chunk-size.";
+
+	@Value("${quotes.batch.chunk-size.default:100}")
+	int defaultChunkSize;
+
+	@Autowired
+	Environment env;
+
+	@Autowired
+	ProviderRateLimiters providerRateLimiters;
+
+	@Autowired
+	@Qualifier("quoteBatchExecutor")
+	ThreadPoolTaskExecutor quoteBatchExecutor;
+
+	/**
+	 * Retrieves the latest quote for each distinct symbol.
+	 *
+	 * @param symbols - investment identifiers, duplicates and blanks are ignored
+	 * @param provider - the quote provider to retrieve from
+	 * @return {@link BatchQuotes} keyed by symbol with the symbols of any failed chunks
+	 * @throws QuoteRetrievalException - when every chunk fails
+	 */
+	public BatchQuotes getBatchQuotes(List<String> symbols, QuoteRetrievalService provider) throws QuoteRetrievalException {
+		log.info("Entered getBatchQuotes()");
+
+		if (symbols == null) {
+			throw new InvalidRequestException("symbols must be non-null");
+		}
+
+		List<List<String>> chunks = chunk(distinctSymbols(symbols), this.getChunkSize(provider));
+
+		BatchQuotes batchQuotes = new BatchQuotes(new HashMap<>());
+		batchQuotes.setFailedSymbols(new LinkedHashMap<>());
+
+		if (chunks.isEmpty()) {
+			log.info("Exiting getBatchQuotes()");
+			return batchQuotes;
+		}
+
+		QuoteRetrievalService rateLimitedProvider = this.providerRateLimiters.rateLimited(provider);
+		log.debug("Requesting {} chunks from {}", chunks.size(), ProviderRateLimiters.providerName(provider));
+
+		Exception lastFailure = null;
+		int failedChunks = 0;
+
+		List<Future<BatchQuotes>> futures = new ArrayList<>(chunks.size());
+		for (List<String> chunk : chunks) {
+			futures.add(this.quoteBatchExecutor.submit(() -> rateLimitedProvider.getBatchQuotes(chunk)));
+		}
+
+		for (int i=0; i<futures.size(); i++) {
+			try {
+				merge(batchQuotes, futures.get(i).get());
+			}
+			catch (InterruptedException e) {
+				// the pool is shared, only this request's chunks are cancelled
+				futures.forEach(future -> future.cancel(true));
+				Thread.currentThread().interrupt();
+				throw new QuoteRetrievalException("Interrupted waiting on batch quotes");
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				log.error("Unable to retrieve batch quotes for {}", chunks.get(i), cause);
+
+				String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+				for (String symbol : chunks.get(i)) {
+					batchQuotes.getFailedSymbols().put(symbol, error);
+				}
+				lastFailure = cause instanceof Exception ? (Exception) cause : new Exception(cause);
+				failedChunks++;
+			}
+		}
+
+		if (failedChunks == chunks.size()) {
+			throw new QuoteRetrievalException(lastFailure);
+		}
+
+		log.debug("Retrieved {} quotes, {} symbols failed", batchQuotes.getQuotes().size(), batchQuotes.getFailedSymbols().size());
+		log.info("Exiting getBatchQuotes()");
+		return batchQuotes;
+	}
+
+	int getChunkSize(QuoteRetrievalService provider) {
+
+		String providerName = ProviderRateLimiters.providerName(provider);
+		int chunkSize = this.env.getProperty(CHUNK_SIZE_PROPERTY_PREFIX + providerName, Integer.class, this.defaultChunkSize);
+
+		return Math.max(1, chunkSize);
+	}
+
+	static List<String> distinctSymbols(List<String> symbols) {
+
+		Set<String> distinct = new LinkedHashSet<>();
+		for (String symbol : symbols) {
+			if (symbol != null && ! symbol.isBlank()) {
+				distinct.add(symbol.trim());
+			}
+		}
+
+		return new ArrayList<>(distinct);
+	}
+
+	static List<List<String>> chunk(List<String> symbols, int chunkSize) {
+
+		List<List<String>> chunks = new ArrayList<>((symbols.size() + chunkSize - 1) / chunkSize);
+		for (int i=0; i<symbols.size(); i+=chunkSize) {
+			chunks.add(symbols.subList(i, Math.min(i + chunkSize, symbols.size())));
+		}
+
+		return chunks;
+	}
+
+	private static void merge(BatchQuotes batchQuotes, BatchQuotes chunkQuotes) {
+
+		if (chunkQuotes == null || chunkQuotes.getQuotes() == null) {
+			return;
+		}
+
+		for (Map.Entry<String, Quote> entry : chunkQuotes.getQuotes().entrySet()) {
+			batchQuotes.getQuotes().put(entry.getKey(), entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * Refreshes the quotes for a set of investments in parallel. At most quotes.refresh.parallelism investments are in
+ * flight at once and calls to each quote provider wait on the provider's limiter from {@link ProviderRateLimiters}.
+ * A failure for one symbol is recorded in the {@link QuoteRefreshReport} and does not affect the others.
+ * 
+ * @author dbrenner
+ *
+ */
+@Component
+public class QuoteRefreshEngine {
+	
+	private static final Logger log = LoggerFactory.getLogger(QuoteRefreshEngine.class);
+	
+	@Value("${quotes.refresh.parallelism:8}")
+	int parallelism;
+	
+	@Autowired
+	ProviderRateLimiters providerRateLimiters;
+	
+	/**
+	 * Runs the refresh for each investment and waits for all of them to finish.
+	 * 
+	 * @param investments - the investments to refresh
+	 * @param provider - the quote provider to retrieve from
+	 * @param refresh - the per investment fetch and store steps
+	 * @return {@link QuoteRefreshReport} with a result per investment in the order supplied
+	 */
+	public QuoteRefreshReport refresh(List<Investment> investments, QuoteRetrievalService provider, InvestmentQuotesRefresh refresh) {
+		log.info("Entered refresh()");
+		
+		String providerName = ProviderRateLimiters.providerName(provider);
+		QuoteRefreshReport report = new QuoteRefreshReport(providerName, new Date());
+		long start = System.nanoTime();
+		
+		if (investments == null || investments.isEmpty()) {
+			log.info("Exiting refresh()");
+			return report;
+		}
+		
+		QuoteRetrievalService rateLimitedProvider = this.providerRateLimiters.rateLimited(provider);
+		
+		int threads = Math.max(1, Math.min(this.parallelism, investments.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new RefreshThreadFactory());
+		log.debug("Refreshing {} investments from {} on {} threads", investments.size(), providerName, threads);
+		
+		try {
+			List<Future<SymbolRefreshResult>> futures = new ArrayList<>(investments.size());
+			for (Investment investment : investments) {
+				futures.add(executor.submit(() -> refreshInvestment(investment, rateLimitedProvider, refresh)));
+			}
+			
+			for (int i=0; i<futures.size(); i++) {
+				report.getResults().add(this.awaitResult(futures.get(i), investments.get(i)));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		report.setElapsedMillis(elapsedMillis(start));
+		log.debug("Refresh complete: {}", report);
+		
+		log.info("Exiting refresh()");
+		return report;
+	}
+	
+	private static SymbolRefreshResult refreshInvestment(Investment investment, QuoteRetrievalService provider, InvestmentQuotesRefresh refresh) {
+		
+		SymbolRefreshResult result = new SymbolRefreshResult(investment.getSymbol(), investment.getInvestmentId());
+		long start = System.nanoTime();
+		
+		try {
+			List<Quote> quotes = refresh.fetch(investment, provider);
+			result.setQuotesFetched(quotes == null ? 0 : quotes.size());
+			result.setFetchMillis(elapsedMillis(start));
+			
+			if (quotes != null && ! quotes.isEmpty()) {
+				start = System.nanoTime();
+				result.setQuotesInserted(refresh.store(investment, quotes));
+				result.setStoreMillis(elapsedMillis(start));
+			}
+		}
+		catch (Exception e) {
+			log.error("Unable to refresh quotes for {}", investment.getSymbol(), e);
+			result.setError(e.getClass().getSimpleName() + ": " + e.getMessage());
+		}
+		
+		return result;
+	}
+	
+	private SymbolRefreshResult awaitResult(Future<SymbolRefreshResult> future, Investment investment) {
+		
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			SymbolRefreshResult result = new SymbolRefreshResult(investment.getSymbol(), investment.getInvestmentId());
+			result.setError("Refresh interrupted");
+			return result;
+		}
+		catch (ExecutionException e) {
+			// refreshInvestment() catches exceptions so only errors end up here
+			SymbolRefreshResult result = new SymbolRefreshResult(investment.getSymbol(), investment.getInvestmentId());
+			result.setError(String.valueOf(e.getCause()));
+			return result;
+		}
+	}
+	
+	private static long elapsedMillis(long startNanos) {
+		return (System.nanoTime() - startNanos) / 1_000_000;
+	}
+	
+	private static class RefreshThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "quote-refresh-" + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Summary of a quote refresh across a set of investments.
+ * 
+ * @author dbrenner
+ *
+ */
+public class QuoteRefreshReport {
+	
+	private String provider;
+	
+	private Date startTime;
+	
+	private long elapsedMillis;
+	
+	private List<SymbolRefreshResult> results = new ArrayList<>();
+	
+	public QuoteRefreshReport() {}
+	
+	public QuoteRefreshReport(String provider, Date startTime) {
+		this.provider = provider;
+		this.startTime = startTime;
+	}
+	
+	/**
+	 * @return symbols whose quotes were retrieved from the provider
+	 */
+	public List<String> getFetchedSymbols() {
+		return this.results.stream().filter(r -> ! r.isFailed()).map(SymbolRefreshResult::getSymbol).toList();
+	}
+	
+	/**
+	 * @return symbols with at least one new quote stored
+	 */
+	public List<String> getInsertedSymbols() {
+		return this.results.stream().filter(r -> r.getQuotesInserted() > 0).map(SymbolRefreshResult::getSymbol).toList();
+	}
+	
+	/**
+	 * @return symbols that could not be refreshed, see {@link SymbolRefreshResult#getError()}
+	 */
+	public List<String> getFailedSymbols() {
+		return this.results.stream().filter(SymbolRefreshResult::isFailed).map(SymbolRefreshResult::getSymbol).toList();
+	}
+	
+	/**
+	 * @return total quotes stored across all symbols
+	 */
+	public int getQuotesInserted() {
+		return this.results.stream().mapToInt(SymbolRefreshResult::getQuotesInserted).sum();
+	}
+
+	public String getProvider() {
+		return provider;
+	}
+
+	public void setProvider(String provider) {
+		this.provider = provider;
+	}
+
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	public void setStartTime(Date startTime) {
+		this.startTime = startTime;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<SymbolRefreshResult> getResults() {
+		return results;
+	}
+
+	public void setResults(List<SymbolRefreshResult> results) {
+		this.results = results;
+	}
+
+	@Override
+	public String toString() {
+		return "QuoteRefreshReport [provider=" + provider + ", startTime=" + startTime + ", elapsedMillis="
+				+ elapsedMillis + ", symbols=" + results.size() + ", fetched=" + getFetchedSymbols().size()
+				+ ", inserted=" + getInsertedSymbols().size() + ", quotesInserted=" + getQuotesInserted() 
+				+ ", failed=" + getFailedSymbols() + "]";
+	}
+}
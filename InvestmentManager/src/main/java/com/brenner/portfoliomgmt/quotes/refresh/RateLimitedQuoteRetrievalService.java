@@ -0,0 +1,91 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.List;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * Wraps a {@link QuoteRetrievalService} so every call to the provider first takes a slot from the provider's
+ * {@link RateLimiter}.
+ * 
+ * @author dbrenner
+ *
+ */
+public class RateLimitedQuoteRetrievalService implements QuoteRetrievalService {
+	
+	private final QuoteRetrievalService delegate;
+	
+	private final RateLimiter rateLimiter;
+	
+	public RateLimitedQuoteRetrievalService(QuoteRetrievalService delegate, RateLimiter rateLimiter) {
+		this.delegate = delegate;
+		this.rateLimiter = rateLimiter;
+	}
+
+	@Override
+	public List<Quote> getNewQuotesForInvestment(Investment investment, Date maxQuoteDate, QuoteDays existingQuoteDays)
+			throws IOException {
+		
+		this.acquireForIO();
+		return this.delegate.getNewQuotesForInvestment(investment, maxQuoteDate, existingQuoteDays);
+	}
+
+	@Override
+	public Quote getQuote(String symbol) throws QuoteRetrievalException {
+		
+		this.acquireForRetrieval();
+		return this.delegate.getQuote(symbol);
+	}
+
+	@Override
+	public BatchQuotes getBatchQuotes(List<String> symbols) throws QuoteRetrievalException {
+		
+		this.acquireForRetrieval();
+		return this.delegate.getBatchQuotes(symbols);
+	}
+
+	@Override
+	public HistoricalQuotes getHistoricalQuotesForSymbol(String symbol, int numMonths) throws IOException {
+		
+		this.acquireForIO();
+		return this.delegate.getHistoricalQuotesForSymbol(symbol, numMonths);
+	}
+
+	@Override
+	public BatchHistoricalQuotes getSixMonthsHistoricalChartsForSymbols(List<String> symbols) throws IOException {
+		
+		this.acquireForIO();
+		return this.delegate.getSixMonthsHistoricalChartsForSymbols(symbols);
+	}
+	
+	private void acquireForIO() throws InterruptedIOException {
+		try {
+			this.rateLimiter.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting on the quote provider rate limit");
+		}
+	}
+	
+	private void acquireForRetrieval() throws QuoteRetrievalException {
+		try {
+			this.rateLimiter.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QuoteRetrievalException("Interrupted waiting on the quote provider rate limit", e);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out calls to a quote provider so no more than the configured number of requests start each second. Callers
+ * reserve the next free slot and sleep until it arrives, so waiting threads are released in arrival order.
+ * 
+ * @author dbrenner
+ *
+ */
+public class RateLimiter {
+	
+	private final long intervalNanos;
+	
+	private long nextFreeNanos;
+	
+	/**
+	 * @param requestsPerSecond - the permitted request rate, zero or less disables the limit
+	 */
+	public RateLimiter(double requestsPerSecond) {
+		this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+		this.nextFreeNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Blocks until the caller may make its request.
+	 * 
+	 * @throws InterruptedException - the thread was interrupted while waiting
+	 */
+	public void acquire() throws InterruptedException {
+		
+		if (this.intervalNanos == 0) {
+			return;
+		}
+		
+		long waitNanos = this.reserve();
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+	
+	private synchronized long reserve() {
+		
+		long now = System.nanoTime();
+		long slot = Math.max(now, this.nextFreeNanos);
+		this.nextFreeNanos = slot + this.intervalNanos;
+		
+		return slot - now;
+	}
+	
+	public double getRequestsPerSecond() {
+		return this.intervalNanos == 0 ? 0 : (double) TimeUnit.SECONDS.toNanos(1) / this.intervalNanos;
+	}
+}
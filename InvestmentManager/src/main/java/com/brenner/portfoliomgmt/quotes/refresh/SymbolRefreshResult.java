@@ -0,0 +1,104 @@
+/**
+ * 
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+/**
+ * Outcome of refreshing the quotes for a single symbol.
+ * 
+ * @author dbrenner
+ *
+ */
+public class SymbolRefreshResult {
+	
+	private String symbol;
+	
+	private Long investmentId;
+	
+	private int quotesFetched;
+	
+	private int quotesInserted;
+	
+	private long fetchMillis;
+	
+	private long storeMillis;
+	
+	private String error;
+	
+	public SymbolRefreshResult() {}
+	
+	public SymbolRefreshResult(String symbol, Long investmentId) {
+		this.symbol = symbol;
+		this.investmentId = investmentId;
+	}
+	
+	/**
+	 * @return true when the symbol could not be fetched or stored
+	 */
+	public boolean isFailed() {
+		return this.error != null;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public Long getInvestmentId() {
+		return investmentId;
+	}
+
+	public void setInvestmentId(Long investmentId) {
+		this.investmentId = investmentId;
+	}
+
+	public int getQuotesFetched() {
+		return quotesFetched;
+	}
+
+	public void setQuotesFetched(int quotesFetched) {
+		this.quotesFetched = quotesFetched;
+	}
+
+	public int getQuotesInserted() {
+		return quotesInserted;
+	}
+
+	public void setQuotesInserted(int quotesInserted) {
+		this.quotesInserted = quotesInserted;
+	}
+
+	public long getFetchMillis() {
+		return fetchMillis;
+	}
+
+	public void setFetchMillis(long fetchMillis) {
+		this.fetchMillis = fetchMillis;
+	}
+
+	public long getStoreMillis() {
+		return storeMillis;
+	}
+
+	public void setStoreMillis(long storeMillis) {
+		this.storeMillis = storeMillis;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return "SymbolRefreshResult [symbol=" + symbol + ", investmentId=" + investmentId + ", quotesFetched="
+				+ quotesFetched + ", quotesInserted=" + quotesInserted + ", fetchMillis=" + fetchMillis
+				+ ", storeMillis=" + storeMillis + ", error=" + error + "]";
+	}
+}
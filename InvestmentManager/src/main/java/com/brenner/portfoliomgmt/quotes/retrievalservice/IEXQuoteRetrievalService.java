@@ -3,16 +3,13 @@ package com.brenner.portfoliomgmt.quotes.retrievalservice;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -24,7 +21,7 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
 import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
 import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
 
 /**
  * Service class to handle retrieving and handling quotes from IEX
@@ -39,6 +36,9 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
     
     private IEXQuoteRetrievalService() {}
     
+    @Autowired
+    RestTemplate quoteRestTemplate;
+    
     private static final String API_TOKEN = "";
     
     private static String singleQuoteUrlBase = "https://cloud.iexapis.com/stable/stock/%S%/quote?token=" + API_TOKEN;
@@ -61,75 +61,66 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
 	 * 
 	 * @param investment - the investment to get quotes for
 	 * @param maxQuoteDate - the oldest current quote
-	 * @param existingQuotes - the list of quotes currently persisted
+	 * @param existingQuoteDays - days with a stored quote within the last month
 	 * @return {@link List}<Quote>
 	 * @throws IOException
 	 */
 	public List<Quote> getNewQuotesForInvestment(
 			Investment investment, 
 			Date maxQuoteDate, 
-			List<Quote> existingQuotes) throws IOException {
-		
+			QuoteDays existingQuoteDays) throws IOException {
 		
-		// determine how far back to go to start retrieving quotes
-		DateTime startPeriod = null;
-    	
-		// container for the existing quote dates
-    	List<Date> existingQuoteDates = new ArrayList<>();
-    	
-    	// loop through the existing quotes and extract the date from each quote
-    	if (existingQuotes != null && ! existingQuotes.isEmpty()) {
-    		Iterator<Quote> quoteIter = existingQuotes.iterator();
-    		while (quoteIter.hasNext()) {
-    			Quote q = quoteIter.next();
-    			if (q != null) {
-    				existingQuoteDates.add(q.getDate());
-    			}
-    		}
-    	}
-    	
-    	// if there is no max quote date, initialize
-    	if (maxQuoteDate == null) {
-    		startPeriod = new DateTime(QuoteConstants.MIN_QUOTE_DATE);
-    	}
-    	else {
-    		startPeriod = new DateTime(maxQuoteDate);
-    	}
-    	
     	// get 1 months of quotes for the investment
     	HistoricalQuotes quotes = null;
     	
     	try {
-    		quotes = this.getHistoricalQuotesForSymbol(investment.getSymbol(), 1);
+    		quotes = this.getHistoricalQuotesForSymbol(investment.getSymbol(), QuoteConstants.NEW_QUOTES_WINDOW_MONTHS);
     	}
     	catch (HttpClientErrorException hcee) {
     		// eat failed retrieves - comes from non-exchange traded securities
     	}
     	
+    	List<Quote> newQuotes = selectNewQuotes(investment, maxQuoteDate, existingQuoteDays, quotes);
+    	
+    	log.debug("IEX quotes: " + newQuotes);
+    	
+    	return newQuotes;
+	}
+	
+	/**
+	 * Filters the historical quotes returned by IEX down to those after the max quote date that are not 
+	 * already in the data store. Each selected quote is associated with the investment.
+	 * 
+	 * @param investment - the investment the quotes are for
+	 * @param maxQuoteDate - the oldest current quote
+	 * @param existingQuoteDays - days with a stored quote within the retrieval window, may be null
+	 * @param quotes - the historical quotes returned by the service, may be null
+	 * @return {@link List}<Quote>
+	 */
+	public static List<Quote> selectNewQuotes(
+			Investment investment, 
+			Date maxQuoteDate, 
+			QuoteDays existingQuoteDays, 
+			HistoricalQuotes quotes) {
+		
+		// if there is no max quote date, initialize
+		long startPeriod = maxQuoteDate == null ? QuoteConstants.MIN_QUOTE_DATE.getTime() : maxQuoteDate.getTime();
+    	
     	List<Quote> newQuotes = new ArrayList<>();
     	
-    	if (quotes != null) {
+    	if (quotes != null && quotes.getQuotes() != null) {
     		
-    		// get the historical quotes returned by the service and pull the date keys
-    		Map<Date, Quote> quotesMap = quotes.getQuotes();
-    		Set<Date> dates = quotesMap.keySet();
-    		
-    		// Loop through each date key
-    		Iterator<Date> dateIter = dates.iterator();
-    		while(dateIter.hasNext()) {
-    			DateTime quoteDate = new DateTime(dateIter.next());
-    			
-    			// if the quote date is after the start period and it's not in the existing quotes list (from database) add it to the return list
-    			if (quoteDate.getMillis() > startPeriod.getMillis() && ! existingQuoteDates.contains(quoteDate.toDate())) {
-    				Quote q = quotesMap.get(quoteDate.toDate());
+    		// if the quote date is after the start period and it's not already stored add it to the return list
+    		for (Map.Entry<Date, Quote> entry : quotes.getQuotes().entrySet()) {
+    			Date quoteDate = entry.getKey();
+    			if (quoteDate.getTime() > startPeriod && (existingQuoteDays == null || ! existingQuoteDays.contains(quoteDate))) {
+    				Quote q = entry.getValue();
     				q.setInvestment(investment);
     				newQuotes.add(q);
     			}
     		}
     	}
     	
-    	log.debug("IEX quotes: " + newQuotes);
-    	
     	return newQuotes;
 	}
 	
@@ -138,14 +129,19 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
 	 * 
 	 * @param symbol
 	 * @return {@link QuoteDTO}
+	 * @throws QuoteRetrievalException
 	 */
-	public Quote getQuote(String symbol) {
+	public Quote getQuote(String symbol) throws QuoteRetrievalException {
 
-		RestTemplate restTemplate = new RestTemplate();
-		
 		String url = IEXQuoteRetrievalService.singleQuoteUrlBase.replace("%S%", symbol.toLowerCase());
 		
-		return restTemplate.getForObject(url, Quote.class);
+		ResponseEntity<String> response = this.quoteRestTemplate.getForEntity(url, String.class);
+		
+		try {
+			return QuoteJsonReaders.QUOTE.readValue(response.getBody());
+		} catch (IOException e) {
+			throw new QuoteRetrievalException(e);
+		}
 	}
 	
 	/**
@@ -170,15 +166,10 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
 		
 		String url = IEXQuoteRetrievalService.batchQuoteUrlBase.replace("%S%", buffer.toString().toLowerCase());
 
-		RestTemplate restTemplate = new RestTemplate();
-		restTemplate.getMessageConverters().add(
-                new MappingJackson2HttpMessageConverter());
-		
-		ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-		ObjectMapper mapper = new ObjectMapper();
+		ResponseEntity<String> response = this.quoteRestTemplate.getForEntity(url, String.class);
 		
 		try {
-            return mapper.readValue(response.getBody(), BatchQuotes.class);
+            return QuoteJsonReaders.BATCH_QUOTES.readValue(response.getBody());
         } catch (IOException e) {
             throw new QuoteRetrievalException(e);
         }
@@ -207,14 +198,9 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
 	        
 	    }
 	    
-	    RestTemplate restTemplate = new RestTemplate();
-        restTemplate.getMessageConverters().add(
-                new MappingJackson2HttpMessageConverter());
-        
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        ObjectMapper mapper = new ObjectMapper();
+        ResponseEntity<String> response = this.quoteRestTemplate.getForEntity(url, String.class);
 	    
-	    return mapper.readValue(response.getBody(), HistoricalQuotes.class);
+	    return QuoteJsonReaders.HISTORICAL_QUOTES.readValue(response.getBody());
 	    
 	}
 	
@@ -239,14 +225,9 @@ public class IEXQuoteRetrievalService implements QuoteRetrievalService {
 	    
 	    String url = IEXQuoteRetrievalService.batchHistoricalQuotes.replace("%S%", builder.toString());
 	    
-	    RestTemplate restTemplate = new RestTemplate();
-        restTemplate.getMessageConverters().add(
-                new MappingJackson2HttpMessageConverter());
-        
-        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-        ObjectMapper mapper = new ObjectMapper();
+        ResponseEntity<String> response = this.quoteRestTemplate.getForEntity(url, String.class);
         
-        return mapper.readValue(response.getBody(), BatchHistoricalQuotes.class);
+        return QuoteJsonReaders.BATCH_HISTORICAL_QUOTES.readValue(response.getBody());
 	}
 
 }
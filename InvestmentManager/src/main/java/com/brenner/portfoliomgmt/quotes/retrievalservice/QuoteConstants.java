@@ -7,4 +7,9 @@ import org.joda.time.DateTime;
 public class QuoteConstants {
 
 	public static final Date MIN_QUOTE_DATE = new DateTime(2018, 8, 1, 0, 0, 0, 0).toDate();
+	
+	/**
+	 * Months of history requested when retrieving new quotes for an investment
+	 */
+	public static final int NEW_QUOTES_WINDOW_MONTHS = 1;
 }
@@ -0,0 +1,98 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.retrievalservice;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * HTTP client shared by the {@link QuoteRetrievalService} implementations. Connections to the quote providers are
+ * pooled and kept alive between requests and responses are requested gzip compressed. Pool gauges are registered
+ * with the application's meter registry as httpcomponents.httpclient.pool.* tagged httpclient=quotes, they are read
+ * from /actuator/metrics and scraped from /actuator/prometheus.
+ *
+ * @author dbrenner
+ *
+ */
+@Configuration
+public class QuoteHttpClientConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(QuoteHttpClientConfig.class);
+
+	static final String POOL_NAME = "quotes";
+
+	@Value("${quotes.http.max-connections:20}")
+	int maxConnections;
+
+	@Value("${quotes.http.max-connections-per-route:10}")
+	int maxConnectionsPerRoute;
+
+	@Value("${quotes.http.connect-timeout-ms:5000}")
+	int connectTimeoutMillis;
+
+	@Value("${quotes.http.read-timeout-ms:10000}")
+	int readTimeoutMillis;
+
+	@Value("${quotes.http.connection-request-timeout-ms:5000}")
+	int connectionRequestTimeoutMillis;
+
+	@Value("${quotes.http.idle-timeout-ms:30000}")
+	long idleTimeoutMillis;
+
+	@Bean(destroyMethod = "close")
+	public PoolingHttpClientConnectionManager quoteConnectionManager(MeterRegistry meterRegistry) {
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(this.maxConnections);
+		connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+		// pooled connections idle for a while may have been dropped by the provider
+		connectionManager.setValidateAfterInactivity(2000);
+
+		new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+
+		log.debug("Quote connection pool: max {}, max per route {}", this.maxConnections, this.maxConnectionsPerRoute);
+
+		return connectionManager;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient quoteHttpClient(PoolingHttpClientConnectionManager quoteConnectionManager) {
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(this.connectTimeoutMillis)
+				.setSocketTimeout(this.readTimeoutMillis)
+				.setConnectionRequestTimeout(this.connectionRequestTimeoutMillis)
+				.build();
+
+		// content compression is on by default: Accept-Encoding gzip,deflate is sent and responses are decompressed
+		return HttpClients.custom()
+				.setConnectionManager(quoteConnectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				.evictIdleConnections(this.idleTimeoutMillis, TimeUnit.MILLISECONDS)
+				.evictExpiredConnections()
+				.build();
+	}
+
+	@Bean
+	public RestTemplate quoteRestTemplate(CloseableHttpClient quoteHttpClient) {
+
+		return new RestTemplate(new HttpComponentsClientHttpRequestFactory(quoteHttpClient));
+	}
+}
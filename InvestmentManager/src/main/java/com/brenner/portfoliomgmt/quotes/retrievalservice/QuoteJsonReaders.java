@@ -0,0 +1,50 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.retrievalservice;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.deserialize.BatchQuotesDeserializer;
+import com.brenner.portfoliomgmt.domain.deserialize.QuoteJsonDeserializer;
+import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Pre-configured readers for the quote provider responses. ObjectReaders are immutable and thread safe so one instance
+ * of each is shared by every request rather than building and introspecting a new ObjectMapper per call.
+ *
+ * @author dbrenner
+ *
+ */
+public final class QuoteJsonReaders {
+
+	private QuoteJsonReaders() {}
+
+	// Quote and BatchQuotes carry no deserializer annotation as the providers differ, each mapper registers its own
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+			.registerModule(new SimpleModule("IEXQuoteDeserializer", new Version(1, 0, 0, null, null, null))
+					.addDeserializer(Quote.class, new QuoteJsonDeserializer())
+					.addDeserializer(BatchQuotes.class, new BatchQuotesDeserializer()));
+
+	private static final ObjectMapper YAHOO_MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+			.registerModule(new SimpleModule("QuoteDeserializer", new Version(1, 0, 0, null, null, null))
+					.addDeserializer(BatchQuotes.class, new YahooFinanceBatchQuotesDeserializer()));
+
+	public static final ObjectReader QUOTE = MAPPER.readerFor(Quote.class);
+
+	public static final ObjectReader BATCH_QUOTES = MAPPER.readerFor(BatchQuotes.class);
+
+	public static final ObjectReader HISTORICAL_QUOTES = MAPPER.readerFor(HistoricalQuotes.class);
+
+	public static final ObjectReader BATCH_HISTORICAL_QUOTES = MAPPER.readerFor(BatchHistoricalQuotes.class);
+
+	public static final ObjectReader YAHOO_BATCH_QUOTES = YAHOO_MAPPER.readerFor(BatchQuotes.class);
+}
@@ -10,13 +10,24 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
 import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
 import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
 
 public interface QuoteRetrievalService {
 
+	/**
+	 * Retrieves the quotes for an investment that are newer than the max quote date and not already stored. The
+	 * provider looks back {@link QuoteConstants#NEW_QUOTES_WINDOW_MONTHS} months.
+	 * 
+	 * @param investment - the investment to get quotes for
+	 * @param maxQuoteDate - the most recent stored quote date, null when there are none
+	 * @param existingQuoteDays - days with a stored quote within the retrieval window
+	 * @return {@link List}<Quote>
+	 * @throws IOException
+	 */
 	public List<Quote> getNewQuotesForInvestment(
 			Investment investment, 
 			Date maxQuoteDate, 
-			List<Quote> existingQuotes) throws IOException;
+			QuoteDays existingQuoteDays) throws IOException;
 	
 	/**
 	 * Retrieves a quote for the supplied symbol
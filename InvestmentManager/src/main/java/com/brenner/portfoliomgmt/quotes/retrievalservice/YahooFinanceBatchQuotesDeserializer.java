@@ -1,8 +1,8 @@
 package com.brenner.portfoliomgmt.quotes.retrievalservice;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -10,14 +10,13 @@ import org.slf4j.LoggerFactory;
 
 import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
 import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.deserialize.QuoteTokenReader;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 
 /**
  * Custom deserializer for BatchQuotes. 
@@ -64,29 +63,70 @@ public class YahooFinanceBatchQuotesDeserializer extends StdDeserializer<BatchQu
 	public BatchQuotes deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
 		log.info("Entering deserialize()");
 		
-		JsonNode quoteNodes = jp.getCodec().readTree(jp);
-		
-		List<JsonNode> quotesList = quoteNodes.findValues("result");
-		log.debug("Count of quoteNodes: {}", quotesList != null ? quotesList.size() : 0);
-		
-		int numQuotes = quotesList.size();
+		QuoteTokenReader.expectStartObject(jp);
 		
 		Map<String, Quote> quotes = new HashMap<>();
 		
-		if (numQuotes > 0) {
-			SimpleModule module = new SimpleModule("QuoteDeserializer", new Version(1, 0, 0, null, null, null));
-			module.addDeserializer(QuoteDTO.class, new YahooFinanceQuoteDeserializer());
-			ObjectMapper objectMapper = new ObjectMapper();
-			objectMapper.registerModule(module);
+		for (String field = jp.nextFieldName(); field != null; field = jp.nextFieldName()) {
+			if (jp.nextToken() != JsonToken.START_OBJECT || ! "quoteResponse".equals(field)) {
+				jp.skipChildren();
+				continue;
+			}
 			
-			for (int i=0; i<numQuotes; i++) {
-				Quote q = objectMapper.readValue(quotesList.get(i).toString(), Quote.class);
-				log.debug("Deserialized quote: {}", q);
-				quotes.put(q.getInvestment().getSymbol(), q);
+			for (String responseField = jp.nextFieldName(); responseField != null; responseField = jp.nextFieldName()) {
+				if (jp.nextToken() != JsonToken.START_ARRAY || ! "result".equals(responseField)) {
+					jp.skipChildren();
+					continue;
+				}
+				
+				while (jp.nextToken() != JsonToken.END_ARRAY) {
+					Quote q = readQuote(jp);
+					log.debug("Deserialized quote: {}", q);
+					quotes.put(q.getInvestment().getSymbol(), q);
+				}
 			}
 		}
+		log.debug("Count of quoteNodes: {}", quotes.size());
 		
 		log.info("Exiting deserialize()");
 		return new BatchQuotes(quotes);
 	}
+	
+	/**
+	 * Reads one element of the result array in a single pass. The field mapping matches
+	 * {@link YahooFinanceQuoteDeserializer}, the quote is dated now.
+	 * 
+	 * @param jp - parser positioned on the START_OBJECT of the quote
+	 * @return {@link Quote}
+	 * @throws IOException - when the element is not an object
+	 */
+	static Quote readQuote(JsonParser jp) throws IOException {
+		
+		QuoteTokenReader.expectStartObject(jp);
+		
+		Quote q = new Quote();
+		q.setDate(new Date());
+		Investment i = new Investment();
+		
+		for (String field = jp.nextFieldName(); field != null; field = jp.nextFieldName()) {
+			jp.nextToken();
+			switch (field) {
+				case "regularMarketPreviousClose": q.setClose(QuoteTokenReader.decimalValue(jp)); break;
+				case "regularMarketOpen": q.setOpen(QuoteTokenReader.decimalValue(jp)); break;
+				case "targetPriceHigh": q.setHigh(QuoteTokenReader.decimalValue(jp)); break;
+				case "targetPriceLow": q.setLow(QuoteTokenReader.decimalValue(jp)); break;
+				case "regularMarketVolume": q.setVolume(QuoteTokenReader.intValue(jp)); break;
+				case "regularMarketChange": q.setPriceChange(QuoteTokenReader.decimalValue(jp)); break;
+				case "fiftyTwoWeekHigh": q.setWeek52High(QuoteTokenReader.decimalValue(jp)); break;
+				case "fiftyTwoWeekLow": q.setWeek52Low(QuoteTokenReader.decimalValue(jp)); break;
+				case "symbol": i.setSymbol(QuoteTokenReader.textValue(jp)); break;
+				case "longName": i.setCompanyName(QuoteTokenReader.textValue(jp)); break;
+				case "fullExchangeName": i.setExchange(QuoteTokenReader.textValue(jp)); break;
+				default: jp.skipChildren();
+			}
+		}
+		
+		q.setInvestment(i);
+		return q;
+	}
 }
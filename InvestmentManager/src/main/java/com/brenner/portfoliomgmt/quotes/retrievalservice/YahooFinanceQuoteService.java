@@ -13,6 +13,7 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -27,11 +28,9 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
 import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
 import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 
 /**
  *
@@ -48,6 +47,9 @@ public class YahooFinanceQuoteService implements QuoteRetrievalService {
 	
 	private static final String QUOTE_URL = "https://yh-finance.p.rapidapi.com/market/v2/get-quotes?region={region}&symbols={symbols}";
 	
+	@Autowired
+	RestTemplate quoteRestTemplate;
+	
 	public YahooFinanceQuoteService() {
 		YahooFinanceQuoteService.init();
 	}
@@ -60,7 +62,7 @@ public class YahooFinanceQuoteService implements QuoteRetrievalService {
 	}
 
 	@Override
-	public List<Quote> getNewQuotesForInvestment(Investment investment, Date maxQuoteDate, List<Quote> existingQuotes)
+	public List<Quote> getNewQuotesForInvestment(Investment investment, Date maxQuoteDate, QuoteDays existingQuoteDays)
 			throws IOException {
 		// TODO Auto-generated method stub
 		return null;
@@ -99,18 +101,12 @@ public class YahooFinanceQuoteService implements QuoteRetrievalService {
 		uriParameters.put("symbols", builder.toString());
 		uriParameters.put("region", "US");
 		
-		RestTemplate restTemplate = new RestTemplate();
-		ResponseEntity<String> response = restTemplate.exchange(QUOTE_URL, HttpMethod.GET, httpEntity, String.class, uriParameters);
-		
-		SimpleModule module = new SimpleModule("QuoteDeserializer", new Version(1, 0, 0, null, null, null));
-		module.addDeserializer(BatchQuotes.class, new YahooFinanceBatchQuotesDeserializer());
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.registerModule(module);
+		ResponseEntity<String> response = this.quoteRestTemplate.exchange(QUOTE_URL, HttpMethod.GET, httpEntity, String.class, uriParameters);
 		
 		BatchQuotes quotes = null;
 		
 		try {
-			quotes = mapper.readValue(response.getBody(), BatchQuotes.class);
+			quotes = QuoteJsonReaders.YAHOO_BATCH_QUOTES.readValue(response.getBody());
 		} catch (JsonMappingException e) {
 			throw new QuoteRetrievalException(e.getMessage());
 		} catch (JsonProcessingException e) {
@@ -0,0 +1,102 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+
+/**
+ * Totals the purchase and market value of the open holdings per bucket. Each lot is priced once against the latest
+ * close of its investment held by the {@link LatestQuoteCache}, so the work follows the number of lots and not the
+ * length of the quote history. Lots of investments without quotes only count towards the purchase value, lots
+ * without a bucket are reported as {@link BucketEnum#BUCKET_NA}.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class BucketAggregationEngine {
+
+	private static final Logger log = LoggerFactory.getLogger(BucketAggregationEngine.class);
+
+	@Autowired
+	HoldingBucketSummationMapper bucketSummationMapper;
+
+	@Autowired
+	LatestQuoteCache latestQuoteCache;
+
+	/**
+	 * @return {@link HoldingBucket} per bucket in bucket order, every bucket is present
+	 */
+	public Map<BucketEnum, HoldingBucket> aggregate() {
+		log.info("Entered aggregate()");
+
+		Map<BucketEnum, HoldingBucket> buckets = this.aggregate(this.bucketSummationMapper.holdingLots());
+
+		log.info("Exiting aggregate()");
+		return buckets;
+	}
+
+	/**
+	 * @param lots - the open holdings to total
+	 * @return {@link HoldingBucket} per bucket in bucket order, every bucket is present
+	 */
+	public Map<BucketEnum, HoldingBucket> aggregate(Collection<HoldingLot> lots) {
+
+		if (lots == null) {
+			throw new InvalidRequestException("lots must be non-null");
+		}
+
+		BucketEnum[] bucketEnums = BucketEnum.values();
+		BigDecimal[] amountsAtPurchase = new BigDecimal[bucketEnums.length];
+		BigDecimal[] amounts = new BigDecimal[bucketEnums.length];
+		for (int i=0; i<bucketEnums.length; i++) {
+			amountsAtPurchase[i] = BigDecimal.ZERO;
+			amounts[i] = BigDecimal.ZERO;
+		}
+
+		for (HoldingLot lot : lots) {
+			if (lot.getQuantity() == null) {
+				continue;
+			}
+
+			int bucket = lot.getBucket() != null ? lot.getBucket().ordinal() : BucketEnum.BUCKET_NA.ordinal();
+
+			if (lot.getPurchasePrice() != null) {
+				amountsAtPurchase[bucket] = amountsAtPurchase[bucket].add(lot.getQuantity().multiply(lot.getPurchasePrice()));
+			}
+
+			BigDecimal close = this.latestQuoteCache.getLatestClose(lot.getInvestmentId());
+			if (close != null) {
+				amounts[bucket] = amounts[bucket].add(lot.getQuantity().multiply(close));
+			}
+		}
+
+		Map<BucketEnum, HoldingBucket> buckets = new EnumMap<>(BucketEnum.class);
+		for (BucketEnum bucketEnum : bucketEnums) {
+			HoldingBucket holdingBucket = new HoldingBucket();
+			holdingBucket.setBucket(bucketEnum);
+			holdingBucket.setAmountAtPurchase(amountsAtPurchase[bucketEnum.ordinal()].doubleValue());
+			holdingBucket.setAmount(amounts[bucketEnum.ordinal()].doubleValue());
+			buckets.put(bucketEnum, holdingBucket);
+		}
+
+		log.debug("Aggregated {} lots", lots.size());
+		return buckets;
+	}
+}
@@ -0,0 +1,75 @@
+package com.brenner.portfoliomgmt.reporting;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonRootName;
+
+/**
+ * Outcome of a reconstruction of the bucket snapshots for a range of past dates.
+ * 
+ * @author dbrenner
+ *
+ */
+@JsonRootName(value="bucketBackfillReport")
+public class BucketBackfillReport {
+    
+    private Date fromDate;
+    
+    private Date toDate;
+    
+    private int ranges;
+    
+    private int snapshotsWritten;
+    
+    private long elapsedMillis;
+    
+    public BucketBackfillReport() {}
+    
+    public BucketBackfillReport(Date fromDate, Date toDate, int ranges, int snapshotsWritten, long elapsedMillis) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.ranges = ranges;
+        this.snapshotsWritten = snapshotsWritten;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Date getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(Date fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public Date getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(Date toDate) {
+        this.toDate = toDate;
+    }
+
+    public int getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(int ranges) {
+        this.ranges = ranges;
+    }
+
+    public int getSnapshotsWritten() {
+        return snapshotsWritten;
+    }
+
+    public void setSnapshotsWritten(int snapshotsWritten) {
+        this.snapshotsWritten = snapshotsWritten;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
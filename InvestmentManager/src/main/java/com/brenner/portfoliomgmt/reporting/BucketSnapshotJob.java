@@ -0,0 +1,159 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.data.BucketSnapshotWriter;
+import com.brenner.portfoliomgmt.data.HoldingsReportingDataService;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.exception.InvestmentManagerServiceException;
+
+/**
+ * Maintains bucket_summation_snapshots. The current bucket totals are snapshot after every market close on
+ * reports.bucket-snapshot.cron (in reports.bucket-snapshot.zone). Past dates are reconstructed by backfill, which
+ * splits the requested dates into reports.bucket-snapshot.backfill.parallelism contiguous ranges and writes each
+ * range with a single set-based statement, the ranges running concurrently.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class BucketSnapshotJob {
+
+	private static final Logger log = LoggerFactory.getLogger(BucketSnapshotJob.class);
+
+	@Value("${reports.bucket-snapshot.backfill.parallelism:4}")
+	int parallelism;
+
+	@Autowired
+	HoldingsReportingDataService reportingDataService;
+
+	@Autowired
+	BucketSnapshotWriter bucketSnapshotWriter;
+
+	/**
+	 * Snapshots the bucket totals priced at the latest quotes.
+	 */
+	@Scheduled(cron = "${reports.bucket-snapshot.cron:0 30 16 * * MON-FRI}", zone = "${reports.bucket-snapshot.zone:America/New_York}")
+	public void snapshot() {
+		log.info("Entered snapshot()");
+
+		this.reportingDataService.saveBucketSummarySnapShot();
+
+		log.info("Exiting snapshot()");
+	}
+
+	/**
+	 * Replaces the snapshots of every quoted date from fromDate to toDate.
+	 *
+	 * @param fromDate - first date to reconstruct, inclusive
+	 * @param toDate - last date to reconstruct, inclusive
+	 * @return {@link BucketBackfillReport} with the snapshots written and the time taken
+	 * @throws InvestmentManagerServiceException - when a range fails, the other ranges are still written
+	 */
+	public BucketBackfillReport backfill(Date fromDate, Date toDate) throws InvestmentManagerServiceException {
+		log.info("Entered backfill()");
+
+		if (fromDate == null || toDate == null) {
+			throw new InvalidRequestException("fromDate and toDate must be non-null");
+		}
+
+		List<LocalDate[]> ranges = split(LocalDate.fromDateFields(fromDate), LocalDate.fromDateFields(toDate), this.parallelism);
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(ranges.size(), new BackfillThreadFactory());
+		int snapshots = 0;
+		Exception failure = null;
+
+		try {
+			List<Future<Integer>> futures = new ArrayList<>(ranges.size());
+			for (LocalDate[] range : ranges) {
+				futures.add(executor.submit(() -> this.bucketSnapshotWriter.backfill(range[0].toDate(), range[1].toDate())));
+			}
+
+			for (int i=0; i<futures.size(); i++) {
+				try {
+					snapshots += futures.get(i).get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InvestmentManagerServiceException("Interrupted waiting on bucket backfill", e);
+				}
+				catch (ExecutionException e) {
+					log.error("Unable to backfill bucket snapshots from {} to {}", ranges.get(i)[0], ranges.get(i)[1], e.getCause());
+					failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		if (failure != null) {
+			throw new InvestmentManagerServiceException("Unable to backfill bucket snapshots", failure);
+		}
+
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		log.debug("Backfilled {} bucket snapshots over {} ranges in {} ms", snapshots, ranges.size(), elapsedMillis);
+		log.info("Exiting backfill()");
+		return new BucketBackfillReport(ranges.get(0)[0].toDate(), ranges.get(ranges.size() - 1)[1].toDate(),
+				ranges.size(), snapshots, elapsedMillis);
+	}
+
+	/**
+	 * Splits the dates from first to last into at most parts contiguous ranges of nearly equal length.
+	 *
+	 * @return ranges in date order, each holding its first and last date
+	 */
+	static List<LocalDate[]> split(LocalDate first, LocalDate last, int parts) {
+
+		if (first.isAfter(last)) {
+			LocalDate swap = first;
+			first = last;
+			last = swap;
+		}
+
+		int days = Days.daysBetween(first, last).getDays() + 1;
+		int rangeDays = (days + Math.max(1, parts) - 1) / Math.max(1, parts);
+
+		List<LocalDate[]> ranges = new ArrayList<>();
+		for (LocalDate rangeStart = first; ! rangeStart.isAfter(last); rangeStart = rangeStart.plusDays(rangeDays)) {
+			LocalDate rangeEnd = rangeStart.plusDays(rangeDays - 1);
+			ranges.add(new LocalDate[] {rangeStart, rangeEnd.isAfter(last) ? last : rangeEnd});
+		}
+
+		return ranges;
+	}
+
+	private static class BackfillThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "bucket-backfill-" + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
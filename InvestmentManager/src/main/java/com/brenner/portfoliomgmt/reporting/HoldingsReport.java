@@ -1,26 +1,29 @@
 package com.brenner.portfoliomgmt.reporting;
 
+import java.math.BigDecimal;
+
 import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
 
 public class HoldingsReport {
 
-	private Float valueAtPurchase;
+	private Long holdingId;
+	private BigDecimal valueAtPurchase;
 	private String symbol;
 	private Long investmentId;
 	private InvestmentTypeEnum investmentType;
 	private String sector;
 	private String companyName;
-	private Float priceAtClose;
-	private Float marketValue;
-	private Float changeInValue;
-	private Float totalDividends;
-	private Float totalValue;
+	private BigDecimal priceAtClose;
+	private BigDecimal marketValue;
+	private BigDecimal changeInValue;
+	private BigDecimal totalDividends;
+	private BigDecimal totalValue;
 	
 	
-	public Float getValueAtPurchase() {
+	public BigDecimal getValueAtPurchase() {
 		return valueAtPurchase;
 	}
-	public void setValueAtPurchase(Float valueAtPurchase) {
+	public void setValueAtPurchase(BigDecimal valueAtPurchase) {
 		this.valueAtPurchase = valueAtPurchase;
 	}
 	public String getSymbol() {
@@ -35,36 +38,42 @@ public class HoldingsReport {
 	public void setCompanyName(String companyName) {
 		this.companyName = companyName;
 	}
-	public Float getPriceAtClose() {
+	public BigDecimal getPriceAtClose() {
 		return priceAtClose;
 	}
-	public void setPriceAtClose(Float priceAtClose) {
+	public void setPriceAtClose(BigDecimal priceAtClose) {
 		this.priceAtClose = priceAtClose;
 	}
-	public Float getMarketValue() {
+	public BigDecimal getMarketValue() {
 		return marketValue;
 	}
-	public void setMarketValue(Float marketValue) {
+	public void setMarketValue(BigDecimal marketValue) {
 		this.marketValue = marketValue;
 	}
-	public Float getChangeInValue() {
+	public BigDecimal getChangeInValue() {
 		return changeInValue;
 	}
-	public void setChangeInValue(Float changeInValue) {
+	public void setChangeInValue(BigDecimal changeInValue) {
 		this.changeInValue = changeInValue;
 	}
-	public Float getTotalDividends() {
+	public BigDecimal getTotalDividends() {
 		return totalDividends;
 	}
-	public void setTotalDividends(Float totalDividends) {
+	public void setTotalDividends(BigDecimal totalDividends) {
 		this.totalDividends = totalDividends;
 	}
-	public Float getTotalValue() {
+	public BigDecimal getTotalValue() {
 		return totalValue;
 	}
-	public void setTotalValue(Float totalValue) {
+	public void setTotalValue(BigDecimal totalValue) {
 		this.totalValue = totalValue;
 	}
+	public Long getHoldingId() {
+		return holdingId;
+	}
+	public void setHoldingId(Long holdingId) {
+		this.holdingId = holdingId;
+	}
 	public Long getInvestmentId() {
 		return investmentId;
 	}
@@ -85,7 +94,7 @@ public class HoldingsReport {
 	}
 	@Override
 	public String toString() {
-		return "HoldingsReport [valueAtPurchase=" + valueAtPurchase + ", symbol=" + symbol + ", investmentId="
+		return "HoldingsReport [holdingId=" + holdingId + ", valueAtPurchase=" + valueAtPurchase + ", symbol=" + symbol + ", investmentId="
 				+ investmentId + ", investmentType=" + investmentType + ", sector=" + sector + ", companyName="
 				+ companyName + ", priceAtClose=" + priceAtClose + ", marketValue=" + marketValue + ", changeInValue="
 				+ changeInValue + ", totalDividends=" + totalDividends + ", totalValue=" + totalValue + "]";
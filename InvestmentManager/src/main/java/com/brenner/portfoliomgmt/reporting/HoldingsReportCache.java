@@ -0,0 +1,169 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Caches the per holding rows of the holdings reports together with their totals per (investment type, sector), so
+ * repeat loads of the type and sector view and of the change in value report do not query the data store. The rows
+ * are loaded on the first read after an invalidation.
+ *
+ * The cache is invalidated when holdings, transactions, investments or quotes change. Changes reported inside a
+ * transaction invalidate the cache immediately and again once the transaction completes, so rows read while the
+ * change was not yet committed are not kept.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class HoldingsReportCache {
+
+	private static final Logger log = LoggerFactory.getLogger(HoldingsReportCache.class);
+
+	private static final Comparator<HoldingsReport> TYPE_SECTOR_ORDER = Comparator
+			.comparing(HoldingsReport::getInvestmentType, Comparator.nullsLast(Comparator.<InvestmentTypeEnum>naturalOrder()))
+			.thenComparing(HoldingsReport::getSector, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile CachedReports cached;
+
+	/**
+	 * @param loader - reads the per holding rows of the holdings report
+	 * @return the cached per holding rows, unmodifiable
+	 */
+	public List<HoldingsReport> getHoldings(Supplier<List<HoldingsReport>> loader) {
+		return this.get(loader).holdings;
+	}
+
+	/**
+	 * @param loader - reads the per holding rows of the holdings report
+	 * @return the cached totals per (investment type, sector) ordered by type then sector, unmodifiable
+	 */
+	public List<HoldingsReport> getHoldingsByTypeAndSector(Supplier<List<HoldingsReport>> loader) {
+		return this.get(loader).byTypeAndSector;
+	}
+
+	/**
+	 * Marks the cached rows stale, they are reloaded on the next read.
+	 */
+	public void invalidate() {
+
+		this.generation.incrementAndGet();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+				&& ! TransactionSynchronizationManager.hasResource(this)) {
+			PendingInvalidation pending = new PendingInvalidation();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+	}
+
+	/**
+	 * Totals the holdings per (investment type, sector).
+	 *
+	 * @param holdings - per holding rows of the holdings report
+	 * @return a {@link HoldingsReport} per (investment type, sector) ordered by type then sector
+	 */
+	public static List<HoldingsReport> aggregateByTypeAndSector(Collection<HoldingsReport> holdings) {
+
+		if (holdings == null) {
+			throw new InvalidRequestException("holdings must be non-null");
+		}
+
+		Map<List<Object>, HoldingsReport> totals = new LinkedHashMap<>();
+		for (HoldingsReport holding : holdings) {
+			HoldingsReport total = totals.computeIfAbsent(Arrays.asList(holding.getInvestmentType(), holding.getSector()), key -> {
+				HoldingsReport report = new HoldingsReport();
+				report.setInvestmentType(holding.getInvestmentType());
+				report.setSector(holding.getSector());
+				report.setValueAtPurchase(BigDecimal.ZERO);
+				report.setMarketValue(BigDecimal.ZERO);
+				report.setChangeInValue(BigDecimal.ZERO);
+				report.setTotalDividends(BigDecimal.ZERO);
+				report.setTotalValue(BigDecimal.ZERO);
+				return report;
+			});
+
+			total.setValueAtPurchase(add(total.getValueAtPurchase(), holding.getValueAtPurchase()));
+			total.setMarketValue(add(total.getMarketValue(), holding.getMarketValue()));
+			total.setChangeInValue(add(total.getChangeInValue(), holding.getChangeInValue()));
+			total.setTotalDividends(add(total.getTotalDividends(), holding.getTotalDividends()));
+			total.setTotalValue(add(total.getTotalValue(), holding.getTotalValue()));
+		}
+
+		List<HoldingsReport> report = new ArrayList<>(totals.values());
+		report.sort(TYPE_SECTOR_ORDER);
+		return report;
+	}
+
+	private CachedReports get(Supplier<List<HoldingsReport>> loader) {
+
+		long currentGeneration = this.generation.get();
+		CachedReports reports = this.cached;
+		if (reports != null && reports.generation == currentGeneration) {
+			return reports;
+		}
+
+		List<HoldingsReport> holdings = loader.get();
+		reports = new CachedReports(currentGeneration, holdings == null ? Collections.emptyList() : holdings);
+
+		// rows loaded across an invalidation carry the older generation and are reloaded on the next read
+		this.cached = reports;
+
+		log.debug("Loaded {} holdings in {} type and sector totals", reports.holdings.size(), reports.byTypeAndSector.size());
+		return reports;
+	}
+
+	private static BigDecimal add(BigDecimal total, BigDecimal value) {
+		return value == null ? total : total.add(value);
+	}
+
+	private static class CachedReports {
+
+		private final long generation;
+
+		private final List<HoldingsReport> holdings;
+
+		private final List<HoldingsReport> byTypeAndSector;
+
+		CachedReports(long generation, List<HoldingsReport> holdings) {
+			this.generation = generation;
+			this.holdings = Collections.unmodifiableList(new ArrayList<>(holdings));
+			this.byTypeAndSector = Collections.unmodifiableList(aggregateByTypeAndSector(holdings));
+		}
+	}
+
+	/**
+	 * Invalidates the cache again once the transaction that reported a change completes.
+	 */
+	private class PendingInvalidation implements TransactionSynchronization {
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(HoldingsReportCache.this);
+			generation.incrementAndGet();
+		}
+	}
+}
@@ -49,28 +49,28 @@ import com.fasterxml.jackson.annotation.JsonRootName;
 @NamedNativeQueries({
     @NamedNativeQuery(
             name="PortfolioRollup.getPortfolioRollup", 
-            query="select sum(t.trade_quantity * q.price_at_close) as market_value, q.quote_date \n" + 
-            		"from holdings h, transactions t, investments i, quotes q  \n" + 
-            		"where h.holding_id = t.holding_holding_id and h.investment_investment_id = i.investment_id and q.investment_id = i.investment_id group by q.quote_date \n" + 
-            		"order by q.quote_date;", 
+            query="select sum(v.market_value) as market_value, v.value_date as quote_date \n" + 
+            		"from portfolio_daily_value v \n" + 
+            		"group by v.value_date \n" + 
+            		"order by v.value_date;", 
             resultSetMapping="portfolioRollupMapping",
             resultClass=PortfolioRollup.class
     ),
     @NamedNativeQuery(
             name="PortfolioRollup.getPortfolioRollupBySymbolAndMonths", 
-            query="select sum(t.trade_quantity * q.price_at_close) as market_value, q.quote_date from holdings h, transactions t, investments i, quotes q \n"
-            		+ "where h.holding_id = t.holding_holding_id and h.investment_investment_id = i.investment_id and q.investment_id = i.investment_id and i.symbol=?1 and q.quote_date >= TO_TIMESTAMP(?2, 'YYYY-MM-DD')  \n"
-            		+ "group by q.quote_date \n"
-            		+ "order by q.quote_date;", 
+            query="select sum(v.market_value) as market_value, v.value_date as quote_date from portfolio_daily_value v \n"
+            		+ "where v.investment_id in (select i.investment_id from investments i where i.symbol=?1) and v.value_date >= TO_TIMESTAMP(?2, 'YYYY-MM-DD')  \n"
+            		+ "group by v.value_date \n"
+            		+ "order by v.value_date;", 
             resultSetMapping="portfolioRollupMapping",
             resultClass=PortfolioRollup.class
     ),
     @NamedNativeQuery(
             name="PortfolioRollup.getPortfolioRollupByMonths", 
-            query="select sum(t.trade_quantity * q.price_at_close) as market_value, q.quote_date from holdings h, transactions t, investments i, quotes q \n" + 
-            		"where h.holding_id = t.holding_holding_id and h.investment_investment_id = i.investment_id and q.investment_id = i.investment_id and q.quote_date >= TO_TIMESTAMP(?, 'YYYY-MM-DD') \n" +
-            		"group by q.quote_date \n" + 
-            		"order by q.quote_date;", 
+            query="select sum(v.market_value) as market_value, v.value_date as quote_date from portfolio_daily_value v \n" + 
+            		"where v.value_date >= TO_TIMESTAMP(?, 'YYYY-MM-DD') \n" +
+            		"group by v.value_date \n" + 
+            		"order by v.value_date;", 
             resultSetMapping="portfolioRollupMapping",
             resultClass=PortfolioRollup.class
     ),
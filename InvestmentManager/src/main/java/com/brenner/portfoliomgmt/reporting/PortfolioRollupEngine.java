@@ -0,0 +1,220 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.data.PortfolioDailyValueWriter;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ * Keeps the persisted portfolio value series (portfolio_daily_value) current as quotes, holdings and transactions
+ * change. Changes are reported as slices of the series: new, updated or deleted quotes cover the dates between the
+ * earliest and latest quote of each investment, holding and transaction changes cover every date of the investment
+ * as the quantity held applies to the whole series. Only those slices are recomputed.
+ *
+ * Changes reported inside a transaction are collected and merged per investment, then recomputed once after the
+ * transaction commits. Nothing is recomputed when it rolls back. Recomputations and rebuilds are serialized.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class PortfolioRollupEngine {
+
+	private static final Logger log = LoggerFactory.getLogger(PortfolioRollupEngine.class);
+
+	@Autowired
+	PortfolioDailyValueWriter portfolioDailyValueWriter;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Builds the series on the first start after the table was created, existing holdings are otherwise never valued.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void populateIfEmpty() {
+		log.info("Entered populateIfEmpty()");
+
+		if (! this.portfolioDailyValueWriter.isPopulated()) {
+			RollupRebuildReport report = this.rebuild();
+			log.debug("Populated portfolio_daily_value with {} rows", report.getRowsWritten());
+		}
+
+		log.info("Exiting populateIfEmpty()");
+	}
+
+	/**
+	 * Recomputes the dates spanned by new or changed quotes.
+	 *
+	 * @param quotes - the quotes written, each with its investment
+	 */
+	public void quotesChanged(Collection<Quote> quotes) {
+		log.info("Entered quotesChanged()");
+
+		if (quotes == null) {
+			throw new InvalidRequestException("quotes must be non-null");
+		}
+
+		Map<Long, DailyValueSlice> slices = new LinkedHashMap<>();
+		for (Quote quote : quotes) {
+			if (quote != null && quote.getInvestment() != null && quote.getInvestment().getInvestmentId() != null) {
+				Long investmentId = quote.getInvestment().getInvestmentId();
+				slices.merge(investmentId, DailyValueSlice.dates(investmentId, quote.getDate(), quote.getDate()), DailyValueSlice::merge);
+			}
+		}
+
+		this.submit(slices.values());
+		log.info("Exiting quotesChanged()");
+	}
+
+	/**
+	 * Recomputes slices collected by the caller, e.g. the dates spanned by the quotes of a whole import.
+	 *
+	 * @param slices - the slices to recompute, slices of the same investment are merged
+	 */
+	public void slicesChanged(Collection<DailyValueSlice> slices) {
+
+		if (slices == null) {
+			throw new InvalidRequestException("slices must be non-null");
+		}
+
+		Map<Long, DailyValueSlice> merged = new LinkedHashMap<>();
+		for (DailyValueSlice slice : slices) {
+			merged.merge(slice.getInvestmentId(), slice, DailyValueSlice::merge);
+		}
+
+		this.submit(merged.values());
+	}
+
+	/**
+	 * Recomputes a single date of an investment, e.g. after its quote was deleted.
+	 *
+	 * @param investmentId - unique investment identifier
+	 * @param quoteDate - date of the changed quote, every date is recomputed when null
+	 */
+	public void quoteChanged(Long investmentId, Date quoteDate) {
+
+		if (investmentId == null) {
+			throw new InvalidRequestException("investmentId must be non-null");
+		}
+
+		this.submit(Collections.singleton(DailyValueSlice.dates(investmentId, quoteDate, quoteDate)));
+	}
+
+	/**
+	 * Recomputes every date of an investment after its holdings or transactions changed.
+	 *
+	 * @param investmentId - unique investment identifier
+	 */
+	public void investmentChanged(Long investmentId) {
+
+		if (investmentId == null) {
+			throw new InvalidRequestException("investmentId must be non-null");
+		}
+
+		this.submit(Collections.singleton(DailyValueSlice.allDates(investmentId)));
+	}
+
+	/**
+	 * Recomputes the whole series.
+	 *
+	 * @return {@link RollupRebuildReport} with the rows written and the time taken
+	 */
+	public RollupRebuildReport rebuild() {
+		log.info("Entered rebuild()");
+
+		this.lock.lock();
+		try {
+			long start = System.nanoTime();
+			int rows = this.portfolioDailyValueWriter.rebuild();
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			log.debug("Rebuilt {} daily values in {} ms", rows, elapsedMillis);
+			log.info("Exiting rebuild()");
+			return new RollupRebuildReport(new Date(), rows, elapsedMillis);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	void submit(Collection<DailyValueSlice> slices) {
+
+		if (slices.isEmpty()) {
+			return;
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			PendingSlices pending = (PendingSlices) TransactionSynchronizationManager.getResource(this);
+			if (pending == null) {
+				pending = new PendingSlices();
+				TransactionSynchronizationManager.bindResource(this, pending);
+				TransactionSynchronizationManager.registerSynchronization(pending);
+			}
+			pending.addAll(slices);
+		}
+		else {
+			this.recompute(slices);
+		}
+	}
+
+	private void recompute(Collection<DailyValueSlice> slices) {
+
+		this.lock.lock();
+		try {
+			this.portfolioDailyValueWriter.recompute(slices);
+		}
+		// the triggering change is already committed, a failure leaves stale values until the next change or rebuild
+		catch (DataAccessException | TransactionException e) {
+			log.error("Unable to recompute daily values for {}", slices, e);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Slices reported during a transaction, merged per investment.
+	 */
+	private class PendingSlices implements TransactionSynchronization {
+
+		private final Map<Long, DailyValueSlice> slices = new LinkedHashMap<>();
+
+		void addAll(Collection<DailyValueSlice> changed) {
+			for (DailyValueSlice slice : changed) {
+				this.slices.merge(slice.getInvestmentId(), slice, DailyValueSlice::merge);
+			}
+		}
+
+		@Override
+		public void afterCommit() {
+			recompute(this.slices.values());
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PortfolioRollupEngine.this);
+		}
+	}
+}
@@ -7,7 +7,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
- * JPA interface for reporting data interactions
+ * JPA interface for reporting data interactions. The portfolio value series are read from the portfolio_daily_value
+ * table maintained by PortfolioDailyValueWriter.
  * 
  * @author dbrenner
  *
@@ -0,0 +1,126 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.quotes.LivePriceCache;
+
+/**
+ * Totals the open holdings of the portfolio in one pass over the lots. Each lot is priced from the latest stored quote
+ * of its investment held by the {@link LatestQuoteCache}, or from the live quote held by the {@link LivePriceCache}
+ * when the live overlay is requested and a live quote within its max age exists. Pricing never waits on a quote
+ * provider.
+ *
+ * Lots of investments without a price only count towards the value at purchase, the change in value and price covers
+ * the priced lots.
+ *
+ * @author dbrenner
+ *
+ */
+@Component
+public class PortfolioTotalsAggregator {
+
+	private static final Logger log = LoggerFactory.getLogger(PortfolioTotalsAggregator.class);
+
+	@Autowired
+	HoldingBucketSummationMapper bucketSummationMapper;
+
+	@Autowired
+	LatestQuoteCache latestQuoteCache;
+
+	@Autowired
+	LivePriceCache livePriceCache;
+
+	/**
+	 * @param liveOverlay - true to price lots from fresh live quotes where available
+	 * @return {@link PortfolioReport} of the open holdings
+	 */
+	public PortfolioReport aggregate(boolean liveOverlay) {
+		log.info("Entered aggregate()");
+
+		Map<Long, Quote> liveQuotes = liveOverlay ? this.livePriceCache.getFreshQuotes() : Collections.emptyMap();
+		PortfolioReport report = this.aggregate(this.bucketSummationMapper.holdingLots(), liveQuotes);
+
+		log.info("Exiting aggregate()");
+		return report;
+	}
+
+	/**
+	 * @param lots - the open holdings to total
+	 * @param liveQuotes - live quotes keyed by investment id, they take precedence over the stored quotes
+	 * @return {@link PortfolioReport} of the lots
+	 */
+	public PortfolioReport aggregate(Collection<HoldingLot> lots, Map<Long, Quote> liveQuotes) {
+
+		if (lots == null || liveQuotes == null) {
+			throw new InvalidRequestException("lots and liveQuotes must be non-null");
+		}
+
+		BigDecimal totalValueAtPurchase = BigDecimal.ZERO;
+		BigDecimal totalCurrentValue = BigDecimal.ZERO;
+		BigDecimal totalChangeInValue = BigDecimal.ZERO;
+		BigDecimal totalChangeInPrice = BigDecimal.ZERO;
+		int livePriced = 0;
+
+		for (HoldingLot lot : lots) {
+			if (lot.getQuantity() == null) {
+				continue;
+			}
+
+			BigDecimal valueAtPurchase = lot.getPurchasePrice() != null ? lot.getQuantity().multiply(lot.getPurchasePrice()) : null;
+			if (valueAtPurchase != null) {
+				totalValueAtPurchase = totalValueAtPurchase.add(valueAtPurchase);
+			}
+
+			BigDecimal close;
+			BigDecimal priceChange;
+			Quote liveQuote = liveQuotes.get(lot.getInvestmentId());
+			if (liveQuote != null && liveQuote.getClose() != null) {
+				close = liveQuote.getClose();
+				priceChange = liveQuote.getPriceChange();
+				livePriced++;
+			}
+			else {
+				close = this.latestQuoteCache.getLatestClose(lot.getInvestmentId());
+				priceChange = this.latestQuoteCache.getLatestPriceChange(lot.getInvestmentId());
+			}
+
+			if (close == null) {
+				continue;
+			}
+
+			BigDecimal currentValue = lot.getQuantity().multiply(close);
+			totalCurrentValue = totalCurrentValue.add(currentValue);
+			if (valueAtPurchase != null) {
+				totalChangeInValue = totalChangeInValue.add(currentValue.subtract(valueAtPurchase));
+			}
+			if (priceChange != null) {
+				totalChangeInPrice = totalChangeInPrice.add(lot.getQuantity().multiply(priceChange));
+			}
+		}
+
+		PortfolioReport report = new PortfolioReport();
+		report.setTotalValueAtPurchase(totalValueAtPurchase.doubleValue());
+		report.setTotalCurrentValue(totalCurrentValue.doubleValue());
+		report.setTotalChangeInValue(totalChangeInValue.doubleValue());
+		report.setTotalChangeInPrice(totalChangeInPrice.doubleValue());
+
+		log.debug("Aggregated {} lots, {} priced from live quotes", lots.size(), livePriced);
+		return report;
+	}
+}
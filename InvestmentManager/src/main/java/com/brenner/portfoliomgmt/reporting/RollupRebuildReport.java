@@ -0,0 +1,53 @@
+package com.brenner.portfoliomgmt.reporting;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonRootName;
+
+/**
+ * Outcome of a full rebuild of the portfolio value series.
+ * 
+ * @author dbrenner
+ *
+ */
+@JsonRootName(value="rollupRebuildReport")
+public class RollupRebuildReport {
+    
+    private Date completedAt;
+    
+    private int rowsWritten;
+    
+    private long elapsedMillis;
+    
+    public RollupRebuildReport() {}
+    
+    public RollupRebuildReport(Date completedAt, int rowsWritten, long elapsedMillis) {
+        this.completedAt = completedAt;
+        this.rowsWritten = rowsWritten;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(int rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
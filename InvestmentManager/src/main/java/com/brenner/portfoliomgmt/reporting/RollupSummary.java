@@ -0,0 +1,104 @@
+package com.brenner.portfoliomgmt.reporting;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The holdings shown on the rollup report with their totals and the number of gaining, losing and unchanged
+ * holdings. Rows are added as they are read so the totals are built in the same pass as the list. Holdings without
+ * a price count as unchanged and add nothing to the market value.
+ * 
+ * @author dbrenner
+ *
+ */
+public class RollupSummary {
+    
+    private final List<HoldingsReport> holdings = new ArrayList<>();
+    
+    private BigDecimal totalValueAtPurchase = BigDecimal.ZERO;
+    
+    private BigDecimal totalMarketValue = BigDecimal.ZERO;
+    
+    private BigDecimal totalDividends = BigDecimal.ZERO;
+    
+    private BigDecimal totalChangeInValue = BigDecimal.ZERO;
+    
+    private int gainers;
+    
+    private int losers;
+    
+    private int unchanged;
+    
+    public RollupSummary() {}
+    
+    /**
+     * Adds a holding to the report and its values to the totals.
+     * 
+     * @param holding - a report row with its dividends and total value set
+     */
+    public void add(HoldingsReport holding) {
+        
+        this.holdings.add(holding);
+        
+        this.totalValueAtPurchase = add(this.totalValueAtPurchase, holding.getValueAtPurchase());
+        this.totalMarketValue = add(this.totalMarketValue, holding.getMarketValue());
+        this.totalDividends = add(this.totalDividends, holding.getTotalDividends());
+        this.totalChangeInValue = add(this.totalChangeInValue, holding.getChangeInValue());
+        
+        int sign = holding.getChangeInValue() == null ? 0 : holding.getChangeInValue().signum();
+        if (sign > 0) {
+            ++this.gainers;
+        }
+        else if (sign < 0) {
+            ++this.losers;
+        }
+        else {
+            ++this.unchanged;
+        }
+    }
+    
+    private static BigDecimal add(BigDecimal total, BigDecimal value) {
+        return value == null ? total : total.add(value);
+    }
+
+    public List<HoldingsReport> getHoldings() {
+        return holdings;
+    }
+
+    public BigDecimal getTotalValueAtPurchase() {
+        return totalValueAtPurchase;
+    }
+
+    public BigDecimal getTotalMarketValue() {
+        return totalMarketValue;
+    }
+
+    public BigDecimal getTotalDividends() {
+        return totalDividends;
+    }
+
+    public BigDecimal getTotalChangeInValue() {
+        return totalChangeInValue;
+    }
+
+    public int getGainers() {
+        return gainers;
+    }
+
+    public int getLosers() {
+        return losers;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupSummary [holdings=" + holdings.size() + ", totalValueAtPurchase=" + totalValueAtPurchase
+                + ", totalMarketValue=" + totalMarketValue + ", totalDividends=" + totalDividends
+                + ", totalChangeInValue=" + totalChangeInValue + ", gainers=" + gainers + ", losers=" + losers
+                + ", unchanged=" + unchanged + "]";
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.brenner.portfoliomgmt.domain.Quote;
+
+/**
+ * Reduces chart series to roughly the number of points a chart can draw. Line series are reduced with
+ * Largest-Triangle-Three-Buckets, which keeps the first and last point and from each bucket the point that forms the
+ * largest triangle with its neighbours, so peaks and troughs survive. Quote histories can instead be bucketed into
+ * OHLC quotes.
+ *
+ * Series are taken in chart order, either ascending or descending by date, and points are spaced by position. A null
+ * or non-positive point count, or a series that already fits, is returned unchanged.
+ *
+ * @author dbrenner
+ *
+ */
+public class TimeSeriesDownsampler {
+
+	/**
+	 * Line series are never reduced below the first, one middle and the last point
+	 */
+	static final int MIN_LTTB_POINTS = 3;
+
+	private TimeSeriesDownsampler() {}
+
+	/**
+	 * Reduces a line series with Largest-Triangle-Three-Buckets.
+	 *
+	 * @param series - points in chart order
+	 * @param points - the number of points to keep
+	 * @param value - reads the plotted value of a point, points without a value are plotted as zero
+	 * @return the kept points in chart order
+	 */
+	public static <T> List<T> lttb(List<T> series, Integer points, Function<T, ? extends Number> value) {
+
+		if (series == null || points == null || points <= 0 || series.size() <= Math.max(points, MIN_LTTB_POINTS)) {
+			return series;
+		}
+
+		int threshold = Math.max(points, MIN_LTTB_POINTS);
+		int size = series.size();
+
+		double[] values = new double[size];
+		for (int i=0; i<size; i++) {
+			Number number = value.apply(series.get(i));
+			values[i] = number != null ? number.doubleValue() : 0d;
+		}
+
+		List<T> sampled = new ArrayList<>(threshold);
+		sampled.add(series.get(0));
+
+		// the first and last points are kept, the others are split into threshold - 2 buckets
+		double bucketSize = (double) (size - 2) / (threshold - 2);
+		int selected = 0;
+
+		for (int bucket=0; bucket<threshold - 2; bucket++) {
+			int start = (int) Math.floor(bucket * bucketSize) + 1;
+			int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+			// average of the next bucket, the last point stands in for the bucket after the last
+			int nextStart = end;
+			int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+			double averageX;
+			double averageY;
+			if (bucket == threshold - 3) {
+				averageX = size - 1;
+				averageY = values[size - 1];
+			}
+			else {
+				averageX = 0;
+				averageY = 0;
+				for (int i=nextStart; i<nextEnd; i++) {
+					averageX += i;
+					averageY += values[i];
+				}
+				averageX /= nextEnd - nextStart;
+				averageY /= nextEnd - nextStart;
+			}
+
+			double maxArea = -1;
+			int maxIndex = start;
+			for (int i=start; i<end; i++) {
+				double area = Math.abs((selected - averageX) * (values[i] - values[selected])
+						- (selected - i) * (averageY - values[selected]));
+				if (area > maxArea) {
+					maxArea = area;
+					maxIndex = i;
+				}
+			}
+
+			sampled.add(series.get(maxIndex));
+			selected = maxIndex;
+		}
+
+		sampled.add(series.get(size - 1));
+		return sampled;
+	}
+
+	/**
+	 * Buckets a quote history into OHLC quotes. Each bucket holds consecutive quotes and is reported as the quote of its
+	 * latest date with the open of its earliest quote, the close of its latest quote, the highest high, the lowest low,
+	 * the total volume and the total price change.
+	 *
+	 * @param quotes - quotes in chart order
+	 * @param points - the number of quotes to return
+	 * @return one quote per bucket in chart order
+	 */
+	public static List<Quote> ohlc(List<Quote> quotes, Integer points) {
+
+		if (quotes == null || points == null || points <= 0 || quotes.size() <= points) {
+			return quotes;
+		}
+
+		int size = quotes.size();
+		List<Quote> sampled = new ArrayList<>(points);
+
+		for (int bucket=0; bucket<points; bucket++) {
+			int start = (int) ((long) bucket * size / points);
+			int end = (int) ((long) (bucket + 1) * size / points);
+			sampled.add(merge(quotes.subList(start, end)));
+		}
+
+		return sampled;
+	}
+
+	private static Quote merge(List<Quote> bucket) {
+
+		Quote earliest = bucket.get(0);
+		Quote latest = bucket.get(0);
+		BigDecimal high = null;
+		BigDecimal low = null;
+		long volume = 0;
+		boolean hasVolume = false;
+		BigDecimal priceChange = null;
+
+		for (Quote quote : bucket) {
+			if (isBefore(quote, earliest)) {
+				earliest = quote;
+			}
+			if (isBefore(latest, quote)) {
+				latest = quote;
+			}
+			if (quote.getHigh() != null && (high == null || quote.getHigh().compareTo(high) > 0)) {
+				high = quote.getHigh();
+			}
+			if (quote.getLow() != null && (low == null || quote.getLow().compareTo(low) < 0)) {
+				low = quote.getLow();
+			}
+			if (quote.getVolume() != null) {
+				volume += quote.getVolume();
+				hasVolume = true;
+			}
+			if (quote.getPriceChange() != null) {
+				priceChange = priceChange == null ? quote.getPriceChange() : priceChange.add(quote.getPriceChange());
+			}
+		}
+
+		return new Quote(null, latest.getDate(), earliest.getOpen(), latest.getClose(), high, low,
+				hasVolume ? (int) Math.min(volume, Integer.MAX_VALUE) : null, priceChange, latest.getWeek52High(),
+				latest.getWeek52Low(), latest.getInvestment());
+	}
+
+	private static boolean isBefore(Quote quote, Quote other) {
+		return quote.getDate() != null && (other.getDate() == null || quote.getDate().before(other.getDate()));
+	}
+}
@@ -3,7 +3,10 @@
  */
 package com.brenner.portfoliomgmt.service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -51,6 +54,30 @@ public class AccountsService {
     				Optional.of(ObjectMappingUtil.mapAccountDtoToAccount(accountData.get()));
     }
 
+    /**
+     * Looks up the ids of a set of account names with one query.
+     * 
+     * @param accountNames - account names to look up
+     * @return the account ids keyed by account name, names that are not stored are absent
+     */
+    public Map<String, Long> findAccountIdsByAccountName(Collection<String> accountNames) {
+    	log.info("Entered findAccountIdsByAccountName()");
+    	
+    	if (accountNames == null) {
+    		throw new InvalidRequestException("accountNames must be non-null");
+    	}
+    	
+    	Map<String, Long> accountIds = new HashMap<>();
+    	if (! accountNames.isEmpty()) {
+    		for (Object[] row : this.accountsRepo.findAccountIdsByAccountNameIn(accountNames)) {
+    			accountIds.put((String) row[0], ((Number) row[1]).longValue());
+    		}
+    	}
+    	
+    	log.info("Exiting findAccountIdsByAccountName()");
+    	return accountIds;
+    }
+
 	/**
      * Retrieves an account by its assigned account number.
      * 
@@ -6,10 +6,12 @@ package com.brenner.portfoliomgmt.service;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +20,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.brenner.portfoliomgmt.data.HoldingsBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
@@ -34,6 +37,9 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.domain.TransactionTypeEnum;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
 import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
 
 /**
@@ -61,6 +67,18 @@ public class HoldingsService {
 	@Autowired
 	AccountsRepository accountsRepo;
 	
+	@Autowired
+	LatestQuoteCache latestQuoteCache;
+	
+	@Autowired
+	PortfolioRollupEngine portfolioRollupEngine;
+	
+	@Autowired
+	HoldingsReportCache holdingsReportCache;
+	
+	@Autowired
+	HoldingsBulkWriter holdingsBulkWriter;
+	
 	@Transactional
 	public void deleteHolding(Long holdingId) {
 		log.info("Entered delete()");
@@ -69,9 +87,15 @@ public class HoldingsService {
 		if (holdingId == null) {
 			throw new InvalidRequestException("holdingId must be non-null");
 		}
+		Optional<HoldingDTO> optHolding = this.holdingsRepo.findById(holdingId);
+		
 		this.transactionsRepo.deleteTransactionForHolding(holdingId);
 		this.holdingsRepo.deleteById(holdingId);
 		
+		if (optHolding.isPresent()) {
+			this.refreshDailyValues(optHolding.get());
+		}
+		
 		log.info("Exiting delete()");
 	}
 	
@@ -79,7 +103,7 @@ public class HoldingsService {
 		
 		List<HoldingDTO> holdings = this.holdingsRepo.findByBucketEnum(bucket);
 		
-		return ObjectMappingUtil.mapHoldingDtoList(holdings);
+		return ObjectMappingUtil.mapHoldingDtoList(holdings, this.latestQuoteCache::getLatestQuote);
 	}
     
     /**
@@ -119,8 +143,9 @@ public class HoldingsService {
         transactionData.setAccount(optAccount.get());
         transactionData.setHolding(holdingData);
         this.transactionsRepo.save(transactionData);
+        this.refreshDailyValues(holdingData);
         
-        return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData);
+        return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData, this.latestQuoteCache::getLatestQuote);
     }
     
 
@@ -140,8 +165,36 @@ public class HoldingsService {
     	
     	HoldingDTO holdingData = ObjectMappingUtil.mapHoldingToHoldingDto(holding);
     	holdingData = this.holdingsRepo.save(holdingData);
+    	this.refreshDailyValues(holdingData);
         
-        return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData);
+        return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData, this.latestQuoteCache::getLatestQuote);
+    }
+    
+    /**
+     * Persists a list of new holdings and their transactions in JDBC batches.
+     * 
+     * @param holdings - new holdings, each must carry its account id and investment id
+     * @return the number of holdings written
+     */
+    @Transactional
+    public int addHoldings(List<Holding> holdings) {
+    	log.info("Entered addHoldings()");
+    	
+    	int written = this.holdingsBulkWriter.insertHoldings(holdings);
+    	
+    	Set<Long> investmentIds = new HashSet<>();
+    	for (Holding holding : holdings) {
+    		investmentIds.add(holding.getInvestment().getInvestmentId());
+    	}
+    	if (! investmentIds.isEmpty()) {
+    		this.holdingsReportCache.invalidate();
+    	}
+    	for (Long investmentId : investmentIds) {
+    		this.portfolioRollupEngine.investmentChanged(investmentId);
+    	}
+    	
+    	log.info("Exiting addHoldings()");
+    	return written;
     }
     
     /**
@@ -157,14 +210,33 @@ public class HoldingsService {
     	}
     	
     	List<HoldingDTO> holdingsData = this.holdingsRepo.findByAccountAccountId(accountId);
-    	List<Holding> holdings = ObjectMappingUtil.mapHoldingDtoList(holdingsData);
+    	List<Holding> holdings = ObjectMappingUtil.mapHoldingDtoList(holdingsData, this.latestQuoteCache::getLatestQuote);
     	
+    	// collect the investments the cache could not price so their latest quotes can be retrieved in one query
+    	Set<Long> investmentIds = new HashSet<>();
     	int loopCount = 0;
     	for (Holding holding : holdings) {
-    		HoldingDTO holdingData = holdingsData.get(loopCount);
-    		List<Quote> quotes = this.quotesService.findMostRecentQuotesForInvestment(holdingData.getInvestment());
-    		if (quotes != null && quotes.size() > 0) {
-    			holding.setMostRecentQuote(quotes.get(0));
+    		InvestmentDTO investmentData = holdingsData.get(loopCount).getInvestment();
+    		if (holding.getMostRecentQuote() == null && investmentData != null && investmentData.getInvestmentId() != null) {
+    			investmentIds.add(investmentData.getInvestmentId());
+    		}
+    		++loopCount;
+    	}
+    	
+    	if (investmentIds.isEmpty()) {
+    		return holdings;
+    	}
+    	
+    	Map<Long, Quote> mostRecentQuotes = this.quotesService.findMostRecentQuotesForInvestmentIds(investmentIds);
+    	
+    	loopCount = 0;
+    	for (Holding holding : holdings) {
+    		InvestmentDTO investmentData = holdingsData.get(loopCount).getInvestment();
+    		if (holding.getMostRecentQuote() == null && investmentData != null && mostRecentQuotes != null) {
+    			Quote quote = mostRecentQuotes.get(investmentData.getInvestmentId());
+    			if (quote != null) {
+    				holding.setMostRecentQuote(quote);
+    			}
     		}
     		++loopCount;
     	}
@@ -219,6 +291,7 @@ public class HoldingsService {
     	TransactionDTO t = this.transactionsRepo.save(cashTransaction);
     	saleTransaction.setAssociatedCashTransactionId(t.getTransactionId());
     	this.transactionsRepo.save(saleTransaction);
+    	this.refreshDailyValues(holding);
     }
     
     /**
@@ -236,7 +309,7 @@ public class HoldingsService {
         
         List<HoldingDTO> holdingsData = this.holdingsRepo.findByAccountAccountIdAndInvestmentInvestmentId(accountId, investmentId);
         
-        return ObjectMappingUtil.mapHoldingDtoList(holdingsData);
+        return ObjectMappingUtil.mapHoldingDtoList(holdingsData, this.latestQuoteCache::getLatestQuote);
     }
     
     /**
@@ -262,7 +335,7 @@ public class HoldingsService {
     	
         return optHolding.isEmpty() ?
         		Optional.empty() : 
-        			Optional.of(ObjectMappingUtil.mapHoldingDtoToHolding(optHolding.get()));
+        			Optional.of(ObjectMappingUtil.mapHoldingDtoToHolding(optHolding.get(), this.latestQuoteCache::getLatestQuote));
     }
     
     public Optional<Holding> findHoldingByHoldingIdWithBuyTransaction(Long holdingId) {
@@ -285,7 +358,7 @@ public class HoldingsService {
     	
         return optHolding.isEmpty() ?
         		Optional.empty() : 
-        			Optional.of(ObjectMappingUtil.mapHoldingDtoToHolding(optHolding.get()));
+        			Optional.of(ObjectMappingUtil.mapHoldingDtoToHolding(optHolding.get(), this.latestQuoteCache::getLatestQuote));
     }
     
     /**
@@ -301,6 +374,8 @@ public class HoldingsService {
     		throw new InvalidRequestException("holding and trade must be non-null");
     	}
         
+        Long storedInvestmentId = this.findStoredInvestmentId(holding.getHoldingId());
+        
         HoldingDTO holdingData = ObjectMappingUtil.mapHoldingToHoldingDto(holding);
         holdingData = this.holdingsRepo.save(holdingData);
         
@@ -308,6 +383,7 @@ public class HoldingsService {
     	transactionData.setHolding(holdingData);
 
         this.transactionsRepo.save(transactionData);
+        this.refreshDailyValues(holdingData, storedInvestmentId);
     }
     
     /**
@@ -335,6 +411,8 @@ public class HoldingsService {
     		throw new InvalidRequestException("Holding and holdingId must be non-null");
     	}
     	
+    	Long storedInvestmentId = this.findStoredInvestmentId(holding.getHoldingId());
+    	
     	Optional<TransactionDTO> optTransactionOptional = this.findBuyTransactionForHolding(holding.getHoldingId());
     	if (optTransactionOptional.isPresent()) {
     		TransactionDTO buyTransaction = optTransactionOptional.get();
@@ -345,8 +423,9 @@ public class HoldingsService {
     	
     	HoldingDTO holdingData = ObjectMappingUtil.mapHoldingToHoldingDto(holding);
     	holdingData = this.holdingsRepo.save(holdingData);
+    	this.refreshDailyValues(holdingData, storedInvestmentId);
     	
-    	return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData);
+    	return ObjectMappingUtil.mapHoldingDtoToHolding(holdingData, this.latestQuoteCache::getLatestQuote);
     }
     
     /**
@@ -358,7 +437,7 @@ public class HoldingsService {
     	
         List<HoldingDTO> holdings = this.holdingsRepo.findAll();
         
-        return ObjectMappingUtil.mapHoldingDtoList(holdings);
+        return ObjectMappingUtil.mapHoldingDtoList(holdings, this.latestQuoteCache::getLatestQuote);
     }
     
     /**
@@ -370,7 +449,7 @@ public class HoldingsService {
         
         List<HoldingDTO> holdingsData = this.holdingsRepo.findAll(Sort.by(Sort.Direction.ASC, "investment.symbol"));
         
-        return ObjectMappingUtil.mapHoldingDtoList(holdingsData);
+        return ObjectMappingUtil.mapHoldingDtoList(holdingsData, this.latestQuoteCache::getLatestQuote);
     }
     
     
@@ -398,7 +477,7 @@ public class HoldingsService {
 		
 		log.info("Exiting getHoldingsByInvestmentId()");
 		
-		return ObjectMappingUtil.mapHoldingDtoList(holdings);
+		return ObjectMappingUtil.mapHoldingDtoList(holdings, this.latestQuoteCache::getLatestQuote);
 	}
 	
 	/**
@@ -432,7 +511,7 @@ public class HoldingsService {
 		log.debug("Retrieved {} holdings", holdings != null ? holdings.size() : 0);
 		log.info("Exiting findAll()");
 		
-		return ObjectMappingUtil.mapHoldingDtoList(holdings);
+		return ObjectMappingUtil.mapHoldingDtoList(holdings, this.latestQuoteCache::getLatestQuote);
 	}
 	
 	/**
@@ -562,6 +641,7 @@ public class HoldingsService {
         TransactionDTO t = this.transactionsRepo.save(cashTransaction);
         trade.setAssociatedCashTransactionId(t.getTransactionId());
         this.transactionsRepo.save(trade);
+        this.refreshDailyValues(holding);
         
     }
     
@@ -678,6 +758,7 @@ public class HoldingsService {
     	
     	TransactionDTO transactionData = ObjectMappingUtil.mapTransactionToTransactionDTO(transaction);
     	transactionData = this.transactionsRepo.save(transactionData);
+    	this.refreshDailyValues(transactionData.getHolding());
     	
     	return ObjectMappingUtil.mapTransactionDtoToTransaction(transactionData);
     }
@@ -729,6 +810,7 @@ public class HoldingsService {
 	   
 	   this.holdingsRepo.save(holding);
 	   this.transactionsRepo.save(ObjectMappingUtil.mapTransactionToTransactionDTO(changedTrade));
+	   this.refreshDailyValues(holding);
     }
     
     /**
@@ -800,7 +882,65 @@ public class HoldingsService {
     
     
     public void deleteTransaction(Transaction transaction) {
+    	Optional<TransactionDTO> optTransaction = this.transactionsRepo.findById(transaction.getTransactionId());
     	this.transactionsRepo.deleteById(transaction.getTransactionId());
+    	if (optTransaction.isPresent()) {
+    		this.refreshDailyValues(optTransaction.get().getHolding());
+    	}
+    }
+    
+    /**
+     * Reports a change to the holdings or transactions of the holding's investment to the rollup engine and drops
+     * the cached holdings reports.
+     * 
+     * @param holding - the changed holding, cash transactions carry none
+     */
+    private void refreshDailyValues(HoldingDTO holding) {
+    	
+    	if (holding == null) {
+    		return;
+    	}
+    	
+    	this.holdingsReportCache.invalidate();
+    	
+    	InvestmentDTO investment = holding.getInvestment();
+    	if ((investment == null || investment.getInvestmentId() == null) && holding.getHoldingId() != null) {
+    		investment = this.holdingsRepo.findById(holding.getHoldingId()).map(HoldingDTO::getInvestment).orElse(null);
+    	}
+    	
+    	if (investment != null && investment.getInvestmentId() != null) {
+    		this.portfolioRollupEngine.investmentChanged(investment.getInvestmentId());
+    	}
+    }
+    
+    /*
+     * Refreshes the daily values of an updated holding. When the update moved the holding to another investment the
+     * investment it was stored with is refreshed as well, its values no longer include the holding
+     */
+    private void refreshDailyValues(HoldingDTO holding, Long storedInvestmentId) {
+    	
+    	this.refreshDailyValues(holding);
+    	
+    	if (storedInvestmentId != null && (holding == null || holding.getInvestment() == null
+    			|| ! storedInvestmentId.equals(holding.getInvestment().getInvestmentId()))) {
+    		this.portfolioRollupEngine.investmentChanged(storedInvestmentId);
+    	}
+    }
+    
+    /*
+     * Reads the investment a holding is stored with before it is updated, the id is copied as the managed holding is
+     * changed by the update
+     */
+    private Long findStoredInvestmentId(Long holdingId) {
+    	
+    	if (holdingId == null) {
+    		return null;
+    	}
+    	
+    	return this.holdingsRepo.findById(holdingId)
+    			.map(HoldingDTO::getInvestment)
+    			.map(InvestmentDTO::getInvestmentId)
+    			.orElse(null);
     }
 
 }
@@ -3,8 +3,13 @@
  */
 package com.brenner.portfoliomgmt.service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,11 +18,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.brenner.portfoliomgmt.data.InvestmentsBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
 import com.brenner.portfoliomgmt.data.repo.InvestmentsRepository;
 import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
 import com.brenner.portfoliomgmt.exception.NotFoundException;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
 import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
 
 /**
@@ -32,6 +39,10 @@ public class InvestmentsService {
 	private static final Logger log = LoggerFactory.getLogger(InvestmentsService.class);
     
     @Autowired InvestmentsRepository investmentsRepo;
+    
+    @Autowired HoldingsReportCache holdingsReportCache;
+    
+    @Autowired InvestmentsBulkWriter investmentsBulkWriter;
 
 	/**
      * Deletes a specific investment;
@@ -53,6 +64,7 @@ public class InvestmentsService {
 		}
 		
 		this.investmentsRepo.deleteById(investment.getInvestmentId());
+		this.holdingsReportCache.invalidate();
 		
 		log.info("Exiting delete()");
 	}
@@ -136,6 +148,8 @@ public class InvestmentsService {
 			}
 		}
 		inv = this.investmentsRepo.save(inv);
+		// the type and sector totals group by the investment's type and sector
+		this.holdingsReportCache.invalidate();
 		
 		log.info("Exiting save()");
 		return ObjectMappingUtil.mapInvestmentDtoToInvestment(inv);
@@ -162,6 +176,60 @@ public class InvestmentsService {
 		log.info("Exiting saveAll()");
     }
     
+    /**
+     * Inserts the investments whose symbol is not yet stored in JDBC batches, stored investments are left unchanged.
+     * 
+     * @param investments - investments to insert, each must carry a symbol
+     * @return the investment ids of the supplied symbols keyed by symbol
+     */
+    @Transactional
+    public Map<String, Long> saveMissingInvestments(Collection<Investment> investments) {
+		log.info("Entered saveMissingInvestments()");
+		
+		if (investments == null) {
+			throw new InvalidRequestException("investments must be non-null");
+		}
+		
+		if (this.investmentsBulkWriter.insertMissingInvestments(investments) > 0) {
+			// new investments join the type and sector totals
+			this.holdingsReportCache.invalidate();
+		}
+		
+		Set<String> symbols = new HashSet<>();
+		for (Investment investment : investments) {
+			symbols.add(investment.getSymbol());
+		}
+		Map<String, Long> investmentIds = this.findInvestmentIdsBySymbol(symbols);
+		
+		log.info("Exiting saveMissingInvestments()");
+		return investmentIds;
+    }
+    
+    /**
+     * Looks up the ids of a set of symbols with one query.
+     * 
+     * @param symbols - symbols to look up
+     * @return the investment ids keyed by symbol, symbols that are not stored are absent
+     */
+    public Map<String, Long> findInvestmentIdsBySymbol(Collection<String> symbols) {
+		log.info("Entered findInvestmentIdsBySymbol()");
+		
+		if (symbols == null) {
+			throw new InvalidRequestException("symbols must be non-null");
+		}
+		
+		Map<String, Long> investmentIds = new HashMap<>();
+		if (! symbols.isEmpty()) {
+			for (Object[] row : this.investmentsRepo.findInvestmentIdsBySymbolIn(symbols)) {
+				investmentIds.put((String) row[0], ((Number) row[1]).longValue());
+			}
+		}
+		
+		log.debug("Found {} of {} symbols", investmentIds.size(), symbols.size());
+		log.info("Exiting findInvestmentIdsBySymbol()");
+		return investmentIds;
+    }
+    
     /**
      * Retrieves all investments
      * 
@@ -6,16 +6,25 @@ package com.brenner.portfoliomgmt.service;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.joda.time.LocalDate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.data.LatestQuotesWriter;
+import com.brenner.portfoliomgmt.data.QuotesBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
 import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
 import com.brenner.portfoliomgmt.data.repo.QuotesRepository;
@@ -24,7 +33,15 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
 import com.brenner.portfoliomgmt.exception.InvestmentManagerServiceException;
 import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.quotes.refresh.InvestmentQuotesRefresh;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteRefreshEngine;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteRefreshReport;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteConstants;
 import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
 import com.brenner.portfoliomgmt.util.CommonUtils;
 import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
 
@@ -46,6 +63,24 @@ public class QuotesService {
     @Autowired
     QuoteRetrievalService quotesRetrievalService;
     
+    @Autowired
+    LatestQuoteCache latestQuoteCache;
+    
+    @Autowired
+    QuoteRefreshEngine quoteRefreshEngine;
+    
+    @Autowired
+    QuotesBulkWriter quotesBulkWriter;
+    
+    @Autowired
+    PortfolioRollupEngine portfolioRollupEngine;
+    
+    @Autowired
+    LatestQuotesWriter latestQuotesWriter;
+    
+    @Autowired
+    HoldingsReportCache holdingsReportCache;
+    
     public Optional<Investment> findInvestmentForQuote(Long investmentId) {
     	
     	return this.investmentsService.findInvestmentByInvestmentId(investmentId);
@@ -71,6 +106,36 @@ public class QuotesService {
     	return ObjectMappingUtil.mapQuoteDtoList(quotesData);
     }
     
+    /**
+     * Retrieves the most recent quote for each supplied investment using a single query.
+     * 
+     * @param investmentIds - unique investment identifiers
+     * @return {@link Map} of investment id to its most recent {@link Quote}; investments without quotes are absent
+     */
+    public Map<Long, Quote> findMostRecentQuotesForInvestmentIds(Collection<Long> investmentIds) {
+    	if (investmentIds == null) {
+    		throw new InvalidRequestException("investmentIds must be non-null");
+    	}
+    	
+    	if (investmentIds.isEmpty()) {
+    		return Collections.emptyMap();
+    	}
+    	
+    	List<QuoteDTO> quotesData = this.quotesRepo.findMostRecentQuotesForInvestmentIds(investmentIds);
+    	
+    	Map<Long, Quote> mostRecentQuotes = new HashMap<>(quotesData.size() * 2);
+    	for (QuoteDTO quoteData : quotesData) {
+    		if (quoteData.getInvestment() != null) {
+    			mostRecentQuotes.put(quoteData.getInvestment().getInvestmentId(), ObjectMappingUtil.mapQuoteDtoToQuote(quoteData));
+    		}
+    	}
+    	
+    	return mostRecentQuotes;
+    }
+    
+    /**
+     * @return the current pricing date, the most recent quote date of any investment
+     */
     public String findMaxQuoteDate() {
     	return this.quotesRepo.getMaxQuoteDate();
     }
@@ -80,59 +145,98 @@ public class QuotesService {
      * 
      * @param quote - quote to delete
      */
+    @Transactional
     public void deleteQuote(QuoteDTO quote) {
     	this.quotesRepo.delete(quote);
+    	if (quote != null && quote.getInvestment() != null) {
+    		// the pointer is re-read over JDBC so the delete has to reach the database first
+    		this.quotesRepo.flush();
+    		this.latestQuotesWriter.refresh(Collections.singleton(quote.getInvestment().getInvestmentId()));
+    		this.latestQuoteCache.refresh(quote.getInvestment().getInvestmentId());
+    		this.portfolioRollupEngine.quoteChanged(quote.getInvestment().getInvestmentId(), quote.getDate());
+    		this.holdingsReportCache.invalidate();
+    	}
     }
 	
+	@Transactional
 	public void deleteQuote(Long quoteId) {
+		Optional<QuoteDTO> optQuote = this.quotesRepo.findById(quoteId);
 		this.quotesRepo.deleteById(quoteId);
+		if (optQuote.isPresent() && optQuote.get().getInvestment() != null) {
+			this.quotesRepo.flush();
+			this.latestQuotesWriter.refresh(Collections.singleton(optQuote.get().getInvestment().getInvestmentId()));
+			this.latestQuoteCache.refresh(optQuote.get().getInvestment().getInvestmentId());
+			this.portfolioRollupEngine.quoteChanged(optQuote.get().getInvestment().getInvestmentId(), optQuote.get().getDate());
+			this.holdingsReportCache.invalidate();
+		}
 	}
     
     /**
-     * Persists a list of quotes
+     * Persists a list of quotes in JDBC batches, replacing any stored quote for the same investment and date.
      * 
      * @param quotes - the list of quotes to save
+     * @return the number of quotes written
      */
-    private void saveAllQuotes(List<Quote> quotes) {
+    private int saveAllQuotes(List<Quote> quotes) {
+    	
+    	int written = this.quotesBulkWriter.upsertQuotes(quotes);
+    	
+    	// generated ids are not read back from the batch so the latest quotes are re-read in one query
+    	Set<Long> investmentIds = new LinkedHashSet<>();
     	for (Quote quote : quotes) {
-    		this.quotesRepo.save(ObjectMappingUtil.mapQuoteToQuoteDTO(quote));
+    		investmentIds.add(quote.getInvestment().getInvestmentId());
     	}
+    	this.latestQuotesWriter.refresh(investmentIds);
+    	this.latestQuoteCache.refreshAll(investmentIds);
+    	this.portfolioRollupEngine.quotesChanged(quotes);
+    	this.holdingsReportCache.invalidate();
+    	
+    	return written;
     }
     
     public Quote addManualQuote(Quote quote, String symbol) {
     	
         Investment investment = this.investmentsService.findInvestmentBySymbol(symbol).get();
+        quote.setInvestment(investment);
         
-        QuoteDTO quoteData = ObjectMappingUtil.mapQuoteToQuoteDTO(quote);
-        quoteData.setInvestment(ObjectMappingUtil.mapInvestmentToInvestmentDTO(investment));
-        
-        quoteData = this.quotesRepo.save(quoteData);
-        
-        return ObjectMappingUtil.mapQuoteDtoToQuote(quoteData);
+        return this.saveQuote(quote);
     }
     
     
-    public void updateQuotesForAllInvestments() throws ParseException, IOException {
+    /**
+     * Retrieves and stores new quotes for every investment associated with a holding. Investments are refreshed in
+     * parallel by the {@link QuoteRefreshEngine}, investments without any stored quotes are left alone.
+     * 
+     * @return {@link QuoteRefreshReport} of the fetched, inserted and failed symbols
+     */
+    public QuoteRefreshReport updateQuotesForAllInvestments() {
     	
     	List<Investment> investments = this.investmentsService.findInvestmentsAndQuotesAssociatedWithAHolding();
     	
-    	if (investments != null && ! investments.isEmpty()) {
-    		Iterator<Investment> iter = investments.iterator();
-    		while (iter.hasNext()) {
-    			Investment investment = iter.next();
-    			Optional<Date> optQuoteDate = this.findGreatestQuoteDateForSymbol(investment.getSymbol());
-    			if (optQuoteDate.isPresent()) {
-    				Date maxQuoteDate = optQuoteDate.get();
-    				List<QuoteDTO> existingQuoteDTOs = this.quotesRepo.findAllByInvestmentSymbol(investment.getSymbol());
-    				List<Quote> existingQuotes = ObjectMappingUtil.mapQuoteDtoList(existingQuoteDTOs);
-    		
-    				List<Quote> newQuotes = this.quotesRetrievalService.getNewQuotesForInvestment(
-    						investment, maxQuoteDate, existingQuotes);
-        	
-    				this.saveAllQuotes(newQuotes);
-    			}
-    		}
-    	}
+    	return this.quoteRefreshEngine.refresh(investments, this.quotesRetrievalService, new InvestmentQuotesRefresh() {
+			
+			@Override
+			public List<Quote> fetch(Investment investment, QuoteRetrievalService retrievalService) throws IOException {
+				
+				Optional<Date> optQuoteDate = findGreatestQuoteDateForSymbol(investment.getSymbol());
+				if (optQuoteDate.isEmpty()) {
+					return Collections.emptyList();
+				}
+				
+				// only the stored days the provider can return are needed to filter out duplicates
+				Date windowStart = new LocalDate().minusMonths(QuoteConstants.NEW_QUOTES_WINDOW_MONTHS).toDate();
+				QuoteDays existingQuoteDays = QuoteDays.of(windowStart, 
+						quotesRepo.findQuoteDatesForInvestmentSymbolSince(investment.getSymbol(), windowStart));
+				
+				return retrievalService.getNewQuotesForInvestment(investment, optQuoteDate.get(), existingQuoteDays);
+			}
+			
+			@Override
+			public int store(Investment investment, List<Quote> quotes) {
+				
+				return saveAllQuotes(quotes);
+			}
+		});
     }
     
     
@@ -162,6 +266,7 @@ public class QuotesService {
 					Quote quote;
 					try {
 						quote = this.quotesRetrievalService.getQuote(investment.getSymbol());
+						quote.setInvestment(investment);
 						newQuotes.add(quote);
 					} catch (QuoteRetrievalException e) {
 						throw new InvestmentManagerServiceException("Error retrieving quote", e);
@@ -179,6 +284,14 @@ public class QuotesService {
     	QuoteDTO quoteData = ObjectMappingUtil.mapQuoteToQuoteDTO(quote);
     	quoteData = this.quotesRepo.save(quoteData);
     	
+    	// the date may have moved so the latest quote is re-read rather than merged
+    	if (quote.getInvestment() != null) {
+    		this.latestQuotesWriter.refresh(Collections.singleton(quote.getInvestment().getInvestmentId()));
+    		this.latestQuoteCache.refresh(quote.getInvestment().getInvestmentId());
+    		this.portfolioRollupEngine.investmentChanged(quote.getInvestment().getInvestmentId());
+    		this.holdingsReportCache.invalidate();
+    	}
+    	
     	return ObjectMappingUtil.mapQuoteDtoToQuote(quoteData);
     }
     
@@ -236,42 +349,81 @@ public class QuotesService {
      * Retrieves a list of Quotes for a given investment
      * 
      * @param symbol - investment identifier
-     * @return List<Quote> 
+     * @return List<Quote> ordered by date, oldest first
      */
     public List<Quote> findAllQuotesBySymbol(String symbol) {
         
-        List<QuoteDTO> quotesData = this.quotesRepo.findAllByInvestmentSymbol(symbol);
+        List<QuoteDTO> quotesData = this.quotesRepo.findAllByInvestmentSymbolOrderByDateAsc(symbol);
         
         return ObjectMappingUtil.mapQuoteDtoList(quotesData);
     }
     
     /**
-     * Persists the quote
+     * Persists the quote, replacing any stored quote for the same investment and date.
      * 
-     * @param quote - the object to persist
+     * @param quote - the object to persist, its investment must carry an id
+     * @return the persisted quote with its id set
      */
     @Transactional
     public Quote saveQuote(Quote quote) {
     	
-    	QuoteDTO quoteData = ObjectMappingUtil.mapQuoteToQuoteDTO(quote);
-    	
-        quoteData = this.quotesRepo.save(quoteData);
+    	quote.setQuoteId(this.quotesBulkWriter.upsertQuote(quote));
+        
+        this.latestQuotesWriter.refresh(Collections.singleton(quote.getInvestment().getInvestmentId()));
+        this.latestQuoteCache.update(quote);
+        this.portfolioRollupEngine.quotesChanged(Collections.singleton(quote));
+        this.holdingsReportCache.invalidate();
         
-        return ObjectMappingUtil.mapQuoteDtoToQuote(quoteData);
+        return quote;
     }
 
+	/**
+	 * Persists a list of quotes. Quotes for an investment and date that is already stored replace the stored quote.
+	 * 
+	 * @param quotes - the quotes to persist
+	 * @return the number of quotes written
+	 */
 	@Transactional
-	public void addQuotes(List<Quote> quotes) {
+	public int addQuotes(List<Quote> quotes) {
 		
-		List<QuoteDTO> quotesToSave = new ArrayList<QuoteDTO>(quotes.size());
+		return this.saveAllQuotes(quotes);
+	}
+	
+	/**
+	 * Persists a chunk of imported quotes without refreshing what is derived from them. The latest quotes, the
+	 * portfolio value series and the reports are brought up to date once for the whole import through
+	 * {@link #quotesImported(Collection)}.
+	 * 
+	 * @param quotes - the quotes to persist
+	 * @return the number of quotes written
+	 */
+	@Transactional
+	public int importQuotes(List<Quote> quotes) {
 		
-		for (Quote quote : quotes) {
-			if (this.findQuoteBySymbolAndDate(quote.getInvestment().getSymbol(), quote.getDate()) == null) {
-				quotesToSave.add(ObjectMappingUtil.mapQuoteToQuoteDTO(quote));
-			}
+		return this.quotesBulkWriter.upsertQuotes(quotes);
+	}
+	
+	/**
+	 * Refreshes the latest quotes, the portfolio value series and the reports after an import.
+	 * 
+	 * @param slices - the dates imported for each investment
+	 */
+	@Transactional
+	public void quotesImported(Collection<DailyValueSlice> slices) {
+		
+		Set<Long> investmentIds = new LinkedHashSet<>();
+		for (DailyValueSlice slice : slices) {
+			investmentIds.add(slice.getInvestmentId());
+		}
+		
+		if (investmentIds.isEmpty()) {
+			return;
 		}
 		
-		this.quotesRepo.saveAll(quotesToSave);
+		this.latestQuotesWriter.refresh(investmentIds);
+		this.latestQuoteCache.refreshAll(investmentIds);
+		this.portfolioRollupEngine.slicesChanged(slices);
+		this.holdingsReportCache.invalidate();
 	}
     
 }
@@ -1,9 +1,7 @@
 package com.brenner.portfoliomgmt.service;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -14,16 +12,13 @@ import org.springframework.stereotype.Service;
 
 import com.brenner.portfoliomgmt.data.HoldingsReportingDataService;
 import com.brenner.portfoliomgmt.data.entities.reporting.HoldingBucketSummation;
-import com.brenner.portfoliomgmt.domain.BatchQuotes;
-import com.brenner.portfoliomgmt.domain.Holding;
-import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
-import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
-import com.brenner.portfoliomgmt.quotes.retrievalservice.IEXQuoteRetrievalService;
 import com.brenner.portfoliomgmt.reporting.HoldingsReport;
 import com.brenner.portfoliomgmt.reporting.PortfolioReport;
 import com.brenner.portfoliomgmt.reporting.PortfolioRollup;
 import com.brenner.portfoliomgmt.reporting.PortfolioRollupRepository;
+import com.brenner.portfoliomgmt.reporting.PortfolioTotalsAggregator;
+import com.brenner.portfoliomgmt.reporting.RollupSummary;
 import com.brenner.portfoliomgmt.util.CommonUtils;
 
 /**
@@ -41,10 +36,7 @@ public class ReportsService {
 	PortfolioRollupRepository rollupRepo;
     
     @Autowired
-    HoldingsService holdingsService;
-    
-    @Autowired
-    IEXQuoteRetrievalService quoteService;
+    PortfolioTotalsAggregator portfolioTotalsAggregator;
     
     @Autowired
     HoldingsReportingDataService reportingDataService;
@@ -76,6 +68,25 @@ public class ReportsService {
     }
     
     
+    /**
+     * Retrieves the holdings of the rollup report with their dividends, totals and gainer and loser counts.
+     * 
+     * @param primaryDataSet - marketValue or changeInValue, the value the holdings are ordered by
+     * @param sortOrder - ASC or DESC
+     * @return {@link RollupSummary}
+     */
+    public RollupSummary retrieveRollupSummary(String primaryDataSet, String sortOrder) {
+    	
+    	log.info("Entered retrieveRollupSummary()");
+    	log.debug("Params: orderBy: {}; order: {}", primaryDataSet, sortOrder);
+    	
+    	RollupSummary summary = this.reportingDataService.findRollupSummary(primaryDataSet, sortOrder);
+    	
+    	log.info("Exiting retrieveRollupSummary()");
+    	
+    	return summary;
+    }
+    
     public List<HoldingsReport> retrieveHoldings(String primaryDataSet, String sortOrder) {
     	
     	log.info("Entered retrieveHoldings()");
@@ -131,59 +142,21 @@ public class ReportsService {
     }
     
 	/**
-	 * Retrieves the total change in the porfolio over time. This method does the roll up in Java rather than leveraging the database
+	 * Retrieves the total change in the portfolio. Holdings are priced from the stored latest quotes, optionally
+	 * overlaid with live quotes fetched within the last quotes.live.ttl-seconds. The report never waits on a quote
+	 * provider, a stale overlay triggers a background refresh and the stored prices are used meanwhile.
 	 * 
+	 * @param liveOverlay - true to price holdings from fresh live quotes where available
 	 * @return {@link PortfolioReport}
-	 * @throws QuoteRetrievalException  thrown when the quote retrieval service fails
 	 */
-    public PortfolioReport getTotalChangeInPortfolio() throws QuoteRetrievalException {
-        
-        
-        Iterable<Holding> holdingsIter = this.holdingsService.findAllHoldings();
-        
-        List<String> symbols = new ArrayList<>();
-        
-        if (holdingsIter != null) {
-            Iterator<Holding> iter = holdingsIter.iterator();
-            while (iter.hasNext()) {
-            	Holding holding = iter.next();
-                symbols.add(holding.getInvestment().getSymbol());
-            }
-        }
-        else {
-            return null;
-        }
-        
-        BatchQuotes batchQuotes = this.quoteService.getBatchQuotes(symbols);
-        
-        BigDecimal totalChangeInValue = BigDecimal.ZERO;
-        BigDecimal totalValueAtPurchase = BigDecimal.ZERO;
-        BigDecimal totalCurrentValue = BigDecimal.ZERO;
-        BigDecimal totalChangeInPrice = BigDecimal.ZERO;
-        
-        if (batchQuotes != null) {
-            Iterator<Holding> iter = holdingsIter.iterator();
-            while (iter.hasNext()) {
-            	Holding holding = iter.next();
-                String symbol = holding.getInvestment().getSymbol();
-                Quote quote = batchQuotes.getQuotes().get(symbol);
-                if (quote != null) {
-                    //holding.setQuote(batchQuotes.getQuotes().get(symbol));
-                }
-                totalChangeInValue = totalChangeInValue.add(holding.getChangeInValue()) != null ? holding.getChangeInValue() : BigDecimal.ZERO;
-                totalValueAtPurchase = totalValueAtPurchase.add(holding.getValueAtPurchase()) != null ? holding.getValueAtPurchase() : BigDecimal.ZERO;
-                totalCurrentValue = totalCurrentValue.add(holding.getCurrentValue()) != null ? holding.getCurrentValue() : BigDecimal.ZERO;
-                //totalChangeInPrice += holding.getChangeInPrice() != null ? holding.getChangeInPrice() : 0D;
-            }
-        }
-        
-        PortfolioReport report = new PortfolioReport();
-        report.setTotalChangeInValue(totalChangeInValue.doubleValue());
-        report.setTotalChangeInPrice(totalChangeInPrice.doubleValue());
-        report.setTotalCurrentValue(totalCurrentValue.doubleValue());
-        report.setTotalValueAtPurchase(totalValueAtPurchase.doubleValue());
-        
+    public PortfolioReport getTotalChangeInPortfolio(boolean liveOverlay) {
+    	
+    	log.info("Entered getTotalChangeInPortfolio()");
+    	log.debug("Param: liveOverlay: {}", liveOverlay);
         
+    	PortfolioReport report = this.portfolioTotalsAggregator.aggregate(liveOverlay);
+    	
+    	log.info("Exiting getTotalChangeInPortfolio()");
         return report;
     }
 
@@ -3,7 +3,7 @@ package com.brenner.portfoliomgmt.service;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +22,7 @@ import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
 import com.brenner.portfoliomgmt.domain.reporting.InvestmentPerformance;
 import com.brenner.portfoliomgmt.domain.reporting.InvestmentPerformanceSet;
 import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+import com.brenner.portfoliomgmt.reporting.TimeSeriesDownsampler;
 import com.brenner.portfoliomgmt.util.DataHelperUtil;
 
 @Service
@@ -166,10 +167,19 @@ public class WatchlistService {
 		return null;	
 	}
 	
-	public InvestmentPerformanceSet getChartsForSymbol(String symbol) throws IOException {
+	/**
+	 * Builds the performance series of an investment from its stored quotes, or six months of historical quotes when
+	 * none are stored.
+	 * 
+	 * @param symbol - investment identifier
+	 * @param points - optional number of points to downsample the series to, every quote is used when null
+	 * @return {@link InvestmentPerformanceSet} in date order
+	 * @throws IOException - passed on from the quote retrieval service
+	 */
+	public InvestmentPerformanceSet getChartsForSymbol(String symbol, Integer points) throws IOException {
 		
 		log.info("Entered getChartsForSymbol()");
-		log.debug("Param: symbol: {}", symbol);
+		log.debug("Params: symbol: {}; points: {}", symbol, points);
 		InvestmentPerformanceSet perfSet = new InvestmentPerformanceSet();
 		perfSet.setSymbol(symbol);
 		
@@ -187,8 +197,10 @@ public class WatchlistService {
 			quotes = quotesMap.get(symbol);
 		}
 		
-		//Collections.sort(quotes);
-		Collections.reverse(quotes);
+		// provider histories are not guaranteed to be ordered, the chart runs from the most recent quote back
+		quotes.sort(Comparator.comparing(Quote::getDate).reversed());
+		// changes are taken between the points kept
+		quotes = TimeSeriesDownsampler.lttb(quotes, points, Quote::getClose);
 		BigDecimal startPoint = null;
 		
 		Iterator<Quote> quotesIterator = quotes.iterator();
@@ -41,26 +41,26 @@ public class CommonUtils {
     private CommonUtils () {}
     
     /**
-     * MM/dd/yyyy date format
+     * MM/dd/yyyy date format. Formats are held per thread as SimpleDateFormat is not thread safe.
      */
-    private static final SimpleDateFormat COMMMON_DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy");
+    private static final ThreadLocal<SimpleDateFormat> COMMMON_DATE_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("MM/dd/yyyy"));
     
     /**
      * MM/dd/yy date format
      */
-    private static final SimpleDateFormat TWO_DIGIT_YEAR_FORMAT = new SimpleDateFormat("MM/dd/yy");
+    private static final ThreadLocal<SimpleDateFormat> TWO_DIGIT_YEAR_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("MM/dd/yy"));
     
     /**
      * yyyy-MM-dd date format
      */
-    private static final SimpleDateFormat DATE_PICKER_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+    private static final ThreadLocal<SimpleDateFormat> DATE_PICKER_FORMAT = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
     
     
     public static Date convertDateString2DigitYearToDate(String dateString) throws ParseException {
     	
     	logger.debug("Converting string {} to date object", dateString);
     	
-    	return TWO_DIGIT_YEAR_FORMAT.parse(dateString);
+    	return TWO_DIGIT_YEAR_FORMAT.get().parse(dateString);
     }
 
     /**
@@ -74,20 +74,20 @@ public class CommonUtils {
 		
 		logger.debug("Converting string {} to date object", dateString);
 		
-		return COMMMON_DATE_FORMAT.parse(dateString);
+		return COMMMON_DATE_FORMAT.get().parse(dateString);
 	}
 	
 	public static String convertDateToMMDDYYYYString(Date date) {
 		
 		logger.debug("Converting date {} to MMDDYYYY string", date);
 		
-		return COMMMON_DATE_FORMAT.format(date);
+		return COMMMON_DATE_FORMAT.get().format(date);
 	}
 	
 	public static String convertDateToDatePickerString(Date date) {
 		logger.debug("Converting date {} to yyyy-MM-dd string", date);
 		
-		return DATE_PICKER_FORMAT.format(date);
+		return DATE_PICKER_FORMAT.get().format(date);
 	}
 	
 	/**
@@ -101,7 +101,7 @@ public class CommonUtils {
 		
 		logger.debug("Converting string {} to date", dateString);
 	    
-	    return DATE_PICKER_FORMAT.parse(dateString);
+	    return DATE_PICKER_FORMAT.get().parse(dateString);
 	}
 	
 	/**
@@ -165,7 +165,7 @@ public class CommonUtils {
         mapper.configure(SerializationFeature.WRAP_ROOT_VALUE, false);
         mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
         mapper.setSerializationInclusion(Include.ALWAYS);
-        mapper.setDateFormat(COMMMON_DATE_FORMAT);
+        mapper.setDateFormat(COMMMON_DATE_FORMAT.get());
         
         logger.info("Exiting serializeObjectToJson()");
         
@@ -253,7 +253,7 @@ public class CommonUtils {
 		
 		logger.debug("Converting date {} to MMYYDD string", date);
 	    
-	    return DATE_PICKER_FORMAT.format(date);
+	    return DATE_PICKER_FORMAT.get().format(date);
 	}
     
     public static Float convertCurrencyStringToFloat(String currencyString) {
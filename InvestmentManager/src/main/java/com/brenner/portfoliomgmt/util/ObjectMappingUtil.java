@@ -1,12 +1,13 @@
 /**
- * 
+ *
  */
 package com.brenner.portfoliomgmt.util;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-
-import org.modelmapper.ModelMapper;
+import java.util.Map;
+import java.util.function.Function;
 
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
@@ -20,94 +21,353 @@ import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.Transaction;
 
 /**
+ * Maps between the persistence entities and the domain objects.
+ *
+ * The mappings are written out by hand and copy the same properties ModelMapper used to match by name. The object
+ * graphs are cyclic (account to holding to transaction to account) so each top level call tracks the objects already
+ * mapped and hands back the same target instance when a source object is seen again.
  *
  * @author dbrenner
- * 
+ *
  */
 public class ObjectMappingUtil {
-	
-	static ModelMapper modelMapper = new ModelMapper();
-	
+
 	public static List<Account> mapAccountDtoList(List<AccountDTO> accounts) {
-		return accounts.stream().map(a -> mapAccountDtoToAccount(a)).toList();
+		Map<Object, Object> mapped = new IdentityHashMap<>();
+		return accounts.stream().map(a -> toAccount(a, mapped)).toList();
 	}
-	
+
 	public static List<Investment> mapInvestmentDtoList(List<InvestmentDTO> investments) {
-		return investments.stream().map(i -> mapInvestmentDtoToInvestment(i)).toList();
+		return investments.stream().map(i -> toInvestment(i)).toList();
 	}
-	
+
 	public static List<Holding> mapHoldingDtoList(List<HoldingDTO> holdings) {
-		return holdings.stream().map(h -> mapHoldingDtoToHolding(h)).toList();
+		Map<Object, Object> mapped = new IdentityHashMap<>();
+		return holdings.stream().map(h -> setMostRecentQuoteFromQuotes(h, toHolding(h, mapped))).toList();
 	}
-	
+
+	/**
+	 * Maps holdings taking the most recent quote from a lookup instead of scanning each investment's quotes.
+	 *
+	 * @param holdings - the holdings to map
+	 * @param latestQuotes - the most recent quote of an investment id, e.g. read from a cache
+	 * @return {@link List}<Holding>
+	 */
+	public static List<Holding> mapHoldingDtoList(List<HoldingDTO> holdings, Function<Long, Quote> latestQuotes) {
+		Map<Object, Object> mapped = new IdentityHashMap<>();
+		return holdings.stream().map(h -> setMostRecentQuote(h, toHolding(h, mapped), latestQuotes)).toList();
+	}
+
 	public static List<Transaction> mapTransactionDtoList(List<TransactionDTO> transactions) {
-		return transactions.stream().map(t -> mapTransactionDtoToTransaction(t)).toList();
+		Map<Object, Object> mapped = new IdentityHashMap<>();
+		return transactions.stream().map(t -> toTransaction(t, mapped)).toList();
 	}
-	
+
 	public static List<Quote> mapQuoteDtoList(List<QuoteDTO> quotes) {
-		return quotes.stream().map(q -> mapQuoteDtoToQuote(q)).toList();
+		return quotes.stream().map(q -> toQuote(q)).toList();
 	}
-	
+
 	public static Account mapAccountDtoToAccount(AccountDTO accountData) {
-		Account account = modelMapper.map(accountData, Account.class);
-		return account;
+		return toAccount(accountData, new IdentityHashMap<>());
 	}
-	
+
 	public static AccountDTO mapAccountToAccountDTO(Account account) {
-		AccountDTO accountData = modelMapper.map(account, AccountDTO.class);
-		return accountData;
+		return toAccountDto(account, new IdentityHashMap<>());
 	}
-	
+
 	public static Investment mapInvestmentDtoToInvestment(InvestmentDTO investmentData) {
-		Investment investment = modelMapper.map(investmentData, Investment.class);
-		return investment;
+		return toInvestment(investmentData);
 	}
-	
+
 	public static InvestmentDTO mapInvestmentToInvestmentDTO(Investment investment) {
-		InvestmentDTO investmentData = modelMapper.map(investment, InvestmentDTO.class);
-		return investmentData;
+		return toInvestmentDto(investment);
 	}
-	
+
 	public static Holding mapHoldingDtoToHolding(HoldingDTO holdingData) {
-		Holding holding = modelMapper.map(holdingData, Holding.class);
-		if (holdingData.getInvestment() != null && holdingData.getInvestment().getQuotes() != null) {
-			List<QuoteDTO> quotes = holdingData.getInvestment().getQuotes();
-			if (quotes.size() > 1) {
-				Comparator<QuoteDTO> quoteDTOComparator = Comparator.comparing(QuoteDTO::getDate);
-				QuoteDTO mostRecentQuote = quotes.stream().max(quoteDTOComparator).get();
-				holding.setMostRecentQuote(mapQuoteDtoToQuote(mostRecentQuote));
+		return setMostRecentQuoteFromQuotes(holdingData, toHolding(holdingData, new IdentityHashMap<>()));
+	}
+
+	/**
+	 * Maps a holding taking the most recent quote from a lookup. The investment's quote collection is not touched.
+	 *
+	 * @param holdingData - the holding to map
+	 * @param latestQuotes - the most recent quote of an investment id, e.g. read from a cache
+	 * @return {@link Holding}
+	 */
+	public static Holding mapHoldingDtoToHolding(HoldingDTO holdingData, Function<Long, Quote> latestQuotes) {
+		return setMostRecentQuote(holdingData, toHolding(holdingData, new IdentityHashMap<>()), latestQuotes);
+	}
+
+	public static HoldingDTO mapHoldingToHoldingDto(Holding holding) {
+		return toHoldingDto(holding, new IdentityHashMap<>());
+	}
+
+	public static Transaction mapTransactionDtoToTransaction(TransactionDTO transactionData) {
+		return toTransaction(transactionData, new IdentityHashMap<>());
+	}
+
+	public static TransactionDTO mapTransactionToTransactionDTO(Transaction transaction) {
+		return toTransactionDto(transaction, new IdentityHashMap<>());
+	}
+
+	public static Quote mapQuoteDtoToQuote(QuoteDTO quoteData) {
+		return toQuote(quoteData);
+	}
+
+	public static QuoteDTO mapQuoteToQuoteDTO(Quote quote) {
+		return toQuoteDto(quote);
+	}
+
+	private static Holding setMostRecentQuoteFromQuotes(HoldingDTO holdingData, Holding holding) {
+		if (holdingData != null && holdingData.getInvestment() != null && holdingData.getInvestment().getQuotes() != null) {
+			QuoteDTO mostRecentQuote = null;
+			for (QuoteDTO quoteData : holdingData.getInvestment().getQuotes()) {
+				if (mostRecentQuote == null || quoteData.getDate().compareTo(mostRecentQuote.getDate()) > 0) {
+					mostRecentQuote = quoteData;
+				}
 			}
-			else {
-				Quote mostRecentQuote = mapQuoteDtoToQuote(quotes.get(0));
-				holding.setMostRecentQuote(mostRecentQuote);
+			if (mostRecentQuote != null) {
+				holding.setMostRecentQuote(toQuote(mostRecentQuote));
 			}
 		}
 		return holding;
 	}
-	
-	public static HoldingDTO mapHoldingToHoldingDto(Holding holding) {
-		HoldingDTO holdingData = modelMapper.map(holding, HoldingDTO.class);
+
+	private static Holding setMostRecentQuote(HoldingDTO holdingData, Holding holding, Function<Long, Quote> latestQuotes) {
+		if (holdingData != null && holdingData.getInvestment() != null) {
+			holding.setMostRecentQuote(latestQuotes.apply(holdingData.getInvestment().getInvestmentId()));
+		}
+		return holding;
+	}
+
+	private static Account toAccount(AccountDTO accountData, Map<Object, Object> mapped) {
+		if (accountData == null) {
+			return null;
+		}
+		Account account = (Account) mapped.get(accountData);
+		if (account != null) {
+			return account;
+		}
+
+		account = new Account();
+		mapped.put(accountData, account);
+
+		account.setAccountId(accountData.getAccountId());
+		account.setAccountName(accountData.getAccountName());
+		account.setCompany(accountData.getCompany());
+		account.setOwner(accountData.getOwner());
+		account.setAccountNumber(accountData.getAccountNumber());
+		account.setAccountType(accountData.getAccountType());
+
+		if (accountData.getHoldings() != null) {
+			List<Holding> holdings = new ArrayList<>(accountData.getHoldings().size());
+			for (HoldingDTO holdingData : accountData.getHoldings()) {
+				holdings.add(toHolding(holdingData, mapped));
+			}
+			account.setHoldings(holdings);
+		}
+
+		return account;
+	}
+
+	private static AccountDTO toAccountDto(Account account, Map<Object, Object> mapped) {
+		if (account == null) {
+			return null;
+		}
+		AccountDTO accountData = (AccountDTO) mapped.get(account);
+		if (accountData != null) {
+			return accountData;
+		}
+
+		accountData = new AccountDTO();
+		mapped.put(account, accountData);
+
+		accountData.setAccountId(account.getAccountId());
+		accountData.setAccountName(account.getAccountName());
+		accountData.setCompany(account.getCompany());
+		accountData.setOwner(account.getOwner());
+		accountData.setAccountNumber(account.getAccountNumber());
+		accountData.setAccountType(account.getAccountType());
+
+		if (account.getHoldings() != null) {
+			List<HoldingDTO> holdingsData = new ArrayList<>(account.getHoldings().size());
+			for (Holding holding : account.getHoldings()) {
+				holdingsData.add(toHoldingDto(holding, mapped));
+			}
+			accountData.setHoldings(holdingsData);
+		}
+
+		return accountData;
+	}
+
+	private static Investment toInvestment(InvestmentDTO investmentData) {
+		if (investmentData == null) {
+			return null;
+		}
+
+		// quotes are not carried over; mostRecentQuote is left for the caller to populate
+		Investment investment = new Investment();
+		investment.setInvestmentId(investmentData.getInvestmentId());
+		investment.setSymbol(investmentData.getSymbol());
+		investment.setCompanyName(investmentData.getCompanyName());
+		investment.setExchange(investmentData.getExchange());
+		investment.setSector(investmentData.getSector());
+		investment.setExpenseRatio(investmentData.getExpenseRatio());
+		investment.setInvestmentType(investmentData.getInvestmentType());
+
+		return investment;
+	}
+
+	private static InvestmentDTO toInvestmentDto(Investment investment) {
+		if (investment == null) {
+			return null;
+		}
+
+		InvestmentDTO investmentData = new InvestmentDTO();
+		investmentData.setInvestmentId(investment.getInvestmentId());
+		investmentData.setSymbol(investment.getSymbol());
+		investmentData.setCompanyName(investment.getCompanyName());
+		investmentData.setExchange(investment.getExchange());
+		investmentData.setSector(investment.getSector());
+		investmentData.setExpenseRatio(investment.getExpenseRatio());
+		investmentData.setInvestmentType(investment.getInvestmentType());
+
+		return investmentData;
+	}
+
+	private static Holding toHolding(HoldingDTO holdingData, Map<Object, Object> mapped) {
+		if (holdingData == null) {
+			return null;
+		}
+		Holding holding = (Holding) mapped.get(holdingData);
+		if (holding != null) {
+			return holding;
+		}
+
+		holding = new Holding();
+		mapped.put(holdingData, holding);
+
+		holding.setHoldingId(holdingData.getHoldingId());
+		holding.setInvestment(toInvestment(holdingData.getInvestment()));
+		holding.setAccount(toAccount(holdingData.getAccount(), mapped));
+		holding.setQuantity(holdingData.getQuantity());
+		holding.setPurchasePrice(holdingData.getPurchasePrice());
+		holding.setBucketEnum(holdingData.getBucketEnum());
+		holding.setPurchaseDate(holdingData.getPurchaseDate());
+		holding.setTotalDividends(holdingData.getTotalDividends());
+
+		if (holdingData.getTransactions() != null) {
+			List<Transaction> transactions = new ArrayList<>(holdingData.getTransactions().size());
+			for (TransactionDTO transactionData : holdingData.getTransactions()) {
+				transactions.add(toTransaction(transactionData, mapped));
+			}
+			holding.setTransactions(transactions);
+		}
+
+		return holding;
+	}
+
+	private static HoldingDTO toHoldingDto(Holding holding, Map<Object, Object> mapped) {
+		if (holding == null) {
+			return null;
+		}
+		HoldingDTO holdingData = (HoldingDTO) mapped.get(holding);
+		if (holdingData != null) {
+			return holdingData;
+		}
+
+		holdingData = new HoldingDTO();
+		mapped.put(holding, holdingData);
+
+		holdingData.setHoldingId(holding.getHoldingId());
+		holdingData.setInvestment(toInvestmentDto(holding.getInvestment()));
+		holdingData.setAccount(toAccountDto(holding.getAccount(), mapped));
+		holdingData.setQuantity(holding.getQuantity());
+		holdingData.setPurchasePrice(holding.getPurchasePrice());
+		holdingData.setBucketEnum(holding.getBucketEnum());
+		holdingData.setPurchaseDate(holding.getPurchaseDate());
+		holdingData.setTotalDividends(holding.getTotalDividends());
+
+		if (holding.getTransactions() != null) {
+			List<TransactionDTO> transactionsData = new ArrayList<>(holding.getTransactions().size());
+			for (Transaction transaction : holding.getTransactions()) {
+				transactionsData.add(toTransactionDto(transaction, mapped));
+			}
+			holdingData.setTransactions(transactionsData);
+		}
+
 		return holdingData;
 	}
-	
-	public static Transaction mapTransactionDtoToTransaction(TransactionDTO transactionData) {
-		Transaction transaction = modelMapper.map(transactionData, Transaction.class);
+
+	private static Transaction toTransaction(TransactionDTO transactionData, Map<Object, Object> mapped) {
+		if (transactionData == null) {
+			return null;
+		}
+		Transaction transaction = (Transaction) mapped.get(transactionData);
+		if (transaction != null) {
+			return transaction;
+		}
+
+		// the entity has no investment of its own so Transaction.investment stays unset
+		transaction = new Transaction();
+		mapped.put(transactionData, transaction);
+
+		transaction.setTransactionId(transactionData.getTransactionId());
+		transaction.setAssociatedCashTransactionId(transactionData.getAssociatedCashTransactionId());
+		transaction.setTransactionDate(transactionData.getTransactionDate());
+		transaction.setTradePrice(transactionData.getTradePrice());
+		transaction.setTradeQuantity(transactionData.getTradeQuantity());
+		transaction.setTransactionType(transactionData.getTransactionType());
+		transaction.setHolding(toHolding(transactionData.getHolding(), mapped));
+		transaction.setAccount(toAccount(transactionData.getAccount(), mapped));
+		transaction.setDividend(transactionData.getDividend());
+
 		return transaction;
 	}
-	
-	public static TransactionDTO mapTransactionToTransactionDTO(Transaction transaction) {
-		TransactionDTO transactionData = modelMapper.map(transaction, TransactionDTO.class);
+
+	private static TransactionDTO toTransactionDto(Transaction transaction, Map<Object, Object> mapped) {
+		if (transaction == null) {
+			return null;
+		}
+		TransactionDTO transactionData = (TransactionDTO) mapped.get(transaction);
+		if (transactionData != null) {
+			return transactionData;
+		}
+
+		transactionData = new TransactionDTO();
+		mapped.put(transaction, transactionData);
+
+		transactionData.setTransactionId(transaction.getTransactionId());
+		transactionData.setAssociatedCashTransactionId(transaction.getAssociatedCashTransactionId());
+		transactionData.setTransactionDate(transaction.getTransactionDate());
+		transactionData.setTradePrice(transaction.getTradePrice());
+		transactionData.setTradeQuantity(transaction.getTradeQuantity());
+		transactionData.setTransactionType(transaction.getTransactionType());
+		transactionData.setHolding(toHoldingDto(transaction.getHolding(), mapped));
+		transactionData.setAccount(toAccountDto(transaction.getAccount(), mapped));
+		transactionData.setDividend(transaction.getDividend());
+
 		return transactionData;
 	}
-	
-	public static Quote mapQuoteDtoToQuote(QuoteDTO quoteData) {
-		Quote quote = modelMapper.map(quoteData, Quote.class);
-		return quote;
+
+	private static Quote toQuote(QuoteDTO quoteData) {
+		if (quoteData == null) {
+			return null;
+		}
+
+		return new Quote(quoteData.getQuoteId(), quoteData.getDate(), quoteData.getOpen(), quoteData.getClose(),
+				quoteData.getHigh(), quoteData.getLow(), quoteData.getVolume(), quoteData.getPriceChange(),
+				quoteData.getWeek52High(), quoteData.getWeek52Low(), toInvestment(quoteData.getInvestment()));
 	}
-	
-	public static QuoteDTO mapQuoteToQuoteDTO(Quote quote) {
-		QuoteDTO quoteData = modelMapper.map(quote, QuoteDTO.class);
-		return quoteData;
+
+	private static QuoteDTO toQuoteDto(Quote quote) {
+		if (quote == null) {
+			return null;
+		}
+
+		return new QuoteDTO(quote.getQuoteId(), quote.getDate(), quote.getOpen(), quote.getClose(),
+				quote.getHigh(), quote.getLow(), quote.getVolume(), quote.getPriceChange(),
+				quote.getWeek52High(), quote.getWeek52Low(), toInvestmentDto(quote.getInvestment()));
 	}
 
 }
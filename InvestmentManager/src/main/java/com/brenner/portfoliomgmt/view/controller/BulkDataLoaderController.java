@@ -1,12 +1,11 @@
 package com.brenner.portfoliomgmt.view.controller;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 
-import org.springframework.batch.core.JobParametersInvalidException;
-import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
-import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
-import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -38,7 +37,8 @@ public class BulkDataLoaderController {
     QuotesUploadBatchConfig quotesUploadBatchConfig;
     
    /**
-    * Entry point for uploading bulk data.
+    * Entry point for uploading bulk data. The upload is imported in the background, the id of the job execution is
+    * added to the model for polling /api/bulk/jobs/{id}.
     *  
     * @param dataType - The type of bulk data being uploaded.
     * @param delimiter - character that denotes unique fields
@@ -49,10 +49,6 @@ public class BulkDataLoaderController {
     * @throws BulkDataParseException - Common exception for errors
     * @throws IOException - File stream errors
     * @throws ParseException - Errors parsing the date
- * @throws JobParametersInvalidException 
- * @throws JobInstanceAlreadyCompleteException 
- * @throws JobRestartException 
- * @throws JobExecutionAlreadyRunningException 
     */
     @RequestMapping("/parseBulkData")
     public String loadBulkInvestmentData(
@@ -63,14 +59,32 @@ public class BulkDataLoaderController {
             Model model) throws BulkDataParseException, IOException {
     	
         
-        if (dataType.trim().equals("holdings")) {
-        	this.transactionsUploadBatchConfig.runJob(file.getInputStream(), file.getOriginalFilename());
+        // the upload is spooled to disk so the job reads it after the request completed
+        Path upload = Files.createTempFile("bulk-upload-", ".csv");
+        file.transferTo(upload);
+        
+        JobExecution jobExecution = null;
+        try {
+	        if (dataType.trim().equals("holdings")) {
+	        	jobExecution = this.transactionsUploadBatchConfig.runJob(upload, file.getOriginalFilename());
+	        }
+	        else if (dataType.trim().equals("investments")) {
+	        	jobExecution = this.investmentsUploadBatchConfig.runJob(upload, file.getOriginalFilename());
+	        }
+	        else if(dataType.trim().equals("quotes")) {
+	        	// quote histories are imported in partitions by symbol
+	        	jobExecution = this.quotesUploadBatchConfig.runPartitionedJob(upload, file.getOriginalFilename());
+	        }
         }
-        else if (dataType.trim().equals("investments")) {
-        	this.investmentsUploadBatchConfig.runJob(file.getInputStream(), file.getOriginalFilename());
+        finally {
+        	// once launched the job removes the upload itself
+        	if (jobExecution == null) {
+        		Files.deleteIfExists(upload);
+        	}
         }
-        else if(dataType.trim().equals("quotes")) {
-        	this.quotesUploadBatchConfig.runJob(file.getInputStream(), file.getOriginalFilename());
+        
+        if (jobExecution != null) {
+        	model.addAttribute("jobExecutionId", jobExecution.getId());
         }
         
         return "/loadBulkData";
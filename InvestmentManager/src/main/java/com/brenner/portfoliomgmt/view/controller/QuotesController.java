@@ -25,6 +25,8 @@ import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.exception.InvestmentManagerServiceException;
 import com.brenner.portfoliomgmt.exception.NotFoundException;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteRefreshReport;
+import com.brenner.portfoliomgmt.reporting.TimeSeriesDownsampler;
 import com.brenner.portfoliomgmt.service.HoldingsService;
 import com.brenner.portfoliomgmt.service.InvestmentsService;
 import com.brenner.portfoliomgmt.service.QuotesService;
@@ -108,17 +110,16 @@ public class QuotesController implements WebMvcConfigurer {
     
     
     /**
-     * Loops through all investments associated with a holding and updates the persisted set of quotes.
+     * Updates the persisted set of quotes for all investments associated with a holding.
      * 
      * @return redirect:/getInvestmentsAndMostRecentQuoteDate
-     * @throws ParseException - passed along from chain
-     * @throws IOException - passed along from chain
      */
     @RequestMapping("/updateQuotesForAllInvestments")
-    public String updateQuotesForAllInvestments() throws ParseException, IOException {
+    public String updateQuotesForAllInvestments() {
     	logger.info("Entering updateQuotesForAllInvestments()");
     	
-    	this.quotesService.updateQuotesForAllInvestments();
+    	QuoteRefreshReport report = this.quotesService.updateQuotesForAllInvestments();
+    	logger.debug("Quote refresh: {}", report);
     	
     	logger.info("Redirecting to: getInvestmentsAndMostRecentQuoteDate");
     	return "redirect:getInvestmentsAndMostRecentQuoteDate";
@@ -194,6 +195,7 @@ public class QuotesController implements WebMvcConfigurer {
      * Requests 30 days of quotes for a specific investment form the servide layer.
      * 
      * @param investmentIdStr - Unique investment identifier
+     * @param points - optional number of OHLC quotes to bucket the history into, every quote is returned when omitted
      * @param response - The response object to write back to
      * @throws InvestmentManagerServiceException - Thrown from the service layer for general issues retrieving quotes
      * @throws IOException - Thrown for errors writing to the response stream
@@ -201,9 +203,10 @@ public class QuotesController implements WebMvcConfigurer {
     @RequestMapping("/load30DaysQuotesForHoldingAjax")
     public void load30DaysQuotesForHoldingAjax(
     		@RequestParam(name="investmentId", required=true) String investmentIdStr, 
+    		@RequestParam(name="points", required=false) Integer points, 
     		HttpServletResponse response) throws InvestmentManagerServiceException, IOException {
     	logger.info("Entered load30DaysQuotesForHoldingAjax()");
-    	logger.debug("Param: investmentIdStr: {}", investmentIdStr);
+    	logger.debug("Param: investmentIdStr: {}; points: {}", investmentIdStr, points);
     	
     	Investment inv = this.investmentsService.findInvestmentByInvestmentId(Long.valueOf(investmentIdStr)).get();
     	
@@ -217,7 +220,7 @@ public class QuotesController implements WebMvcConfigurer {
 			quotes = this.quotesService.updateQuoteForInvestment(inv.getInvestmentId());
 		}
 		
-		//Collections.sort(quotes);
+		quotes = TimeSeriesDownsampler.ohlc(quotes, points);
     	
     	CommonUtils.serializeObjectToJson(response.getOutputStream(), quotes);
     	
@@ -1,10 +1,8 @@
 package com.brenner.portfoliomgmt.view.controller;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -26,13 +24,13 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import com.brenner.portfoliomgmt.InvestmentsProperties;
 import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.domain.Quote;
-import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
 import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
 import com.brenner.portfoliomgmt.reporting.HoldingsReport;
 import com.brenner.portfoliomgmt.reporting.PortfolioReport;
 import com.brenner.portfoliomgmt.reporting.PortfolioRollup;
-import com.brenner.portfoliomgmt.service.HoldingsService;
+import com.brenner.portfoliomgmt.reporting.RollupSummary;
+import com.brenner.portfoliomgmt.reporting.TimeSeriesDownsampler;
 import com.brenner.portfoliomgmt.service.InvestmentsService;
 import com.brenner.portfoliomgmt.service.ReportsService;
 import com.brenner.portfoliomgmt.util.CommonUtils;
@@ -61,9 +59,6 @@ public class ReportsController implements WebMvcConfigurer {
     @Autowired
     QuoteRetrievalService quoteService;
     
-    @Autowired
-    HoldingsService holdingsService;
-    
     @Autowired
     InvestmentsProperties props;
     
@@ -105,52 +100,14 @@ public class ReportsController implements WebMvcConfigurer {
     		sortOrder = "DESC";
     	}
     	
-    	List<HoldingsReport> holdings = this.reportsService.retrieveHoldings(dataSet, sortOrder);
-    	logger.debug("Retrieved {} holdings", holdings.size());
-    	model.addAttribute(this.props.getHoldingsByMarketValueAttributeKey(), holdings);
-    	
-    	Map<Long, Transaction> dividendsMap = this.holdingsService.findTotalDidivendsForAllHoldings();
+    	RollupSummary summary = this.reportsService.retrieveRollupSummary(dataSet, sortOrder);
+    	logger.debug("Retrieved {} holdings", summary.getHoldings().size());
     	
-    	Float totalChangeInValue = 0F;
-    	Integer losers = 0;
-    	Integer gainers = 0;
-    	Integer unchanged = 0;
-    	
-    	if (holdings != null) {
-    		Iterator<HoldingsReport> iter = holdings.iterator();
-    		while (iter.hasNext()) {
-    			HoldingsReport h = iter.next();
-    			h.setTotalValue(h.getMarketValue());
-    			Transaction dividendTrans = dividendsMap.get(h.getInvestmentId());
-    			if (dividendTrans != null) {
-    				BigDecimal dividend = dividendTrans.getDividend();
-    				h.setTotalDividends(dividend.floatValue());
-    				if (h.getMarketValue() != null) {
-    					h.setTotalValue(h.getMarketValue() + dividend.floatValue());
-    				}
-    			}
-    			totalChangeInValue += h.getChangeInValue();
-    			if (h.getChangeInValue() > 0) {
-    				++gainers;
-    			}
-    			else if (h.getChangeInValue() < 0) {
-    				++losers;
-    			}
-    			else {
-    				++unchanged;
-    			}
-    		}
-    	}
-    	
-    	logger.debug("Total change in value: {}", totalChangeInValue);
-    	logger.debug("Gainers: {}", gainers);
-    	logger.debug("Losers: {}", losers);
-    	logger.debug("Unchanged: {}", unchanged);
-    	
-    	model.addAttribute(this.props.getTotalMarketValueChangeAttribute(), totalChangeInValue);
-    	model.addAttribute("gainers", gainers);
-    	model.addAttribute("losers", losers);
-    	model.addAttribute("unchanged", unchanged);
+    	model.addAttribute(this.props.getHoldingsByMarketValueAttributeKey(), summary.getHoldings());
+    	model.addAttribute(this.props.getTotalMarketValueChangeAttribute(), summary.getTotalChangeInValue());
+    	model.addAttribute("gainers", summary.getGainers());
+    	model.addAttribute("losers", summary.getLosers());
+    	model.addAttribute("unchanged", summary.getUnchanged());
     	
     	if (sortOrder.equals("DESC")) {
     		sortOrder = "ASC";
@@ -213,16 +170,16 @@ public class ReportsController implements WebMvcConfigurer {
     /**
      * Retrieves the total change in the portfolio and serializes the response to JSON
      * 
+     * @param live - true to overlay fresh live prices on the stored prices
      * @param response - object containing the output stream to write the result
      * @throws IOException - thrown if there is an issue writing the data back to the output stream
-     * @throws QuoteRetrievalException 
      */
     @RequestMapping("/getTotalChangeInPortfolioAjax")
-    public void getTotalChangeInPortfolioAjax(HttpServletResponse response) 
-    		throws IOException, QuoteRetrievalException {
+    public void getTotalChangeInPortfolioAjax(@RequestParam(name="live", required=false, defaultValue="false") boolean live, 
+    		HttpServletResponse response) throws IOException {
     	logger.info("Entering getTotalChangeInPortfolioAjax()");
         
-    	PortfolioReport totalChange = this.reportsService.getTotalChangeInPortfolio();
+    	PortfolioReport totalChange = this.reportsService.getTotalChangeInPortfolio(live);
     	logger.debug("Portfolio change report: {}", totalChange);
     	
     	logger.info("Writing object to JSON");
@@ -272,15 +229,17 @@ public class ReportsController implements WebMvcConfigurer {
      * @param response - object containing the output stream to write the result to
      * @param symbol - investment identifier
      * @param numDays - length of time to build performance data
+     * @param points - optional number of points to downsample the series to, every point is returned when omitted
      * @throws IOException is thrown if there are issues writing to the output steam
      */
     @RequestMapping("getPortfolioPerformanceAjax")
     public void getPortfolioPerformanceAjax(
             HttpServletResponse response, 
             @RequestParam(name="symbol", required=false) String symbol, 
-            @RequestParam(name="numDays", required=false) String numDays) throws IOException {
+            @RequestParam(name="numDays", required=false) String numDays,
+            @RequestParam(name="points", required=false) Integer points) throws IOException {
     	logger.info("Entering getPortfoiloChangeOverTimeAjax()");
-    	logger.debug("Request parameters: symbol: {}); numDays: {}", symbol, numDays);
+    	logger.debug("Request parameters: symbol: {}); numDays: {}; points: {}", symbol, numDays, points);
     	
     	if (numDays == null || numDays.equals("0")) {
     		numDays = "30";
@@ -292,6 +251,8 @@ public class ReportsController implements WebMvcConfigurer {
         List<PortfolioRollup> rollup = this.reportsService.getChangeInPortfolioOverTime(symbol, pastDate);
         logger.debug("Retrieved {} PortfolioRollup", rollup != null ? rollup.size() : 0);
         
+        rollup = TimeSeriesDownsampler.lttb(rollup, points, PortfolioRollup::getMarketValue);
+        
         logger.info("Serizing object to JSON");
         CommonUtils.serializeObjectToJson(response.getOutputStream(), rollup);
     }
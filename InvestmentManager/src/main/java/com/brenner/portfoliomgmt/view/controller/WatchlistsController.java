@@ -203,15 +203,17 @@ public class WatchlistsController implements WebMvcConfigurer {
 	 * Async to retrieves quotes for the watchlist investments
 	 * 
 	 * @param symbol - Investment identifier
+	 * @param points - optional number of points to downsample the series to, every point is returned when omitted
 	 * @param response - Http response object
 	 * @throws IOException - Passed on from the service layer
 	 */
 	@RequestMapping("/getChartsForWatchlistAjax")
 	public void getChartsForWatchlistAjax(
-			@RequestParam(name="symbol", required=true) String symbol, HttpServletResponse response) throws IOException {
+			@RequestParam(name="symbol", required=true) String symbol, 
+			@RequestParam(name="points", required=false) Integer points, HttpServletResponse response) throws IOException {
 		log.info("Entered getChartsForWatchlist()");
 		
-		InvestmentPerformanceSet perfSet = this.watchlistService.getChartsForSymbol(symbol);
+		InvestmentPerformanceSet perfSet = this.watchlistService.getChartsForSymbol(symbol, points);
 		
 		log.info("Exiting getChartsForWatchlist()");
 		CommonUtils.serializeObjectToJson(response.getOutputStream(), perfSet);
@@ -0,0 +1,27 @@
+require([
+    "dojo/dom",
+    "dojo/request",
+    "dojo/domReady!"
+], function(dom, request){
+
+    var statusDiv = dom.byId("jobStatusDiv");
+    var jobId = statusDiv.getAttribute("data-job-id");
+
+    // polls the job repository until the upload job stopped running
+    function poll() {
+        request.get("api/bulk/jobs/" + jobId, {
+            handleAs: "json"
+        }).then(function(job) {
+            dom.byId("jobStatus").innerHTML = job.status + " - read " + job.readCount + ", written " + job.writeCount
+                + ", skipped " + job.skipCount + ", " + job.rowsPerSecond + " rows/s";
+
+            if (job.status == "STARTING" || job.status == "STARTED" || job.status == "STOPPING") {
+                setTimeout(poll, 2000);
+            }
+        }, function(err) {
+            dom.byId("jobStatus").innerHTML = "status unavailable";
+        });
+    }
+
+    poll();
+});
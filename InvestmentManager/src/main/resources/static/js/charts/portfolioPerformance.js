@@ -60,7 +60,9 @@ function loadChartData() {
             addData(myChart, newDateLabels, newCloseData, symbol);
         }
     };
-    xhttp.open("GET", "getPortfolioPerformanceAjax?symbol=" + symbol + "&numDays=" + numDays, true);
+    // no more points than the chart is pixels wide
+    var points = document.getElementById("historicalPerformanceChart").clientWidth;
+    xhttp.open("GET", "getPortfolioPerformanceAjax?symbol=" + symbol + "&numDays=" + numDays + "&points=" + points, true);
     xhttp.send();
 }
 
@@ -10,7 +10,7 @@ define([
 	 on(dom.byId("totalChangeInPortfolioLink"), "click", function(event){
 	
 	        // Request the JSON data from the server
-	        request.get("getTotalChangeInPortfolioAjax", {
+	        request.get("getTotalChangeInPortfolioAjax?live=true", {
 	            handleAs: "json"
 	        }).then(function(data) {
 	        	// Display the data sent from the server
@@ -0,0 +1,78 @@
+package com.brenner.portfoliomgmt.api;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+
+import org.joda.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.brenner.portfoliomgmt.reporting.BucketBackfillReport;
+import com.brenner.portfoliomgmt.reporting.BucketSnapshotJob;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
+import com.brenner.portfoliomgmt.reporting.RollupRebuildReport;
+
+@SpringBootTest(classes = {
+        AdminRestController.class,
+        PortfolioRollupEngine.class,
+        BucketSnapshotJob.class
+})
+@AutoConfigureMockMvc
+@EnableWebMvc
+public class AdminRestControllerTests {
+    
+    @Autowired MockMvc mockMvc;
+    
+    @MockBean PortfolioRollupEngine portfolioRollupEngine;
+    
+    @MockBean BucketSnapshotJob bucketSnapshotJob;
+    
+    @Test @WithMockUser(roles = "ADMIN")
+    public void testRebuildRollup_Success() throws Exception {
+        
+        Mockito.when(this.portfolioRollupEngine.rebuild()).thenReturn(new RollupRebuildReport(new Date(), 1200, 850L));
+        
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/admin/rollup/rebuild")
+                .contentType(MediaType.APPLICATION_JSON)
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsWritten", is(1200)))
+                .andExpect(jsonPath("$.elapsedMillis", is(850)));
+        
+        Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).rebuild();
+    }
+    
+    @Test @WithMockUser(roles = "ADMIN")
+    public void testBackfillBuckets_Success() throws Exception {
+        
+        Date from = new LocalDate(2022, 1, 1).toDate();
+        Date to = new LocalDate(2022, 6, 30).toDate();
+        Mockito.when(this.bucketSnapshotJob.backfill(from, to)).thenReturn(new BucketBackfillReport(from, to, 4, 124, 310L));
+        
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/admin/buckets/backfill")
+                .param("from", "2022-01-01")
+                .param("to", "2022-06-30")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ranges", is(4)))
+                .andExpect(jsonPath("$.snapshotsWritten", is(124)));
+        
+        Mockito.verify(this.bucketSnapshotJob, Mockito.times(1)).backfill(from, to);
+    }
+}
@@ -0,0 +1,141 @@
+package com.brenner.portfoliomgmt.api;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.holdings.HoldingsUploadBatchConfig;
+import com.brenner.portfoliomgmt.batch.investments.InvestmentsUploadBatchConfig;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadBatchConfig;
+
+@SpringBootTest(classes = {
+        BulkJobsRestController.class
+})
+@AutoConfigureMockMvc
+@EnableWebMvc
+public class BulkJobsRestControllerTests {
+
+    @Autowired MockMvc mockMvc;
+
+    @MockBean JobExplorer jobExplorer;
+
+    @MockBean HoldingsUploadBatchConfig holdingsUploadBatchConfig;
+
+    @MockBean InvestmentsUploadBatchConfig investmentsUploadBatchConfig;
+
+    @MockBean QuotesUploadBatchConfig quotesUploadBatchConfig;
+
+    @TempDir
+    Path directory;
+
+    @Test @WithMockUser
+    public void testGetJobStatus_Success() throws Exception {
+
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("importQuotesPartitionedJob", 1L, 42L);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        jobExecution.setStartTime(new Date(10000L));
+        jobExecution.setEndTime(new Date(12000L));
+
+        StepExecution manager = jobExecution.createStepExecution("quotesPartitionedStep");
+        manager.setReadCount(1000);
+        manager.setWriteCount(990);
+        manager.setFilterCount(4);
+        manager.setProcessSkipCount(6);
+        // partitions are already summed into the manager step
+        StepExecution partition = jobExecution.createStepExecution("quotesPartitionStep:partition0");
+        partition.setReadCount(1000);
+
+        Mockito.when(this.jobExplorer.getJobExecution(42L)).thenReturn(jobExecution);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/bulk/jobs/42")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobExecutionId", is(42)))
+                .andExpect(jsonPath("$.jobName", is("importQuotesPartitionedJob")))
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.readCount", is(1000)))
+                .andExpect(jsonPath("$.writeCount", is(990)))
+                .andExpect(jsonPath("$.skipCount", is(6)))
+                .andExpect(jsonPath("$.filterCount", is(4)))
+                .andExpect(jsonPath("$.rowsPerSecond", is(500)));
+    }
+
+    @Test @WithMockUser
+    public void testGetJobStatus_Fail() throws Exception {
+
+        Mockito.when(this.jobExplorer.getJobExecution(43L)).thenReturn(null);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/bulk/jobs/43")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test @WithMockUser
+    public void testRestartJob_Success() throws Exception {
+
+        Path upload = Files.createFile(this.directory.resolve("quotes.csv"));
+        JobParameters jobParameters = new JobParametersBuilder()
+                .addString(BulkUploadJobLauncher.UPLOAD_NAME, "quotes.csv")
+                .addString(BulkUploadJobLauncher.UPLOAD_FILE, upload.toString())
+                .toJobParameters();
+        JobExecution failed = MetaDataInstanceFactory.createJobExecution("importQuotesPartitionedJob", 1L, 44L, jobParameters);
+        failed.setStatus(BatchStatus.FAILED);
+        JobExecution restarted = MetaDataInstanceFactory.createJobExecution("importQuotesPartitionedJob", 1L, 45L, jobParameters);
+
+        Mockito.when(this.jobExplorer.getJobExecution(44L)).thenReturn(failed);
+        Mockito.when(this.quotesUploadBatchConfig.runPartitionedJob(upload, "quotes.csv")).thenReturn(restarted);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/bulk/jobs/44/restart")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobExecutionId", is(45)))
+                .andExpect(jsonPath("$.status", is("STARTING")));
+
+        Mockito.verify(this.quotesUploadBatchConfig, Mockito.times(1)).runPartitionedJob(upload, "quotes.csv");
+    }
+
+    @Test @WithMockUser
+    public void testRestartJob_Fail() throws Exception {
+
+        JobExecution completed = MetaDataInstanceFactory.createJobExecution("importTransactionsJob", 1L, 46L);
+        completed.setStatus(BatchStatus.COMPLETED);
+
+        Mockito.when(this.jobExplorer.getJobExecution(46L)).thenReturn(completed);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/bulk/jobs/46/restart")
+                .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(this.holdingsUploadBatchConfig);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import com.brenner.portfoliomgmt.batch.quotes.QuotesSymbolPartitioner;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class QuotesSymbolPartitionerTests {
+
+	private static final String HEADER = "Symbol,Last Price,Quote Date";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testPartition_Success() throws Exception {
+
+		Path input = write("quotes.csv", HEADER, "AAPL,$150.00,01/03/22", "GE,$90.00,01/03/22", "MSFT,$300.00,01/03/22",
+				"", "AAPL,$151.00,01/04/22", "GE,$91.00,01/04/22", "\"MSFT\",\"$1,301.00\",01/04/22");
+
+		Map<String, ExecutionContext> partitions = new QuotesSymbolPartitioner(input, this.directory.resolve("work")).partition(3);
+
+		Map<String, String> partitionBySymbol = new HashMap<>();
+		int rows = 0;
+		for (Map.Entry<String, ExecutionContext> partition : partitions.entrySet()) {
+			ExecutionContext context = partition.getValue();
+			assertEquals("partition" + context.getInt(QuotesSymbolPartitioner.PARTITION_INDEX), partition.getKey());
+
+			List<String> lines = Files.readAllLines(Path.of(context.getString(QuotesSymbolPartitioner.PARTITION_FILE)));
+			assertEquals(HEADER, lines.get(0));
+			assertTrue(lines.size() > 1);
+
+			for (String line : lines.subList(1, lines.size())) {
+				String symbol = line.split(",")[0].replace("\"", "");
+				String previous = partitionBySymbol.put(symbol, partition.getKey());
+				assertTrue(previous == null || previous.equals(partition.getKey()), symbol + " split across partitions");
+				rows++;
+			}
+		}
+
+		assertEquals(6, rows);
+		assertEquals(3, partitionBySymbol.size());
+	}
+
+	@Test
+	public void testPartitionOmitsEmptyPartitions_Success() throws Exception {
+
+		Path input = write("quotes.csv", HEADER, "AAPL,$150.00,01/03/22", "AAPL,$151.00,01/04/22");
+
+		Map<String, ExecutionContext> partitions = new QuotesSymbolPartitioner(input, this.directory.resolve("work")).partition(4);
+
+		assertEquals(1, partitions.size());
+		ExecutionContext context = partitions.values().iterator().next();
+		assertEquals(3, Files.readAllLines(Path.of(context.getString(QuotesSymbolPartitioner.PARTITION_FILE))).size());
+	}
+
+	@Test
+	public void testPartitionReusesSplitOnRestart_Success() throws Exception {
+
+		Path input = write("quotes.csv", HEADER, "AAPL,$150.00,01/03/22", "GE,$90.00,01/03/22");
+		Path workDirectory = this.directory.resolve("work");
+
+		Map<String, ExecutionContext> partitions = new QuotesSymbolPartitioner(input, workDirectory).partition(2);
+
+		// the upload is not split again, the partitions of the first run are read from where they stopped
+		Files.write(input, Arrays.asList(HEADER, "MSFT,$300.00,01/03/22"));
+		Map<String, ExecutionContext> restarted = new QuotesSymbolPartitioner(input, workDirectory).partition(2);
+
+		assertEquals(partitions, restarted);
+	}
+
+	@Test
+	public void testAggregateCounts_Success() {
+
+		StepExecution manager = MetaDataInstanceFactory.createStepExecution("manager", 1L);
+		StepExecution first = MetaDataInstanceFactory.createStepExecution("worker:partition0", 2L);
+		first.setReadCount(10);
+		first.getExecutionContext().putLong(UploadReferenceResolver.INVESTMENT_HITS, 8L);
+		first.getExecutionContext().putLong(UploadReferenceResolver.INVESTMENT_MISSES, 2L);
+		StepExecution second = MetaDataInstanceFactory.createStepExecution("worker:partition1", 3L);
+		second.setReadCount(5);
+		second.getExecutionContext().putLong(UploadReferenceResolver.INVESTMENT_HITS, 4L);
+
+		new PartitionSummaryAggregator(UploadReferenceResolver.INVESTMENT_HITS, UploadReferenceResolver.INVESTMENT_MISSES)
+				.aggregate(manager, Arrays.asList(first, second));
+
+		assertEquals(15, manager.getReadCount());
+		assertEquals(12L, manager.getExecutionContext().getLong(UploadReferenceResolver.INVESTMENT_HITS));
+		assertEquals(2L, manager.getExecutionContext().getLong(UploadReferenceResolver.INVESTMENT_MISSES));
+		assertNull(manager.getExecutionContext().get(UploadReferenceResolver.ACCOUNT_HITS));
+	}
+
+	private Path write(String name, String... lines) throws IOException {
+		return Files.write(this.directory.resolve(name), Arrays.asList(lines), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,182 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.CannotAcquireLockException;
+
+/**
+ * Runs upload style steps against an in-memory job repository.
+ *
+ * @author dbrenner
+ *
+ */
+@SuppressWarnings("deprecation")
+public class UploadFaultToleranceTests {
+
+	@TempDir
+	Path directory;
+
+	UploadFaultTolerance faultTolerance = new UploadFaultTolerance();
+
+	JobRepository jobRepository;
+
+	SimpleJobLauncher launcher = new SimpleJobLauncher();
+
+	List<String> written = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+
+		this.faultTolerance.skipLimit = 2;
+		this.faultTolerance.retryLimit = 3;
+		this.faultTolerance.skippedRowsDirectory = this.directory.resolve("skipped").toString();
+		this.faultTolerance.init();
+
+		ResourcelessTransactionManager transactionManager = new ResourcelessTransactionManager();
+		MapJobRepositoryFactoryBean repositoryFactory = new MapJobRepositoryFactoryBean(transactionManager);
+		repositoryFactory.afterPropertiesSet();
+		this.jobRepository = repositoryFactory.getObject();
+
+		this.launcher.setJobRepository(this.jobRepository);
+		this.launcher.afterPropertiesSet();
+	}
+
+	@Test
+	public void testSkipBadRows_Success() throws Exception {
+
+		Path upload = upload("A", "bad", "B", "C", "bad", "D");
+
+		JobExecution jobExecution = this.launcher.run(job(upload, this.written::addAll), params(upload));
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(Arrays.asList("A", "B", "C", "D"), this.written);
+		StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+		assertEquals(2, stepExecution.getReadSkipCount());
+
+		List<String> skipped = Files.readAllLines(Path.of(stepExecution.getExecutionContext().getString(SkippedRowsFileWriter.SKIPPED_ROWS_FILE)));
+		assertEquals(3, skipped.size());
+		assertEquals(SkippedRowsFileWriter.HEADER, skipped.get(0));
+		assertTrue(skipped.get(1).startsWith("read,3,\"Unparseable row\",\"bad\""), skipped.get(1));
+		assertTrue(skipped.get(2).startsWith("read,6,"), skipped.get(2));
+	}
+
+	@Test
+	public void testSkipLimit_Fail() throws Exception {
+
+		Path upload = upload("A", "bad", "bad", "bad", "B");
+
+		JobExecution jobExecution = this.launcher.run(job(upload, this.written::addAll), params(upload));
+
+		assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+	}
+
+	@Test
+	public void testRetryTransientErrors_Success() throws Exception {
+
+		Path upload = upload("A", "B", "C");
+		AtomicInteger attempts = new AtomicInteger();
+
+		JobExecution jobExecution = this.launcher.run(job(upload, items -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new CannotAcquireLockException("lock timeout");
+			}
+			this.written.addAll(items);
+		}), params(upload));
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		// the first chunk succeeds on its third attempt, the second chunk on its first
+		assertEquals(4, attempts.get());
+		assertEquals(Arrays.asList("A", "B", "C"), this.written);
+	}
+
+	@Test
+	public void testRestartFromLastCommittedChunk_Success() throws Exception {
+
+		Path upload = upload("A", "B", "C", "D", "E", "F");
+		AtomicInteger chunks = new AtomicInteger();
+		ItemWriter<String> failOnSecondChunk = items -> {
+			if (chunks.incrementAndGet() == 2) {
+				throw new IllegalStateException("database unavailable");
+			}
+			this.written.addAll(items);
+		};
+
+		JobExecution failed = this.launcher.run(job(upload, failOnSecondChunk), params(upload));
+		assertEquals(BatchStatus.FAILED, failed.getStatus());
+		assertEquals(Arrays.asList("A", "B"), this.written);
+
+		JobExecution restarted = this.launcher.run(job(upload, failOnSecondChunk), params(upload));
+
+		assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+		assertEquals(failed.getJobId(), restarted.getJobId());
+		assertEquals(Arrays.asList("A", "B", "C", "D", "E", "F"), this.written);
+	}
+
+	private Job job(Path upload, ItemWriter<String> writer) {
+
+		FlatFileItemReader<String> reader = new FlatFileItemReader<>();
+		reader.setResource(new FileSystemResource(upload));
+		reader.setLinesToSkip(1);
+		reader.setName("testReader");
+		reader.setLineMapper((line, lineNumber) -> {
+			if (line.equals("bad")) {
+				throw new FlatFileParseException("Unparseable row", line, lineNumber);
+			}
+			return line;
+		});
+
+		StepBuilderFactory steps = new StepBuilderFactory(this.jobRepository, new ResourcelessTransactionManager());
+		return new JobBuilderFactory(this.jobRepository).get("testUploadJob")
+				.start(this.faultTolerance.apply(steps.get("step1")
+						.<String, String>chunk(2)
+						.reader(reader)
+						.writer(writer))
+						.build())
+				.build();
+	}
+
+	private JobParameters params(Path upload) {
+		return new JobParametersBuilder()
+				.addString(BulkUploadJobLauncher.UPLOAD_NAME, "test.csv")
+				.addString(BulkUploadJobLauncher.UPLOAD_FILE, upload.toString())
+				.toJobParameters();
+	}
+
+	private Path upload(String... rows) throws Exception {
+
+		List<String> lines = new ArrayList<>();
+		lines.add("Row");
+		lines.addAll(Arrays.asList(rows));
+		return Files.write(this.directory.resolve("upload.csv"), lines);
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.service.AccountsService;
+import com.brenner.portfoliomgmt.service.InvestmentsService;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class UploadReferenceResolverTests {
+
+	UploadReferenceResolver resolver;
+
+	StepExecution stepExecution;
+
+	Investment aapl = DomainTestData.getInvestmentAAPL();
+	Investment ge = DomainTestData.getInvestmentGE();
+
+	@BeforeEach
+	public void setUp() {
+
+		this.resolver = new UploadReferenceResolver();
+		this.resolver.investmentsService = Mockito.mock(InvestmentsService.class);
+		this.resolver.accountsService = Mockito.mock(AccountsService.class);
+
+		this.stepExecution = MetaDataInstanceFactory.createStepExecution();
+		StepSynchronizationManager.register(this.stepExecution);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		StepSynchronizationManager.close();
+	}
+
+	@Test
+	public void testResolveInvestmentIds_Success() throws Exception {
+
+		Mockito.when(this.resolver.investmentsService.findInvestmentIdsBySymbol(Mockito.anyCollection()))
+			.thenReturn(new HashMap<>(Map.of(aapl.getSymbol(), aapl.getInvestmentId())));
+
+		Map<String, Long> ids = this.resolver.resolveInvestmentIds(Arrays.asList(aapl, ge, aapl), false);
+		assertEquals(Map.of(aapl.getSymbol(), aapl.getInvestmentId()), ids);
+
+		// the second chunk is served from the cache, including the symbol that is not stored
+		ids = this.resolver.resolveInvestmentIds(Arrays.asList(ge, aapl), false);
+		assertEquals(Map.of(aapl.getSymbol(), aapl.getInvestmentId()), ids);
+
+		Mockito.verify(this.resolver.investmentsService, Mockito.times(1)).findInvestmentIdsBySymbol(Mockito.anyCollection());
+		assertEquals(2L, this.stepExecution.getExecutionContext().getLong(UploadReferenceResolver.INVESTMENT_MISSES));
+		assertEquals(2L, this.stepExecution.getExecutionContext().getLong(UploadReferenceResolver.INVESTMENT_HITS));
+	}
+
+	@Test
+	public void testResolveInvestmentIdsCreateMissing_Success() throws Exception {
+
+		Mockito.when(this.resolver.investmentsService.findInvestmentIdsBySymbol(Mockito.anyCollection()))
+			.thenReturn(new HashMap<>(Map.of(aapl.getSymbol(), aapl.getInvestmentId())));
+		Mockito.when(this.resolver.investmentsService.saveMissingInvestments(Mockito.anyCollection()))
+			.thenReturn(new HashMap<>(Map.of(ge.getSymbol(), ge.getInvestmentId())));
+
+		this.resolver.resolveInvestmentIds(Arrays.asList(aapl, ge), false);
+		Map<String, Long> ids = this.resolver.resolveInvestmentIds(Arrays.asList(aapl, ge), true);
+
+		assertEquals(Map.of(aapl.getSymbol(), aapl.getInvestmentId(), ge.getSymbol(), ge.getInvestmentId()), ids);
+		// only the symbol known to be missing is submitted for creation
+		Mockito.verify(this.resolver.investmentsService, Mockito.times(1))
+			.saveMissingInvestments(Mockito.argThat(investments -> investments.size() == 1 && investments.contains(ge)));
+	}
+
+	@Test
+	public void testResolveInvestmentIdsRolledBack_Success() throws Exception {
+
+		Mockito.when(this.resolver.investmentsService.saveMissingInvestments(Mockito.anyCollection()))
+			.thenReturn(new HashMap<>(Map.of(ge.getSymbol(), ge.getInvestmentId())));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			this.resolver.resolveInvestmentIds(Collections.singletonList(ge), true);
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		// the investment created by the rolled back chunk is created again
+		this.resolver.resolveInvestmentIds(Collections.singletonList(ge), true);
+		Mockito.verify(this.resolver.investmentsService, Mockito.times(2)).saveMissingInvestments(Mockito.anyCollection());
+	}
+
+	@Test
+	public void testResolveAccountIds_Success() throws Exception {
+
+		Mockito.when(this.resolver.accountsService.findAccountIdsByAccountName(Mockito.anyCollection()))
+			.thenReturn(new HashMap<>(Map.of("Brokerage", 1L)));
+
+		Map<String, Long> ids = this.resolver.resolveAccountIds(Arrays.asList("Brokerage", "Unknown", null));
+		assertEquals(Map.of("Brokerage", 1L), ids);
+		assertFalse(this.resolver.resolveAccountIds(Arrays.asList("Unknown")).containsKey("Unknown"));
+
+		Mockito.verify(this.resolver.accountsService, Mockito.times(1)).findAccountIdsByAccountName(Mockito.anyCollection());
+		assertEquals(2L, this.stepExecution.getExecutionContext().getLong(UploadReferenceResolver.ACCOUNT_MISSES));
+		assertEquals(1L, this.stepExecution.getExecutionContext().getLong(UploadReferenceResolver.ACCOUNT_HITS));
+	}
+
+	@Test
+	public void testResolveInvestmentIds_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.resolver.resolveInvestmentIds(Arrays.asList(aapl, new Investment()), false);
+		});
+
+		assertEquals("investment.symbol must be non-null", e.getMessage());
+		Mockito.verifyNoInteractions(this.resolver.investmentsService);
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.batch.quotes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.batch.BulkUploadJobLauncher;
+import com.brenner.portfoliomgmt.batch.UploadFaultTolerance;
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.service.AccountsService;
+import com.brenner.portfoliomgmt.service.InvestmentsService;
+import com.brenner.portfoliomgmt.service.QuotesService;
+
+/**
+ * Runs the partitioned quote import end to end on an in-memory job repository, the services are mocked.
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuotesUploadBatchConfig.class,
+		QuotesUploadItemWriter.class,
+		QuotesImportRefreshListener.class,
+		UploadReferenceResolver.class,
+		UploadFaultTolerance.class,
+		BulkUploadJobLauncher.class
+}, properties = {
+		"batch.upload.partitions=3",
+		"batch.upload.chunk-size=2"
+})
+@DirtiesContext
+public class QuotesPartitionedJobTests {
+
+	private static final String HEADER = String.join(",", QuotesUploadBatchConfig.COLUMN_NAMES);
+
+	@Autowired
+	QuotesUploadBatchConfig quotesUploadBatchConfig;
+
+	@Autowired
+	JobLauncher jobLauncher;
+
+	@Autowired
+	JobRepository jobRepository;
+
+	@MockBean
+	QuotesService quotesService;
+
+	@MockBean
+	InvestmentsService investmentsService;
+
+	@MockBean
+	AccountsService accountsService;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPartitionedImport_Success() throws Exception {
+
+		Path upload = Files.write(this.directory.resolve("quotes.csv"), Arrays.asList(HEADER,
+				row("AAPL", "$150.00", "01/03/22"), row("GE", "$90.00", "01/03/22"), row("MSFT", "$300.00", "01/03/22"),
+				row("AAPL", "$151.00", "01/04/22"), row("GE", "$91.00", "01/04/22"), row("MSFT", "$301.00", "01/04/22"),
+				row("IBM", "$130.00", "01/04/22")));
+
+		Map<String, Long> storedIds = new HashMap<>();
+		storedIds.put("AAPL", 1L);
+		storedIds.put("GE", 2L);
+		storedIds.put("MSFT", 3L);
+		Mockito.when(this.investmentsService.findInvestmentIdsBySymbol(Mockito.anyCollection())).thenAnswer(invocation -> {
+			Map<String, Long> found = new HashMap<>(storedIds);
+			found.keySet().retainAll(invocation.<Collection<String>>getArgument(0));
+			return found;
+		});
+		List<Quote> written = new ArrayList<>();
+		Mockito.when(this.quotesService.importQuotes(Mockito.anyList())).thenAnswer(invocation -> {
+			List<Quote> quotes = invocation.getArgument(0);
+			synchronized (written) {
+				written.addAll(quotes);
+			}
+			return quotes.size();
+		});
+
+		JobLauncherTestUtils jobLauncherTestUtils = new JobLauncherTestUtils();
+		jobLauncherTestUtils.setJobLauncher(this.jobLauncher);
+		jobLauncherTestUtils.setJobRepository(this.jobRepository);
+		jobLauncherTestUtils.setJob(this.quotesUploadBatchConfig.partitionedJob(upload));
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob(new JobParametersBuilder()
+				.addString(BulkUploadJobLauncher.UPLOAD_NAME, "quotes.csv")
+				.addString(BulkUploadJobLauncher.UPLOAD_FILE, upload.toString())
+				.toJobParameters());
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus(), String.valueOf(jobExecution.getAllFailureExceptions()));
+
+		StepExecution manager = jobExecution.getStepExecutions().stream()
+				.filter(stepExecution -> stepExecution.getStepName().equals("quotesPartitionedStep"))
+				.findFirst().get();
+		assertEquals(7, manager.getReadCount());
+		assertEquals(7, manager.getWriteCount());
+
+		// IBM is not stored, its quote is not written
+		assertEquals(6, written.size());
+		Set<String> symbols = new TreeSet<>();
+		for (Quote quote : written) {
+			symbols.add(quote.getInvestment().getSymbol());
+			assertEquals(storedIds.get(quote.getInvestment().getSymbol()), quote.getInvestment().getInvestmentId());
+		}
+		assertEquals(new TreeSet<>(storedIds.keySet()), symbols);
+
+		// each symbol is looked up once, by the partition it belongs to
+		assertEquals(4L, manager.getExecutionContext().getLong(UploadReferenceResolver.INVESTMENT_MISSES));
+
+		// the derived data is refreshed once for the whole import, with the dates imported for each investment
+		ArgumentCaptor<Collection<DailyValueSlice>> slices = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(this.quotesService, Mockito.times(1)).quotesImported(slices.capture());
+		Mockito.verify(this.quotesService, Mockito.never()).addQuotes(Mockito.anyList());
+		Set<Long> investmentIds = new TreeSet<>();
+		for (DailyValueSlice slice : slices.getValue()) {
+			investmentIds.add(slice.getInvestmentId());
+			assertFalse(slice.isAllDates());
+			assertTrue(slice.getFromDate().before(slice.getToDate()));
+		}
+		assertEquals(new TreeSet<>(storedIds.values()), investmentIds);
+
+		// the upload and its partitions are removed once the import completed
+		assertFalse(Files.exists(upload));
+	}
+
+	private static String row(String symbol, String price, String date) {
+		return symbol + "," + price + ",0.55,0.55%,USD,4:00PM EDT,1000,,2000,,,,1.5B," + date;
+	}
+}
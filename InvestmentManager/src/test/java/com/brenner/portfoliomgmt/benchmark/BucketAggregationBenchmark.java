@@ -0,0 +1,73 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.reporting.BucketAggregationEngine;
+
+/**
+ * BucketAggregationEngine totalling a portfolio whose investments carry a quote history of 1 month up to 10 years.
+ * Every quote of the history is passed through the LatestQuoteCache during setup, as the quote write paths would,
+ * so the latency should stay flat across the history lengths and only follow the number of lots.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class BucketAggregationBenchmark {
+
+	@Param({"100", "10000"})
+	int lots;
+
+	@Param({"21", "252", "2520"})
+	int quotesPerInvestment;
+
+	List<HoldingLot> holdingLots;
+
+	BucketAggregationEngine engine;
+
+	@Setup
+	public void setup() {
+		LatestQuoteCache latestQuoteCache = new LatestQuoteCache();
+		for (Investment investment : SyntheticPortfolio.investments(this.lots)) {
+			latestQuoteCache.updateAll(SyntheticPortfolio.quoteHistory(investment, this.quotesPerInvestment));
+		}
+
+		this.holdingLots = SyntheticPortfolio.holdingLots(this.lots);
+
+		this.engine = new BucketAggregationEngine();
+		ReflectionTestUtils.setField(this.engine, "latestQuoteCache", latestQuoteCache);
+	}
+
+	@Benchmark
+	public Map<BucketEnum, HoldingBucket> aggregate() {
+		return this.engine.aggregate(this.holdingLots);
+	}
+}
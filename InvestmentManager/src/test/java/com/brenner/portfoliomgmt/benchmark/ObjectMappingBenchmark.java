@@ -0,0 +1,105 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brenner.portfoliomgmt.data.entities.AccountDTO;
+import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
+import com.brenner.portfoliomgmt.data.entities.TransactionDTO;
+import com.brenner.portfoliomgmt.domain.Account;
+import com.brenner.portfoliomgmt.domain.Holding;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.Transaction;
+import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
+
+/**
+ * List mappings in {@link ObjectMappingUtil} over synthetic portfolios, holdings and quotes are also mapped with the
+ * reflective ModelMapper the hand-written mappings replaced.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class ObjectMappingBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	int lots;
+
+	ModelMapper modelMapper = new ModelMapper();
+
+	List<HoldingDTO> holdings;
+
+	List<TransactionDTO> transactions;
+
+	List<QuoteDTO> quotes;
+
+	List<AccountDTO> accounts;
+
+	@Setup
+	public void setup() {
+		this.holdings = SyntheticPortfolio.holdingsData(this.lots);
+		this.transactions = this.holdings.stream().map(h -> h.getTransactions().get(0)).toList();
+		this.quotes = SyntheticPortfolio.quotesData(this.lots);
+
+		// a second portfolio with the lots hung off the accounts as they are when accounts are read with their holdings
+		List<HoldingDTO> accountHoldings = SyntheticPortfolio.holdingsData(this.lots);
+		for (HoldingDTO holding : accountHoldings) {
+			holding.getAccount().getHoldings().add(holding);
+		}
+		// lots are dealt to the accounts in turn so the first lots cover each account once
+		this.accounts = accountHoldings.subList(0, Math.min(this.lots, SyntheticPortfolio.NUM_ACCOUNTS)).stream()
+				.map(HoldingDTO::getAccount).toList();
+	}
+
+	@Benchmark
+	public List<Holding> modelMapperHoldings() {
+		return this.holdings.stream().map(h -> this.modelMapper.map(h, Holding.class)).toList();
+	}
+
+	@Benchmark
+	public List<Holding> handWrittenHoldings() {
+		return ObjectMappingUtil.mapHoldingDtoList(this.holdings);
+	}
+
+	@Benchmark
+	public List<Quote> modelMapperQuotes() {
+		return this.quotes.stream().map(q -> this.modelMapper.map(q, Quote.class)).toList();
+	}
+
+	@Benchmark
+	public List<Quote> handWrittenQuotes() {
+		return ObjectMappingUtil.mapQuoteDtoList(this.quotes);
+	}
+
+	@Benchmark
+	public List<Transaction> handWrittenTransactions() {
+		return ObjectMappingUtil.mapTransactionDtoList(this.transactions);
+	}
+
+	@Benchmark
+	public List<Account> handWrittenAccounts() {
+		return ObjectMappingUtil.mapAccountDtoList(this.accounts);
+	}
+}
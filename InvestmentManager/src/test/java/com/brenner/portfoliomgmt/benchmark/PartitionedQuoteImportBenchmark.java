@@ -0,0 +1,378 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.brenner.portfoliomgmt.batch.UploadReferenceResolver;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesImportRefreshListener;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesSymbolPartitioner;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadBatchConfig;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadItemWriter;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadRowInstance;
+import com.brenner.portfoliomgmt.batch.quotes.QuotesUploadRowProcessor;
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.data.LatestQuotesWriter;
+import com.brenner.portfoliomgmt.data.QuotesBulkWriter;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.service.InvestmentsService;
+import com.brenner.portfoliomgmt.service.QuotesService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Scaling of the partitioned quote history import with the number of partition threads on a generated upload. Each
+ * invocation splits the file by symbol and then reads, maps and transforms every partition on its own thread, the way
+ * the partitioned step runs its workers.
+ *
+ * partitionedImport measures the parsing and transformation side of the import alone. partitionedImportWithWrites
+ * also writes every chunk of 1000 quotes in its own transaction through the QuotesUploadItemWriter and the
+ * QuotesBulkWriter, then refreshes latest_quotes once through the QuotesImportRefreshListener as the job does when it
+ * ends. It needs a PostgreSQL database, the application's local database unless given with -p jdbcUrl=... and
+ * -p jdbcUser=..., with the password in the BENCHMARK_DATASOURCE_PASSWORD environment variable. Its tables are
+ * created in a quotes_import_benchmark schema which is dropped afterwards. The latest quote cache and the portfolio value series are left out, they need the
+ * whole schema.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class PartitionedQuoteImportBenchmark {
+
+	/**
+	 * batch.upload.chunk-size
+	 */
+	static final int CHUNK_SIZE = 1000;
+
+	@Param({"1", "2", "4", "8"})
+	int threads;
+
+	@Param({"5000000"})
+	int rows;
+
+	Path directory;
+
+	Path upload;
+
+	Path workDirectory;
+
+	ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("quotes-import-benchmark-");
+		this.upload = this.directory.resolve("quotes.csv");
+		SyntheticPortfolio.quotesUploadCsv(this.upload, this.rows);
+		this.executor = Executors.newFixedThreadPool(this.threads);
+	}
+
+	@Setup(Level.Iteration)
+	public void createWorkDirectory() throws IOException {
+		this.workDirectory = Files.createTempDirectory(this.directory, "partitions-");
+	}
+
+	@TearDown(Level.Iteration)
+	public void deleteWorkDirectory() throws IOException {
+		delete(this.workDirectory);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.executor.shutdownNow();
+		delete(this.directory);
+	}
+
+	@Benchmark
+	public long partitionedImport() throws Exception {
+
+		Map<String, ExecutionContext> partitions = new QuotesSymbolPartitioner(this.upload, this.workDirectory).partition(this.threads);
+
+		List<Future<Long>> results = new ArrayList<>(partitions.size());
+		for (ExecutionContext partition : partitions.values()) {
+			results.add(this.executor.submit(() -> importPartition(partition.getString(QuotesSymbolPartitioner.PARTITION_FILE))));
+		}
+
+		long imported = 0;
+		for (Future<Long> result : results) {
+			imported += result.get();
+		}
+		return imported;
+	}
+
+	@Benchmark
+	public long partitionedImportWithWrites(Database database) throws Exception {
+
+		Map<String, ExecutionContext> partitions = new QuotesSymbolPartitioner(this.upload, this.workDirectory).partition(this.threads);
+		JobExecution jobExecution = new JobExecution(database.nextJobExecutionId++);
+
+		List<Future<Long>> results = new ArrayList<>(partitions.size());
+		for (Map.Entry<String, ExecutionContext> partition : partitions.entrySet()) {
+			StepExecution stepExecution = new StepExecution(partition.getKey(), jobExecution);
+			results.add(this.executor.submit(() -> importPartition(partition.getValue().getString(QuotesSymbolPartitioner.PARTITION_FILE),
+					stepExecution, database)));
+		}
+
+		long imported = 0;
+		for (Future<Long> result : results) {
+			imported += result.get();
+		}
+
+		database.importRefreshListener.afterJob(jobExecution);
+		return imported;
+	}
+
+	private static long importPartition(String file, StepExecution stepExecution, Database database) throws Exception {
+
+		// the writer reports to the job through the step context of the partition thread, as in the partitioned step
+		StepSynchronizationManager.register(stepExecution);
+		FlatFileItemReader<QuotesUploadRowInstance> reader = QuotesUploadBatchConfig.reader(new FileSystemResource(file));
+		QuotesUploadRowProcessor processor = new QuotesUploadRowProcessor();
+		QuotesUploadItemWriter writer = database.writer();
+		reader.open(new ExecutionContext());
+		try {
+			long imported = 0;
+			List<Quote> chunk = new ArrayList<>(CHUNK_SIZE);
+			QuotesUploadRowInstance row;
+			while ((row = reader.read()) != null) {
+				Quote quote = processor.process(row);
+				if (quote != null) {
+					chunk.add(quote);
+				}
+				if (chunk.size() == CHUNK_SIZE) {
+					imported += database.write(writer, chunk);
+					chunk = new ArrayList<>(CHUNK_SIZE);
+				}
+			}
+			return imported + database.write(writer, chunk);
+		}
+		finally {
+			reader.close();
+			StepSynchronizationManager.close();
+		}
+	}
+
+	private static long importPartition(String file) throws Exception {
+
+		FlatFileItemReader<QuotesUploadRowInstance> reader = QuotesUploadBatchConfig.reader(new FileSystemResource(file));
+		QuotesUploadRowProcessor processor = new QuotesUploadRowProcessor();
+		reader.open(new ExecutionContext());
+		try {
+			long imported = 0;
+			QuotesUploadRowInstance row;
+			while ((row = reader.read()) != null) {
+				Quote quote = processor.process(row);
+				if (quote != null) {
+					imported++;
+				}
+			}
+			return imported;
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * The quote tables the import writes to, in a schema of their own, and the writer wired to them.
+	 */
+	@State(Scope.Benchmark)
+	public static class Database {
+
+		private static final String SCHEMA = "quotes_import_benchmark";
+
+		@Param({"jdbc:postgresql://localhost:5432/investmentmanager"})
+		String jdbcUrl;
+
+		@Param({"postgres"})
+		String jdbcUser;
+
+		HikariDataSource dataSource;
+
+		JdbcTemplate jdbcTemplate;
+
+		TransactionTemplate transactionTemplate;
+
+		QuotesService quotesService;
+
+		QuotesImportRefreshListener importRefreshListener;
+
+		InvestmentsService investmentsService;
+
+		long nextJobExecutionId = 1;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			HikariDataSource admin = dataSource(this.jdbcUrl, this.jdbcUser, null, 1);
+			try {
+				new JdbcTemplate(admin).execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+			}
+			finally {
+				admin.close();
+			}
+
+			this.dataSource = dataSource(this.jdbcUrl, this.jdbcUser, SCHEMA, 9);
+			this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+			this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS quotes (quote_id BIGSERIAL PRIMARY KEY, "
+					+ "quote_date TIMESTAMP NOT NULL, price_at_open NUMERIC, price_at_close NUMERIC NOT NULL, high NUMERIC, "
+					+ "low NUMERIC, volume INTEGER, price_change NUMERIC, week52high NUMERIC, week52low NUMERIC, "
+					+ "investment_id BIGINT NOT NULL)");
+			this.jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS quotes_investment_date_uk ON quotes (investment_id, quote_date)");
+			this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS latest_quotes (investment_id BIGINT PRIMARY KEY, "
+					+ "quote_id BIGINT NOT NULL, quote_date TIMESTAMP NOT NULL, price_at_close NUMERIC NOT NULL)");
+
+			DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(this.dataSource);
+			this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+			QuotesBulkWriter quotesBulkWriter = new QuotesBulkWriter();
+			ReflectionTestUtils.setField(quotesBulkWriter, "jdbcTemplate", this.jdbcTemplate);
+			LatestQuotesWriter latestQuotesWriter = new LatestQuotesWriter();
+			ReflectionTestUtils.setField(latestQuotesWriter, "jdbcTemplate", this.jdbcTemplate);
+			ReflectionTestUtils.setField(latestQuotesWriter, "transactionManager", transactionManager);
+
+			this.quotesService = new QuotesService() {
+				@Override
+				public void quotesImported(Collection<DailyValueSlice> slices) {
+					Set<Long> investmentIds = new LinkedHashSet<>();
+					for (DailyValueSlice slice : slices) {
+						investmentIds.add(slice.getInvestmentId());
+					}
+					Database.this.transactionTemplate.executeWithoutResult(status -> latestQuotesWriter.refresh(investmentIds));
+				}
+			};
+			ReflectionTestUtils.setField(this.quotesService, "quotesBulkWriter", quotesBulkWriter);
+
+			this.importRefreshListener = new QuotesImportRefreshListener();
+			ReflectionTestUtils.setField(this.importRefreshListener, "quotesService", this.quotesService);
+
+			// the generated symbols SYM0 ... SYM999 are stored as investments 1 ... 1000
+			this.investmentsService = new InvestmentsService() {
+				@Override
+				public Map<String, Long> findInvestmentIdsBySymbol(Collection<String> symbols) {
+					Map<String, Long> ids = new HashMap<>();
+					for (String symbol : symbols) {
+						ids.put(symbol, Long.valueOf(symbol.substring(3)) + 1);
+					}
+					return ids;
+				}
+			};
+		}
+
+		@Setup(Level.Iteration)
+		public void truncate() {
+			this.jdbcTemplate.execute("TRUNCATE quotes, latest_quotes");
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			try {
+				this.jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+			}
+			finally {
+				this.dataSource.close();
+			}
+		}
+
+		/**
+		 * @return a writer with its own reference resolver, the resolver is step scoped in the application
+		 */
+		QuotesUploadItemWriter writer() {
+
+			UploadReferenceResolver referenceResolver = new UploadReferenceResolver();
+			ReflectionTestUtils.setField(referenceResolver, "investmentsService", this.investmentsService);
+
+			QuotesUploadItemWriter writer = new QuotesUploadItemWriter();
+			ReflectionTestUtils.setField(writer, "referenceResolver", referenceResolver);
+			ReflectionTestUtils.setField(writer, "quotesService", this.quotesService);
+			ReflectionTestUtils.setField(writer, "importRefreshListener", this.importRefreshListener);
+			return writer;
+		}
+
+		/**
+		 * Writes a chunk in its own transaction, as the chunk oriented step does.
+		 */
+		long write(QuotesUploadItemWriter writer, List<Quote> chunk) {
+
+			if (chunk.isEmpty()) {
+				return 0;
+			}
+
+			this.transactionTemplate.executeWithoutResult(status -> {
+				try {
+					writer.write(chunk);
+				}
+				catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			return chunk.size();
+		}
+
+		private static HikariDataSource dataSource(String jdbcUrl, String jdbcUser, String schema, int poolSize) {
+
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setJdbcUrl(jdbcUrl);
+			dataSource.setUsername(jdbcUser);
+			dataSource.setPassword(System.getenv("BENCHMARK_DATASOURCE_PASSWORD"));
+			dataSource.setSchema(schema);
+			dataSource.setMaximumPoolSize(poolSize);
+			// the application's driver settings
+			dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+			dataSource.addDataSourceProperty("prepareThreshold", "2");
+			return dataSource;
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
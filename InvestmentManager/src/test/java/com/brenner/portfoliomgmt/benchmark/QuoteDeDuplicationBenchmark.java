@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.IEXQuoteRetrievalService;
+
+/**
+ * The de-duplication done by IEXQuoteRetrievalService.getNewQuotesForInvestment() when a one month chart is merged
+ * with the persisted quotes for an investment. The persisted history holds one quote per lot and its most recent
+ * quote is the max quote date, as in QuotesService.updateQuotesForAllInvestments(). The whole history is treated as
+ * the window so the cost of building the {@link QuoteDays} is measured at each size.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class QuoteDeDuplicationBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	int lots;
+
+	Investment investment;
+
+	List<Date> existingQuoteDates;
+
+	QuoteDays existingQuoteDays;
+
+	Date maxQuoteDate;
+
+	HistoricalQuotes chart;
+
+	@Setup
+	public void setup() {
+		this.investment = SyntheticPortfolio.investments(1).get(0);
+		List<Quote> existingQuotes = SyntheticPortfolio.quoteHistory(this.investment, this.lots);
+		this.existingQuoteDates = existingQuotes.stream().map(Quote::getDate).toList();
+		this.existingQuoteDays = QuoteDays.of(this.existingQuoteDates.get(0), this.existingQuoteDates);
+		this.maxQuoteDate = this.existingQuoteDates.get(this.existingQuoteDates.size() - 1);
+		this.chart = SyntheticPortfolio.oneMonthChart(this.lots);
+	}
+
+	@Benchmark
+	public List<Quote> selectNewQuotes() {
+		return IEXQuoteRetrievalService.selectNewQuotes(this.investment, this.maxQuoteDate, this.existingQuoteDays, this.chart);
+	}
+
+	@Benchmark
+	public List<Quote> buildQuoteDaysAndSelectNewQuotes() {
+		QuoteDays quoteDays = QuoteDays.of(this.existingQuoteDates.get(0), this.existingQuoteDates);
+		return IEXQuoteRetrievalService.selectNewQuotes(this.investment, this.maxQuoteDate, quoteDays, this.chart);
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.deserialize.HistoricalQuotesDeserializer;
+import com.brenner.portfoliomgmt.domain.deserialize.QuoteJsonDeserializer;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Parsing of IEX responses through {@link QuoteJsonDeserializer} and {@link HistoricalQuotesDeserializer}, one
+ * quote per lot. See {@link StreamingQuoteDeserializationBenchmark} for the comparison with the tree based parsing
+ * the deserializers used before.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class QuoteDeserializationBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	int lots;
+
+	String iexQuotesJson;
+
+	String historicalQuotesJson;
+
+	ObjectReader quotesReader;
+
+	ObjectReader historicalQuotesReader;
+
+	@Setup
+	public void setup() {
+		this.iexQuotesJson = SyntheticPortfolio.iexQuotesJson(this.lots);
+		this.historicalQuotesJson = SyntheticPortfolio.historicalQuotesJson(this.lots);
+
+		// QuoteJsonDeserializer is not bound to Quote by annotation so it is registered the way a client would
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(Quote.class, new QuoteJsonDeserializer());
+		this.quotesReader = new ObjectMapper().registerModule(module).readerFor(Quote[].class);
+
+		this.historicalQuotesReader = new ObjectMapper().readerFor(HistoricalQuotes.class);
+	}
+
+	@Benchmark
+	public Quote[] quoteJsonDeserializer() throws IOException {
+		return this.quotesReader.readValue(this.iexQuotesJson);
+	}
+
+	@Benchmark
+	public HistoricalQuotes historicalQuotesDeserializer() throws IOException {
+		return this.historicalQuotesReader.readValue(this.historicalQuotesJson);
+	}
+}
@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+
+import com.brenner.portfoliomgmt.InvestmentsProperties;
+import com.brenner.portfoliomgmt.reporting.HoldingsReport;
+import com.brenner.portfoliomgmt.reporting.RollupSummary;
+import com.brenner.portfoliomgmt.service.ReportsService;
+import com.brenner.portfoliomgmt.view.controller.ReportsController;
+
+/**
+ * ReportsController.retrieveRollupData() over a portfolio with one report row per lot. The report query is stubbed
+ * to stream the synthetic rows, dividends already joined, into a {@link RollupSummary} the way
+ * HoldingsReportingDataService.findRollupSummary() does, so the summary pass and the controller work are measured.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class RollupAggregationBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	int lots;
+
+	ReportsController reportsController;
+
+	@Setup
+	public void setup() {
+		List<HoldingsReport> holdings = SyntheticPortfolio.holdingsReports(this.lots);
+
+		ReportsService reportsService = new ReportsService() {
+			@Override
+			public RollupSummary retrieveRollupSummary(String primaryDataSet, String sortOrder) {
+				RollupSummary summary = new RollupSummary();
+				for (HoldingsReport holding : holdings) {
+					summary.add(holding);
+				}
+				return summary;
+			}
+		};
+
+		InvestmentsProperties props = new InvestmentsProperties();
+		props.setHoldingsByMarketValueAttributeKey("holdingsByMarketValue");
+		props.setTotalMarketValueChangeAttribute("totalChangeInMarketValue");
+
+		this.reportsController = new ReportsController();
+		ReflectionTestUtils.setField(this.reportsController, "reportsService", reportsService);
+		ReflectionTestUtils.setField(this.reportsController, "props", props);
+	}
+
+	@Benchmark
+	public Model retrieveRollupData() {
+		Model model = new ExtendedModelMap();
+		this.reportsController.retrieveRollupData("DESC", "marketValue", model);
+		return model;
+	}
+}
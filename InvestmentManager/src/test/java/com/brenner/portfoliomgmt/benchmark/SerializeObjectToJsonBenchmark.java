@@ -0,0 +1,55 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.util.CommonUtils;
+
+/**
+ * {@link CommonUtils#serializeObjectToJson(OutputStream, Object)} writing the quote lists returned by the chart
+ * endpoints, one quote per lot. Output is discarded so only serialization is measured.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class SerializeObjectToJsonBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	int lots;
+
+	List<Quote> quotes;
+
+	@Setup
+	public void setup() {
+		this.quotes = SyntheticPortfolio.quotes(this.lots);
+	}
+
+	@Benchmark
+	public void serializeQuotes() throws IOException {
+		CommonUtils.serializeObjectToJson(OutputStream.nullOutputStream(), this.quotes);
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteJsonReaders;
+import com.brenner.portfoliomgmt.util.CommonUtils;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Token streaming historical quote deserializers against the tree based parsing they replaced, on a multi-year IEX
+ * chart with every field IEX returns per row. The tree variants reproduce the previous deserializers: the whole
+ * payload is read into a tree, then each row is re-serialized and bound to Quote by a new ObjectMapper. Unknown fields
+ * are ignored by those mappers, the previous code failed on real IEX rows.
+ *
+ * @author dbrenner
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class StreamingQuoteDeserializationBenchmark {
+
+	private static final int TRADING_DAYS_PER_YEAR = 252;
+
+	private static final int BATCH_SYMBOLS = 10;
+
+	@Param({"1", "5", "20"})
+	int years;
+
+	String chartJson;
+
+	String batchChartJson;
+
+	ObjectMapper treeMapper = new ObjectMapper();
+
+	@Setup
+	public void setup() {
+		this.chartJson = SyntheticPortfolio.iexChartJson(this.years * TRADING_DAYS_PER_YEAR);
+
+		StringBuilder batch = new StringBuilder(this.chartJson.length() * BATCH_SYMBOLS + 100);
+		batch.append('{');
+		for (int i=0; i<BATCH_SYMBOLS; i++) {
+			if (i > 0) {
+				batch.append(',');
+			}
+			batch.append("\"SYM").append(i).append("\":{\"chart\":").append(this.chartJson).append('}');
+		}
+		batch.append('}');
+		this.batchChartJson = batch.toString();
+	}
+
+	@Benchmark
+	public HistoricalQuotes historicalStreaming() throws IOException {
+		return QuoteJsonReaders.HISTORICAL_QUOTES.readValue(this.chartJson);
+	}
+
+	@Benchmark
+	public HistoricalQuotes historicalTree() throws IOException, ParseException {
+
+		JsonNode quoteNodes = this.treeMapper.readTree(this.chartJson);
+		List<String> nodes = quoteNodes.findValuesAsText("date");
+
+		Map<Date, Quote> quotes = new HashMap<>(nodes.size());
+		Iterator<JsonNode> iterator = quoteNodes.elements();
+		int i = 0;
+		while (iterator.hasNext()) {
+			Date date = CommonUtils.convertDatePickerDateFormatStringToDate(iterator.next().get("date").asText());
+			quotes.put(date, rowMapper().readValue(quoteNodes.get(i).toString(), Quote.class));
+			i++;
+		}
+		return new HistoricalQuotes(quotes);
+	}
+
+	@Benchmark
+	public BatchHistoricalQuotes batchHistoricalStreaming() throws IOException {
+		return QuoteJsonReaders.BATCH_HISTORICAL_QUOTES.readValue(this.batchChartJson);
+	}
+
+	@Benchmark
+	public BatchHistoricalQuotes batchHistoricalTree() throws IOException {
+
+		JsonNode symbolNodes = this.treeMapper.readTree(this.batchChartJson);
+
+		Map<String, List<Quote>> quotesMap = new HashMap<>();
+		Iterator<String> fieldNamesIter = symbolNodes.fieldNames();
+		while (fieldNamesIter.hasNext()) {
+			String symbol = fieldNamesIter.next();
+			Iterator<JsonNode> chartNodeIter = symbolNodes.get(symbol).elements();
+			while (chartNodeIter.hasNext()) {
+				Iterator<JsonNode> quoteNodeIter = chartNodeIter.next().elements();
+				List<Quote> quotesList = new ArrayList<>();
+				while (quoteNodeIter.hasNext()) {
+					Quote quote = rowMapper().readValue(quoteNodeIter.next().toString(), Quote.class);
+					Investment investment = new Investment();
+					investment.setSymbol(symbol);
+					quote.setInvestment(investment);
+					quotesList.add(quote);
+				}
+				quotesMap.put(symbol, quotesList);
+			}
+		}
+
+		BatchHistoricalQuotes histQuotes = new BatchHistoricalQuotes();
+		histQuotes.setQuotesMap(quotesMap);
+		return histQuotes;
+	}
+
+	private static ObjectMapper rowMapper() {
+		return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	}
+}
@@ -0,0 +1,354 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+
+import com.brenner.portfoliomgmt.data.entities.AccountDTO;
+import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
+import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
+import com.brenner.portfoliomgmt.data.entities.TransactionDTO;
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.TransactionTypeEnum;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.reporting.HoldingsReport;
+
+/**
+ * Generates deterministic synthetic portfolios for the JMH suites. A portfolio of n lots is n holdings spread over a
+ * fixed pool of accounts and investments, each lot carrying a single buy transaction and one quote. Values are shared
+ * where the application would share them so the 1M lot portfolios stay within a few hundred MB of heap.
+ *
+ * @author dbrenner
+ *
+ */
+final class SyntheticPortfolio {
+
+	static final int NUM_ACCOUNTS = 10;
+
+	static final int NUM_INVESTMENTS = 1000;
+
+	/**
+	 * Trading days returned by the IEX 1 month chart
+	 */
+	static final int ONE_MONTH_OF_QUOTES = 21;
+
+	private static final LocalDate FIRST_QUOTE_DAY = new LocalDate(1970, 1, 2);
+
+	private static final BigDecimal QUANTITY = BigDecimal.valueOf(100);
+	private static final BigDecimal PURCHASE_PRICE = BigDecimal.valueOf(15.55);
+	private static final BigDecimal TOTAL_DIVIDENDS = BigDecimal.valueOf(534);
+	private static final BigDecimal OPEN = BigDecimal.valueOf(100);
+	private static final BigDecimal CLOSE = BigDecimal.valueOf(100.55);
+	private static final BigDecimal HIGH = BigDecimal.valueOf(200);
+	private static final BigDecimal LOW = BigDecimal.valueOf(50);
+	private static final BigDecimal PRICE_CHANGE = BigDecimal.valueOf(0.55);
+	private static final BigDecimal DIVIDEND = BigDecimal.valueOf(12.5);
+
+	private SyntheticPortfolio() {}
+
+	static List<AccountDTO> accountsData() {
+
+		List<AccountDTO> accounts = new ArrayList<>(NUM_ACCOUNTS);
+		for (int i=0; i<NUM_ACCOUNTS; i++) {
+			AccountDTO account = new AccountDTO(Long.valueOf(i), "Account " + i, "Company " + i, "Owner " + i,
+					"AccountNum " + i, "AccountType " + i, BigDecimal.valueOf(100L * i));
+			// holdings are lazily loaded in the application so the account side of the graph is left empty
+			account.setHoldings(new ArrayList<>());
+			accounts.add(account);
+		}
+		return accounts;
+	}
+
+	static List<InvestmentDTO> investmentsData(int lots) {
+
+		int numInvestments = Math.min(lots, NUM_INVESTMENTS);
+		List<InvestmentDTO> investments = new ArrayList<>(numInvestments);
+		for (int i=0; i<numInvestments; i++) {
+			InvestmentDTO investment = new InvestmentDTO(Long.valueOf(i), symbol(i), "Company Name " + i, "Exchange " + (i % 3),
+					"Sector " + (i % 11), InvestmentTypeEnum.values()[i % InvestmentTypeEnum.values().length]);
+			investment.setQuotes(new ArrayList<>());
+			investments.add(investment);
+		}
+		return investments;
+	}
+
+	static List<Investment> investments(int lots) {
+
+		List<InvestmentDTO> investmentsData = investmentsData(lots);
+		List<Investment> investments = new ArrayList<>(investmentsData.size());
+		for (InvestmentDTO investmentData : investmentsData) {
+			investments.add(new Investment(investmentData.getInvestmentId(), investmentData.getSymbol(),
+					investmentData.getCompanyName(), investmentData.getExchange(), investmentData.getSector(),
+					investmentData.getInvestmentType()));
+		}
+		return investments;
+	}
+
+	/**
+	 * @param lots - number of holdings in the portfolio
+	 * @return holdings as read from the data store, each with a single buy transaction
+	 */
+	static List<HoldingDTO> holdingsData(int lots) {
+
+		List<AccountDTO> accounts = accountsData();
+		List<InvestmentDTO> investments = investmentsData(lots);
+
+		List<HoldingDTO> holdings = new ArrayList<>(lots);
+		for (int i=0; i<lots; i++) {
+			AccountDTO account = accounts.get(i % accounts.size());
+			Date purchaseDate = quoteDate(i % 5000);
+
+			HoldingDTO holding = new HoldingDTO(Long.valueOf(i), investments.get(i % investments.size()), account,
+					QUANTITY, PURCHASE_PRICE, BucketEnum.values()[i % BucketEnum.values().length], purchaseDate, TOTAL_DIVIDENDS);
+			holding.setTransactions(Collections.singletonList(new TransactionDTO(Long.valueOf(i), null, purchaseDate,
+					PURCHASE_PRICE, QUANTITY, TransactionTypeEnum.Buy, holding, account, null)));
+			holdings.add(holding);
+		}
+		return holdings;
+	}
+
+	/**
+	 * @param lots - number of holdings in the portfolio
+	 * @return the lots of the portfolio as read for the bucket report
+	 */
+	static List<HoldingLot> holdingLots(int lots) {
+
+		int numInvestments = Math.min(lots, NUM_INVESTMENTS);
+
+		List<HoldingLot> holdingLots = new ArrayList<>(lots);
+		for (int i=0; i<lots; i++) {
+			holdingLots.add(new HoldingLot(Long.valueOf(i % numInvestments), QUANTITY, PURCHASE_PRICE,
+					BucketEnum.values()[i % BucketEnum.values().length]));
+		}
+		return holdingLots;
+	}
+
+	/**
+	 * @param lots - number of quotes, one per lot
+	 * @return quotes as read from the data store spread evenly over the investments
+	 */
+	static List<QuoteDTO> quotesData(int lots) {
+
+		List<InvestmentDTO> investments = investmentsData(lots);
+
+		List<QuoteDTO> quotes = new ArrayList<>(lots);
+		for (int i=0; i<lots; i++) {
+			quotes.add(new QuoteDTO(Long.valueOf(i), quoteDate(i / investments.size()), OPEN, CLOSE, HIGH, LOW, 100000 + i,
+					PRICE_CHANGE, HIGH, LOW, investments.get(i % investments.size())));
+		}
+		return quotes;
+	}
+
+	/**
+	 * @param lots - number of quotes, one per lot
+	 * @return domain quotes spread evenly over the investments
+	 */
+	static List<Quote> quotes(int lots) {
+
+		List<Investment> investments = investments(lots);
+
+		List<Quote> quotes = new ArrayList<>(lots);
+		for (int i=0; i<lots; i++) {
+			quotes.add(new Quote(Long.valueOf(i), quoteDate(i / investments.size()), OPEN, CLOSE, HIGH, LOW, 100000 + i,
+					PRICE_CHANGE, HIGH, LOW, investments.get(i % investments.size())));
+		}
+		return quotes;
+	}
+
+	/**
+	 * Persisted quote history for a single investment, one quote per trading day.
+	 *
+	 * @param investment - the investment the quotes belong to
+	 * @param days - length of the history
+	 * @return quotes ordered oldest first
+	 */
+	static List<Quote> quoteHistory(Investment investment, int days) {
+
+		List<Quote> quotes = new ArrayList<>(days);
+		for (int i=0; i<days; i++) {
+			quotes.add(new Quote(Long.valueOf(i), quoteDate(i), OPEN, CLOSE, HIGH, LOW, 100000 + i, PRICE_CHANGE, HIGH, LOW, investment));
+		}
+		return quotes;
+	}
+
+	/**
+	 * A one month chart response from IEX for an investment with the supplied persisted history. The chart starts half
+	 * way through the last month on record so half of the returned quotes are already persisted.
+	 *
+	 * @param days - length of the persisted history
+	 * @return {@link HistoricalQuotes}
+	 */
+	static HistoricalQuotes oneMonthChart(int days) {
+
+		int firstDay = Math.max(0, days - ONE_MONTH_OF_QUOTES / 2);
+
+		Map<Date, Quote> quotes = new HashMap<>(ONE_MONTH_OF_QUOTES * 2);
+		for (int i=firstDay; i<firstDay + ONE_MONTH_OF_QUOTES; i++) {
+			Date date = quoteDate(i);
+			quotes.put(date, new Quote(null, date, OPEN, CLOSE, HIGH, LOW, 100000 + i, PRICE_CHANGE, null, null, null));
+		}
+		return new HistoricalQuotes(quotes);
+	}
+
+	/**
+	 * Rows as returned by the holdings report queries, one per lot, every fourth lot having paid a dividend.
+	 *
+	 * @param lots - number of holdings in the portfolio
+	 * @return {@link List}<HoldingsReport>
+	 */
+	static List<HoldingsReport> holdingsReports(int lots) {
+
+		BigDecimal valueAtPurchase = PURCHASE_PRICE.multiply(QUANTITY);
+
+		List<HoldingsReport> reports = new ArrayList<>(lots);
+		for (int i=0; i<lots; i++) {
+			HoldingsReport report = new HoldingsReport();
+			report.setHoldingId(Long.valueOf(i));
+			report.setInvestmentId(Long.valueOf(i % NUM_INVESTMENTS));
+			report.setSymbol(symbol(i % NUM_INVESTMENTS));
+			report.setCompanyName("Company Name " + (i % NUM_INVESTMENTS));
+			report.setInvestmentType(InvestmentTypeEnum.values()[i % InvestmentTypeEnum.values().length]);
+			report.setSector("Sector " + (i % 11));
+			report.setValueAtPurchase(valueAtPurchase);
+			report.setPriceAtClose(PURCHASE_PRICE.add(BigDecimal.valueOf((i % 7) - 3)));
+			report.setMarketValue(report.getPriceAtClose().multiply(QUANTITY));
+			// a mix of gainers, losers and unchanged lots
+			report.setChangeInValue(report.getMarketValue().subtract(valueAtPurchase));
+			report.setTotalDividends(i % 4 == 0 ? DIVIDEND : BigDecimal.ZERO);
+			report.setTotalValue(report.getMarketValue().add(report.getTotalDividends()));
+			reports.add(report);
+		}
+		return reports;
+	}
+
+	/**
+	 * An IEX chart response body with one row per lot. Only the fields Quote declares are included, the
+	 * HistoricalQuotesDeserializer binds each row straight to Quote.
+	 *
+	 * @param lots - number of rows
+	 * @return JSON array text
+	 */
+	static String historicalQuotesJson(int lots) {
+
+		StringBuilder json = new StringBuilder(lots * 100);
+		json.append('[');
+		for (int i=0; i<lots; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"date\":\"").append(FIRST_QUOTE_DAY.plusDays(i))
+				.append("\",\"open\":191.2293,\"high\":191.5283,\"low\":188.4092,\"close\":").append(189 + (i % 100) / 100.0)
+				.append(",\"volume\":").append(21029535 + i).append('}');
+		}
+		json.append(']');
+		return json.toString();
+	}
+
+	/**
+	 * A full IEX chart response body of trading days with every field IEX returns per row, most of which Quote does
+	 * not map.
+	 *
+	 * @param tradingDays - number of rows, 252 per year
+	 * @return JSON array text
+	 */
+	static String iexChartJson(int tradingDays) {
+
+		StringBuilder json = new StringBuilder(tradingDays * 320);
+		json.append('[');
+		for (int i=0; i<tradingDays; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			double close = 189 + (i % 100) / 100.0;
+			json.append("{\"date\":\"").append(FIRST_QUOTE_DAY.plusDays(i))
+				.append("\",\"open\":191.2293,\"close\":").append(close)
+				.append(",\"high\":191.5283,\"low\":188.4092,\"volume\":").append(21029535 + i)
+				.append(",\"uOpen\":191.2293,\"uClose\":").append(close)
+				.append(",\"uHigh\":191.5283,\"uLow\":188.4092,\"uVolume\":").append(21029535 + i)
+				.append(",\"change\":-1.0663,\"changePercent\":-0.5544,\"label\":\"Day ").append(i)
+				.append("\",\"changeOverTime\":-0.0123,\"symbol\":\"AAPL\",\"id\":\"HISTORICAL_PRICES\"")
+				.append(",\"key\":\"AAPL\",\"subkey\":\"\",\"updated\":1654300800000}");
+		}
+		json.append(']');
+		return json.toString();
+	}
+
+	/**
+	 * IEX quote response bodies, one per lot, as a JSON array.
+	 *
+	 * @param lots - number of quotes
+	 * @return JSON array text
+	 */
+	static String iexQuotesJson(int lots) {
+
+		StringBuilder json = new StringBuilder(lots * 300);
+		json.append('[');
+		for (int i=0; i<lots; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"symbol\":\"").append(symbol(i % NUM_INVESTMENTS))
+				.append("\",\"companyName\":\"Company Name ").append(i % NUM_INVESTMENTS)
+				.append("\",\"primaryExchange\":\"Nasdaq Global Select\",\"sector\":\"Technology\"")
+				.append(",\"iexOpen\":191.2293,\"iexClose\":").append(189 + (i % 100) / 100.0)
+				.append(",\"high\":191.5283,\"low\":188.4092,\"avgTotalVolume\":").append(21029535 + i)
+				.append(",\"change\":-1.0663,\"date\":\"").append(FIRST_QUOTE_DAY.plusDays(i % 5000))
+				.append("\",\"week52High\":233.47,\"week52Low\":142.2}");
+		}
+		json.append(']');
+		return json.toString();
+	}
+
+	/**
+	 * Writes a quote history upload in the layout of the quotes upload form: a header and one row per quote of each
+	 * investment, symbols interleaved as in an export sorted by date.
+	 *
+	 * @param file - file to write
+	 * @param rows - quote rows to write
+	 */
+	static void quotesUploadCsv(Path file, int rows) throws IOException {
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("Symbol,Last Price,Change,Chg %,Currency,Market Time,Volume,Shares,Avg Vol (3m),Day Range,"
+					+ "52-Wk Range,Day Chart,Market Cap,Quote Date");
+			writer.newLine();
+			for (int i=0; i<rows; i++) {
+				writer.write(symbol(i % NUM_INVESTMENTS));
+				writer.write(",$100.55,0.55,0.55%,USD,4:00PM EDT,1000,,2000,,,,1.5B,");
+				writer.write(FIRST_QUOTE_DAY.plusDays(i / NUM_INVESTMENTS).toString("MM/dd/yy"));
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * @param day - offset from the first quote day
+	 * @return local midnight of the day, matching dates parsed from the quote services
+	 */
+	static Date quoteDate(int day) {
+		return FIRST_QUOTE_DAY.plusDays(day).toDate();
+	}
+
+	private static String symbol(int i) {
+		return "SYM" + i;
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		BucketSnapshotWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class BucketSnapshotWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+	@MockBean PlatformTransactionManager transactionManager;
+
+	@Autowired BucketSnapshotWriter bucketSnapshotWriter;
+
+	@Test
+	public void testBackfill_Success() throws Exception {
+
+		Date from = new Date(1654041600000L);
+		Date to = new Date(1656547200000L);
+		Timestamp fromTs = new Timestamp(from.getTime());
+		Timestamp toTs = new Timestamp(to.getTime());
+		Mockito.when(this.jdbcTemplate.update(BucketSnapshotWriter.INSERT_DATES_SQL, fromTs, toTs)).thenReturn(21);
+
+		assertEquals(21, this.bucketSnapshotWriter.backfill(from, to));
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(BucketSnapshotWriter.DELETE_DATES_SQL, fromTs, toTs);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(BucketSnapshotWriter.INSERT_DATES_SQL, fromTs, toTs);
+	}
+
+	@Test
+	public void testBackfillBuyThenSell_Success() throws Exception {
+
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2)
+				.addScript("/sql/bucketSnapshotTables.sql")
+				.build();
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+			jdbcTemplate.update("INSERT INTO holdings VALUES (1, 10, 0)");
+			jdbcTemplate.update("INSERT INTO transactions VALUES (1, 1, '2022-06-01', 10, 10, 'Buy')");
+			jdbcTemplate.update("INSERT INTO transactions VALUES (2, 1, '2022-06-02', 1, 25, 'Dividend')");
+			jdbcTemplate.update("INSERT INTO transactions VALUES (3, 1, '2022-06-03', 12, 4, 'Sell')");
+			jdbcTemplate.update("INSERT INTO transactions VALUES (4, 1, '2022-06-03', 48, 1, 'Cash')");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (1, 10, '2022-06-01', 10)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (2, 10, '2022-06-02', 11)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (3, 10, '2022-06-03', 12)");
+
+			BucketSnapshotWriter writer = new BucketSnapshotWriter();
+			writer.jdbcTemplate = jdbcTemplate;
+			writer.transactionManager = new DataSourceTransactionManager(database);
+
+			assertEquals(3, writer.backfill(Timestamp.valueOf("2022-06-01 00:00:00"), Timestamp.valueOf("2022-06-03 00:00:00")));
+
+			List<Map<String, Object>> snapshots = jdbcTemplate.queryForList(
+					"SELECT bucket_1_total FROM bucket_summation_snapshots ORDER BY snap_shot_date");
+			// 10 shares bought, the dividend is not a share, 4 of the 10 shares are sold on the third day
+			assertEquals(100f, ((Number) snapshots.get(0).get("bucket_1_total")).floatValue());
+			assertEquals(110f, ((Number) snapshots.get(1).get("bucket_1_total")).floatValue());
+			assertEquals(72f, ((Number) snapshots.get(2).get("bucket_1_total")).floatValue());
+		}
+		finally {
+			database.shutdown();
+		}
+	}
+
+	@Test
+	public void testBackfillNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.bucketSnapshotWriter.backfill(new Date(), null);
+		});
+
+		assertEquals("fromDate and toDate must be non-null", e.getMessage());
+	}
+}
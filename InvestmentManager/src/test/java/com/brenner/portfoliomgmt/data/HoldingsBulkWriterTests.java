@@ -0,0 +1,120 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.domain.Holding;
+import com.brenner.portfoliomgmt.domain.Transaction;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		HoldingsBulkWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class HoldingsBulkWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+
+	@Autowired HoldingsBulkWriter holdingsBulkWriter;
+
+	@Test
+	public void testInsertHoldings_Success() throws Exception {
+
+		Holding h1 = holding(DomainTestData.getHolding1());
+		Holding h2 = holding(DomainTestData.getHolding2());
+		List<Holding> holdings = Arrays.asList(h1, h2);
+
+		Mockito.when(this.jdbcTemplate.queryForList(HoldingsBulkWriter.NEXT_HOLDING_IDS_SQL, Long.class, 2))
+			.thenReturn(Arrays.asList(10L, 11L));
+		Mockito.when(this.jdbcTemplate.queryForList(HoldingsBulkWriter.NEXT_TRANSACTION_IDS_SQL, Long.class, 2))
+			.thenReturn(Arrays.asList(20L, 21L));
+
+		assertEquals(2, this.holdingsBulkWriter.insertHoldings(holdings));
+
+		assertEquals(Long.valueOf(10L), h1.getHoldingId());
+		assertEquals(Long.valueOf(11L), h2.getHoldingId());
+		Transaction transaction = h2.getTransactions().get(0);
+		assertEquals(Long.valueOf(21L), transaction.getTransactionId());
+		assertSame(h2, transaction.getHolding());
+		assertSame(h2.getAccount(), transaction.getAccount());
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(HoldingsBulkWriter.INSERT_HOLDING_SQL),
+				ArgumentMatchers.eq(holdings), ArgumentMatchers.eq(500), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Holding>>any());
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(HoldingsBulkWriter.INSERT_TRANSACTION_SQL),
+				ArgumentMatchers.<List<Transaction>>argThat(t -> t.size() == 2), ArgumentMatchers.eq(500),
+				ArgumentMatchers.<ParameterizedPreparedStatementSetter<Transaction>>any());
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(HoldingsBulkWriter.INSERT_HOLDING_TRANSACTION_SQL),
+				ArgumentMatchers.<List<Object[]>>argThat(args -> args.size() == 2 && args.get(1)[0].equals(11L) && args.get(1)[1].equals(21L)));
+	}
+
+	@Test
+	public void testInsertHoldingsEmpty_Success() throws Exception {
+
+		assertEquals(0, this.holdingsBulkWriter.insertHoldings(new ArrayList<>()));
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testInsertHoldingsMissingAccount_Fail() throws Exception {
+
+		Holding holding = holding(DomainTestData.getHolding1());
+		holding.getAccount().setAccountId(null);
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.holdingsBulkWriter.insertHoldings(Arrays.asList(holding(DomainTestData.getHolding2()), holding));
+		});
+
+		assertEquals("holding.account.accountId must be non-null", e.getMessage());
+		// nothing is written when any holding in the list is invalid
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testInsertHoldingsNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.holdingsBulkWriter.insertHoldings(null);
+		});
+
+		assertEquals("holdings must be non-null", e.getMessage());
+	}
+
+	private static Holding holding(Holding holding) {
+
+		holding.setHoldingId(null);
+		holding.setAccount(DomainTestData.getAccount1());
+		holding.setInvestment(DomainTestData.getInvestmentAAPL());
+		Transaction transaction = DomainTestData.getBuyTransaction1();
+		transaction.setTransactionId(null);
+		holding.addTransaction(transaction);
+		return holding;
+	}
+}
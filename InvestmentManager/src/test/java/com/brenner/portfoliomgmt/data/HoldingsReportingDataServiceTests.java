@@ -0,0 +1,197 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.postgresql.PGStatement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
+import com.brenner.portfoliomgmt.reporting.BucketAggregationEngine;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.HoldingsReport;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		HoldingsReportingDataService.class,
+		HoldingsReportCache.class,
+		JdbcTemplate.class,
+		SimpleMeterRegistry.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class HoldingsReportingDataServiceTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+	@MockBean HoldingBucketSummationMapper bucketSummationMapper;
+	@MockBean BucketAggregationEngine bucketAggregationEngine;
+
+	@Autowired HoldingsReportingDataService reportingDataService;
+	@Autowired HoldingsReportCache holdingsReportCache;
+
+	@Autowired SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setUp() {
+		this.holdingsReportCache.invalidate();
+	}
+
+	@Test
+	public void testHoldingsReportVariant_Success() throws Exception {
+
+		assertEquals("marketValue.DESC", HoldingsReportingDataService.holdingsReportVariant(null, null));
+		assertEquals("marketValue.ASC", HoldingsReportingDataService.holdingsReportVariant("marketValue", " asc "));
+		assertEquals("changeInValue.DESC", HoldingsReportingDataService.holdingsReportVariant("changeInValue", ""));
+
+		for (String SQL : HoldingsReportingDataService.HOLDINGS_REPORT_VARIANTS.values()) {
+			assertFalse(SQL.contains("?"));
+		}
+	}
+
+	@Test
+	public void testHoldingsReportVariant_Fail() throws Exception {
+
+		assertThrows(InvalidRequestException.class, () -> {
+			this.reportingDataService.findRollupSummary("marketValue", "DESC; DROP TABLE holdings");
+		});
+		assertThrows(InvalidRequestException.class, () -> {
+			this.reportingDataService.findHoldingsByMarketValueOrderedDesc("random()");
+		});
+		assertThrows(InvalidRequestException.class, () -> {
+			this.reportingDataService.findHoldingByChangeInValueOrderedDesc("1, 2");
+		});
+
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFindHoldingsByMarketValueOrderedDesc_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<HoldingsReport>>any()))
+			.thenReturn(new ArrayList<>());
+
+		this.reportingDataService.findHoldingsByMarketValueOrderedDesc("asc");
+
+		ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).query(creator.capture(), ArgumentMatchers.any(RowMapper.class));
+
+		String SQL = HoldingsReportingDataService.HOLDINGS_REPORT_VARIANTS.get("marketValue.ASC");
+		PGStatement pgStatement = Mockito.mock(PGStatement.class);
+		PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+		Connection con = Mockito.mock(Connection.class);
+		Mockito.when(con.prepareStatement(SQL)).thenReturn(ps);
+		Mockito.when(ps.isWrapperFor(PGStatement.class)).thenReturn(true);
+		Mockito.when(ps.unwrap(PGStatement.class)).thenReturn(pgStatement);
+		Mockito.when(pgStatement.isUseServerPrepare()).thenReturn(false, true, true);
+
+		for (int i=0; i<3; i++) {
+			assertEquals(ps, creator.getValue().createPreparedStatement(con));
+		}
+
+		assertEquals(2, this.meterRegistry.get(HoldingsReportingDataService.STATEMENT_CACHE_METRIC)
+				.tags("variant", "marketValue.ASC", "result", "hit").counter().count());
+		assertEquals(1, this.meterRegistry.get(HoldingsReportingDataService.STATEMENT_CACHE_METRIC)
+				.tags("variant", "marketValue.ASC", "result", "miss").counter().count());
+		assertEquals(2.0 / 3, this.meterRegistry.get(HoldingsReportingDataService.STATEMENT_CACHE_METRIC + ".hit.ratio")
+				.tags("variant", "marketValue.ASC").gauge().value(), 0.0001);
+	}
+
+	@Test
+	public void testFindRollupSummary_Success() throws Exception {
+
+		this.reportingDataService.findRollupSummary("changeInValue", null);
+
+		ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).query(creator.capture(), ArgumentMatchers.any(RowCallbackHandler.class));
+
+		String SQL = HoldingsReportingDataService.HOLDINGS_REPORT_VARIANTS.get("changeInValue.DESC");
+		Connection con = Mockito.mock(Connection.class);
+		Mockito.when(con.prepareStatement(SQL)).thenReturn(Mockito.mock(PreparedStatement.class));
+		creator.getValue().createPreparedStatement(con);
+		Mockito.verify(con, Mockito.times(1)).prepareStatement(SQL);
+
+		assertEquals(1, this.meterRegistry.get(HoldingsReportingDataService.STATEMENT_CACHE_METRIC)
+				.tags("variant", "changeInValue.DESC", "result", "miss").counter().count());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetHoldingsByInvestmentTypeAndSector_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<HoldingsReport>>any()))
+			.thenReturn(Arrays.asList(
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "10", "15"),
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "20", "18"),
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.ETF, "Index", "100", null)));
+
+		List<HoldingsReport> report = this.reportingDataService.getHoldingsByInvestmentTypeAndSector();
+		assertEquals(2, report.size());
+		assertEquals(new BigDecimal("30"), report.get(0).getValueAtPurchase());
+		assertEquals(new BigDecimal("33"), report.get(0).getMarketValue());
+		assertEquals(InvestmentTypeEnum.ETF, report.get(1).getInvestmentType());
+
+		// repeat loads and the change in value report are served from the cache until it is invalidated
+		this.reportingDataService.getHoldingsByInvestmentTypeAndSector();
+		this.reportingDataService.findHoldingByChangeInValueOrderedDesc(null);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.any(RowMapper.class));
+
+		this.holdingsReportCache.invalidate();
+		this.reportingDataService.getHoldingsByInvestmentTypeAndSector();
+		Mockito.verify(this.jdbcTemplate, Mockito.times(2)).query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.any(RowMapper.class));
+	}
+
+	@Test
+	public void testFindHoldingByChangeInValueOrderedDesc_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<HoldingsReport>>any()))
+			.thenReturn(Arrays.asList(
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "10", "15"),
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "20", "18"),
+					DomainTestData.generateHoldingsReport(InvestmentTypeEnum.ETF, "Index", "100", null)));
+
+		List<HoldingsReport> holdings = this.reportingDataService.findHoldingByChangeInValueOrderedDesc(null);
+		assertEquals(3, holdings.size());
+		assertEquals(null, holdings.get(0).getChangeInValue());
+		assertEquals(new BigDecimal("5"), holdings.get(1).getChangeInValue());
+		assertEquals(new BigDecimal("-2"), holdings.get(2).getChangeInValue());
+
+		holdings = this.reportingDataService.findHoldingByChangeInValueOrderedDesc("ASC");
+		assertEquals(new BigDecimal("-2"), holdings.get(0).getChangeInValue());
+		assertEquals(null, holdings.get(2).getChangeInValue());
+	}
+}
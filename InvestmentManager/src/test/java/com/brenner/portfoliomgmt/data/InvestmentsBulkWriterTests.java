@@ -0,0 +1,90 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		InvestmentsBulkWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class InvestmentsBulkWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+
+	@Autowired InvestmentsBulkWriter investmentsBulkWriter;
+
+	@Test
+	public void testInsertMissingInvestments_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(InvestmentsBulkWriter.INSERT_MISSING_INVESTMENT_SQL),
+				ArgumentMatchers.<Collection<Investment>>any(), ArgumentMatchers.anyInt(),
+				ArgumentMatchers.<ParameterizedPreparedStatementSetter<Investment>>any()))
+			.thenReturn(new int[][] {{1, 0}, {Statement.SUCCESS_NO_INFO}});
+
+		// the repeated symbol is submitted once
+		assertEquals(2, this.investmentsBulkWriter.insertMissingInvestments(Arrays.asList(DomainTestData.getInvestmentAAPL(),
+				DomainTestData.getInvestmentGE(), DomainTestData.getInvestmentFB(), DomainTestData.getInvestmentAAPL())));
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.anyString(),
+				ArgumentMatchers.<Collection<Investment>>argThat(investments -> investments.size() == 3), ArgumentMatchers.eq(500),
+				ArgumentMatchers.<ParameterizedPreparedStatementSetter<Investment>>any());
+	}
+
+	@Test
+	public void testInsertMissingInvestmentsEmpty_Success() throws Exception {
+
+		assertEquals(0, this.investmentsBulkWriter.insertMissingInvestments(new ArrayList<>()));
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testInsertMissingInvestmentsMissingSymbol_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.investmentsBulkWriter.insertMissingInvestments(Arrays.asList(DomainTestData.getInvestmentAAPL(), new Investment()));
+		});
+
+		assertEquals("investment.symbol must be non-null", e.getMessage());
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testInsertMissingInvestmentsNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.investmentsBulkWriter.insertMissingInvestments(null);
+		});
+
+		assertEquals("investments must be non-null", e.getMessage());
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		LatestQuotesWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class LatestQuotesWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+	@MockBean PlatformTransactionManager transactionManager;
+
+	@Autowired LatestQuotesWriter latestQuotesWriter;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRefresh_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(LatestQuotesWriter.UPSERT_INVESTMENT_SQL), ArgumentMatchers.<List<Object[]>>any()))
+			.thenReturn(new int[] {1, 0});
+
+		assertEquals(1, this.latestQuotesWriter.refresh(Arrays.asList(1L, 2L, 1L, null)));
+
+		ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(LatestQuotesWriter.UPSERT_INVESTMENT_SQL), args.capture());
+		assertEquals(2, args.getValue().size());
+		assertEquals(1L, args.getValue().get(0)[0]);
+		assertEquals(2L, args.getValue().get(1)[0]);
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(LatestQuotesWriter.DELETE_UNQUOTED_SQL), args.capture());
+		assertEquals(2, args.getValue().size());
+	}
+
+	@Test
+	public void testRefreshEmpty_Success() throws Exception {
+
+		assertEquals(0, this.latestQuotesWriter.refresh(new ArrayList<>()));
+		Mockito.verify(this.jdbcTemplate, Mockito.never()).batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.<List<Object[]>>any());
+	}
+
+	@Test
+	public void testRefreshNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.latestQuotesWriter.refresh(null);
+		});
+
+		assertEquals("investmentIds must be non-null", e.getMessage());
+	}
+
+	@Test
+	public void testPopulateIfEmpty_Success() throws Exception {
+
+		// the listener already ran when the context became ready
+		Mockito.clearInvocations(this.jdbcTemplate);
+		Mockito.when(this.jdbcTemplate.queryForObject(LatestQuotesWriter.EXISTS_SQL, Boolean.class)).thenReturn(Boolean.FALSE);
+		Mockito.when(this.jdbcTemplate.update(LatestQuotesWriter.INSERT_ALL_SQL)).thenReturn(40);
+
+		this.latestQuotesWriter.populateIfEmpty();
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(LatestQuotesWriter.DELETE_ALL_SQL);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(LatestQuotesWriter.INSERT_ALL_SQL);
+
+		Mockito.clearInvocations(this.jdbcTemplate);
+		Mockito.when(this.jdbcTemplate.queryForObject(LatestQuotesWriter.EXISTS_SQL, Boolean.class)).thenReturn(Boolean.TRUE);
+
+		this.latestQuotesWriter.populateIfEmpty();
+
+		Mockito.verify(this.jdbcTemplate, Mockito.never()).update(LatestQuotesWriter.INSERT_ALL_SQL);
+	}
+}
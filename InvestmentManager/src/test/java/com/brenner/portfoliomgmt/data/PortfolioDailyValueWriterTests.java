@@ -0,0 +1,104 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		PortfolioDailyValueWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class PortfolioDailyValueWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+	@MockBean PlatformTransactionManager transactionManager;
+
+	@Autowired PortfolioDailyValueWriter portfolioDailyValueWriter;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRecompute_Success() throws Exception {
+
+		Date from = new Date(1654041600000L);
+		Date to = new Date(1654214400000L);
+
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(PortfolioDailyValueWriter.INSERT_INVESTMENT_SQL), ArgumentMatchers.<List<Object[]>>any()))
+			.thenReturn(new int[] {250});
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(PortfolioDailyValueWriter.INSERT_INVESTMENT_DATES_SQL), ArgumentMatchers.<List<Object[]>>any()))
+			.thenReturn(new int[] {3, 2});
+
+		int rows = this.portfolioDailyValueWriter.recompute(Arrays.asList(
+				DailyValueSlice.allDates(1L), DailyValueSlice.dates(2L, from, to), DailyValueSlice.dates(3L, to, to)));
+
+		assertEquals(255, rows);
+
+		ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(PortfolioDailyValueWriter.DELETE_INVESTMENT_SQL), args.capture());
+		assertEquals(1, args.getValue().size());
+		assertEquals(1L, args.getValue().get(0)[0]);
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.eq(PortfolioDailyValueWriter.DELETE_INVESTMENT_DATES_SQL), args.capture());
+		assertEquals(2, args.getValue().size());
+		assertEquals(2L, args.getValue().get(0)[0]);
+		assertEquals(new Timestamp(from.getTime()), args.getValue().get(0)[1]);
+		assertEquals(new Timestamp(to.getTime()), args.getValue().get(0)[2]);
+	}
+
+	@Test
+	public void testRecomputeEmpty_Success() throws Exception {
+
+		assertEquals(0, this.portfolioDailyValueWriter.recompute(new ArrayList<>()));
+		Mockito.verify(this.jdbcTemplate, Mockito.never()).batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.<List<Object[]>>any());
+	}
+
+	@Test
+	public void testRecomputeNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.portfolioDailyValueWriter.recompute(null);
+		});
+
+		assertEquals("slices must be non-null", e.getMessage());
+	}
+
+	@Test
+	public void testRebuild_Success() throws Exception {
+
+		Mockito.when(this.jdbcTemplate.update(PortfolioDailyValueWriter.INSERT_ALL_SQL)).thenReturn(1200);
+
+		assertEquals(1200, this.portfolioDailyValueWriter.rebuild());
+
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(PortfolioDailyValueWriter.DELETE_ALL_SQL);
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).update(PortfolioDailyValueWriter.INSERT_ALL_SQL);
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuotesBulkWriter.class,
+		JdbcTemplate.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class QuotesBulkWriterTests {
+
+	@MockBean JdbcTemplate jdbcTemplate;
+
+	@Autowired QuotesBulkWriter quotesBulkWriter;
+
+	@Test
+	public void testUpsertQuotes_Success() throws Exception {
+
+		List<Quote> quotes = DomainTestData.generateQuotesList(3, DomainTestData.getInvestmentAAPL());
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(QuotesBulkWriter.UPSERT_QUOTE_SQL),
+				ArgumentMatchers.eq(quotes), ArgumentMatchers.anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Quote>>any()))
+			.thenReturn(new int[][] {{1, 1}, {1}});
+
+		assertEquals(3, this.quotesBulkWriter.upsertQuotes(quotes));
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.anyString(),
+				ArgumentMatchers.eq(quotes), ArgumentMatchers.eq(500), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Quote>>any());
+	}
+
+	@Test
+	public void testUpsertQuotesDuplicateInBatch_Success() throws Exception {
+
+		List<Quote> quotes = DomainTestData.generateQuotesList(3, DomainTestData.getInvestmentAAPL());
+		Quote duplicate = DomainTestData.generateQuote(3, DomainTestData.getInvestmentAAPL());
+		duplicate.setDate(quotes.get(0).getDate());
+		quotes.add(duplicate);
+		Mockito.when(this.jdbcTemplate.batchUpdate(ArgumentMatchers.eq(QuotesBulkWriter.UPSERT_QUOTE_SQL),
+				ArgumentMatchers.<List<Quote>>any(), ArgumentMatchers.anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Quote>>any()))
+			.thenReturn(new int[][] {{1, 1, 1}});
+
+		assertEquals(3, this.quotesBulkWriter.upsertQuotes(quotes));
+
+		// the last quote for the date is written in place of the first
+		Mockito.verify(this.jdbcTemplate, Mockito.times(1)).batchUpdate(ArgumentMatchers.anyString(),
+				ArgumentMatchers.eq(Arrays.asList(duplicate, quotes.get(1), quotes.get(2))), ArgumentMatchers.eq(500),
+				ArgumentMatchers.<ParameterizedPreparedStatementSetter<Quote>>any());
+	}
+
+	@Test
+	public void testUpsertQuotesEmpty_Success() throws Exception {
+
+		assertEquals(0, this.quotesBulkWriter.upsertQuotes(new ArrayList<>()));
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testUpsertQuotesMissingInvestment_Fail() throws Exception {
+
+		Quote quote = DomainTestData.getQuoteAAPL();
+		quote.setInvestment(null);
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.quotesBulkWriter.upsertQuotes(Arrays.asList(DomainTestData.getQuoteAAPL(), quote));
+		});
+
+		assertEquals("quote.investment.investmentId must be non-null", e.getMessage());
+		// nothing is written when any quote in the list is invalid
+		Mockito.verifyNoInteractions(this.jdbcTemplate);
+	}
+
+	@Test
+	public void testUpsertQuotesNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.quotesBulkWriter.upsertQuotes(null);
+		});
+
+		assertEquals("quotes must be non-null", e.getMessage());
+	}
+}
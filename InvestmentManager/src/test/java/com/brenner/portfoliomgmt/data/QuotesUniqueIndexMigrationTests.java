@@ -0,0 +1,62 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class QuotesUniqueIndexMigrationTests {
+
+	@Test
+	public void testMigrateWithDuplicates_Success() throws Exception {
+
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+				.setType(EmbeddedDatabaseType.H2)
+				.addScript("/sql/quotesTable.sql")
+				.build();
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+			jdbcTemplate.update("INSERT INTO quotes VALUES (1, 10, '2022-06-01', 10)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (2, 10, '2022-06-01', 11)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (3, 10, '2022-06-02', 12)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (4, 20, '2022-06-01', 20)");
+			jdbcTemplate.update("INSERT INTO quotes VALUES (5, 10, '2022-06-01', 13)");
+
+			QuotesUniqueIndexMigration migration = new QuotesUniqueIndexMigration();
+			migration.jdbcTemplate = jdbcTemplate;
+			migration.transactionManager = new DataSourceTransactionManager(database);
+
+			assertEquals(2, migration.migrate());
+
+			// the greatest quote id of each investment and date is kept
+			List<Long> quoteIds = jdbcTemplate.queryForList("SELECT quote_id FROM quotes ORDER BY quote_id", Long.class);
+			assertEquals(List.of(3L, 4L, 5L), quoteIds);
+
+			// a second run finds nothing to delete and the index already exists
+			assertEquals(0, migration.migrate());
+
+			assertThrows(DuplicateKeyException.class, () -> {
+				jdbcTemplate.update("INSERT INTO quotes VALUES (6, 10, '2022-06-02', 14)");
+			});
+		}
+		finally {
+			database.shutdown();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
+import com.brenner.portfoliomgmt.data.repo.QuotesRepository;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+import com.brenner.portfoliomgmt.test.EntityTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		LatestQuoteCache.class,
+		QuotesRepository.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class LatestQuoteCacheTests {
+
+	@MockBean QuotesRepository quotesRepo;
+
+	@Autowired LatestQuoteCache latestQuoteCache;
+
+	@Test
+	public void testWarm_Success() throws Exception {
+
+		QuoteDTO aapl = EntityTestData.getQuoteAAPL();
+		QuoteDTO fb = EntityTestData.getQuoteFB();
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(Arrays.asList(aapl, fb));
+
+		this.latestQuoteCache.warm();
+
+		assertEquals(2, this.latestQuoteCache.size());
+		assertEquals(aapl.getClose(), this.latestQuoteCache.getLatestQuote(aapl.getInvestment().getInvestmentId()).getClose());
+		assertEquals(fb.getQuoteId(), this.latestQuoteCache.getLatestQuote(fb.getInvestment().getInvestmentId()).getQuoteId());
+		assertNull(this.latestQuoteCache.getLatestQuote(EntityTestData.getInvestmentGE().getInvestmentId()));
+		assertEquals(fb.getClose(), this.latestQuoteCache.getLatestClose(fb.getInvestment().getInvestmentId()));
+		assertNull(this.latestQuoteCache.getLatestClose(EntityTestData.getInvestmentGE().getInvestmentId()));
+	}
+
+	@Test
+	public void testUpdateKeepsMostRecent_Success() throws Exception {
+
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(new ArrayList<>());
+		this.latestQuoteCache.warm();
+
+		Quote current = DomainTestData.getQuoteAAPL();
+		Long investmentId = current.getInvestment().getInvestmentId();
+		this.latestQuoteCache.update(current);
+
+		Quote older = DomainTestData.getQuoteAAPL();
+		older.setQuoteId(99L);
+		older.setDate(new Date(current.getDate().getTime() - 86400000L));
+		this.latestQuoteCache.update(older);
+
+		assertEquals(current.getQuoteId(), this.latestQuoteCache.getLatestQuote(investmentId).getQuoteId());
+
+		Quote newer = DomainTestData.getQuoteAAPL();
+		newer.setQuoteId(100L);
+		newer.setClose(BigDecimal.valueOf(12));
+		newer.setDate(new Date(current.getDate().getTime() + 86400000L));
+		this.latestQuoteCache.update(newer);
+
+		Quote cached = this.latestQuoteCache.getLatestQuote(investmentId);
+		assertEquals(newer.getQuoteId(), cached.getQuoteId());
+		assertEquals(newer.getClose(), cached.getClose());
+		assertNotSame(newer, cached);
+	}
+
+	@Test
+	public void testRefreshRemovesDeletedQuote_Success() throws Exception {
+
+		QuoteDTO aapl = EntityTestData.getQuoteAAPL();
+		Long investmentId = aapl.getInvestment().getInvestmentId();
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(Collections.singletonList(aapl));
+		this.latestQuoteCache.warm();
+
+		Mockito.when(this.quotesRepo.findMostRecentQuotesForInvestmentIds(Collections.singletonList(investmentId)))
+			.thenReturn(new ArrayList<>());
+		this.latestQuoteCache.refresh(investmentId);
+
+		assertNull(this.latestQuoteCache.getLatestQuote(investmentId));
+		assertEquals(0, this.latestQuoteCache.size());
+	}
+
+	@Test
+	public void testRefreshAll_Success() throws Exception {
+
+		QuoteDTO aapl = EntityTestData.getQuoteAAPL();
+		QuoteDTO fb = EntityTestData.getQuoteFB();
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(Arrays.asList(aapl, fb));
+		this.latestQuoteCache.warm();
+
+		Long aaplId = aapl.getInvestment().getInvestmentId();
+		Long fbId = fb.getInvestment().getInvestmentId();
+		QuoteDTO newAapl = EntityTestData.getQuoteAAPL();
+		newAapl.setQuoteId(99L);
+		Mockito.when(this.quotesRepo.findMostRecentQuotesForInvestmentIds(Arrays.asList(aaplId, fbId)))
+			.thenReturn(Collections.singletonList(newAapl));
+
+		this.latestQuoteCache.refreshAll(Arrays.asList(aaplId, fbId));
+
+		assertEquals(99L, this.latestQuoteCache.getLatestQuote(aaplId).getQuoteId());
+		assertNull(this.latestQuoteCache.getLatestQuote(fbId));
+		assertEquals(1, this.latestQuoteCache.size());
+	}
+
+	@Test
+	public void testUpdateAppliedOnCommit_Success() throws Exception {
+
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(new ArrayList<>());
+		this.latestQuoteCache.warm();
+
+		Quote quote = DomainTestData.getQuoteAAPL();
+		Long investmentId = quote.getInvestment().getInvestmentId();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			this.latestQuoteCache.update(quote);
+			this.latestQuoteCache.refreshAll(Collections.singletonList(EntityTestData.getInvestmentGE().getInvestmentId()));
+			assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+			// readers do not see the quote before it is committed
+			assertNull(this.latestQuoteCache.getLatestQuote(investmentId));
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCommit();
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(quote.getQuoteId(), this.latestQuoteCache.getLatestQuote(investmentId).getQuoteId());
+		assertNull(TransactionSynchronizationManager.getResource(this.latestQuoteCache));
+	}
+
+	@Test
+	public void testUpdateInRolledBackTransaction_Success() throws Exception {
+
+		QuoteDTO aapl = EntityTestData.getQuoteAAPL();
+		Long investmentId = aapl.getInvestment().getInvestmentId();
+		Mockito.when(this.quotesRepo.findMostRecentQuotes()).thenReturn(Collections.singletonList(aapl));
+		this.latestQuoteCache.warm();
+
+		Quote newer = DomainTestData.getQuoteAAPL();
+		newer.setQuoteId(100L);
+		newer.setDate(new Date(aapl.getDate().getTime() + 86400000L));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			this.latestQuoteCache.update(newer);
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(aapl.getQuoteId(), this.latestQuoteCache.getLatestQuote(investmentId).getQuoteId());
+	}
+}
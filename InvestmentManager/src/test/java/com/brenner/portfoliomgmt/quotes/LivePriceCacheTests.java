@@ -0,0 +1,158 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
+import com.brenner.portfoliomgmt.data.repo.InvestmentsRepository;
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteBatchDispatcher;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.IEXQuoteRetrievalService;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		LivePriceCache.class,
+		InvestmentsRepository.class,
+		QuoteBatchDispatcher.class,
+		IEXQuoteRetrievalService.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class LivePriceCacheTests {
+
+	@MockBean InvestmentsRepository investmentsRepo;
+	@MockBean QuoteBatchDispatcher quoteBatchDispatcher;
+	@MockBean IEXQuoteRetrievalService quoteService;
+
+	@Autowired LivePriceCache livePriceCache;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testGetFreshQuotes_Success() throws Exception {
+
+		InvestmentDTO aapl = new InvestmentDTO();
+		aapl.setInvestmentId(1L);
+		aapl.setSymbol("AAPL");
+		InvestmentDTO ge = new InvestmentDTO();
+		ge.setInvestmentId(2L);
+		ge.setSymbol("GE");
+		Mockito.when(this.investmentsRepo.findInvestmentsForHoldingsOrderedBySymbol()).thenReturn(Arrays.asList(aapl, ge));
+
+		Quote quote = new Quote();
+		quote.setClose(BigDecimal.valueOf(150));
+		Map<String, Quote> quotes = new HashMap<>();
+		quotes.put("AAPL", quote);
+		quotes.put("GE", new Quote());
+		Mockito.when(this.quoteBatchDispatcher.getBatchQuotes(ArgumentMatchers.anyList(), ArgumentMatchers.eq(this.quoteService)))
+			.thenReturn(new BatchQuotes(quotes));
+
+		// the first read does not wait on the provider
+		assertTrue(this.livePriceCache.getFreshQuotes().isEmpty());
+
+		Map<Long, Quote> freshQuotes = this.awaitFreshQuotes();
+		assertEquals(1, freshQuotes.size());
+		assertEquals(quote, freshQuotes.get(1L));
+
+		// fresh reads are served without another request
+		this.livePriceCache.getFreshQuotes();
+		Mockito.verify(this.quoteBatchDispatcher, Mockito.times(1)).getBatchQuotes(ArgumentMatchers.anyList(), ArgumentMatchers.eq(this.quoteService));
+
+		Mockito.verify(this.quoteBatchDispatcher).getBatchQuotes(
+				ArgumentMatchers.argThat(symbols -> ((List<String>) symbols).containsAll(Arrays.asList("AAPL", "GE"))),
+				ArgumentMatchers.eq(this.quoteService));
+	}
+
+	@Test
+	public void testGetFreshQuotesAfterTtl_Success() throws Exception {
+
+		InvestmentDTO aapl = new InvestmentDTO();
+		aapl.setInvestmentId(1L);
+		aapl.setSymbol("AAPL");
+		Mockito.when(this.investmentsRepo.findInvestmentsForHoldingsOrderedBySymbol()).thenReturn(Arrays.asList(aapl));
+
+		Quote quote = new Quote();
+		quote.setClose(BigDecimal.valueOf(150));
+		Map<String, Quote> quotes = new HashMap<>();
+		quotes.put("AAPL", quote);
+		Mockito.when(this.quoteBatchDispatcher.getBatchQuotes(ArgumentMatchers.anyList(), ArgumentMatchers.eq(this.quoteService)))
+			.thenReturn(new BatchQuotes(quotes));
+
+		LivePriceCache cache = new LivePriceCache();
+		// every read is past the TTL
+		cache.ttlSeconds = 0;
+		cache.maxAgeSeconds = 60;
+		cache.investmentsRepo = this.investmentsRepo;
+		cache.quoteBatchDispatcher = this.quoteBatchDispatcher;
+		cache.quoteService = this.quoteService;
+
+		cache.refresh();
+
+		// the expired quotes are served while the background refresh runs
+		assertEquals(quote, cache.getFreshQuotes().get(1L));
+		Mockito.verify(this.quoteBatchDispatcher, Mockito.timeout(2000).times(2))
+			.getBatchQuotes(ArgumentMatchers.anyList(), ArgumentMatchers.eq(this.quoteService));
+
+		// past the max age the reports fall back to the stored prices
+		cache.maxAgeSeconds = 0;
+		assertTrue(cache.getFreshQuotes().isEmpty());
+		cache.shutdown();
+	}
+
+	@Test
+	public void testGetFreshQuotes_Fail() throws Exception {
+
+		Mockito.when(this.investmentsRepo.findInvestmentsForHoldingsOrderedBySymbol()).thenReturn(Arrays.asList());
+		Mockito.when(this.quoteBatchDispatcher.getBatchQuotes(ArgumentMatchers.anyList(), ArgumentMatchers.eq(this.quoteService)))
+			.thenThrow(new QuoteRetrievalException("Provider unavailable"));
+
+		LivePriceCache cache = new LivePriceCache();
+		cache.ttlSeconds = 60;
+		cache.maxAgeSeconds = 900;
+		cache.investmentsRepo = this.investmentsRepo;
+		cache.quoteBatchDispatcher = this.quoteBatchDispatcher;
+		cache.quoteService = this.quoteService;
+
+		cache.refresh();
+
+		// the failed refresh leaves no quotes, reports fall back to the stored prices
+		assertTrue(cache.getFreshQuotes().isEmpty());
+		cache.shutdown();
+	}
+
+	private Map<Long, Quote> awaitFreshQuotes() throws InterruptedException {
+
+		for (int i=0; i<100; i++) {
+			Map<Long, Quote> freshQuotes = this.livePriceCache.getFreshQuotes();
+			if (! freshQuotes.isEmpty()) {
+				return freshQuotes;
+			}
+			Thread.sleep(20);
+		}
+		return this.livePriceCache.getFreshQuotes();
+	}
+}
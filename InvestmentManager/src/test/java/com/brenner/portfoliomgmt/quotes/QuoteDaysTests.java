@@ -0,0 +1,72 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class QuoteDaysTests {
+
+	@Test
+	public void testContains_Success() throws Exception {
+
+		LocalDate windowStart = new LocalDate(2022, 5, 2);
+
+		QuoteDays quoteDays = QuoteDays.of(windowStart.toDate(), Arrays.asList(
+				windowStart.toDate(),
+				windowStart.plusDays(3).toDate(),
+				new java.sql.Date(windowStart.plusDays(10).toDate().getTime()),
+				null));
+
+		assertEquals(3, quoteDays.size());
+		assertTrue(quoteDays.contains(windowStart.toDate()));
+		assertTrue(quoteDays.contains(windowStart.plusDays(10).toDate()));
+		assertFalse(quoteDays.contains(windowStart.plusDays(1).toDate()));
+		assertFalse(quoteDays.contains(null));
+	}
+
+	@Test
+	public void testContainsMatchesOnDay_Success() throws Exception {
+
+		LocalDate windowStart = new LocalDate(2022, 5, 2);
+		QuoteDays quoteDays = QuoteDays.of(windowStart.toDate(), Arrays.asList(windowStart.plusDays(1).toDate()));
+
+		// a quote taken later in the day is still a quote for that day
+		assertTrue(quoteDays.contains(new DateTime(2022, 5, 3, 16, 30).toDate()));
+	}
+
+	@Test
+	public void testDaysOutsideWindowIgnored_Success() throws Exception {
+
+		LocalDate windowStart = new LocalDate(2022, 5, 2);
+
+		QuoteDays quoteDays = QuoteDays.of(windowStart.toDate(), Arrays.asList(
+				windowStart.minusDays(1).toDate(),
+				windowStart.minusYears(2).toDate()));
+
+		assertEquals(0, quoteDays.size());
+		assertFalse(quoteDays.contains(windowStart.minusDays(1).toDate()));
+	}
+
+	@Test
+	public void testEmpty_Success() throws Exception {
+
+		QuoteDays quoteDays = QuoteDays.of(new LocalDate(2022, 5, 2).toDate(), null);
+
+		assertEquals(0, quoteDays.size());
+		assertFalse(quoteDays.contains(new LocalDate(2022, 5, 2).toDate()));
+	}
+}
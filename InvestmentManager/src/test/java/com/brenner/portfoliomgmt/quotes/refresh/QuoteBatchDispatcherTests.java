@@ -0,0 +1,133 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuoteBatchDispatcher.class,
+		QuoteBatchConfig.class,
+		ProviderRateLimiters.class
+}, properties = {
+		"quotes.refresh.rate-limit.default=0",
+		"quotes.batch.parallelism=3",
+		"quotes.batch.chunk-size.default=100",
+		"quotes.batch.chunk-size.StubQuoteRetrievalService=5"
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class QuoteBatchDispatcherTests {
+
+	@Autowired QuoteBatchDispatcher quoteBatchDispatcher;
+
+	@Test
+	public void testGetBatchQuotes_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(0, 50);
+
+		List<String> symbols = generateSymbols(23);
+		// holdings in the same investment repeat its symbol
+		symbols.addAll(generateSymbols(10));
+		symbols.add(" ");
+		symbols.add(null);
+
+		BatchQuotes batchQuotes = this.quoteBatchDispatcher.getBatchQuotes(symbols, provider);
+
+		assertEquals(23, batchQuotes.getQuotes().size());
+		assertFalse(batchQuotes.isPartial());
+		assertEquals(5, provider.getCalls());
+		for (List<String> batch : provider.getBatches()) {
+			assertTrue(batch.size() <= 5, "no more than the provider chunk size per request");
+		}
+		assertTrue(provider.getMaxInFlight() > 1, "chunks should be requested concurrently");
+		assertTrue(provider.getMaxInFlight() <= 3, "no more than quotes.batch.parallelism chunks in flight");
+	}
+
+	@Test
+	public void testGetBatchQuotesPartialFailure_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(0, 0, "SYM7");
+
+		BatchQuotes batchQuotes = this.quoteBatchDispatcher.getBatchQuotes(generateSymbols(12), provider);
+
+		// SYM7 fails the chunk SYM5..SYM9
+		assertTrue(batchQuotes.isPartial());
+		assertEquals(7, batchQuotes.getQuotes().size());
+		assertEquals(Arrays.asList("SYM5", "SYM6", "SYM7", "SYM8", "SYM9"), new ArrayList<>(batchQuotes.getFailedSymbols().keySet()));
+		assertTrue(batchQuotes.getFailedSymbols().get("SYM5").contains("SYM7"));
+		assertFalse(batchQuotes.getQuotes().containsKey("SYM5"));
+	}
+
+	@Test
+	public void testGetBatchQuotesAllChunksFail_Fail() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(0, 0, "SYM0");
+
+		assertThrows(QuoteRetrievalException.class, () -> {
+			this.quoteBatchDispatcher.getBatchQuotes(generateSymbols(3), provider);
+		});
+	}
+
+	@Test
+	public void testGetBatchQuotesEmpty_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(0, 0);
+
+		BatchQuotes batchQuotes = this.quoteBatchDispatcher.getBatchQuotes(new ArrayList<>(), provider);
+
+		assertTrue(batchQuotes.getQuotes().isEmpty());
+		assertEquals(0, provider.getCalls());
+	}
+
+	@Test
+	public void testGetBatchQuotesNullSymbols_Fail() throws Exception {
+
+		assertThrows(InvalidRequestException.class, () -> {
+			this.quoteBatchDispatcher.getBatchQuotes(null, new StubQuoteRetrievalService(0, 0));
+		});
+	}
+
+	@Test
+	public void testChunk_Success() throws Exception {
+
+		List<List<String>> chunks = QuoteBatchDispatcher.chunk(generateSymbols(11), 4);
+
+		assertEquals(3, chunks.size());
+		assertEquals(4, chunks.get(0).size());
+		assertEquals(3, chunks.get(2).size());
+		assertEquals("SYM10", chunks.get(2).get(2));
+	}
+
+	private static List<String> generateSymbols(int count) {
+
+		List<String> symbols = new ArrayList<>(count);
+		for (int i=0; i<count; i++) {
+			symbols.add("SYM" + i);
+		}
+		return symbols;
+	}
+}
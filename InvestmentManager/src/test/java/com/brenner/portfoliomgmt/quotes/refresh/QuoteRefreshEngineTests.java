@@ -0,0 +1,197 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuoteRefreshEngine.class,
+		ProviderRateLimiters.class
+}, properties = {
+		"quotes.refresh.parallelism=4",
+		"quotes.refresh.rate-limit.default=0",
+		"quotes.refresh.rate-limit.RateLimitedStub=20"
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class QuoteRefreshEngineTests {
+
+	@Autowired QuoteRefreshEngine quoteRefreshEngine;
+
+	@Autowired ProviderRateLimiters providerRateLimiters;
+
+	@Test
+	public void testRefresh_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(3, 10);
+		Map<String, List<Quote>> stored = new ConcurrentHashMap<>();
+
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(generateInvestments(12), provider, new StoringRefresh(stored));
+
+		assertNotNull(report);
+		assertEquals("StubQuoteRetrievalService", report.getProvider());
+		assertEquals(12, report.getResults().size());
+		assertEquals(12, report.getFetchedSymbols().size());
+		assertEquals(12, report.getInsertedSymbols().size());
+		assertTrue(report.getFailedSymbols().isEmpty());
+		assertEquals(36, report.getQuotesInserted());
+		assertEquals(12, stored.size());
+
+		// results are reported in the order the investments were supplied
+		assertEquals("SYM0", report.getResults().get(0).getSymbol());
+		assertEquals("SYM11", report.getResults().get(11).getSymbol());
+	}
+
+	@Test
+	public void testRefreshBoundedParallelism_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(1, 50);
+
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(generateInvestments(16), provider, new StoringRefresh(new ConcurrentHashMap<>()));
+
+		assertEquals(16, provider.getCalls());
+		assertEquals(16, report.getFetchedSymbols().size());
+		assertTrue(provider.getMaxInFlight() > 1, "investments should be refreshed concurrently");
+		assertTrue(provider.getMaxInFlight() <= 4, "no more than quotes.refresh.parallelism investments in flight");
+	}
+
+	@Test
+	public void testRefreshFailureIsolated_Fail() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(2, 0, "SYM1", "SYM4");
+		Map<String, List<Quote>> stored = new ConcurrentHashMap<>();
+
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(generateInvestments(6), provider, new StoringRefresh(stored));
+
+		assertEquals(6, provider.getCalls());
+		assertEquals(Arrays.asList("SYM1", "SYM4"), report.getFailedSymbols());
+		assertEquals(Arrays.asList("SYM0", "SYM2", "SYM3", "SYM5"), report.getFetchedSymbols());
+		assertEquals(8, report.getQuotesInserted());
+		assertFalse(stored.containsKey("SYM1"));
+
+		SymbolRefreshResult failed = report.getResults().get(1);
+		assertTrue(failed.isFailed());
+		assertEquals("IOException: Unable to retrieve quotes for SYM1", failed.getError());
+		assertEquals(0, failed.getQuotesInserted());
+	}
+
+	@Test
+	public void testRefreshStoreFailureIsolated_Fail() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(2, 0);
+		Map<String, List<Quote>> stored = new ConcurrentHashMap<>();
+		StoringRefresh refresh = new StoringRefresh(stored) {
+			@Override
+			public int store(Investment investment, List<Quote> quotes) {
+				if (investment.getSymbol().equals("SYM2")) {
+					throw new IllegalStateException("constraint violation");
+				}
+				return super.store(investment, quotes);
+			}
+		};
+
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(generateInvestments(3), provider, refresh);
+
+		assertEquals(Arrays.asList("SYM2"), report.getFailedSymbols());
+		assertEquals(2, report.getInsertedSymbols().size());
+		assertEquals(2, report.getResults().get(2).getQuotesFetched());
+	}
+
+	@Test
+	public void testRefreshRateLimited_Success() throws Exception {
+
+		QuoteRetrievalService provider = new RateLimitedStub(1, 0);
+
+		long start = System.currentTimeMillis();
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(generateInvestments(6), provider, new StoringRefresh(new ConcurrentHashMap<>()));
+		long elapsed = System.currentTimeMillis() - start;
+
+		assertEquals(6, report.getFetchedSymbols().size());
+		assertEquals(20, this.providerRateLimiters.getRateLimiter("RateLimitedStub").getRequestsPerSecond(), 0.01);
+		// 6 requests at 20 per second are spread over at least 250ms
+		assertTrue(elapsed >= 240, "requests should be spaced by the provider rate limit, took " + elapsed + "ms");
+	}
+
+	@Test
+	public void testRefreshNoInvestments_Success() throws Exception {
+
+		StubQuoteRetrievalService provider = new StubQuoteRetrievalService(1, 0);
+
+		QuoteRefreshReport report = this.quoteRefreshEngine.refresh(new ArrayList<>(), provider, new StoringRefresh(new ConcurrentHashMap<>()));
+
+		assertNotNull(report);
+		assertTrue(report.getResults().isEmpty());
+		assertEquals(0, provider.getCalls());
+	}
+
+	private static List<Investment> generateInvestments(int count) {
+		List<Investment> investments = new ArrayList<>(count);
+		for (int i=0; i<count; i++) {
+			Investment investment = new Investment(Long.valueOf(i));
+			investment.setSymbol("SYM" + i);
+			investments.add(investment);
+		}
+		return investments;
+	}
+
+	/**
+	 * Fetches through the supplied provider and records what would be persisted
+	 */
+	private static class StoringRefresh implements InvestmentQuotesRefresh {
+
+		private final Map<String, List<Quote>> stored;
+
+		StoringRefresh(Map<String, List<Quote>> stored) {
+			this.stored = stored;
+		}
+
+		@Override
+		public List<Quote> fetch(Investment investment, QuoteRetrievalService retrievalService) throws Exception {
+			return retrievalService.getNewQuotesForInvestment(investment, new Date(), QuoteDays.of(new Date(), null));
+		}
+
+		@Override
+		public int store(Investment investment, List<Quote> quotes) {
+			this.stored.put(investment.getSymbol(), quotes);
+			return quotes.size();
+		}
+	}
+
+	/**
+	 * Distinct provider class so it picks up its own rate limit
+	 */
+	private static class RateLimitedStub extends StubQuoteRetrievalService {
+
+		RateLimitedStub(int quotesPerInvestment, long delayMillis) {
+			super(quotesPerInvestment, delayMillis);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.refresh;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.exception.QuoteRetrievalException;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+
+/**
+ * Quote provider stand in for refresh and batch tests. Returns a fixed number of new quotes per investment, or one quote
+ * per batch symbol, after a simulated network delay, fails for the configured symbols and records call counts, the
+ * requested batches and the peak number of concurrent calls.
+ *
+ * @author dbrenner
+ *
+ */
+public class StubQuoteRetrievalService implements QuoteRetrievalService {
+
+	private final int quotesPerInvestment;
+
+	private final long delayMillis;
+
+	private final Set<String> failingSymbols = new HashSet<>();
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	private final Queue<List<String>> batches = new ConcurrentLinkedQueue<>();
+
+	public StubQuoteRetrievalService(int quotesPerInvestment, long delayMillis, String... failingSymbols) {
+		this.quotesPerInvestment = quotesPerInvestment;
+		this.delayMillis = delayMillis;
+		for (String symbol : failingSymbols) {
+			this.failingSymbols.add(symbol);
+		}
+	}
+
+	@Override
+	public List<Quote> getNewQuotesForInvestment(Investment investment, Date maxQuoteDate, QuoteDays existingQuoteDays)
+			throws IOException {
+
+		this.calls.incrementAndGet();
+		this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(this.delayMillis);
+
+			if (this.failingSymbols.contains(investment.getSymbol())) {
+				throw new IOException("Unable to retrieve quotes for " + investment.getSymbol());
+			}
+
+			List<Quote> quotes = new ArrayList<>(this.quotesPerInvestment);
+			for (int i=1; i<=this.quotesPerInvestment; i++) {
+				quotes.add(new Quote(null, new Date(maxQuoteDate.getTime() + i * 86400000L), BigDecimal.ONE, BigDecimal.TEN,
+						BigDecimal.TEN, BigDecimal.ONE, 1000, BigDecimal.ZERO, null, null, investment));
+			}
+			return quotes;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		finally {
+			this.inFlight.decrementAndGet();
+		}
+	}
+
+	@Override
+	public Quote getQuote(String symbol) throws QuoteRetrievalException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public BatchQuotes getBatchQuotes(List<String> symbols) throws QuoteRetrievalException {
+
+		this.calls.incrementAndGet();
+		this.batches.add(new ArrayList<>(symbols));
+		this.maxInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(this.delayMillis);
+
+			Map<String, Quote> quotes = new HashMap<>();
+			for (String symbol : symbols) {
+				if (this.failingSymbols.contains(symbol)) {
+					throw new QuoteRetrievalException("Unable to retrieve quotes for " + symbol);
+				}
+				quotes.put(symbol, new Quote(null, new Date(), BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ONE,
+						1000, BigDecimal.ZERO, null, null, new Investment(null, symbol, null, null, null, null)));
+			}
+			return new BatchQuotes(quotes);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QuoteRetrievalException(e);
+		}
+		finally {
+			this.inFlight.decrementAndGet();
+		}
+	}
+
+	@Override
+	public HistoricalQuotes getHistoricalQuotesForSymbol(String symbol, int numMonths) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public BatchHistoricalQuotes getSixMonthsHistoricalChartsForSymbols(List<String> symbols) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	public int getCalls() {
+		return this.calls.get();
+	}
+
+	public Queue<List<String>> getBatches() {
+		return this.batches;
+	}
+
+	public int getMaxInFlight() {
+		return this.maxInFlight.get();
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.retrievalservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.quotes.QuoteDays;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class IEXQuoteRetrievalServiceTests {
+
+	private static final LocalDate WINDOW_START = new LocalDate(2022, 5, 2);
+
+	@Test
+	public void testSelectNewQuotes_Success() throws Exception {
+
+		Investment investment = DomainTestData.getInvestmentAAPL();
+		HistoricalQuotes chart = generateChart(10);
+
+		// days 0 - 4 are stored, day 6 was added manually after the max quote date was read
+		QuoteDays existingQuoteDays = QuoteDays.of(WINDOW_START.toDate(), Arrays.asList(
+				WINDOW_START.toDate(), WINDOW_START.plusDays(4).toDate(), WINDOW_START.plusDays(6).toDate()));
+
+		List<Quote> newQuotes = IEXQuoteRetrievalService.selectNewQuotes(
+				investment, WINDOW_START.plusDays(4).toDate(), existingQuoteDays, chart);
+		newQuotes.sort(Comparator.comparing(Quote::getDate));
+
+		assertEquals(4, newQuotes.size());
+		assertEquals(WINDOW_START.plusDays(5).toDate(), newQuotes.get(0).getDate());
+		assertEquals(WINDOW_START.plusDays(7).toDate(), newQuotes.get(1).getDate());
+		assertEquals(WINDOW_START.plusDays(9).toDate(), newQuotes.get(3).getDate());
+		assertSame(investment, newQuotes.get(0).getInvestment());
+	}
+
+	@Test
+	public void testSelectNewQuotesNoMaxQuoteDate_Success() throws Exception {
+
+		List<Quote> newQuotes = IEXQuoteRetrievalService.selectNewQuotes(
+				DomainTestData.getInvestmentAAPL(), null, null, generateChart(5));
+
+		assertEquals(5, newQuotes.size());
+	}
+
+	@Test
+	public void testSelectNewQuotesNoChart_Success() throws Exception {
+
+		List<Quote> newQuotes = IEXQuoteRetrievalService.selectNewQuotes(
+				DomainTestData.getInvestmentAAPL(), WINDOW_START.toDate(), QuoteDays.of(WINDOW_START.toDate(), null), null);
+
+		assertTrue(newQuotes.isEmpty());
+	}
+
+	private static HistoricalQuotes generateChart(int days) {
+
+		Map<Date, Quote> quotes = new HashMap<>();
+		for (int i=0; i<days; i++) {
+			Date date = WINDOW_START.plusDays(i).toDate();
+			quotes.put(date, new Quote(null, date, BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ONE, 1000,
+					BigDecimal.ZERO, null, null, null));
+		}
+		return new HistoricalQuotes(quotes);
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.retrievalservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuoteHttpClientConfig.class,
+		SimpleMeterRegistry.class
+}, properties = {
+		"quotes.http.max-connections=12",
+		"quotes.http.max-connections-per-route=4"
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class QuoteHttpClientConfigTests {
+
+	@Autowired PoolingHttpClientConnectionManager quoteConnectionManager;
+
+	@Autowired RestTemplate quoteRestTemplate;
+
+	@Autowired SimpleMeterRegistry meterRegistry;
+
+	@Test
+	public void testPooledClient_Success() throws Exception {
+
+		assertEquals(12, this.quoteConnectionManager.getMaxTotal());
+		assertEquals(4, this.quoteConnectionManager.getDefaultMaxPerRoute());
+		assertTrue(this.quoteRestTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory);
+	}
+
+	@Test
+	public void testPoolMetricsRegistered_Success() throws Exception {
+
+		assertNotNull(this.meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+				.tag("httpclient", QuoteHttpClientConfig.POOL_NAME).gauge());
+		assertEquals(12, this.meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+				.tag("httpclient", QuoteHttpClientConfig.POOL_NAME).gauge().value());
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.quotes.retrievalservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.brenner.portfoliomgmt.domain.BatchQuotes;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.BatchHistoricalQuotes;
+import com.brenner.portfoliomgmt.domain.reporting.HistoricalQuotes;
+import com.brenner.portfoliomgmt.util.CommonUtils;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class QuoteJsonReadersTests {
+
+	private static final String CHART_ROWS =
+			"[{\"date\":\"2022-06-01\",\"open\":191.2293,\"high\":191.5283,\"low\":188.4092,\"close\":189.5,"
+			+ "\"volume\":21029535,\"uOpen\":191.2293,\"change\":-1.0663,\"changePercent\":-0.5544,"
+			+ "\"label\":\"Jun 1, 22\",\"changeOverTime\":[0,1]},"
+			+ "{\"date\":\"2022-06-02\",\"open\":189.1,\"high\":190,\"low\":188,\"close\":189.9,\"volume\":null}]";
+
+	@Test
+	public void testHistoricalQuotes_Success() throws Exception {
+
+		HistoricalQuotes quotes = QuoteJsonReaders.HISTORICAL_QUOTES.readValue(CHART_ROWS);
+
+		Date june1 = CommonUtils.convertDatePickerDateFormatStringToDate("2022-06-01");
+		Date june2 = CommonUtils.convertDatePickerDateFormatStringToDate("2022-06-02");
+
+		assertEquals(2, quotes.getQuotes().size());
+		Quote q = quotes.getQuotes().get(june1);
+		assertNotNull(q);
+		assertEquals(june1, q.getDate());
+		assertEquals(new BigDecimal("191.2293"), q.getOpen());
+		assertEquals(new BigDecimal("189.5"), q.getClose());
+		assertEquals(new BigDecimal("-1.0663"), q.getPriceChange());
+		assertEquals(21029535, q.getVolume());
+		assertNull(quotes.getQuotes().get(june2).getVolume());
+	}
+
+	@Test
+	public void testHistoricalQuotesNotAnArray_Fail() throws Exception {
+
+		assertThrows(JsonMappingException.class, () -> {
+			QuoteJsonReaders.HISTORICAL_QUOTES.readValue("{\"date\":\"2022-06-01\"}");
+		});
+	}
+
+	@Test
+	public void testBatchHistoricalQuotes_Success() throws Exception {
+
+		String json = "{\"AAPL\":{\"quote\":{\"symbol\":\"AAPL\"},\"chart\":" + CHART_ROWS + "},"
+				+ "\"FB\":{\"chart\":[]}}";
+
+		BatchHistoricalQuotes quotes = QuoteJsonReaders.BATCH_HISTORICAL_QUOTES.readValue(json);
+
+		List<Quote> aapl = quotes.getQuotesMap().get("AAPL");
+		assertEquals(2, aapl.size());
+		assertEquals("AAPL", aapl.get(1).getInvestment().getSymbol());
+		assertEquals(new BigDecimal("189.9"), aapl.get(1).getClose());
+		assertEquals(0, quotes.getQuotesMap().get("FB").size());
+	}
+
+	@Test
+	public void testIexBatchQuotes_Success() throws Exception {
+
+		String json = "{\"AAPL\":{\"quote\":{\"symbol\":\"AAPL\",\"companyName\":\"Apple Inc.\",\"primaryExchange\":\"NASDAQ\","
+				+ "\"iexOpen\":145.1,\"iexClose\":146.2,\"high\":147,\"low\":144.5,\"avgTotalVolume\":80000000,"
+				+ "\"change\":1.1,\"week52High\":182.94,\"week52Low\":129.04,\"isUSMarketOpen\":false},\"news\":[{}]},"
+				+ "\"FB\":{\"quote\":{\"iexClose\":160}}}";
+
+		BatchQuotes quotes = QuoteJsonReaders.BATCH_QUOTES.readValue(json);
+
+		assertEquals(2, quotes.getQuotes().size());
+		Quote aapl = quotes.getQuotes().get("AAPL");
+		assertEquals(new BigDecimal("146.2"), aapl.getClose());
+		assertEquals(new BigDecimal("145.1"), aapl.getOpen());
+		assertEquals(80000000, aapl.getVolume());
+		assertEquals("Apple Inc.", aapl.getInvestment().getCompanyName());
+		assertEquals("NASDAQ", aapl.getInvestment().getExchange());
+		// the symbol falls back to the batch key when the quote does not carry one
+		assertEquals("FB", quotes.getQuotes().get("FB").getInvestment().getSymbol());
+	}
+
+	@Test
+	public void testYahooBatchQuotes_Success() throws Exception {
+
+		String json = "{\"quoteResponse\":{\"result\":[{\"language\":\"en-US\",\"quoteSummary\":{\"earnings\":{\"maxAge\":86400}},"
+				+ "\"regularMarketChange\":0.41999817,\"regularMarketOpen\":137.14,\"regularMarketPreviousClose\":137.08,"
+				+ "\"regularMarketVolume\":2037313,\"targetPriceHigh\":166.0,\"targetPriceLow\":115.0,"
+				+ "\"fiftyTwoWeekLow\":114.56,\"fiftyTwoWeekHigh\":144.73,\"components\":[\"^DJI\"],"
+				+ "\"fullExchangeName\":\"NYSE\",\"longName\":\"International Business Machines Corporation\",\"symbol\":\"IBM\"}],"
+				+ "\"error\":null}}";
+
+		BatchQuotes quotes = QuoteJsonReaders.YAHOO_BATCH_QUOTES.readValue(json);
+
+		Quote ibm = quotes.getQuotes().get("IBM");
+		assertNotNull(ibm);
+		assertNotNull(ibm.getDate());
+		assertEquals(new BigDecimal("137.08"), ibm.getClose());
+		assertEquals(new BigDecimal("137.14"), ibm.getOpen());
+		assertEquals(new BigDecimal("144.73"), ibm.getWeek52High());
+		assertEquals(2037313, ibm.getVolume());
+		assertEquals("NYSE", ibm.getInvestment().getExchange());
+	}
+}
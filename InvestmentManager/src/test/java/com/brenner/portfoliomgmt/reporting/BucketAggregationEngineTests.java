@@ -0,0 +1,99 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingBucket;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		BucketAggregationEngine.class,
+		HoldingBucketSummationMapper.class,
+		LatestQuoteCache.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class BucketAggregationEngineTests {
+
+	@MockBean HoldingBucketSummationMapper bucketSummationMapper;
+	@MockBean LatestQuoteCache latestQuoteCache;
+
+	@Autowired BucketAggregationEngine bucketAggregationEngine;
+
+	@Test
+	public void testAggregate_Success() throws Exception {
+
+		Mockito.when(this.bucketSummationMapper.holdingLots()).thenReturn(Arrays.asList(
+				new HoldingLot(1L, BigDecimal.valueOf(10), BigDecimal.valueOf(5), BucketEnum.BUCKET_1),
+				new HoldingLot(2L, BigDecimal.valueOf(4), BigDecimal.valueOf(20), BucketEnum.BUCKET_1),
+				new HoldingLot(1L, BigDecimal.valueOf(2), BigDecimal.valueOf(6), BucketEnum.BUCKET_3),
+				new HoldingLot(3L, BigDecimal.valueOf(1), BigDecimal.valueOf(100), null)));
+		Mockito.when(this.latestQuoteCache.getLatestClose(1L)).thenReturn(BigDecimal.valueOf(7.5));
+		Mockito.when(this.latestQuoteCache.getLatestClose(2L)).thenReturn(BigDecimal.valueOf(25));
+
+		Map<BucketEnum, HoldingBucket> buckets = this.bucketAggregationEngine.aggregate();
+
+		assertEquals(Arrays.asList(BucketEnum.values()), new ArrayList<>(buckets.keySet()));
+
+		assertEquals(130d, buckets.get(BucketEnum.BUCKET_1).getAmountAtPurchase());
+		assertEquals(175d, buckets.get(BucketEnum.BUCKET_1).getAmount());
+
+		assertEquals(0d, buckets.get(BucketEnum.BUCKET_2).getAmountAtPurchase());
+		assertEquals(0d, buckets.get(BucketEnum.BUCKET_2).getAmount());
+
+		assertEquals(12d, buckets.get(BucketEnum.BUCKET_3).getAmountAtPurchase());
+		assertEquals(15d, buckets.get(BucketEnum.BUCKET_3).getAmount());
+
+		// unassigned lot without quotes only counts towards the purchase value of the excluded bucket
+		assertEquals(100d, buckets.get(BucketEnum.BUCKET_NA).getAmountAtPurchase());
+		assertEquals(0d, buckets.get(BucketEnum.BUCKET_NA).getAmount());
+	}
+
+	@Test
+	public void testAggregateNoLots_Success() throws Exception {
+
+		Map<BucketEnum, HoldingBucket> buckets = this.bucketAggregationEngine.aggregate(new ArrayList<>());
+
+		assertEquals(BucketEnum.values().length, buckets.size());
+		for (HoldingBucket bucket : buckets.values()) {
+			assertEquals(0d, bucket.getAmount());
+			assertEquals(0d, bucket.getAmountAtPurchase());
+		}
+	}
+
+	@Test
+	public void testAggregateNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.bucketAggregationEngine.aggregate(null);
+		});
+
+		assertEquals("lots must be non-null", e.getMessage());
+	}
+}
@@ -0,0 +1,116 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Date;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.BucketSnapshotWriter;
+import com.brenner.portfoliomgmt.data.HoldingsReportingDataService;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.exception.InvestmentManagerServiceException;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		BucketSnapshotJob.class,
+		HoldingsReportingDataService.class,
+		HoldingsReportCache.class,
+		BucketSnapshotWriter.class
+}, properties = "reports.bucket-snapshot.backfill.parallelism=3")
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class BucketSnapshotJobTests {
+
+	@MockBean HoldingsReportingDataService reportingDataService;
+	@MockBean BucketSnapshotWriter bucketSnapshotWriter;
+
+	@Autowired BucketSnapshotJob bucketSnapshotJob;
+
+	@Test
+	public void testSnapshot_Success() throws Exception {
+
+		this.bucketSnapshotJob.snapshot();
+
+		Mockito.verify(this.reportingDataService, Mockito.times(1)).saveBucketSummarySnapShot();
+	}
+
+	@Test
+	public void testSplit_Success() throws Exception {
+
+		List<LocalDate[]> ranges = BucketSnapshotJob.split(new LocalDate(2022, 1, 10), new LocalDate(2022, 1, 1), 3);
+
+		assertEquals(3, ranges.size());
+		assertEquals(new LocalDate(2022, 1, 1), ranges.get(0)[0]);
+		assertEquals(new LocalDate(2022, 1, 4), ranges.get(0)[1]);
+		assertEquals(new LocalDate(2022, 1, 5), ranges.get(1)[0]);
+		assertEquals(new LocalDate(2022, 1, 8), ranges.get(1)[1]);
+		assertEquals(new LocalDate(2022, 1, 9), ranges.get(2)[0]);
+		assertEquals(new LocalDate(2022, 1, 10), ranges.get(2)[1]);
+
+		// fewer dates than parts gives a range per date
+		assertEquals(1, BucketSnapshotJob.split(new LocalDate(2022, 1, 1), new LocalDate(2022, 1, 1), 3).size());
+	}
+
+	@Test
+	public void testBackfill_Success() throws Exception {
+
+		Mockito.when(this.bucketSnapshotWriter.backfill(ArgumentMatchers.any(Date.class), ArgumentMatchers.any(Date.class)))
+			.thenReturn(60);
+
+		Date from = new LocalDate(2020, 1, 1).toDate();
+		Date to = new LocalDate(2022, 12, 31).toDate();
+		BucketBackfillReport report = this.bucketSnapshotJob.backfill(from, to);
+
+		assertEquals(3, report.getRanges());
+		assertEquals(180, report.getSnapshotsWritten());
+		assertEquals(from, report.getFromDate());
+		assertEquals(to, report.getToDate());
+		Mockito.verify(this.bucketSnapshotWriter, Mockito.times(3)).backfill(ArgumentMatchers.any(Date.class), ArgumentMatchers.any(Date.class));
+		Mockito.verify(this.reportingDataService, Mockito.never()).saveBucketSummarySnapShot();
+	}
+
+	@Test
+	public void testBackfillRangeFails_Fail() throws Exception {
+
+		Mockito.when(this.bucketSnapshotWriter.backfill(ArgumentMatchers.any(Date.class), ArgumentMatchers.any(Date.class)))
+			.thenReturn(60)
+			.thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+		assertThrows(InvestmentManagerServiceException.class, () -> {
+			this.bucketSnapshotJob.backfill(new LocalDate(2020, 1, 1).toDate(), new LocalDate(2022, 12, 31).toDate());
+		});
+
+		// the other ranges are still written
+		Mockito.verify(this.bucketSnapshotWriter, Mockito.times(3)).backfill(ArgumentMatchers.any(Date.class), ArgumentMatchers.any(Date.class));
+	}
+
+	@Test
+	public void testBackfillNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.bucketSnapshotJob.backfill(null, new Date());
+		});
+
+		assertEquals("fromDate and toDate must be non-null", e.getMessage());
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class HoldingsReportCacheTests {
+
+	@Test
+	public void testAggregateByTypeAndSector_Success() throws Exception {
+
+		List<HoldingsReport> totals = HoldingsReportCache.aggregateByTypeAndSector(Arrays.asList(
+				DomainTestData.generateHoldingsReport(InvestmentTypeEnum.ETF, "Index", "100", "120"),
+				DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Technology", "50", "40"),
+				DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Technology", "25", null),
+				DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "10", "15")));
+
+		assertEquals(3, totals.size());
+		assertEquals(InvestmentTypeEnum.Stock, totals.get(0).getInvestmentType());
+		assertEquals("Energy", totals.get(0).getSector());
+		assertEquals("Technology", totals.get(1).getSector());
+		assertEquals(new BigDecimal("75"), totals.get(1).getValueAtPurchase());
+		assertEquals(new BigDecimal("40"), totals.get(1).getMarketValue());
+		assertEquals(new BigDecimal("-10"), totals.get(1).getChangeInValue());
+		assertEquals(InvestmentTypeEnum.ETF, totals.get(2).getInvestmentType());
+		assertEquals(new BigDecimal("20"), totals.get(2).getChangeInValue());
+	}
+
+	@Test
+	public void testAggregateByTypeAndSector_Fail() throws Exception {
+
+		assertThrows(InvalidRequestException.class, () -> {
+			HoldingsReportCache.aggregateByTypeAndSector(null);
+		});
+	}
+
+	@Test
+	public void testGetHoldings_Success() throws Exception {
+
+		HoldingsReportCache cache = new HoldingsReportCache();
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<List<HoldingsReport>> loader = () -> {
+			loads.incrementAndGet();
+			return Arrays.asList(DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "10", "15"));
+		};
+
+		List<HoldingsReport> holdings = cache.getHoldings(loader);
+		assertSame(holdings, cache.getHoldings(loader));
+		assertEquals(1, cache.getHoldingsByTypeAndSector(loader).size());
+		assertEquals(1, loads.get());
+
+		cache.invalidate();
+		cache.getHoldingsByTypeAndSector(loader);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testInvalidateInTransaction_Success() throws Exception {
+
+		HoldingsReportCache cache = new HoldingsReportCache();
+		AtomicInteger loads = new AtomicInteger();
+		Supplier<List<HoldingsReport>> loader = () -> {
+			loads.incrementAndGet();
+			return Arrays.asList(DomainTestData.generateHoldingsReport(InvestmentTypeEnum.Stock, "Energy", "10", "15"));
+		};
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.invalidate();
+			cache.invalidate();
+			assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+			// read before the change is committed
+			cache.getHoldings(loader);
+			cache.getHoldings(loader);
+			assertEquals(1, loads.get());
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertNull(TransactionSynchronizationManager.getResource(cache));
+		cache.getHoldings(loader);
+		assertEquals(2, loads.get());
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.data.PortfolioDailyValueWriter;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		PortfolioRollupEngine.class,
+		PortfolioDailyValueWriter.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class PortfolioRollupEngineTests {
+
+	@MockBean PortfolioDailyValueWriter portfolioDailyValueWriter;
+
+	@Autowired PortfolioRollupEngine portfolioRollupEngine;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testQuotesChanged_Success() throws Exception {
+
+		Investment aapl = DomainTestData.getInvestmentAAPL();
+		Investment fb = DomainTestData.getInvestmentFB();
+		List<Quote> quotes = new ArrayList<>(DomainTestData.generateQuotesList(5, aapl));
+		quotes.add(DomainTestData.generateQuote(2, fb));
+
+		this.portfolioRollupEngine.quotesChanged(quotes);
+
+		ArgumentCaptor<Collection<DailyValueSlice>> slices = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).recompute(slices.capture());
+
+		// one slice per investment spanning its earliest to latest quote
+		Date earliest = quotes.get(0).getDate();
+		Date latest = quotes.get(0).getDate();
+		for (Quote quote : quotes.subList(0, 5)) {
+			earliest = quote.getDate().before(earliest) ? quote.getDate() : earliest;
+			latest = quote.getDate().after(latest) ? quote.getDate() : latest;
+		}
+		assertEquals(Arrays.asList(
+				DailyValueSlice.dates(aapl.getInvestmentId(), earliest, latest),
+				DailyValueSlice.dates(fb.getInvestmentId(), quotes.get(5).getDate(), quotes.get(5).getDate())),
+				new ArrayList<>(slices.getValue()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testSlicesChanged_Success() throws Exception {
+
+		Date first = new Date(1654041600000L);
+		Date second = new Date(1656547200000L);
+
+		this.portfolioRollupEngine.slicesChanged(Arrays.asList(DailyValueSlice.dates(1L, second, second),
+				DailyValueSlice.dates(2L, first, first), DailyValueSlice.dates(1L, first, first)));
+
+		ArgumentCaptor<Collection<DailyValueSlice>> slices = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).recompute(slices.capture());
+
+		// slices of the same investment are merged
+		assertEquals(Arrays.asList(DailyValueSlice.dates(1L, first, second), DailyValueSlice.dates(2L, first, first)),
+				new ArrayList<>(slices.getValue()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testChangesInTransactionAreMergedAfterCommit_Success() throws Exception {
+
+		Quote quote = DomainTestData.getQuoteAAPL();
+		Long investmentId = quote.getInvestment().getInvestmentId();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			this.portfolioRollupEngine.quoteChanged(investmentId, quote.getDate());
+			this.portfolioRollupEngine.investmentChanged(investmentId);
+			this.portfolioRollupEngine.quoteChanged(2L, quote.getDate());
+
+			// nothing is recomputed until the change is committed
+			Mockito.verifyNoInteractions(this.portfolioDailyValueWriter);
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCommit();
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		ArgumentCaptor<Collection<DailyValueSlice>> slices = ArgumentCaptor.forClass(Collection.class);
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).recompute(slices.capture());
+		assertEquals(Arrays.asList(DailyValueSlice.allDates(investmentId), DailyValueSlice.dates(2L, quote.getDate(), quote.getDate())),
+				new ArrayList<>(slices.getValue()));
+		assertEquals(null, TransactionSynchronizationManager.getResource(this.portfolioRollupEngine));
+	}
+
+	@Test
+	public void testChangesInRolledBackTransaction_Success() throws Exception {
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			this.portfolioRollupEngine.investmentChanged(1L);
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.never()).recompute(ArgumentMatchers.any());
+	}
+
+	@Test
+	public void testInvestmentChangedNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.portfolioRollupEngine.investmentChanged(null);
+		});
+
+		assertEquals("investmentId must be non-null", e.getMessage());
+	}
+
+	@Test
+	public void testRebuild_Success() throws Exception {
+
+		Mockito.when(this.portfolioDailyValueWriter.rebuild()).thenReturn(1200);
+
+		RollupRebuildReport report = this.portfolioRollupEngine.rebuild();
+
+		assertEquals(1200, report.getRowsWritten());
+		assertNotNull(report.getCompletedAt());
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).rebuild();
+	}
+
+	@Test
+	public void testPopulateIfEmpty_Success() throws Exception {
+
+		// the context start has already checked the table once
+		Mockito.clearInvocations(this.portfolioDailyValueWriter);
+		Mockito.when(this.portfolioDailyValueWriter.isPopulated()).thenReturn(false);
+
+		this.portfolioRollupEngine.populateIfEmpty();
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).rebuild();
+
+		Mockito.when(this.portfolioDailyValueWriter.isPopulated()).thenReturn(true);
+
+		this.portfolioRollupEngine.populateIfEmpty();
+		Mockito.verify(this.portfolioDailyValueWriter, Mockito.times(1)).rebuild();
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.mapping.HoldingBucketSummationMapper;
+import com.brenner.portfoliomgmt.domain.BucketEnum;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.domain.reporting.HoldingLot;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.quotes.LivePriceCache;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		PortfolioTotalsAggregator.class,
+		HoldingBucketSummationMapper.class,
+		LatestQuoteCache.class,
+		LivePriceCache.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class PortfolioTotalsAggregatorTests {
+
+	@MockBean HoldingBucketSummationMapper bucketSummationMapper;
+	@MockBean LatestQuoteCache latestQuoteCache;
+	@MockBean LivePriceCache livePriceCache;
+
+	@Autowired PortfolioTotalsAggregator portfolioTotalsAggregator;
+
+	@Test
+	public void testAggregate_Success() throws Exception {
+
+		Mockito.when(this.bucketSummationMapper.holdingLots()).thenReturn(Arrays.asList(
+				new HoldingLot(1L, BigDecimal.valueOf(10), BigDecimal.valueOf(5), BucketEnum.BUCKET_1),
+				new HoldingLot(1L, BigDecimal.valueOf(2), BigDecimal.valueOf(6), BucketEnum.BUCKET_2),
+				new HoldingLot(2L, BigDecimal.valueOf(4), BigDecimal.valueOf(20), BucketEnum.BUCKET_1),
+				new HoldingLot(3L, BigDecimal.valueOf(1), BigDecimal.valueOf(100), null)));
+		Mockito.when(this.latestQuoteCache.getLatestClose(1L)).thenReturn(BigDecimal.valueOf(7.5));
+		Mockito.when(this.latestQuoteCache.getLatestPriceChange(1L)).thenReturn(BigDecimal.valueOf(0.5));
+		Mockito.when(this.latestQuoteCache.getLatestClose(2L)).thenReturn(BigDecimal.valueOf(25));
+
+		PortfolioReport report = this.portfolioTotalsAggregator.aggregate(false);
+
+		// every lot is summed, the unquoted lot only counts towards the value at purchase
+		assertEquals(242d, report.getTotalValueAtPurchase());
+		assertEquals(190d, report.getTotalCurrentValue());
+		assertEquals(48d, report.getTotalChangeInValue());
+		assertEquals(6d, report.getTotalChangeInPrice());
+		Mockito.verifyNoInteractions(this.livePriceCache);
+	}
+
+	@Test
+	public void testAggregateLiveOverlay_Success() throws Exception {
+
+		Quote liveQuote = new Quote();
+		liveQuote.setClose(BigDecimal.valueOf(30));
+		liveQuote.setPriceChange(BigDecimal.valueOf(-1));
+
+		Mockito.when(this.bucketSummationMapper.holdingLots()).thenReturn(Arrays.asList(
+				new HoldingLot(1L, BigDecimal.valueOf(10), BigDecimal.valueOf(5), BucketEnum.BUCKET_1),
+				new HoldingLot(2L, BigDecimal.valueOf(4), BigDecimal.valueOf(20), BucketEnum.BUCKET_1)));
+		Mockito.when(this.latestQuoteCache.getLatestClose(1L)).thenReturn(BigDecimal.valueOf(7.5));
+		Mockito.when(this.latestQuoteCache.getLatestClose(2L)).thenReturn(BigDecimal.valueOf(25));
+		Mockito.when(this.livePriceCache.getFreshQuotes()).thenReturn(Collections.singletonMap(2L, liveQuote));
+
+		PortfolioReport report = this.portfolioTotalsAggregator.aggregate(true);
+
+		assertEquals(130d, report.getTotalValueAtPurchase());
+		assertEquals(195d, report.getTotalCurrentValue());
+		assertEquals(65d, report.getTotalChangeInValue());
+		assertEquals(-4d, report.getTotalChangeInPrice());
+		Mockito.verify(this.latestQuoteCache, Mockito.never()).getLatestClose(2L);
+	}
+
+	@Test
+	public void testAggregate_Fail() throws Exception {
+
+		assertThrows(InvalidRequestException.class, () -> {
+			this.portfolioTotalsAggregator.aggregate(null, Collections.emptyMap());
+		});
+		assertThrows(InvalidRequestException.class, () -> {
+			this.portfolioTotalsAggregator.aggregate(Collections.emptyList(), (Map<Long, Quote>) null);
+		});
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class RollupSummaryTests {
+
+	@Test
+	public void testAdd_Success() throws Exception {
+
+		RollupSummary summary = new RollupSummary();
+		summary.add(report(1L, "1000.10", "1100.20", "12.50"));
+		summary.add(report(2L, "500.05", "400.00", "0"));
+		summary.add(report(3L, "250.00", "250.00", "0"));
+		// no price at the current pricing date
+		summary.add(report(4L, "100.00", null, "3.25"));
+
+		assertEquals(4, summary.getHoldings().size());
+		assertEquals(1, summary.getGainers());
+		assertEquals(1, summary.getLosers());
+		assertEquals(2, summary.getUnchanged());
+		assertEquals(new BigDecimal("1850.15"), summary.getTotalValueAtPurchase());
+		assertEquals(new BigDecimal("1750.20"), summary.getTotalMarketValue());
+		assertEquals(new BigDecimal("15.75"), summary.getTotalDividends());
+		// exact decimal arithmetic, 100.10 - 100.05
+		assertEquals(new BigDecimal("0.05"), summary.getTotalChangeInValue());
+	}
+
+	@Test
+	public void testEmpty_Success() throws Exception {
+
+		RollupSummary summary = new RollupSummary();
+
+		assertEquals(0, summary.getHoldings().size());
+		assertEquals(0, summary.getUnchanged());
+		assertEquals(BigDecimal.ZERO, summary.getTotalChangeInValue());
+	}
+
+	private static HoldingsReport report(Long holdingId, String valueAtPurchase, String marketValue, String dividends) {
+
+		HoldingsReport report = new HoldingsReport();
+		report.setHoldingId(holdingId);
+		report.setValueAtPurchase(new BigDecimal(valueAtPurchase));
+		report.setMarketValue(marketValue == null ? null : new BigDecimal(marketValue));
+		report.setChangeInValue(marketValue == null ? null : report.getMarketValue().subtract(report.getValueAtPurchase()));
+		report.setTotalDividends(new BigDecimal(dividends));
+		return report;
+	}
+}
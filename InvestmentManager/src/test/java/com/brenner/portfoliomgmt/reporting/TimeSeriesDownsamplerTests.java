@@ -0,0 +1,108 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+public class TimeSeriesDownsamplerTests {
+
+	@Test
+	public void testLttb_Success() throws Exception {
+
+		List<PortfolioRollup> series = new ArrayList<>();
+		for (int i=0; i<1000; i++) {
+			float value = i == 500 ? 5000f : i == 750 ? -5000f : (float) Math.sin(i / 50d) * 100;
+			series.add(new PortfolioRollup(new Date(i * 86_400_000L), value));
+		}
+
+		List<PortfolioRollup> sampled = TimeSeriesDownsampler.lttb(series, 100, PortfolioRollup::getMarketValue);
+
+		assertEquals(100, sampled.size());
+		assertSame(series.get(0), sampled.get(0));
+		assertSame(series.get(999), sampled.get(99));
+		// the spikes survive and the points stay in chart order
+		assertTrue(sampled.contains(series.get(500)));
+		assertTrue(sampled.contains(series.get(750)));
+		for (int i=1; i<sampled.size(); i++) {
+			assertTrue(sampled.get(i - 1).getQuoteDate().before(sampled.get(i).getQuoteDate()));
+		}
+	}
+
+	@Test
+	public void testLttbNoDownsampling_Success() throws Exception {
+
+		List<PortfolioRollup> series = Arrays.asList(
+				new PortfolioRollup(new Date(1L), 1f), new PortfolioRollup(new Date(2L), null), new PortfolioRollup(new Date(3L), 3f));
+
+		assertSame(series, TimeSeriesDownsampler.lttb(series, null, PortfolioRollup::getMarketValue));
+		assertSame(series, TimeSeriesDownsampler.lttb(series, 0, PortfolioRollup::getMarketValue));
+		assertSame(series, TimeSeriesDownsampler.lttb(series, 10, PortfolioRollup::getMarketValue));
+		// never fewer than the first, one middle and the last point
+		assertEquals(3, TimeSeriesDownsampler.lttb(series, 1, PortfolioRollup::getMarketValue).size());
+	}
+
+	@Test
+	public void testOhlc_Success() throws Exception {
+
+		Investment investment = new Investment(1L);
+		List<Quote> quotes = Arrays.asList(
+				quote(investment, 1, "10", "11", "12", "9", 100, "1"),
+				quote(investment, 2, "11", "13", "14", "10", 200, "2"),
+				quote(investment, 3, "13", "12", "13", "8", 300, "-1"),
+				quote(investment, 4, "12", "15", "16", "12", 400, "3"),
+				quote(investment, 5, "15", "14", "15", "13", null, null));
+
+		List<Quote> sampled = TimeSeriesDownsampler.ohlc(quotes, 2);
+
+		assertEquals(2, sampled.size());
+		assertEquals(new Date(2L), sampled.get(0).getDate());
+		assertEquals(new BigDecimal("10"), sampled.get(0).getOpen());
+		assertEquals(new BigDecimal("13"), sampled.get(0).getClose());
+		assertEquals(new BigDecimal("14"), sampled.get(0).getHigh());
+		assertEquals(new BigDecimal("9"), sampled.get(0).getLow());
+		assertEquals(300, sampled.get(0).getVolume());
+		assertEquals(new BigDecimal("3"), sampled.get(0).getPriceChange());
+
+		assertEquals(new Date(5L), sampled.get(1).getDate());
+		assertEquals(new BigDecimal("13"), sampled.get(1).getOpen());
+		assertEquals(new BigDecimal("14"), sampled.get(1).getClose());
+		assertEquals(new BigDecimal("16"), sampled.get(1).getHigh());
+		assertEquals(new BigDecimal("8"), sampled.get(1).getLow());
+		assertEquals(700, sampled.get(1).getVolume());
+		assertEquals(investment, sampled.get(1).getInvestment());
+
+		// descending histories are bucketed the same way
+		List<Quote> descending = new ArrayList<>(quotes);
+		Collections.reverse(descending);
+		assertEquals(new BigDecimal("12"), TimeSeriesDownsampler.ohlc(descending, 2).get(0).getOpen());
+		assertEquals(new Date(5L), TimeSeriesDownsampler.ohlc(descending, 2).get(0).getDate());
+		assertSame(quotes, TimeSeriesDownsampler.ohlc(quotes, 5));
+	}
+
+	private static Quote quote(Investment investment, long date, String open, String close, String high, String low,
+			Integer volume, String priceChange) {
+
+		return new Quote(null, new Date(date), new BigDecimal(open), new BigDecimal(close), new BigDecimal(high),
+				new BigDecimal(low), volume, priceChange != null ? new BigDecimal(priceChange) : null, null, null, investment);
+	}
+}
@@ -10,7 +10,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -239,5 +241,26 @@ public class AccountsServiceTests {
 		assertEquals(accountDTO.getCompany(), account.getCompany());
 		assertEquals(accountDTO.getOwner(), account.getOwner());
 	}
-
+	
+	@Test
+	public void testFindAccountIdsByAccountName_Success() throws Exception {
+		
+		Mockito.when(this.accountsRepo.findAccountIdsByAccountNameIn(Mockito.anyCollection()))
+			.thenReturn(Arrays.<Object[]>asList(new Object[] {a1.getAccountName(), a1.getAccountId()}));
+		
+		Map<String, Long> accountIds = this.service.findAccountIdsByAccountName(Arrays.asList(a1.getAccountName(), "unknown"));
+		
+		assertEquals(1, accountIds.size());
+		assertEquals(a1.getAccountId(), accountIds.get(a1.getAccountName()));
+	}
+	
+	@Test
+	public void testFindAccountIdsByAccountName_Fail() throws Exception {
+		
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.service.findAccountIdsByAccountName(null);
+		});
+		
+		assertEquals("accountNames must be non-null", e.getMessage());
+	}
 }
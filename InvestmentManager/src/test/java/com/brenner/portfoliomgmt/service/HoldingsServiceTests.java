@@ -6,6 +6,7 @@ package com.brenner.portfoliomgmt.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -13,12 +14,16 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -26,6 +31,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 
+import com.brenner.portfoliomgmt.data.HoldingsBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
@@ -37,9 +43,13 @@ import com.brenner.portfoliomgmt.data.repo.TransactionsRepository;
 import com.brenner.portfoliomgmt.domain.Account;
 import com.brenner.portfoliomgmt.domain.Holding;
 import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.domain.TransactionTypeEnum;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
 import com.brenner.portfoliomgmt.test.DomainTestData;
 import com.brenner.portfoliomgmt.test.EntityTestData;
 import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
@@ -55,7 +65,9 @@ import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
 		QuotesService.class,
 		HoldingsService.class,
 		InvestmentsRepository.class,
-		AccountsRepository.class
+		AccountsRepository.class,
+		LatestQuoteCache.class,
+		PortfolioRollupEngine.class
 })
 @DirtiesContext
 @TestInstance(Lifecycle.PER_METHOD)
@@ -66,6 +78,10 @@ public class HoldingsServiceTests {
 	@MockBean InvestmentsRepository investmentsRepository;
 	@MockBean QuotesService quotesService;
 	@MockBean AccountsRepository accountsRepo;
+	@MockBean LatestQuoteCache latestQuoteCache;
+	@MockBean PortfolioRollupEngine portfolioRollupEngine;
+	@MockBean HoldingsReportCache holdingsReportCache;
+	@MockBean HoldingsBulkWriter holdingsBulkWriter;
 	
 	@Autowired HoldingsService holdingsService;
 	
@@ -111,6 +127,9 @@ public class HoldingsServiceTests {
 		});
 		
 		this.holdingsService.addHolding(transaction, holding, account, investment);
+		
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).investmentChanged(investment.getInvestmentId());
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
 	}
 	
 	@Test
@@ -197,6 +216,56 @@ public class HoldingsServiceTests {
 		assertEquals(returnVal.get(0).getHoldingId(), holdings.get(0).getHoldingId());
 	}
 	
+	@Test
+	public void testFindHoldingsForAccountMostRecentQuotes_Success() throws Exception {
+		
+		AccountDTO a = EntityTestData.getAccount1();
+		List<HoldingDTO> returnVal = EntityTestData.getHoldingsForAccount(a);
+		returnVal.get(0).setInvestment(EntityTestData.getInvestmentAAPL());
+		returnVal.get(1).setInvestment(EntityTestData.getInvestmentFB());
+		Mockito.when(this.holdingsRepo.findByAccountAccountId(a.getAccountId())).thenReturn(returnVal);
+		
+		Quote aaplQuote = DomainTestData.getQuoteAAPL();
+		Map<Long, Quote> mostRecentQuotes = new HashMap<>();
+		mostRecentQuotes.put(aaplQuote.getInvestment().getInvestmentId(), aaplQuote);
+		Mockito.when(this.quotesService.findMostRecentQuotesForInvestmentIds(
+				new HashSet<>(Arrays.asList(1L, 4L)))).thenReturn(mostRecentQuotes);
+		
+		List<Holding> holdings = this.holdingsService.findHoldingsForAccount(a.getAccountId());
+		
+		assertNotNull(holdings);
+		assertEquals(returnVal.size(), holdings.size());
+		assertEquals(aaplQuote.getQuoteId(), holdings.get(0).getMostRecentQuote().getQuoteId());
+		assertNull(holdings.get(1).getMostRecentQuote());
+		
+		// one bulk lookup for the account instead of one query per holding
+		Mockito.verify(this.quotesService, Mockito.times(1)).findMostRecentQuotesForInvestmentIds(ArgumentMatchers.any());
+		Mockito.verify(this.quotesService, Mockito.never()).findMostRecentQuotesForInvestment(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void testFindHoldingsForAccountCachedQuotes_Success() throws Exception {
+		
+		AccountDTO a = EntityTestData.getAccount1();
+		List<HoldingDTO> returnVal = EntityTestData.getHoldingsForAccount(a);
+		returnVal.get(0).setInvestment(EntityTestData.getInvestmentAAPL());
+		returnVal.get(1).setInvestment(EntityTestData.getInvestmentFB());
+		Mockito.when(this.holdingsRepo.findByAccountAccountId(a.getAccountId())).thenReturn(returnVal);
+		
+		Quote aaplQuote = DomainTestData.getQuoteAAPL();
+		Quote fbQuote = DomainTestData.getQuoteFB();
+		Mockito.when(this.latestQuoteCache.getLatestQuote(1L)).thenReturn(aaplQuote);
+		Mockito.when(this.latestQuoteCache.getLatestQuote(4L)).thenReturn(fbQuote);
+		
+		List<Holding> holdings = this.holdingsService.findHoldingsForAccount(a.getAccountId());
+		
+		assertEquals(aaplQuote.getClose(), holdings.get(0).getMostRecentQuote().getClose());
+		assertEquals(fbQuote.getClose(), holdings.get(1).getMostRecentQuote().getClose());
+		
+		// everything was priced from the cache so no quote query is needed
+		Mockito.verifyNoInteractions(this.quotesService);
+	}
+	
 	@Test
 	public void testFindHoldingsForAccountNullAccountId_Fail() throws Exception {
 		
@@ -405,6 +474,26 @@ public class HoldingsServiceTests {
 		assertEquals(holdingData, transactionData.getHolding());
 	}
 	
+	@Test
+	public void testUpdateHoldingChangesInvestment_Success() throws Exception {
+		
+		HoldingDTO storedData = EntityTestData.getHolding1();
+		storedData.setInvestment(EntityTestData.getInvestmentAAPL());
+		HoldingDTO updatedData = EntityTestData.getHolding1();
+		updatedData.setInvestment(EntityTestData.getInvestmentFB());
+		Holding holding = ObjectMappingUtil.mapHoldingDtoToHolding(updatedData);
+		
+		Mockito.when(this.holdingsRepo.findById(storedData.getHoldingId())).thenReturn(Optional.of(storedData));
+		Mockito.when(this.transactionsRepo.findByHoldingHoldingId(storedData.getHoldingId())).thenReturn(new ArrayList<>());
+		Mockito.when(this.holdingsRepo.save(ArgumentMatchers.any(HoldingDTO.class))).thenReturn(updatedData);
+		
+		this.holdingsService.updateHolding(holding);
+		
+		// the investment the holding moved from no longer includes it, the one it moved to does
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).investmentChanged(EntityTestData.getInvestmentAAPL().getInvestmentId());
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).investmentChanged(EntityTestData.getInvestmentFB().getInvestmentId());
+	}
+	
 	@Test
 	public void testUpdateHoldingAndTradeNullId_Fail() throws Exception {
 		
@@ -520,5 +609,20 @@ public class HoldingsServiceTests {
 		
 		assertEquals("required attributes are null", e.getMessage());
 	}
-
+	
+	@Test
+	public void testAddHoldings_Success() throws Exception {
+		
+		List<Holding> holdings = Arrays.asList(DomainTestData.getHolding1(), DomainTestData.getHolding2());
+		for (Holding holding : holdings) {
+			holding.setAccount(DomainTestData.getAccount1());
+			holding.setInvestment(DomainTestData.getInvestmentAAPL());
+		}
+		Mockito.when(this.holdingsBulkWriter.insertHoldings(holdings)).thenReturn(2);
+		
+		assertEquals(2, this.holdingsService.addHoldings(holdings));
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
+		// the rollup is refreshed once per investment
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).investmentChanged(holdings.get(0).getInvestment().getInvestmentId());
+	}
 }
@@ -10,7 +10,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -23,11 +26,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 
+import com.brenner.portfoliomgmt.data.InvestmentsBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
 import com.brenner.portfoliomgmt.data.repo.InvestmentsRepository;
 import com.brenner.portfoliomgmt.domain.Investment;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
 import com.brenner.portfoliomgmt.exception.NotFoundException;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
 import com.brenner.portfoliomgmt.test.DomainTestData;
 import com.brenner.portfoliomgmt.test.EntityTestData;
 
@@ -47,6 +52,12 @@ public class InvestmentsServiceTests {
 	@MockBean
 	InvestmentsRepository investmentRepo;
 	
+	@MockBean
+	HoldingsReportCache holdingsReportCache;
+	
+	@MockBean
+	InvestmentsBulkWriter investmentsBulkWriter;
+	
 	@Autowired
 	InvestmentsService service;
 	
@@ -170,6 +181,7 @@ public class InvestmentsServiceTests {
 		
 		assertNotNull(i);
 		assertEquals(aapl, i);
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
 	}
 	
 	@Test
@@ -268,5 +280,46 @@ public class InvestmentsServiceTests {
 		assertEquals(allInvestments.size(), invs.size());
 		assertEquals(allInvestments.get(0).getInvestmentId(), invs.get(0).getInvestmentId());
 	}
-
+	
+	@Test
+	public void testSaveMissingInvestments_Success() throws Exception {
+		
+		Mockito.when(this.investmentsBulkWriter.insertMissingInvestments(Mockito.anyCollection())).thenReturn(1);
+		Mockito.when(this.investmentRepo.findInvestmentIdsBySymbolIn(Mockito.anyCollection()))
+			.thenReturn(Arrays.<Object[]>asList(new Object[] {aapl.getSymbol(), aapl.getInvestmentId()}, new Object[] {ge.getSymbol(), ge.getInvestmentId()}));
+		
+		Map<String, Long> investmentIds = this.service.saveMissingInvestments(Arrays.asList(aapl, ge));
+		
+		assertEquals(2, investmentIds.size());
+		assertEquals(aapl.getInvestmentId(), investmentIds.get(aapl.getSymbol()));
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
+	}
+	
+	@Test
+	public void testSaveMissingInvestmentsAllStored_Success() throws Exception {
+		
+		Mockito.when(this.investmentsBulkWriter.insertMissingInvestments(Mockito.anyCollection())).thenReturn(0);
+		Mockito.when(this.investmentRepo.findInvestmentIdsBySymbolIn(Mockito.anyCollection()))
+			.thenReturn(Arrays.<Object[]>asList(new Object[] {aapl.getSymbol(), aapl.getInvestmentId()}));
+		
+		assertEquals(aapl.getInvestmentId(), this.service.saveMissingInvestments(Arrays.asList(aapl)).get(aapl.getSymbol()));
+		Mockito.verify(this.holdingsReportCache, Mockito.times(0)).invalidate();
+	}
+	
+	@Test
+	public void testSaveMissingInvestments_Fail() throws Exception {
+		
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.service.saveMissingInvestments(null);
+		});
+		
+		assertEquals("investments must be non-null", e.getMessage());
+	}
+	
+	@Test
+	public void testFindInvestmentIdsBySymbolEmpty_Success() throws Exception {
+		
+		assertTrue(this.service.findInvestmentIdsBySymbol(new ArrayList<>()).isEmpty());
+		Mockito.verify(this.investmentRepo, Mockito.times(0)).findInvestmentIdsBySymbolIn(Mockito.anyCollection());
+	}
 }
@@ -0,0 +1,262 @@
+/**
+ *
+ */
+package com.brenner.portfoliomgmt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.brenner.portfoliomgmt.data.DailyValueSlice;
+import com.brenner.portfoliomgmt.data.LatestQuotesWriter;
+import com.brenner.portfoliomgmt.data.QuotesBulkWriter;
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
+import com.brenner.portfoliomgmt.data.repo.QuotesRepository;
+import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
+import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.quotes.refresh.ProviderRateLimiters;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteRefreshEngine;
+import com.brenner.portfoliomgmt.quotes.refresh.QuoteRefreshReport;
+import com.brenner.portfoliomgmt.quotes.retrievalservice.QuoteRetrievalService;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
+import com.brenner.portfoliomgmt.test.DomainTestData;
+import com.brenner.portfoliomgmt.test.EntityTestData;
+
+/**
+ *
+ * @author dbrenner
+ *
+ */
+@SpringBootTest(classes = {
+		QuotesService.class,
+		QuotesRepository.class,
+		InvestmentsService.class,
+		QuoteRetrievalService.class,
+		LatestQuoteCache.class,
+		QuoteRefreshEngine.class,
+		ProviderRateLimiters.class,
+		QuotesBulkWriter.class,
+		PortfolioRollupEngine.class,
+		LatestQuotesWriter.class
+})
+@DirtiesContext
+@TestInstance(Lifecycle.PER_METHOD)
+public class QuotesServiceTests {
+
+	@MockBean QuotesRepository quotesRepo;
+	@MockBean InvestmentsService investmentsService;
+	@MockBean QuoteRetrievalService quoteRetrievalService;
+	@MockBean LatestQuoteCache latestQuoteCache;
+	@MockBean QuotesBulkWriter quotesBulkWriter;
+	@MockBean PortfolioRollupEngine portfolioRollupEngine;
+	@MockBean HoldingsReportCache holdingsReportCache;
+	@MockBean LatestQuotesWriter latestQuotesWriter;
+
+	@Autowired QuotesService quotesService;
+
+	@Test
+	public void testFindMostRecentQuotesForInvestmentIds_Success() throws Exception {
+
+		QuoteDTO aapl = EntityTestData.getQuoteAAPL();
+		QuoteDTO fb = EntityTestData.getQuoteFB();
+		List<Long> investmentIds = Arrays.asList(
+				aapl.getInvestment().getInvestmentId(),
+				fb.getInvestment().getInvestmentId(),
+				EntityTestData.getInvestmentGE().getInvestmentId());
+
+		Mockito.when(this.quotesRepo.findMostRecentQuotesForInvestmentIds(investmentIds)).thenReturn(Arrays.asList(aapl, fb));
+
+		Map<Long, Quote> quotes = this.quotesService.findMostRecentQuotesForInvestmentIds(investmentIds);
+
+		assertNotNull(quotes);
+		assertEquals(2, quotes.size());
+		assertEquals(aapl.getQuoteId(), quotes.get(aapl.getInvestment().getInvestmentId()).getQuoteId());
+		assertEquals(fb.getClose(), quotes.get(fb.getInvestment().getInvestmentId()).getClose());
+
+		// all investments are resolved with a single query rather than one per investment
+		Mockito.verify(this.quotesRepo, Mockito.times(1)).findMostRecentQuotesForInvestmentIds(ArgumentMatchers.<Collection<Long>>any());
+		Mockito.verify(this.quotesRepo, Mockito.never()).findMostRecentQuotesForInvestmentId(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+	}
+
+	@Test
+	public void testFindMostRecentQuotesForInvestmentIdsEmpty_Success() throws Exception {
+
+		Map<Long, Quote> quotes = this.quotesService.findMostRecentQuotesForInvestmentIds(new ArrayList<>());
+
+		assertNotNull(quotes);
+		assertTrue(quotes.isEmpty());
+		Mockito.verifyNoInteractions(this.quotesRepo);
+	}
+
+	@Test
+	public void testFindMostRecentQuotesForInvestmentIdsNull_Fail() throws Exception {
+
+		Exception e = assertThrows(InvalidRequestException.class, () -> {
+			this.quotesService.findMostRecentQuotesForInvestmentIds(null);
+		});
+
+		assertEquals("investmentIds must be non-null", e.getMessage());
+	}
+
+	@Test
+	public void testSaveQuoteUpdatesLatestQuoteCache_Success() throws Exception {
+
+		Quote quote = DomainTestData.getQuoteAAPL();
+		Mockito.when(this.quotesBulkWriter.upsertQuote(quote)).thenReturn(42L);
+
+		Quote saved = this.quotesService.saveQuote(quote);
+
+		assertNotNull(saved);
+		assertEquals(42L, saved.getQuoteId());
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).update(saved);
+		Mockito.verify(this.latestQuotesWriter, Mockito.times(1)).refresh(Collections.singleton(quote.getInvestment().getInvestmentId()));
+		Mockito.verify(this.quotesRepo, Mockito.never()).save(ArgumentMatchers.any(QuoteDTO.class));
+	}
+
+	@Test
+	public void testAddManualQuote_Success() throws Exception {
+
+		Investment investment = DomainTestData.getInvestmentAAPL();
+		Mockito.when(this.investmentsService.findInvestmentBySymbol(investment.getSymbol())).thenReturn(Optional.of(investment));
+
+		Quote quote = DomainTestData.getQuoteAAPL();
+		quote.setInvestment(null);
+		Mockito.when(this.quotesBulkWriter.upsertQuote(quote)).thenReturn(42L);
+
+		Quote saved = this.quotesService.addManualQuote(quote, investment.getSymbol());
+
+		assertEquals(42L, saved.getQuoteId());
+		assertEquals(investment, saved.getInvestment());
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).update(saved);
+	}
+
+	@Test
+	public void testAddQuotes_Success() throws Exception {
+
+		Quote aapl = DomainTestData.getQuoteAAPL();
+		Quote fb = DomainTestData.getQuoteFB();
+		List<Quote> quotes = Arrays.asList(aapl, fb, aapl);
+		Mockito.when(this.quotesBulkWriter.upsertQuotes(quotes)).thenReturn(3);
+
+		assertEquals(3, this.quotesService.addQuotes(quotes));
+
+		// duplicates are resolved by the upsert rather than a lookup per quote
+		Mockito.verify(this.quotesRepo, Mockito.never()).findByInvestmentSymbolAndDate(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).refreshAll(
+				new LinkedHashSet<>(Arrays.asList(aapl.getInvestment().getInvestmentId(), fb.getInvestment().getInvestmentId())));
+		Mockito.verify(this.latestQuotesWriter, Mockito.times(1)).refresh(
+				new LinkedHashSet<>(Arrays.asList(aapl.getInvestment().getInvestmentId(), fb.getInvestment().getInvestmentId())));
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).quotesChanged(quotes);
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
+	}
+
+	@Test
+	public void testImportQuotes_Success() throws Exception {
+
+		List<Quote> quotes = Arrays.asList(DomainTestData.getQuoteAAPL(), DomainTestData.getQuoteFB());
+		Mockito.when(this.quotesBulkWriter.upsertQuotes(quotes)).thenReturn(2);
+
+		assertEquals(2, this.quotesService.importQuotes(quotes));
+
+		// derived data is refreshed once per import through quotesImported
+		Mockito.verifyNoInteractions(this.latestQuotesWriter, this.latestQuoteCache, this.portfolioRollupEngine, this.holdingsReportCache);
+	}
+
+	@Test
+	public void testQuotesImported_Success() throws Exception {
+
+		Quote aapl = DomainTestData.getQuoteAAPL();
+		Long aaplId = aapl.getInvestment().getInvestmentId();
+		List<DailyValueSlice> slices = Arrays.asList(DailyValueSlice.dates(aaplId, aapl.getDate(), aapl.getDate()),
+				DailyValueSlice.allDates(2L));
+
+		this.quotesService.quotesImported(slices);
+
+		Set<Long> investmentIds = new LinkedHashSet<>(Arrays.asList(aaplId, 2L));
+		Mockito.verify(this.latestQuotesWriter, Mockito.times(1)).refresh(investmentIds);
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).refreshAll(investmentIds);
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).slicesChanged(slices);
+		Mockito.verify(this.holdingsReportCache, Mockito.times(1)).invalidate();
+	}
+
+	@Test
+	public void testDeleteQuoteRefreshesLatestQuoteCache_Success() throws Exception {
+
+		QuoteDTO quoteData = EntityTestData.getQuoteAAPL();
+		Mockito.when(this.quotesRepo.findById(quoteData.getQuoteId())).thenReturn(Optional.of(quoteData));
+
+		this.quotesService.deleteQuote(quoteData.getQuoteId());
+
+		Mockito.verify(this.quotesRepo, Mockito.times(1)).deleteById(quoteData.getQuoteId());
+		Mockito.verify(this.quotesRepo, Mockito.times(1)).flush();
+		Mockito.verify(this.latestQuotesWriter, Mockito.times(1)).refresh(Collections.singleton(quoteData.getInvestment().getInvestmentId()));
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).refresh(quoteData.getInvestment().getInvestmentId());
+		Mockito.verify(this.portfolioRollupEngine, Mockito.times(1)).quoteChanged(quoteData.getInvestment().getInvestmentId(), quoteData.getDate());
+	}
+
+	@Test
+	public void testUpdateQuotesForAllInvestments_Success() throws Exception {
+
+		Investment aapl = DomainTestData.getInvestmentAAPL();
+		Investment fb = DomainTestData.getInvestmentFB();
+		Investment ge = DomainTestData.getInvestmentGE();
+		Mockito.when(this.investmentsService.findInvestmentsAndQuotesAssociatedWithAHolding()).thenReturn(Arrays.asList(aapl, fb, ge));
+
+		// FB has no stored quotes so is not refreshed
+		Mockito.when(this.quotesRepo.getMaxQuoteDateForInvestmentSymbol(aapl.getSymbol())).thenReturn(Optional.of("2022-06-01"));
+		Mockito.when(this.quotesRepo.getMaxQuoteDateForInvestmentSymbol(fb.getSymbol())).thenReturn(Optional.empty());
+		Mockito.when(this.quotesRepo.getMaxQuoteDateForInvestmentSymbol(ge.getSymbol())).thenReturn(Optional.of("2022-06-01"));
+		Mockito.when(this.quotesRepo.findQuoteDatesForInvestmentSymbolSince(ArgumentMatchers.anyString(), ArgumentMatchers.any(Date.class)))
+			.thenReturn(new ArrayList<>());
+
+		Quote newQuote = DomainTestData.getQuoteAAPL();
+		newQuote.setDate(new Date());
+		Mockito.when(this.quoteRetrievalService.getNewQuotesForInvestment(ArgumentMatchers.eq(aapl), ArgumentMatchers.any(), ArgumentMatchers.any()))
+			.thenReturn(Arrays.asList(newQuote));
+		Mockito.when(this.quoteRetrievalService.getNewQuotesForInvestment(ArgumentMatchers.eq(ge), ArgumentMatchers.any(), ArgumentMatchers.any()))
+			.thenThrow(new IOException("service unavailable"));
+		Mockito.when(this.quotesBulkWriter.upsertQuotes(Arrays.asList(newQuote))).thenReturn(1);
+
+		QuoteRefreshReport report = this.quotesService.updateQuotesForAllInvestments();
+
+		assertNotNull(report);
+		assertEquals(3, report.getResults().size());
+		assertEquals(Arrays.asList(aapl.getSymbol(), fb.getSymbol()), report.getFetchedSymbols());
+		assertEquals(Arrays.asList(aapl.getSymbol()), report.getInsertedSymbols());
+		assertEquals(Arrays.asList(ge.getSymbol()), report.getFailedSymbols());
+		assertEquals(1, report.getQuotesInserted());
+
+		Mockito.verify(this.quotesBulkWriter, Mockito.times(1)).upsertQuotes(Arrays.asList(newQuote));
+		Mockito.verify(this.latestQuoteCache, Mockito.times(1)).refreshAll(Collections.singleton(aapl.getInvestmentId()));
+		Mockito.verify(this.quoteRetrievalService, Mockito.never())
+			.getNewQuotesForInvestment(ArgumentMatchers.eq(fb), ArgumentMatchers.any(), ArgumentMatchers.any());
+		// the full quote history is not read to de-duplicate
+		Mockito.verify(this.quotesRepo, Mockito.never()).findAllByInvestmentSymbolOrderByDateAsc(ArgumentMatchers.anyString());
+	}
+}
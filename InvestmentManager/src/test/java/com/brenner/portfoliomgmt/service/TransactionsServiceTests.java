@@ -26,6 +26,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.annotation.DirtiesContext;
 
+import com.brenner.portfoliomgmt.data.HoldingsBulkWriter;
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
@@ -40,6 +41,9 @@ import com.brenner.portfoliomgmt.domain.Holding;
 import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.domain.TransactionTypeEnum;
 import com.brenner.portfoliomgmt.exception.InvalidRequestException;
+import com.brenner.portfoliomgmt.quotes.LatestQuoteCache;
+import com.brenner.portfoliomgmt.reporting.HoldingsReportCache;
+import com.brenner.portfoliomgmt.reporting.PortfolioRollupEngine;
 import com.brenner.portfoliomgmt.test.DomainTestData;
 import com.brenner.portfoliomgmt.test.EntityTestData;
 
@@ -54,7 +58,8 @@ import com.brenner.portfoliomgmt.test.EntityTestData;
 		HoldingsService.class,
 		InvestmentsRepository.class,
 		AccountsRepository.class,
-		QuotesRepository.class
+		QuotesRepository.class,
+		LatestQuoteCache.class
 	})
 @DirtiesContext
 @TestInstance(Lifecycle.PER_METHOD)
@@ -65,6 +70,10 @@ public class TransactionsServiceTests {
 	@MockBean InvestmentsRepository investmentsRepository;
 	@MockBean QuotesService quotesService;
 	@MockBean AccountsRepository accountsRepo;
+	@MockBean LatestQuoteCache latestQuoteCache;
+	@MockBean PortfolioRollupEngine portfolioRollupEngine;
+	@MockBean HoldingsReportCache holdingsReportCache;
+	@MockBean HoldingsBulkWriter holdingsBulkWriter;
     
     @Autowired HoldingsService holdingsService;
     
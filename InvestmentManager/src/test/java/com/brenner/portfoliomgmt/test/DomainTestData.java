@@ -19,6 +19,7 @@ import com.brenner.portfoliomgmt.domain.InvestmentTypeEnum;
 import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.domain.TransactionTypeEnum;
+import com.brenner.portfoliomgmt.reporting.HoldingsReport;
 
 /**
  *
@@ -469,4 +470,18 @@ public class DomainTestData {
 		return q;
 	}
 
+	public static HoldingsReport generateHoldingsReport(InvestmentTypeEnum investmentType, String sector, 
+			String valueAtPurchase, String marketValue) {
+		
+		HoldingsReport holding = new HoldingsReport();
+		holding.setInvestmentType(investmentType);
+		holding.setSector(sector);
+		holding.setValueAtPurchase(new BigDecimal(valueAtPurchase));
+		if (marketValue != null) {
+			holding.setMarketValue(new BigDecimal(marketValue));
+			holding.setChangeInValue(holding.getMarketValue().subtract(holding.getValueAtPurchase()));
+		}
+		return holding;
+	}
+
 }
@@ -4,19 +4,25 @@
 package com.brenner.portfoliomgmt.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.util.Comparator;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.platform.commons.annotation.Testable;
+import org.modelmapper.ModelMapper;
 
 import com.brenner.portfoliomgmt.data.entities.AccountDTO;
 import com.brenner.portfoliomgmt.data.entities.HoldingDTO;
 import com.brenner.portfoliomgmt.data.entities.InvestmentDTO;
+import com.brenner.portfoliomgmt.data.entities.QuoteDTO;
 import com.brenner.portfoliomgmt.data.entities.TransactionDTO;
 import com.brenner.portfoliomgmt.domain.Account;
 import com.brenner.portfoliomgmt.domain.Holding;
 import com.brenner.portfoliomgmt.domain.Investment;
+import com.brenner.portfoliomgmt.domain.Quote;
 import com.brenner.portfoliomgmt.domain.Transaction;
 import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
 
@@ -25,12 +31,17 @@ import com.brenner.portfoliomgmt.util.ObjectMappingUtil;
  * 
  * Private evaluation methods below are chained carefully to prevent recursion issues. Review their interdependencies
  * before adding new tests.
+ * 
+ * The equivalence tests map the same source with a reference ModelMapper (what ObjectMappingUtil used before it was
+ * hand-written) and with ObjectMappingUtil and compare the results.
  *
  * @author dbrenner
  * 
  */
 @Testable
 public class ModelMapperTests {
+	
+	ModelMapper reference = new ModelMapper();
 
 	@Test
 	public void testAccountToAccountDtoMapping() throws Exception {
@@ -64,23 +75,278 @@ public class ModelMapperTests {
 	}
 	
 	
-	/*
-	 * private void evalQuoteAndQuoteDtoEqual(Quote quote, QuoteDTO quoteData) {
-	 * 
-	 * if (quote == null || quoteData == null) { assertEquals(quote, quoteData); }
-	 * else { assertEquals(quote.getDate(), quoteData.getDate());
-	 * assertEquals(quote.getOpen(), quoteData.getOpen());
-	 * assertEquals(quote.getClose(), quoteData.getClose());
-	 * assertEquals(quote.getHigh(), quoteData.getHigh());
-	 * assertEquals(quote.getLow(), quoteData.getLow());
-	 * assertEquals(quote.getVolume(), quoteData.getVolume());
-	 * assertEquals(quote.getPriceChange(), quoteData.getPriceChange());
-	 * assertEquals(quote.getWeek52High(), quoteData.getWeek52High());
-	 * assertEquals(quote.getWeek52Low(), quoteData.getWeek52Low());
-	 * evalInvestmentAndInvestmentDTOEqual(quote.getInvestment(),
-	 * quoteData.getInvestment()); } }
-	 */
+	@Test
+	public void testAccountDtoToAccountMatchesModelMapper() throws Exception {
+		AccountDTO accountData = EntityTestData.generateAccount(3, 6);
+		
+		Account expected = this.reference.map(accountData, Account.class);
+		Account actual = ObjectMappingUtil.mapAccountDtoToAccount(accountData);
+		
+		evalAccountsEquivalent(expected, actual);
+		assertEquals(expected.getHoldings().size(), actual.getHoldings().size());
+		for (int i=0; i<expected.getHoldings().size(); i++) {
+			evalHoldingsEquivalent(expected.getHoldings().get(i), actual.getHoldings().get(i));
+			// cycles resolve back to the same mapped account
+			assertSame(actual, actual.getHoldings().get(i).getAccount());
+			assertSame(actual, actual.getHoldings().get(i).getTransactions().get(0).getAccount());
+		}
+	}
 	
+	@Test
+	public void testAccountToAccountDtoMatchesModelMapper() throws Exception {
+		Account account = DomainTestData.generateAccount(2, 5);
+		
+		AccountDTO expected = this.reference.map(account, AccountDTO.class);
+		AccountDTO actual = ObjectMappingUtil.mapAccountToAccountDTO(account);
+		
+		evalAccountDtosEquivalent(expected, actual);
+		assertEquals(expected.getHoldings().size(), actual.getHoldings().size());
+		for (int i=0; i<expected.getHoldings().size(); i++) {
+			evalHoldingDtosEquivalent(expected.getHoldings().get(i), actual.getHoldings().get(i));
+			assertSame(actual, actual.getHoldings().get(i).getAccount());
+			assertSame(actual.getHoldings().get(i), actual.getHoldings().get(i).getTransactions().get(0).getHolding());
+		}
+	}
+	
+	@Test
+	public void testInvestmentMappingsMatchModelMapper() throws Exception {
+		InvestmentDTO investmentData = EntityTestData.generateInvestment(2, 5);
+		investmentData.setExpenseRatio(0.35f);
+		evalInvestmentsEquivalent(this.reference.map(investmentData, Investment.class), 
+				ObjectMappingUtil.mapInvestmentDtoToInvestment(investmentData));
+		
+		Investment investment = DomainTestData.generateInvestment(3);
+		investment.setExpenseRatio(0.15f);
+		InvestmentDTO expected = this.reference.map(investment, InvestmentDTO.class);
+		InvestmentDTO actual = ObjectMappingUtil.mapInvestmentToInvestmentDTO(investment);
+		evalInvestmentAndInvestmentDTOEqual(investment, actual);
+		assertEquals(expected.getExpenseRatio(), actual.getExpenseRatio());
+		assertEquals(expected.getQuotes(), actual.getQuotes());
+	}
+	
+	@Test
+	public void testHoldingMappingsMatchModelMapper() throws Exception {
+		HoldingDTO holdingData = EntityTestData.generateHolding(1, EntityTestData.generateAccount(1, 2), EntityTestData.generateInvestment(1, 4));
+		
+		Holding expected = this.reference.map(holdingData, Holding.class);
+		Holding actual = ObjectMappingUtil.mapHoldingDtoToHolding(holdingData);
+		evalHoldingsEquivalent(expected, actual);
+		evalAccountsEquivalent(expected.getAccount(), actual.getAccount());
+		
+		// the most recent quote is taken from the investment's quotes
+		QuoteDTO mostRecent = holdingData.getInvestment().getQuotes().stream().max(Comparator.comparing(QuoteDTO::getDate)).get();
+		evalQuoteAndQuoteDtoEqual(actual.getMostRecentQuote(), mostRecent);
+		
+		Holding holding = DomainTestData.generateHolding(2, DomainTestData.generateAccount(2, 1), DomainTestData.generateInvestment(2));
+		HoldingDTO expectedData = this.reference.map(holding, HoldingDTO.class);
+		HoldingDTO actualData = ObjectMappingUtil.mapHoldingToHoldingDto(holding);
+		evalHoldingDtosEquivalent(expectedData, actualData);
+		evalAccountDtosEquivalent(expectedData.getAccount(), actualData.getAccount());
+	}
+	
+	@Test
+	public void testHoldingWithoutQuotesMapping() throws Exception {
+		HoldingDTO holdingData = EntityTestData.generateHolding(1, EntityTestData.generateAccount(1, 0), EntityTestData.generateInvestment(1, 0));
+		
+		Holding holding = ObjectMappingUtil.mapHoldingDtoToHolding(holdingData);
+		
+		evalHoldingsEquivalent(this.reference.map(holdingData, Holding.class), holding);
+		assertNull(holding.getMostRecentQuote());
+	}
+	
+	@Test
+	public void testTransactionMappingsMatchModelMapper() throws Exception {
+		HoldingDTO holdingData = EntityTestData.generateHolding(1, EntityTestData.generateAccount(1, 1), EntityTestData.generateInvestment(1, 1));
+		TransactionDTO transactionData = holdingData.getTransactions().get(1);
+		
+		evalTransactionsEquivalent(this.reference.map(transactionData, Transaction.class), 
+				ObjectMappingUtil.mapTransactionDtoToTransaction(transactionData));
+		
+		Holding holding = DomainTestData.generateHolding(1, DomainTestData.generateAccount(1, 1), DomainTestData.generateInvestment(1));
+		Transaction transaction = holding.getTransactions().get(2);
+		TransactionDTO expected = this.reference.map(transaction, TransactionDTO.class);
+		TransactionDTO actual = ObjectMappingUtil.mapTransactionToTransactionDTO(transaction);
+		evalTransactionAndTransactionDTOEqual(transaction, actual);
+		evalHoldingDtosEquivalent(expected.getHolding(), actual.getHolding());
+		evalAccountDtosEquivalent(expected.getAccount(), actual.getAccount());
+	}
+	
+	@Test
+	public void testQuoteMappingsMatchModelMapper() throws Exception {
+		List<QuoteDTO> quotesData = EntityTestData.generateQuotesList(10, EntityTestData.generateInvestment(5, 0));
+		List<Quote> actual = ObjectMappingUtil.mapQuoteDtoList(quotesData);
+		
+		assertEquals(quotesData.size(), actual.size());
+		for (int i=0; i<quotesData.size(); i++) {
+			Quote expected = this.reference.map(quotesData.get(i), Quote.class);
+			evalQuoteAndQuoteDtoEqual(actual.get(i), quotesData.get(i));
+			evalInvestmentsEquivalent(expected.getInvestment(), actual.get(i).getInvestment());
+		}
+		
+		Quote quote = DomainTestData.getQuoteFB();
+		QuoteDTO expectedData = this.reference.map(quote, QuoteDTO.class);
+		QuoteDTO actualData = ObjectMappingUtil.mapQuoteToQuoteDTO(quote);
+		evalQuoteAndQuoteDtoEqual(quote, actualData);
+		assertEquals(expectedData.getQuoteId(), actualData.getQuoteId());
+		assertEquals(expectedData.getInvestment().getQuotes(), actualData.getInvestment().getQuotes());
+	}
+	
+	private void evalQuoteAndQuoteDtoEqual(Quote quote, QuoteDTO quoteData) {
+		
+		if (quote == null || quoteData == null) {
+			assertEquals(quote, quoteData);
+		} else {
+			assertEquals(quote.getQuoteId(), quoteData.getQuoteId());
+			assertEquals(quote.getDate(), quoteData.getDate());
+			assertEquals(quote.getOpen(), quoteData.getOpen());
+			assertEquals(quote.getClose(), quoteData.getClose());
+			assertEquals(quote.getHigh(), quoteData.getHigh());
+			assertEquals(quote.getLow(), quoteData.getLow());
+			assertEquals(quote.getVolume(), quoteData.getVolume());
+			assertEquals(quote.getPriceChange(), quoteData.getPriceChange());
+			assertEquals(quote.getWeek52High(), quoteData.getWeek52High());
+			assertEquals(quote.getWeek52Low(), quoteData.getWeek52Low());
+			evalInvestmentAndInvestmentDTOEqual(quote.getInvestment(), quoteData.getInvestment());
+		}
+	}
+	
+	private void evalInvestmentsEquivalent(Investment expected, Investment actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getInvestmentId(), actual.getInvestmentId());
+			assertEquals(expected.getSymbol(), actual.getSymbol());
+			assertEquals(expected.getCompanyName(), actual.getCompanyName());
+			assertEquals(expected.getExchange(), actual.getExchange());
+			assertEquals(expected.getSector(), actual.getSector());
+			assertEquals(expected.getExpenseRatio(), actual.getExpenseRatio());
+			assertEquals(expected.getInvestmentType(), actual.getInvestmentType());
+			assertEquals(expected.getMostRecentQuote(), actual.getMostRecentQuote());
+		}
+	}
+	
+	private void evalAccountsEquivalent(Account expected, Account actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getAccountId(), actual.getAccountId());
+			assertEquals(expected.getAccountName(), actual.getAccountName());
+			assertEquals(expected.getAccountNumber(), actual.getAccountNumber());
+			assertEquals(expected.getAccountType(), actual.getAccountType());
+			assertEquals(expected.getCompany(), actual.getCompany());
+			assertEquals(expected.getOwner(), actual.getOwner());
+			assertEquals(expected.getHoldings() == null, actual.getHoldings() == null);
+		}
+	}
+	
+	private void evalAccountDtosEquivalent(AccountDTO expected, AccountDTO actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getAccountId(), actual.getAccountId());
+			assertEquals(expected.getAccountName(), actual.getAccountName());
+			assertEquals(expected.getAccountNumber(), actual.getAccountNumber());
+			assertEquals(expected.getAccountType(), actual.getAccountType());
+			assertEquals(expected.getCompany(), actual.getCompany());
+			assertEquals(expected.getOwner(), actual.getOwner());
+			assertEquals(expected.getCashOnAccount(), actual.getCashOnAccount());
+			assertEquals(expected.getVisible(), actual.getVisible());
+			assertEquals(expected.getHoldings() == null, actual.getHoldings() == null);
+		}
+	}
+	
+	private void evalHoldingsEquivalent(Holding expected, Holding actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getHoldingId(), actual.getHoldingId());
+			assertEquals(expected.getQuantity(), actual.getQuantity());
+			assertEquals(expected.getPurchasePrice(), actual.getPurchasePrice());
+			assertEquals(expected.getBucketEnum(), actual.getBucketEnum());
+			assertEquals(expected.getPurchaseDate(), actual.getPurchaseDate());
+			assertEquals(expected.getTotalDividends(), actual.getTotalDividends());
+			assertEquals(expected.getValueAtPurchase(), actual.getValueAtPurchase());
+			assertEquals(expected.getChangeInValue(), actual.getChangeInValue());
+			assertEquals(expected.getCurrentValue(), actual.getCurrentValue());
+			assertEquals(expected.getTotalCurrentValue(), actual.getTotalCurrentValue());
+			assertEquals(expected.getAccount() == null, actual.getAccount() == null);
+			evalInvestmentsEquivalent(expected.getInvestment(), actual.getInvestment());
+			
+			if (expected.getTransactions() == null || actual.getTransactions() == null) {
+				assertEquals(expected.getTransactions(), actual.getTransactions());
+			} else {
+				assertEquals(expected.getTransactions().size(), actual.getTransactions().size());
+				for (int i=0; i<expected.getTransactions().size(); i++) {
+					evalTransactionsEquivalent(expected.getTransactions().get(i), actual.getTransactions().get(i));
+				}
+			}
+		}
+	}
+	
+	private void evalHoldingDtosEquivalent(HoldingDTO expected, HoldingDTO actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getHoldingId(), actual.getHoldingId());
+			assertEquals(expected.getQuantity(), actual.getQuantity());
+			assertEquals(expected.getPurchasePrice(), actual.getPurchasePrice());
+			assertEquals(expected.getBucketEnum(), actual.getBucketEnum());
+			assertEquals(expected.getPurchaseDate(), actual.getPurchaseDate());
+			assertEquals(expected.getTotalDividends(), actual.getTotalDividends());
+			assertEquals(expected.getAccount() == null, actual.getAccount() == null);
+			
+			if (expected.getInvestment() == null || actual.getInvestment() == null) {
+				assertEquals(expected.getInvestment(), actual.getInvestment());
+			} else {
+				assertEquals(expected.getInvestment().getInvestmentId(), actual.getInvestment().getInvestmentId());
+				assertEquals(expected.getInvestment().getSymbol(), actual.getInvestment().getSymbol());
+				assertEquals(expected.getInvestment().getQuotes(), actual.getInvestment().getQuotes());
+			}
+			
+			if (expected.getTransactions() == null || actual.getTransactions() == null) {
+				assertEquals(expected.getTransactions(), actual.getTransactions());
+			} else {
+				assertEquals(expected.getTransactions().size(), actual.getTransactions().size());
+				for (int i=0; i<expected.getTransactions().size(); i++) {
+					TransactionDTO expectedTransaction = expected.getTransactions().get(i);
+					TransactionDTO actualTransaction = actual.getTransactions().get(i);
+					assertEquals(expectedTransaction.getTransactionId(), actualTransaction.getTransactionId());
+					assertEquals(expectedTransaction.getTransactionType(), actualTransaction.getTransactionType());
+					assertEquals(expectedTransaction.getTradePrice(), actualTransaction.getTradePrice());
+					assertEquals(expectedTransaction.getDividend(), actualTransaction.getDividend());
+				}
+			}
+		}
+	}
+	
+	private void evalTransactionsEquivalent(Transaction expected, Transaction actual) {
+		
+		if (expected == null || actual == null) {
+			assertEquals(expected, actual);
+		} else {
+			assertEquals(expected.getTransactionId(), actual.getTransactionId());
+			assertEquals(expected.getAssociatedCashTransactionId(), actual.getAssociatedCashTransactionId());
+			assertEquals(expected.getTransactionDate(), actual.getTransactionDate());
+			assertEquals(expected.getTradePrice(), actual.getTradePrice());
+			assertEquals(expected.getTradeQuantity(), actual.getTradeQuantity());
+			assertEquals(expected.getTransactionType(), actual.getTransactionType());
+			assertEquals(expected.getDividend(), actual.getDividend());
+			assertEquals(expected.getInvestment(), actual.getInvestment());
+			assertEquals(expected.getHolding() == null, actual.getHolding() == null);
+			assertEquals(expected.getAccount() == null, actual.getAccount() == null);
+			if (expected.getHolding() != null) {
+				assertEquals(expected.getHolding().getHoldingId(), actual.getHolding().getHoldingId());
+			}
+			if (expected.getAccount() != null) {
+				assertEquals(expected.getAccount().getAccountId(), actual.getAccount().getAccountId());
+			}
+		}
+	}
 	
 	private void evalInvestmentAndInvestmentDTOEqual(Investment investment, InvestmentDTO investmentData) {
 		
@@ -0,0 +1,6 @@
+CREATE TABLE holdings (holding_id BIGINT PRIMARY KEY, investment_investment_id BIGINT, bucket_enum INTEGER);
+CREATE TABLE transactions (transaction_id BIGINT PRIMARY KEY, holding_holding_id BIGINT, transaction_date TIMESTAMP,
+	trade_price REAL, trade_quantity REAL, transaction_type VARCHAR(32));
+CREATE TABLE quotes (quote_id BIGINT PRIMARY KEY, investment_id BIGINT, quote_date TIMESTAMP, price_at_close REAL);
+CREATE TABLE bucket_summation_snapshots (snap_shot_date TIMESTAMP PRIMARY KEY, bucket_1_total REAL, bucket_2_total REAL,
+	bucket_3_total REAL, excluded_bucket_total REAL);
@@ -0,0 +1 @@
+CREATE TABLE quotes (quote_id BIGINT PRIMARY KEY, investment_id BIGINT, quote_date TIMESTAMP, price_at_close REAL);